@@ -2,203 +2,290 @@ package edublt.com.locationapi;
 
 import android.app.AlertDialog;
 import android.content.Context;
+import android.content.DialogInterface;
 import android.content.SharedPreferences;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.location.GnssStatus;
-import android.location.Location;
 import android.preference.PreferenceManager;
 import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
 import android.view.View;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.text.DecimalFormatSymbols;
 
-public class EsferaCelesteView extends View {
-    private GnssStatus newStatus;
-    private Paint paint;
-    private int r; // Raio da esfera
-    private int height, width; // Altura e largura da tela
-    private double latitude;
-    private double longitude;
-    private double altitude;
-    private String filterConstellation = "ALL"; // Filtro para constelações de satélite
-    private boolean filterUsedInFix = false; // Filtro para satélites usados na localização
-
-    private List<SatelliteInfo> satelliteInfoList = new ArrayList<>(); // Lista de satélites
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.CoordinateFormatter;
+import edublt.com.locationapi.core.DopEngine;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.GnssBand;
+import edublt.com.locationapi.core.LocationFormat;
+import edublt.com.locationapi.core.SatelliteHistory;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+import edublt.com.locationapi.core.SkyHeatmap;
+import edublt.com.locationapi.core.SkyHitGrid;
 
-    // Variável para armazenar o texto formatado
-    private String formattedText;
+public class EsferaCelesteView extends View {
+    // Todo o desenho fica no SkyPlotRenderer; a view guarda o que os toques e os diálogos usam
+    private final SkyPlotRenderer renderer = new SkyPlotRenderer();
+    private PlotRenderThread renderThread; // Não nulo quando o céu é desenhado numa TextureView
+    private SatelliteSnapshot snapshot; // Último retrato entregue pela GnssIngestion
+    private FilterEngine filterEngine; // Índices filtrados do retrato, compartilhados com a SignalQualityView
+    private SatelliteHistory history;
+    private DopEngine dopEngine;
+    private long observerSequence; // Última localização entregue à previsão
+    private final CoordinateFormatter detailsFormatter =
+            new CoordinateFormatter(DecimalFormatSymbols.getInstance().getDecimalSeparator());
+
+    // Toques: um único GestureDetector, criado no construtor. O texto de localização (com
+    // os DOPs) abre o seletor de formato; no céu, o satélite filtrado mais próximo é
+    // buscado na SkyHitGrid, refeita só quando o retrato ou o filtro mudam.
+    private static final float TOUCH_RADIUS_DP = 24;
+    private final GestureDetector gestureDetector;
+    private final SkyHitGrid hitGrid = new SkyHitGrid(16);
+    private final float touchRadius; // Em pixels
+
+    // Previsão pelo almanaque (SkyPredictionWorker), copiada para o renderizador a cada atualização
+    private SkyPredictionWorker skyPrediction;
 
     private static final String PREFS_KEY_FORMAT = "location_format";
 
     public EsferaCelesteView(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
-        paint = new Paint(); // Inicializando a ferramenta de pintura
+        // Formato salvo, lido das preferências uma única vez
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
+        renderer.setLocationFormat(LocationFormat.valueOf(prefs.getString(PREFS_KEY_FORMAT, LocationFormat.DEGREES.name())));
+
+        touchRadius = TOUCH_RADIUS_DP * context.getResources().getDisplayMetrics().density;
+        gestureDetector = new GestureDetector(context, gestureListener);
     }
 
     @Override
-    protected void onDraw(@NonNull Canvas canvas) {
-        super.onDraw(canvas);
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        renderer.setSize(w, h);
+    }
 
-        // Coletando informações do tamanho da tela de desenho
-        width = getMeasuredWidth();
-        height = getMeasuredHeight();
-
-        // Definindo o raio da esfera celeste
-        if (width < height)
-            r = (int) (width / 2 * 0.9);
-        else
-            r = (int) (height / 2 * 0.9);
-
-        // Configurando o pincel para desenhar a projeção da esfera celeste
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(5);
-        paint.setColor(Color.BLUE);
-
-        // Desenhando a projeção da esfera celeste com círculos concêntricos
-        int radius = r;
-        canvas.drawCircle(computeXc(0), computeYc(0), radius, paint);
-        radius = (int) (radius * Math.cos(Math.toRadians(45)));
-        canvas.drawCircle(computeXc(0), computeYc(0), radius, paint);
-        radius = (int) (radius * Math.cos(Math.toRadians(60)));
-        canvas.drawCircle(computeXc(0), computeYc(0), radius, paint);
-
-        // Desenhando os eixos
-        canvas.drawLine(computeXc(0), computeYc(-r), computeXc(0), computeYc(r), paint);
-        canvas.drawLine(computeXc(-r), computeYc(0), computeXc(r), computeYc(0), paint);
-
-        // Configurando o pincel para desenhar os satélites
-        paint.setColor(Color.RED);
-        paint.setStyle(Paint.Style.FILL);
-
-        // Desenhando os satélites se o status do GNSS estiver disponível
-        if (newStatus != null) {
-            for (SatelliteInfo satInfo : satelliteInfoList) {
-                if (filterConstellation.equals("ALL") || satInfo.constellation.equals(filterConstellation)) {
-                    if (!filterUsedInFix || satInfo.usedInFix) {
-                        canvas.drawCircle(computeXc(satInfo.x), computeYc(satInfo.y), 10, paint);
-                        paint.setTextAlign(Paint.Align.LEFT);
-                        paint.setTextSize(30);
-                        String satDetails = satInfo.svid + " (" + satInfo.constellation + ") " + (satInfo.usedInFix ? "Used" : "Not Used");
-                        canvas.drawText(satDetails, computeXc(satInfo.x) + 10, computeYc(satInfo.y) + 10, paint);
-                    }
-                }
+    // Permite ao benchmark de renderização comparar com o desenho da grade a cada quadro
+    @VisibleForTesting
+    void setGridCacheEnabled(boolean enabled) {
+        renderer.setGridCacheEnabled(enabled);
+    }
+
+    SkyPlotRenderer getRenderer() {
+        return renderer;
+    }
+
+    // Com uma PlotRenderThread o céu é desenhado por ela, numa TextureView atrás desta view,
+    // com os retratos e os DOPs dela; os pedidos de redesenho (FrameScheduler, toques)
+    // continuam chegando por invalidate(). Chamado depois de a thread começar ou terminar.
+    void setRenderThread(PlotRenderThread renderThread) {
+        this.renderThread = renderThread;
+        if (renderThread == null) {
+            // De volta ao onDraw: o renderizador recebe de novo os dados desta view
+            renderer.setDopEngine(dopEngine);
+            if (snapshot != null) {
+                renderer.setSnapshot(snapshot, filterEngine);
             }
         }
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        if (renderThread != null) {
+            renderThread.requestFrame(PlotRenderThread.SKY);
+        } else {
+            renderer.draw(canvas);
+        }
+        if (HotPathMetrics.enabled) {
+            HotPathMetrics.frameDrawn(); // Com a TextureView, o quadro acabou de ser pedido à thread
+        }
+    }
 
-        // Configurando o pincel para desenhar a posição do usuário
-        paint.setColor(Color.GREEN);
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setTextSize(30);
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        return gestureDetector.onTouchEvent(event) || super.onTouchEvent(event);
+    }
 
-        // Use o texto formatado armazenado
-        if (formattedText != null) {
-            adjustTextSize(paint, width, formattedText); // Ajustando o tamanho do texto
-            canvas.drawText(formattedText, computeXc(0), computeYc(-r - 50), paint); // Desenhando a posição do usuário
+    private final GestureDetector.SimpleOnGestureListener gestureListener = new GestureDetector.SimpleOnGestureListener() {
+        @Override
+        public boolean onDown(MotionEvent e) {
+            return true;
         }
 
-        // Adiciona um Listener para o texto de localização
-        setOnClickListener(v -> showFormatSelectionDialog());
+        @Override
+        public boolean onSingleTapUp(MotionEvent e) {
+            return onTap(e.getX(), e.getY());
+        }
+    };
+
+    // Trata um toque em coordenadas da view; retorna se ele abriu algum diálogo
+    @VisibleForTesting
+    boolean onTap(float x, float y) {
+        float textTop = renderer.getLocationTextTop(), textBottom = renderer.getLocationTextBottom();
+        if (textBottom > textTop && y >= textTop && y <= textBottom) {
+            showFormatSelectionDialog();
+            return true;
+        }
+        int i = pickSatellite(x, y);
+        if (i == SkyHitGrid.NONE) {
+            return false;
+        }
+        showSatelliteDetails(i);
+        return true;
     }
 
-    // Ajusta o tamanho do texto de acordo com a largura disponível
-    private void adjustTextSize(Paint paint, int width, String text) {
-        paint.setTextSize(40); // Tamanho inicial do texto
-        float textWidth = paint.measureText(text);
-        while (textWidth > width && paint.getTextSize() > 0) {
-            paint.setTextSize(paint.getTextSize() - 1);
-            textWidth = paint.measureText(text);
+    // Índice no retrato do satélite filtrado mais próximo do ponto (em pixels da view), a
+    // até touchRadius; SkyHitGrid.NONE se não houver nenhum
+    @VisibleForTesting
+    int pickSatellite(float x, float y) {
+        int r = renderer.getRadius();
+        if (snapshot == null || filterEngine == null || r == 0) {
+            return SkyHitGrid.NONE;
         }
+        hitGrid.update(snapshot, filterEngine);
+        return hitGrid.nearest((x - renderer.getWidth() / 2) / r, (renderer.getHeight() / 2 - y) / r, touchRadius / r);
     }
 
-    // Calcula a posição X do centro da tela
-    private int computeXc(double x) {
-        return (int) (x + width / 2);
+    // Detalhes de um satélite: posição, C/N0 atual, uso no fix e o resumo do C/N0 no histórico.
+    // O satélite fica destacado no céu enquanto o diálogo está aberto.
+    private void showSatelliteDetails(int i) {
+        byte constellation = snapshot.getConstellation(i);
+        int svid = snapshot.getSvid(i);
+        byte band = snapshot.getBand(i);
+        renderer.setSelectedKey(SatelliteHistory.key(constellation, svid, band));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Elevação: ");
+        detailsFormatter.appendFixed(sb, snapshot.getElevationDegrees(i), 1);
+        sb.append("°\nAzimute: ");
+        detailsFormatter.appendFixed(sb, snapshot.getAzimuthDegrees(i), 1);
+        sb.append("°\nC/N0: ");
+        detailsFormatter.appendFixed(sb, snapshot.getCn0DbHz(i), 1);
+        sb.append(" dB-Hz\nUsado no fix: ").append(snapshot.isUsedInFix(i) ? "sim" : "não");
+        appendCn0History(sb, i);
+
+        String title = Constellation.name(constellation) + " " + svid
+                + (band == GnssBand.UNKNOWN ? "" : " " + GnssBand.name(band));
+        new AlertDialog.Builder(getContext())
+                .setTitle(title)
+                .setMessage(sb)
+                .setPositiveButton("Fechar", null)
+                .setOnDismissListener(new DialogInterface.OnDismissListener() {
+                    @Override
+                    public void onDismiss(DialogInterface dialog) {
+                        renderer.setSelectedKey(SkyPlotRenderer.NO_SELECTION);
+                        invalidate();
+                    }
+                })
+                .show();
+        invalidate();
     }
 
-    // Calcula a posição Y do centro da tela
-    private int computeYc(double y) {
-        return (int) (-y + height / 2);
+    // Mínimo, média e máximo do C/N0 do satélite na janela do histórico
+    private void appendCn0History(StringBuilder sb, int i) {
+        if (history == null) {
+            return;
+        }
+        float min = Float.MAX_VALUE, max = 0, sum = 0;
+        int n = 0;
+        // O histórico é gravado na thread que publica os retratos
+        synchronized (history) {
+            int track = history.findTrack(snapshot, i);
+            int samples = track == SatelliteHistory.NO_TRACK ? 0 : history.getSampleCount(track);
+            for (int j = 0; j < samples; j++) {
+                float cn0 = history.getCn0DbHz(track, j);
+                if (cn0 > 0) {
+                    min = Math.min(min, cn0);
+                    max = Math.max(max, cn0);
+                    sum += cn0;
+                    n++;
+                }
+            }
+        }
+        sb.append("\n\nC/N0 nos últimos ").append(history.getWindowMillis() / 60_000).append(" min: ");
+        if (n == 0) {
+            sb.append("sem amostras");
+            return;
+        }
+        sb.append("mín ");
+        detailsFormatter.appendFixed(sb, min, 1);
+        sb.append(", média ");
+        detailsFormatter.appendFixed(sb, sum / n, 1);
+        sb.append(", máx ");
+        detailsFormatter.appendFixed(sb, max, 1);
+        sb.append(" (").append(n).append(" amostras)");
     }
 
-    // Define o novo status GNSS e atualiza a lista de satélites
-    public void setNewStatus(GnssStatus newStatus) {
-        this.newStatus = newStatus;
-        satelliteInfoList.clear();
-        for (int i = 0; i < newStatus.getSatelliteCount(); i++) {
-            float az = newStatus.getAzimuthDegrees(i);
-            float el = newStatus.getElevationDegrees(i);
-            float x = (float) (r * Math.cos(Math.toRadians(el)) * Math.sin(Math.toRadians(az)));
-            float y = (float) (r * Math.cos(Math.toRadians(el)) * Math.cos(Math.toRadians(az)));
-            String constellation = getConstellation(newStatus.getConstellationType(i));
-            boolean usedInFix = newStatus.usedInFix(i);
-            float snr = newStatus.getCn0DbHz(i);
-            satelliteInfoList.add(new SatelliteInfo(newStatus.getSvid(i), constellation, usedInFix, x, y, snr));
+    // Define o novo retrato (satélites e localização) entregue pela ingestão, uma vez por quadro,
+    // junto com o filtro já avaliado para ele. O redesenho é decidido pelo FrameScheduler.
+    // Com uma PlotRenderThread o retrato só serve aos toques: o renderizador usa o dela.
+    public void setSnapshot(SatelliteSnapshot snapshot, FilterEngine filterEngine) {
+        this.snapshot = snapshot;
+        this.filterEngine = filterEngine;
+        if (renderThread == null) {
+            renderer.setSnapshot(snapshot, filterEngine);
+        }
+        if (skyPrediction != null && snapshot.hasLocation() && snapshot.getLocationSequence() != observerSequence) {
+            // A nova localização passa a ser o observador da previsão
+            observerSequence = snapshot.getLocationSequence();
+            skyPrediction.setObserver(snapshot.getLatitude(), snapshot.getLongitude(), snapshot.getAltitude());
         }
-        invalidate(); // Solicita que a tela seja redesenhada
     }
 
-    // Define a nova localização do usuário e atualiza a tela
-    public void setNewLocation(Location location) {
-        this.latitude = location.getLatitude();
-        this.longitude = location.getLongitude();
-        this.altitude = location.getAltitude();
+    // Fonte da previsão pelo almanaque; recebe as localizações para usar como observador
+    public void setSkyPrediction(SkyPredictionWorker skyPrediction) {
+        this.skyPrediction = skyPrediction;
+    }
 
-        // Carrega o formato atual das SharedPreferences antes de atualizar o texto
-        updateLocationTextFormat(LocationFormat.valueOf(getSavedLocationFormat())); // Define o formato com base no salvo
-        invalidate(); // Solicita que a tela seja redesenhada
+    // Há uma janela nova na thread de previsão; quem desenha a busca no próximo quadro
+    void updatePrediction() {
+        if (skyPrediction != null) {
+            renderer.updatePrediction(skyPrediction);
+        }
     }
 
-    // Método para obter o formato salvo das SharedPreferences
-    private String getSavedLocationFormat() {
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(getContext());
-        return prefs.getString(PREFS_KEY_FORMAT, LocationFormat.DEGREES.name());
+    // Mapa de C/N0 (SkyHeatmapController); desenhado só quando visível
+    public void setHeatmap(SkyHeatmap heatmap) {
+        renderer.setHeatmap(heatmap);
+        invalidate();
     }
 
-    // Define os filtros para exibição de satélites e atualiza a tela
-    public void setFilter(String constellation, boolean usedInFix) {
-        this.filterConstellation = constellation;
-        this.filterUsedInFix = usedInFix;
-        invalidate(); // Solicita que a tela seja redesenhada
+    public void setHeatmapVisible(boolean visible) {
+        renderer.setHeatmapVisible(visible);
+        invalidate();
     }
 
-    // Retorna a lista de satélites filtrada de acordo com os critérios de exibição
-    public List<SatelliteInfo> getFilteredSatelliteInfoList() {
-        List<SatelliteInfo> filteredList = new ArrayList<>();
-        for (SatelliteInfo satInfo : satelliteInfoList) {
-            if ((filterConstellation.equals("ALL") || satInfo.constellation.equals(filterConstellation)) &&
-                    (!filterUsedInFix || satInfo.usedInFix)) {
-                filteredList.add(satInfo);
-            }
-        }
-        return filteredList;
+    public boolean isHeatmapVisible() {
+        return renderer.isHeatmapVisible();
     }
 
-    // Retorna o filtro de constelação atual
-    public String getCurrentConstellationFilter() {
-        return filterConstellation;
+    // Histórico usado para desenhar as trilhas (gravado a cada status, com trava no próprio objeto)
+    public void setHistory(SatelliteHistory history) {
+        this.history = history;
+        renderer.setHistory(history);
+        invalidate();
     }
 
-    // Retorna o nome da constelação com base no tipo de constelação GNSS
-    private String getConstellation(int constellationType) {
-        switch (constellationType) {
-            case GnssStatus.CONSTELLATION_GPS:
-                return "GPS";
-            case GnssStatus.CONSTELLATION_GLONASS:
-                return "Glonass";
-            case GnssStatus.CONSTELLATION_GALILEO:
-                return "Galileo";
-            default:
-                return "Other";
+    // DOPs recalculados pela atividade a cada retrato
+    public void setDopEngine(DopEngine dopEngine) {
+        this.dopEngine = dopEngine;
+        if (renderThread == null) {
+            renderer.setDopEngine(dopEngine);
         }
     }
 
-    // Método para exibir o diálogo de seleção de formato
+    // Retorna o retrato de satélites atual, compartilhado com as outras views
+    public SatelliteSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // Método para exibir o diálogo de seleção de formato (toque no texto de localização)
     private void showFormatSelectionDialog() {
         String[] formats = {
                 "Graus [+/-DDD.DDDDD]",
@@ -225,7 +312,7 @@ public class EsferaCelesteView extends View {
                     }
                     // Salvar o formato selecionado nas SharedPreferences
                     saveLocationFormat(selectedFormat);
-                    updateLocationTextFormat(selectedFormat); // Atualizar a exibição com o formato selecionado
+                    renderer.setLocationFormat(selectedFormat); // Atualizar a exibição com o formato selecionado
                     invalidate(); // Solicita que a tela seja redesenhada
                 })
                 .show();
@@ -238,62 +325,4 @@ public class EsferaCelesteView extends View {
         editor.putString(PREFS_KEY_FORMAT, format.name());
         editor.apply();
     }
-
-    // Atualiza o texto formatado de acordo com o formato selecionado
-    private void updateLocationTextFormat(LocationFormat format) {
-        switch (format) {
-            case DEGREES:
-                formattedText = String.format("Lat: %.5f, Long: %.5f, Alt: %.2f", latitude, longitude, altitude);
-                break;
-            case DEGREES_MINUTES:
-                formattedText = String.format("Lat: %s, Long: %s, Alt: %.2f",
-                        convertToDegreesMinutes(latitude), convertToDegreesMinutes(longitude), altitude);
-                break;
-            case DEGREES_MINUTES_SECONDS:
-                formattedText = String.format("Lat: %s, Long: %s, Alt: %.2f",
-                        convertToDegreesMinutesSeconds(latitude), convertToDegreesMinutesSeconds(longitude), altitude);
-                break;
-        }
-    }
-
-    // Método para converter graus para graus-minutos
-    private String convertToDegreesMinutes(double value) {
-        int degrees = (int) value;
-        double minutes = Math.abs((value - degrees) * 60);
-        return String.format("%d°%.5f'", degrees, minutes);
-    }
-
-    // Método para converter graus para graus-minutos-segundos
-    private String convertToDegreesMinutesSeconds(double value) {
-        int degrees = (int) value;
-        double minutes = Math.abs((value - degrees) * 60);
-        int intMinutes = (int) minutes;
-        double seconds = (minutes - intMinutes) * 60;
-        return String.format("%d°%d'%.2f\"", degrees, intMinutes, seconds);
-    }
-
-    // Classe interna para informações do satélite
-    public static class SatelliteInfo {
-        int svid; // ID do satélite
-        String constellation; // Constelação do satélite
-        boolean usedInFix; // Indica se o satélite é usado na localização
-        float x, y; // Posições do satélite
-        float snr; // Qualidade do sinal
-
-        SatelliteInfo(int svid, String constellation, boolean usedInFix, float x, float y, float snr) {
-            this.svid = svid;
-            this.constellation = constellation;
-            this.usedInFix = usedInFix;
-            this.x = x;
-            this.y = y;
-            this.snr = snr;
-        }
-    }
-
-    // Enum para os formatos de localização
-    private enum LocationFormat {
-        DEGREES,
-        DEGREES_MINUTES,
-        DEGREES_MINUTES_SECONDS
-    }
 }
@@ -0,0 +1,116 @@
+package edublt.com.locationapi;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.PowerManager;
+import android.view.Choreographer;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import edublt.com.locationapi.core.FrameGovernor;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
+// Único ponto que invalida as duas views. Retratos novos e mudanças de filtro ou
+// formato só marcam as views como sujas; o FrameGovernor decide quando redesenhar
+// (no máximo uma vez por vsync, ignorando retratos de conteúdo repetido e respeitando
+// o limite de fps). Quadros adiados pelo limite são remarcados pelo Choreographer.
+// No modo de economia de bateria o limite cai para POWER_SAVE_FPS.
+class FrameScheduler implements DefaultLifecycleObserver {
+    static final int SKY = 1;
+    static final int BARS = 2;
+    static final int ALL = SKY | BARS;
+
+    private static final int POWER_SAVE_FPS = 10;
+
+    private final Context context;
+    private final View skyView;
+    private final View barsView;
+    private final FrameGovernor governor = new FrameGovernor(ALL);
+    private boolean framePosted;
+    private volatile int maxFps; // Também lido pela PlotRenderThread
+
+    FrameScheduler(Context context, View skyView, View barsView) {
+        this.context = context.getApplicationContext();
+        this.skyView = skyView;
+        this.barsView = barsView;
+    }
+
+    // Chamado a cada retrato entregue pela ingestão
+    void onSnapshot(SatelliteSnapshot snapshot) {
+        if (governor.offerContent(snapshot.contentHash())) {
+            render(System.nanoTime());
+        } else if (HotPathMetrics.enabled) {
+            HotPathMetrics.frameSkipped();
+        }
+    }
+
+    // Redesenha as views indicadas mesmo sem retrato novo (filtro, formato...)
+    void invalidate(int targets) {
+        governor.invalidate(targets);
+        render(System.nanoTime());
+    }
+
+    FrameGovernor getGovernor() {
+        return governor;
+    }
+
+    // Limite de fps atual (0 = sem limite); pode ser lido de qualquer thread
+    int getMaxFps() {
+        return maxFps;
+    }
+
+    private void render(long nowNanos) {
+        int targets = governor.onFrame(nowNanos);
+        if ((targets & SKY) != 0) {
+            skyView.invalidate();
+        }
+        if ((targets & BARS) != 0) {
+            barsView.invalidate();
+        }
+        // Ainda sujo: o limite de fps adiou o quadro
+        if (governor.isDirty() && !framePosted) {
+            framePosted = true;
+            long delayMillis = (governor.nanosUntilNextFrame(nowNanos) + 999_999) / 1_000_000;
+            Choreographer.getInstance().postFrameCallbackDelayed(deferredFrame, delayMillis);
+        }
+    }
+
+    private final Choreographer.FrameCallback deferredFrame = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            framePosted = false;
+            render(frameTimeNanos);
+        }
+    };
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        context.registerReceiver(powerSaveReceiver, new IntentFilter(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED));
+        applyPowerSaveMode();
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        context.unregisterReceiver(powerSaveReceiver);
+        Choreographer.getInstance().removeFrameCallback(deferredFrame);
+        framePosted = false;
+    }
+
+    private void applyPowerSaveMode() {
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        maxFps = powerManager != null && powerManager.isPowerSaveMode() ? POWER_SAVE_FPS : 0;
+        governor.setMaxFps(maxFps);
+    }
+
+    private final BroadcastReceiver powerSaveReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            applyPowerSaveMode();
+        }
+    };
+}
@@ -3,32 +3,72 @@ package edublt.com.locationapi;
 import android.app.AlertDialog;
 import android.content.DialogInterface;
 import android.os.Bundle;
+import android.preference.PreferenceManager;
+import android.view.TextureView;
 import android.view.View;
 import android.widget.Button;
-import android.widget.RadioButton;
-import android.widget.RadioGroup;
+import android.widget.CheckBox;
+import android.widget.SeekBar;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import android.content.Intent;
-import android.content.pm.PackageManager;
-import android.location.GnssStatus;
-import android.location.Location;
-import android.location.LocationListener;
-import android.location.LocationManager;
 import android.provider.Settings;
 
 import com.example.locationapi.R;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.util.List;
 
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.DopEngine;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.FrameGovernor;
+import edublt.com.locationapi.core.GnssLogReader;
+import edublt.com.locationapi.core.LocationSchedulePolicy;
+import edublt.com.locationapi.core.MeasurementPipeline;
+import edublt.com.locationapi.core.SatelliteFilter;
+import edublt.com.locationapi.core.SatelliteHistory;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
 public class GNSSActivity extends AppCompatActivity {
+    // Caixas do diálogo de filtro e a constelação correspondente a cada uma
+    private static final int[] FILTER_CHECK_IDS = {
+            R.id.check_gps, R.id.check_galileo, R.id.check_glonass, R.id.check_beidou,
+            R.id.check_qzss, R.id.check_sbas, R.id.check_irnss, R.id.check_other
+    };
+    private static final byte[] FILTER_CHECK_CONSTELLATIONS = {
+            Constellation.GPS, Constellation.GALILEO, Constellation.GLONASS, Constellation.BEIDOU,
+            Constellation.QZSS, Constellation.SBAS, Constellation.IRNSS, Constellation.UNKNOWN
+    };
+    private static final int REQUEST_LOCATION_PERMISSION = 1;
+    private static final long METRICS_REFRESH_MILLIS = 500; // Intervalo de atualização do overlay de métricas
+    private static final String PREFS_KEY_RENDER_THREAD = "render_thread";
+
     private EsferaCelesteView esferaCelesteView;
     private SignalQualityView signalQualityView;
-    private LocationManager locationManager;
+    private GnssSession gnssSession;
+    private FrameScheduler frameScheduler; // Decide quando as duas views são redesenhadas
+    private TextureView skyTexture;
+    private TextureView barsTexture;
+    private PlotRenderThread plotRenderThread; // Não nulo quando o céu e as barras são desenhados numa thread própria
+    private SkyPredictionWorker skyPredictionWorker;
+    private SkyHeatmapController heatmapController; // Mapa de C/N0 por região do céu nesta sessão
+    private Button buttonRecord;
+    private Button buttonReplay;
+    private Button buttonExport;
+    private TextView metricsOverlay;
+    private final StringBuilder metricsText = new StringBuilder();
+    private final FilterEngine filterEngine = new FilterEngine(); // Filtro compartilhado pelas duas views
+    // Últimos 30 minutos de cada sinal, uma amostra por segundo (trilhas e linhas de C/N0).
+    // Gravado na thread que publica os retratos; protegido por trava no próprio objeto.
+    private final SatelliteHistory satelliteHistory = new SatelliteHistory(192, 1800, 30 * 60 * 1000L);
+    private final DopEngine dopEngine = new DopEngine(); // Geometria dos satélites usados no fix
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -37,20 +77,41 @@ public class GNSSActivity extends AppCompatActivity {
 
         esferaCelesteView = findViewById(R.id.esferacelesteview_id);
         signalQualityView = findViewById(R.id.signal_quality_view);
-        locationManager = (LocationManager) getSystemService(LOCATION_SERVICE);
+        esferaCelesteView.setHistory(satelliteHistory);
+        signalQualityView.setHistory(satelliteHistory);
+        esferaCelesteView.setDopEngine(dopEngine);
+        frameScheduler = new FrameScheduler(this, esferaCelesteView, signalQualityView);
+        signalQualityView.setFrameScheduler(frameScheduler);
+        getLifecycle().addObserver(frameScheduler);
+        heatmapController = new SkyHeatmapController(this, esferaCelesteView, frameScheduler);
 
-        // Verifica permissões de localização
-        if (checkSelfPermission(android.Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED
-                && checkSelfPermission(android.Manifest.permission.ACCESS_COARSE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
-            requestPermissions(new String[]{android.Manifest.permission.ACCESS_FINE_LOCATION, android.Manifest.permission.ACCESS_COARSE_LOCATION}, 1);
-            return;
+        // Previsão da próxima hora a partir dos almanaques locais, numa thread própria
+        skyPredictionWorker = new SkyPredictionWorker(this, new SkyPredictionWorker.Listener() {
+            @Override
+            public void onPredictionUpdated() {
+                esferaCelesteView.updatePrediction();
+                frameScheduler.invalidate(FrameScheduler.SKY);
+            }
+        });
+        esferaCelesteView.setSkyPrediction(skyPredictionWorker);
+        getLifecycle().addObserver(skyPredictionWorker);
+
+        // Os callbacks rodam numa thread própria, apenas enquanto a tela está visível;
+        // as views recebem um retrato por quadro
+        gnssSession = new GnssSession(this, ingestionListener, sessionListener);
+        gnssSession.getIngestion().setStatusListener(statusListener);
+        getLifecycle().addObserver(gnssSession);
+
+        // Desenho numa thread própria (TextureView), escolhido no diálogo de métricas
+        skyTexture = findViewById(R.id.sky_texture);
+        barsTexture = findViewById(R.id.bars_texture);
+        if (PreferenceManager.getDefaultSharedPreferences(this).getBoolean(PREFS_KEY_RENDER_THREAD, false)) {
+            setRenderOnThread(true);
         }
 
-        try {
-            locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER, 1000, 1, locationListener);
-            locationManager.registerGnssStatusCallback(gnssStatusCallback);
-        } catch (SecurityException e) {
-            e.printStackTrace();
+        // Verifica permissões de localização; a sessão começa quando elas forem concedidas
+        if (!GnssSession.hasLocationPermission(this)) {
+            requestPermissions(new String[]{android.Manifest.permission.ACCESS_FINE_LOCATION, android.Manifest.permission.ACCESS_COARSE_LOCATION}, REQUEST_LOCATION_PERMISSION);
         }
 
         // Botão único para abrir o diálogo de filtro
@@ -61,49 +122,397 @@ public class GNSSActivity extends AppCompatActivity {
                 showFilterDialog();
             }
         });
+
+        // Gravação da sessão atual em arquivos binários
+        buttonRecord = findViewById(R.id.button_record);
+        buttonRecord.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                toggleRecording();
+            }
+        });
+
+        // Reprodução da última sessão gravada
+        buttonReplay = findViewById(R.id.button_replay);
+        buttonReplay.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                if (gnssSession.isReplaying()) {
+                    gnssSession.cancelReplay();
+                } else {
+                    showReplayDialog();
+                }
+            }
+        });
+
+        // Exportação para NMEA/CSV/GPX, escrita fora da thread principal
+        buttonExport = findViewById(R.id.button_export);
+        buttonExport.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                if (gnssSession.isExporting()) {
+                    gnssSession.stopExport();
+                    updateSessionButtons();
+                } else {
+                    showExportDialog();
+                }
+            }
+        });
+
+        // Perfil das localizações (taxa x bateria), aplicado pelo LocationScheduler
+        Button buttonProfile = findViewById(R.id.button_profile);
+        buttonProfile.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                showProfileDialog();
+            }
+        });
+
+        // Mapa de C/N0 do céu: mostrar, exportar e juntar com sessões exportadas antes
+        Button buttonHeatmap = findViewById(R.id.button_heatmap);
+        buttonHeatmap.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                heatmapController.showDialog(exportsDirectory());
+            }
+        });
+
+        // Instrumentação do caminho quente: overlay, relatório em arquivo e zerar
+        metricsOverlay = findViewById(R.id.metrics_overlay);
+        Button buttonMetrics = findViewById(R.id.button_metrics);
+        buttonMetrics.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                showMetricsDialog();
+            }
+        });
+    }
+
+    private void showMetricsDialog() {
+        String toggle = HotPathMetrics.enabled ? "Desativar métricas" : "Ativar métricas";
+        String renderMode = plotRenderThread != null ? "Desenhar na thread principal" : "Desenhar em thread própria (TextureView)";
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Métricas");
+        builder.setItems(new String[]{toggle, "Salvar relatório", "Zerar", renderMode}, new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                switch (which) {
+                    case 0:
+                        setMetricsEnabled(!HotPathMetrics.enabled);
+                        break;
+                    case 1:
+                        saveMetricsReport();
+                        break;
+                    case 2:
+                        HotPathMetrics.reset();
+                        break;
+                    default:
+                        boolean onThread = plotRenderThread == null;
+                        setRenderOnThread(onThread);
+                        PreferenceManager.getDefaultSharedPreferences(GNSSActivity.this).edit()
+                                .putBoolean(PREFS_KEY_RENDER_THREAD, onThread).apply();
+                        break;
+                }
+            }
+        });
+        builder.show();
+    }
+
+    // Alterna entre o onDraw das views e a PlotRenderThread. As views ficam por cima nos dois
+    // modos (toques, diálogos, invalidate()); com a thread, elas não desenham nada e as
+    // TextureViews por baixo mostram o resultado. A thread recebe os retratos direto da
+    // ingestão, começando pelo atual.
+    private void setRenderOnThread(boolean enabled) {
+        if (enabled == (plotRenderThread != null)) {
+            return;
+        }
+        GnssIngestion ingestion = gnssSession.getIngestion();
+        SatelliteSnapshot snapshot = esferaCelesteView.getSnapshot();
+        if (enabled) {
+            plotRenderThread = new PlotRenderThread(skyTexture, esferaCelesteView.getRenderer(),
+                    barsTexture, signalQualityView.getRenderer(), frameScheduler);
+            plotRenderThread.setFilter(filterEngine.getFilter());
+            if (snapshot != null) {
+                plotRenderThread.onSnapshotPublished(snapshot);
+            }
+            plotRenderThread.start();
+            ingestion.setSnapshotListener(plotRenderThread);
+        } else {
+            stopRenderThread();
+            // Os DOPs não são calculados aqui enquanto a thread desenha
+            if (snapshot != null) {
+                dopEngine.update(snapshot);
+            }
+        }
+        int visibility = enabled ? View.VISIBLE : View.GONE;
+        skyTexture.setVisibility(visibility);
+        barsTexture.setVisibility(visibility);
+        esferaCelesteView.setRenderThread(plotRenderThread);
+        signalQualityView.setRenderThread(plotRenderThread);
+        frameScheduler.invalidate(FrameScheduler.ALL);
+    }
+
+    private void showProfileDialog() {
+        String[] profiles = new String[LocationSchedulePolicy.PROFILE_COUNT];
+        for (int i = 0; i < profiles.length; i++) {
+            profiles[i] = LocationSchedulePolicy.profileName(i);
+        }
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Perfil de localização");
+        builder.setSingleChoiceItems(profiles, gnssSession.getLocationProfile(), new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                gnssSession.setLocationProfile(which);
+                dialog.dismiss();
+            }
+        });
+        builder.show();
+    }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode != REQUEST_LOCATION_PERMISSION) {
+            return;
+        }
+        if (GnssSession.hasLocationPermission(this)) {
+            gnssSession.onPermissionGranted();
+        } else {
+            Toast.makeText(this, "Sem permissão de localização não há dados ao vivo", Toast.LENGTH_LONG).show();
+        }
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        // A gravação e a reprodução terminam quando a tela sai de cena
+        updateSessionButtons();
+        if (HotPathMetrics.enabled) {
+            metricsOverlay.removeCallbacks(refreshMetricsOverlay);
+            refreshMetricsOverlay.run();
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        metricsOverlay.removeCallbacks(refreshMetricsOverlay);
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (plotRenderThread != null) {
+            stopRenderThread();
+        }
+    }
+
+    private void stopRenderThread() {
+        gnssSession.getIngestion().setSnapshotListener(null);
+        plotRenderThread.quit();
+        plotRenderThread = null;
+    }
+
+    private void updateSessionButtons() {
+        buttonRecord.setText(gnssSession.isRecording() ? "Parar" : "Gravar");
+        buttonRecord.setEnabled(!gnssSession.isReplaying());
+        buttonReplay.setText(gnssSession.isReplaying() ? "Parar" : "Reproduzir");
+        buttonExport.setText(gnssSession.isExporting() ? "Parar exp." : "Exportar");
+        buttonExport.setEnabled(!gnssSession.isReplaying());
+    }
+
+    // O overlay fica visível enquanto as métricas estão ligadas
+    private void setMetricsEnabled(boolean enabled) {
+        HotPathMetrics.setEnabled(enabled);
+        metricsOverlay.removeCallbacks(refreshMetricsOverlay);
+        if (enabled) {
+            metricsOverlay.setVisibility(View.VISIBLE);
+            refreshMetricsOverlay.run();
+        } else {
+            metricsOverlay.setVisibility(View.GONE);
+        }
+    }
+
+    private final Runnable refreshMetricsOverlay = new Runnable() {
+        @Override
+        public void run() {
+            buildMetricsReport();
+            metricsOverlay.setText(metricsText);
+            metricsOverlay.postDelayed(this, METRICS_REFRESH_MILLIS);
+        }
+    };
+
+    private void buildMetricsReport() {
+        metricsText.setLength(0);
+        GnssIngestion gnssIngestion = gnssSession.getIngestion();
+        metricsText.append("eventos: status=").append(gnssIngestion.getStatusEventCount())
+                .append(" localização=").append(gnssIngestion.getLocationEventCount())
+                .append(" quadros=").append(gnssIngestion.getDeliveredCount())
+                .append(" coalescidos=").append(gnssIngestion.getCoalescedCount()).append('\n');
+        MeasurementPipeline measurements = gnssIngestion.getMeasurementPipeline();
+        metricsText.append("medições=").append(measurements.getOfferedCount())
+                .append(" descartadas=").append(measurements.getDroppedCount())
+                .append(" fila máx=").append(measurements.getHighWatermark()).append('/').append(measurements.getCapacity())
+                .append(" épocas=").append(measurements.getEpochCount())
+                .append(" multicaminho=").append(measurements.getMultipathCount()).append('\n');
+        gnssSession.getLocationPolicy().appendReport(metricsText);
+        FrameGovernor governor = frameScheduler.getGovernor();
+        metricsText.append("redesenhos=").append(governor.getRenderedFrames())
+                .append(" repetidos=").append(governor.getUnchangedContent())
+                .append(" adiados=").append(governor.getDeferredFrames())
+                .append(" limite=").append(governor.getMaxFps()).append(" fps")
+                .append(plotRenderThread != null ? " (thread própria)\n" : "\n");
+        HotPathMetrics.appendReport(metricsText);
+    }
+
+    // Grava o relatório atual num arquivo de texto, fora da thread principal
+    private void saveMetricsReport() {
+        buildMetricsReport();
+        final String report = metricsText.toString();
+        File directory = getExternalFilesDir(null);
+        final File file = new File(directory != null ? directory : getFilesDir(), "metrics-" + System.currentTimeMillis() + ".txt");
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                String message;
+                try (FileWriter writer = new FileWriter(file)) {
+                    writer.write(report);
+                    message = "Relatório salvo em " + file.getAbsolutePath();
+                } catch (IOException e) {
+                    message = "Falha ao salvar o relatório: " + e.getMessage();
+                }
+                final String toast = message;
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Toast.makeText(GNSSActivity.this, toast, Toast.LENGTH_LONG).show();
+                    }
+                });
+            }
+        }, "metrics-dump").start();
+    }
+
+    private File exportsDirectory() {
+        File base = getExternalFilesDir(null);
+        return new File(base != null ? base : getFilesDir(), "exports");
+    }
+
+    private File sessionsDirectory() {
+        return new File(getFilesDir(), "sessions");
+    }
+
+    private void toggleRecording() {
+        if (gnssSession.isRecording()) {
+            gnssSession.stopRecording();
+        } else if (!gnssSession.startRecording(sessionsDirectory())) {
+            Toast.makeText(this, "A gravação só é possível com dados ao vivo", Toast.LENGTH_SHORT).show();
+        }
+        updateSessionButtons();
+    }
+
+    // Pergunta a velocidade e reproduz a sessão gravada mais recente
+    private void showReplayDialog() {
+        final File directory = sessionsDirectory();
+        List<String> sessions = GnssLogReader.listSessions(directory);
+        if (sessions.isEmpty()) {
+            Toast.makeText(this, "Nenhuma sessão gravada", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        final String session = sessions.get(sessions.size() - 1);
+        final float[] speeds = {1f, 10f, GnssReplayer.MAX_SPEED};
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Reproduzir " + session);
+        builder.setItems(new String[]{"1x", "10x", "Velocidade máxima"}, new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                // Os dados ao vivo (e uma gravação em andamento) param durante a reprodução
+                gnssSession.startReplay(GnssLogReader.segmentsOf(directory, session), speeds[which]);
+                updateSessionButtons();
+            }
+        });
+        builder.show();
+    }
+
+    // Escolha dos formatos de exportação; os arquivos vão para exports/ nos arquivos externos do app
+    private void showExportDialog() {
+        final boolean[] checked = {true, true, true, false};
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Exportar");
+        builder.setMultiChoiceItems(new String[]{"NMEA", "CSV", "GPX", "Compactar (gzip)"}, checked,
+                new DialogInterface.OnMultiChoiceClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which, boolean isChecked) {
+                        checked[which] = isChecked;
+                    }
+                });
+        builder.setPositiveButton("Iniciar", new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                int formats = (checked[0] ? GnssIngestion.EXPORT_NMEA : 0)
+                        | (checked[1] ? GnssIngestion.EXPORT_CSV : 0)
+                        | (checked[2] ? GnssIngestion.EXPORT_GPX : 0);
+                if (!gnssSession.startExport(exportsDirectory(), formats, checked[3])) {
+                    Toast.makeText(GNSSActivity.this, "A exportação só é possível com dados ao vivo e ao menos um formato",
+                            Toast.LENGTH_SHORT).show();
+                }
+                updateSessionButtons();
+            }
+        });
+        builder.setNegativeButton("Cancelar", null);
+        builder.show();
+    }
+
+    private final GnssSession.Listener sessionListener = new GnssSession.Listener() {
+        @Override
+        public void onReplayFinished(long records) {
+            updateSessionButtons();
+            Toast.makeText(GNSSActivity.this, "Reprodução encerrada (" + records + " registros)", Toast.LENGTH_SHORT).show();
+        }
+    };
+
     // Método para exibir o diálogo de filtro com opções de satélite
     private void showFilterDialog() {
+        final SatelliteFilter current = filterEngine.getFilter();
+        SatelliteSnapshot snapshot = esferaCelesteView.getSnapshot();
+        int total = snapshot == null ? 0 : snapshot.getCount();
+
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
-        builder.setTitle("Selecione o tipo de satélite");
+        builder.setTitle("Selecione o tipo de satélite (" + filterEngine.getCount() + " de " + total + " exibidos)");
 
         final View customLayout = getLayoutInflater().inflate(R.layout.dialog_filter_options, null);
         builder.setView(customLayout);
 
-        RadioGroup radioGroup = customLayout.findViewById(R.id.radio_group);
+        // Preenche o diálogo com o filtro atual
+        final CheckBox[] constellationChecks = new CheckBox[FILTER_CHECK_IDS.length];
+        for (int i = 0; i < FILTER_CHECK_IDS.length; i++) {
+            constellationChecks[i] = customLayout.findViewById(FILTER_CHECK_IDS[i]);
+            constellationChecks[i].setChecked(current.includes(FILTER_CHECK_CONSTELLATIONS[i]));
+        }
+        final CheckBox usedCheck = customLayout.findViewById(R.id.check_used);
+        usedCheck.setChecked(current.isUsedInFixOnly());
+        final SeekBar elevationSeek = customLayout.findViewById(R.id.seek_min_elevation);
+        final TextView elevationText = customLayout.findViewById(R.id.text_min_elevation);
+        elevationSeek.setProgress(Math.max(0, (int) current.getMinElevationDegrees()));
+        final SeekBar cn0Seek = customLayout.findViewById(R.id.seek_min_cn0);
+        final TextView cn0Text = customLayout.findViewById(R.id.text_min_cn0);
+        cn0Seek.setProgress((int) current.getMinCn0DbHz());
+        bindSeekLabel(elevationSeek, elevationText, "Elevação mínima: %d°");
+        bindSeekLabel(cn0Seek, cn0Text, "C/N0 mínimo: %d dB-Hz");
 
         builder.setPositiveButton("OK", new DialogInterface.OnClickListener() {
             @Override
             public void onClick(DialogInterface dialog, int which) {
-                int selectedId = radioGroup.getCheckedRadioButtonId();
-                RadioButton selectedButton = customLayout.findViewById(selectedId);
-                String filter = "ALL";
-                boolean usedOnly = false;
-
-                if (selectedButton != null) {
-                    switch (selectedButton.getText().toString()) {
-                        case "Todos":
-                            filter = "ALL";
-                            break;
-                        case "GPS":
-                            filter = "GPS";
-                            break;
-                        case "Galileo":
-                            filter = "Galileo";
-                            break;
-                        case "Glonass":
-                            filter = "Glonass";
-                            break;
-                        case "Usados":
-                            filter = esferaCelesteView.getCurrentConstellationFilter();
-                            usedOnly = true;
-                            break;
+                int mask = 0;
+                for (int i = 0; i < constellationChecks.length; i++) {
+                    if (constellationChecks[i].isChecked()) {
+                        mask |= Constellation.mask(FILTER_CHECK_CONSTELLATIONS[i]);
                     }
-
-                    esferaCelesteView.setFilter(filter, usedOnly);
-                    updateSignalQualityView();
                 }
+                // Sem elevação mínima o filtro também aceita satélites abaixo do horizonte
+                float minElevation = elevationSeek.getProgress() == 0 ? -90f : elevationSeek.getProgress();
+                filterEngine.setFilter(new SatelliteFilter(mask, minElevation, cn0Seek.getProgress(), usedCheck.isChecked()));
+                refreshViews();
             }
         });
 
@@ -117,34 +526,69 @@ public class GNSSActivity extends AppCompatActivity {
         builder.show();
     }
 
-    private void updateSignalQualityView() {
-        List<SignalQualityView.SatelliteInfo> satelliteInfoList = new ArrayList<>();
-        for (EsferaCelesteView.SatelliteInfo satInfo : esferaCelesteView.getFilteredSatelliteInfoList()) {
-            satelliteInfoList.add(new SignalQualityView.SatelliteInfo(satInfo.svid, satInfo.snr));
+    // Mantém o texto acima da barra sincronizado com o valor escolhido
+    private void bindSeekLabel(SeekBar seekBar, final TextView label, final String format) {
+        label.setText(String.format(format, seekBar.getProgress()));
+        seekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                label.setText(String.format(format, progress));
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
+            }
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
+            }
+        });
+    }
+
+    // Avalia o filtro uma vez para o retrato atual e entrega o resultado às duas views
+    // (com a PlotRenderThread, o filtro também é avaliado por ela)
+    private void refreshViews() {
+        SatelliteSnapshot snapshot = esferaCelesteView.getSnapshot();
+        if (snapshot != null) {
+            filterEngine.update(snapshot);
+        }
+        if (plotRenderThread != null) {
+            plotRenderThread.setFilter(filterEngine.getFilter());
         }
-        signalQualityView.setSatelliteInfoList(satelliteInfoList);
+        frameScheduler.invalidate(FrameScheduler.ALL);
     }
 
-    private final LocationListener locationListener = new LocationListener() {
+    // Cada status, ao vivo ou reproduzido, entra no histórico e no mapa de C/N0, mesmo os
+    // que não chegam a ser desenhados. O retrato de aquecimento (cache) não é um status novo.
+    private final GnssIngestion.StatusListener statusListener = new GnssIngestion.StatusListener() {
         @Override
-        public void onLocationChanged(@NonNull Location location) {
-            esferaCelesteView.setNewLocation(location);
-            updateSignalQualityView();
+        public void onStatus(SatelliteSnapshot status) {
+            synchronized (satelliteHistory) {
+                satelliteHistory.record(status);
+            }
+            heatmapController.addStatus(status);
         }
+    };
 
+    private final GnssIngestion.Listener ingestionListener = new GnssIngestion.Listener() {
         @Override
-        public void onProviderDisabled(@NonNull String provider) {
-            Toast.makeText(GNSSActivity.this, "Por favor, ative os serviços de localização", Toast.LENGTH_SHORT).show();
-            Intent intent = new Intent(Settings.ACTION_LOCATION_SOURCE_SETTINGS);
-            startActivity(intent);
+        public void onSnapshot(SatelliteSnapshot snapshot) {
+            // Com a PlotRenderThread, os DOPs e os quadros vêm dela; aqui o retrato só serve
+            // aos toques e aos diálogos
+            filterEngine.update(snapshot);
+            esferaCelesteView.setSnapshot(snapshot, filterEngine);
+            signalQualityView.setSnapshot(snapshot, filterEngine);
+            if (plotRenderThread == null) {
+                dopEngine.update(snapshot);
+                frameScheduler.onSnapshot(snapshot);
+            }
         }
-    };
 
-    private final GnssStatus.Callback gnssStatusCallback = new GnssStatus.Callback() {
         @Override
-        public void onSatelliteStatusChanged(@NonNull GnssStatus status) {
-            esferaCelesteView.setNewStatus(status);
-            updateSignalQualityView();
+        public void onProviderDisabled() {
+            Toast.makeText(GNSSActivity.this, "Por favor, ative os serviços de localização", Toast.LENGTH_SHORT).show();
+            Intent intent = new Intent(Settings.ACTION_LOCATION_SOURCE_SETTINGS);
+            startActivity(intent);
         }
     };
 }
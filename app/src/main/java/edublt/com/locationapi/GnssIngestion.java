@@ -0,0 +1,587 @@
+package edublt.com.locationapi;
+
+import android.content.Context;
+import android.location.GnssMeasurement;
+import android.location.GnssMeasurementsEvent;
+import android.location.GnssStatus;
+import android.location.Location;
+import android.location.LocationManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.CsvEncoder;
+import edublt.com.locationapi.core.ExportSink;
+import edublt.com.locationapi.core.ExportWriter;
+import edublt.com.locationapi.core.GnssBand;
+import edublt.com.locationapi.core.GnssLogWriter;
+import edublt.com.locationapi.core.GpxEncoder;
+import edublt.com.locationapi.core.MeasurementPipeline;
+import edublt.com.locationapi.core.NmeaEncoder;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+import edublt.com.locationapi.core.SatelliteSnapshotStore;
+import edublt.com.locationapi.core.SnapshotCache;
+
+// Recebe os callbacks de GnssStatus e Location numa thread própria, monta os retratos
+// fora da thread de UI e entrega no máximo um retrato por quadro (vsync) às views.
+// Rajadas de eventos entre dois quadros são coalescidas: só o retrato mais recente é entregue.
+// Quem precisa de todos os status (histórico, mapa de C/N0) usa o StatusListener.
+// Os retratos também podem vir de uma sessão gravada (GnssReplayer) em vez dos callbacks.
+// Com um SnapshotCache, o último retrato é salvo ao parar e republicado ao iniciar,
+// até que chegue o primeiro evento ao vivo.
+// As medições brutas (GnssMeasurementsEvent) chegam na mesma thread e seguem para o
+// MeasurementPipeline; os sinais de banda desconhecida no GnssStatus são separados
+// por banda (L1/L5...) com base nelas.
+// As localizações vêm do LocationScheduler, às vezes em lotes: todas são gravadas e
+// exportadas, mas só a última entra no retrato, então um lote gera um único quadro.
+// Em segundo plano (enterBackground) só o pedido de localização continua, em lotes e sem
+// exigir o GNSS: os callbacks do GNSS saem e nenhum quadro é pedido até a volta (start).
+public class GnssIngestion {
+    private static final String TAG = "GnssIngestion";
+    private static final long SEGMENT_BYTES = 8 * 1024 * 1024;
+    // Dois segundos de medições a 10 Hz de um receptor de dupla frequência com ~100 sinais
+    private static final int MEASUREMENT_RING_CAPACITY = 2048;
+
+    // Formatos de exportação (máscara de bits para startExport)
+    public static final int EXPORT_NMEA = 1;
+    public static final int EXPORT_CSV = 2;
+    public static final int EXPORT_GPX = 4;
+    private static final long EXPORT_FILE_BYTES = 32 * 1024 * 1024;
+    private static final long EXPORT_FILE_MILLIS = 60 * 60 * 1000L;
+    private static final int EXPORT_BATCH_CAPACITY = 256; // Registros por lote (~12 s a 10 Hz)
+    private static final long EXPORT_FLUSH_MILLIS = 1000;
+
+    // Recebe os retratos na thread principal
+    public interface Listener {
+        void onSnapshot(SatelliteSnapshot snapshot);
+
+        void onProviderDisabled();
+    }
+
+    // Recebe cada status publicado (ao vivo ou reproduzido) na thread que o publica, antes de
+    // o coalescimento dos quadros descartar algum; o retrato não deve ser guardado
+    public interface StatusListener {
+        void onStatus(SatelliteSnapshot status);
+    }
+
+    // Recebe cada retrato publicado (status, localização, cache ou reprodução) na thread que
+    // o publica, para quem desenha fora da thread principal (PlotRenderThread) copiar
+    public interface SnapshotListener {
+        void onSnapshotPublished(SatelliteSnapshot snapshot);
+    }
+
+    private final LocationManager locationManager;
+    private final LocationScheduler locationScheduler;
+    private final Listener listener;
+    private volatile StatusListener statusListener;
+    private volatile SnapshotListener snapshotListener;
+    private final SnapshotCache snapshotCache; // Pode ser null
+    private final SatelliteSnapshotStore snapshotStore = new SatelliteSnapshotStore(64);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean frameScheduled = new AtomicBoolean();
+    private final MeasurementPipeline measurementPipeline = new MeasurementPipeline(MEASUREMENT_RING_CAPACITY);
+
+    private HandlerThread ingestThread;
+    private Handler ingestHandler;
+    // Entre enterBackground e start/stop: os retratos são publicados, mas não entregues
+    private volatile boolean background;
+    // Última thread que publicou no store (ingestão encerrada ou reprodução); quem publica
+    // depois dela espera que termine, então o store nunca tem dois produtores ao mesmo tempo
+    private Thread lastProducer; // Acessado só pela thread principal
+    private GnssLogWriter recorder; // Acessado só pela thread de ingestão
+    private ExportWriter exporter; // Acessado só pela thread de ingestão
+
+    // Contadores de eventos (escritos só pela thread de ingestão)
+    private volatile long statusEventCount;
+    private volatile long locationEventCount;
+    // Escrito só pela thread principal
+    private volatile long deliveredCount;
+
+    // 'locationProfile' é o perfil inicial do LocationScheduler (LocationSchedulePolicy.PROFILE_*)
+    public GnssIngestion(Context context, LocationManager locationManager, int locationProfile, Listener listener,
+                         SnapshotCache snapshotCache) {
+        this.locationManager = locationManager;
+        locationScheduler = new LocationScheduler(context, locationManager, locationProfile, locationListener);
+        this.listener = listener;
+        this.snapshotCache = snapshotCache;
+    }
+
+    // Inicia a thread de ingestão e registra os callbacks nela; em segundo plano, só
+    // registra de novo os callbacks do GNSS, com o pedido de localização que já corre
+    public void start() throws SecurityException {
+        if (ingestThread != null && !background) {
+            return;
+        }
+        // Antes do primeiro pedido, que já sai com alta precisão
+        locationScheduler.setGnssRequired(true);
+        if (ingestThread == null) {
+            ingestThread = new HandlerThread("gnss-ingest", Process.THREAD_PRIORITY_BACKGROUND);
+            ingestThread.start();
+            Looper looper = ingestThread.getLooper();
+            ingestHandler = new Handler(looper);
+            // Primeira mensagem da fila: nenhum callback é tratado antes de o produtor anterior terminar
+            final Thread previous = takeOverProducer(ingestThread);
+            ingestHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    awaitProducer(previous);
+                }
+            });
+            locationScheduler.start(looper);
+        }
+        background = false;
+        locationManager.registerGnssStatusCallback(gnssStatusCallback, ingestHandler);
+        measurementPipeline.start();
+        if (!locationManager.registerGnssMeasurementsCallback(measurementsCallback, ingestHandler)) {
+            Log.i(TAG, "Medições brutas indisponíveis neste dispositivo");
+        }
+        ingestHandler.post(restoreSnapshot);
+    }
+
+    public void setStatusListener(StatusListener statusListener) {
+        this.statusListener = statusListener;
+    }
+
+    public void setSnapshotListener(SnapshotListener snapshotListener) {
+        this.snapshotListener = snapshotListener;
+    }
+
+    // Ao vivo em primeiro plano; em segundo plano só o pedido de localização corre
+    public boolean isLive() {
+        return ingestThread != null && !background;
+    }
+
+    // Tela fora do primeiro plano: cancela os callbacks do GNSS, a gravação, a exportação e
+    // a entrega dos quadros; só o pedido de localização continua, sem exigir o GNSS (e com
+    // a tela oculta, em lotes). Sem a permissão de segundo plano, o sistema pode espaçar ou
+    // suspender essas entregas.
+    public void enterBackground() {
+        if (ingestThread == null || background) {
+            return;
+        }
+        background = true;
+        stopGnss();
+        locationScheduler.setGnssRequired(false);
+    }
+
+    // Cancela todos os callbacks e encerra a thread de ingestão
+    public void stop() {
+        if (ingestThread == null) {
+            return;
+        }
+        locationScheduler.stop();
+        if (!background) {
+            stopGnss();
+        }
+        background = false;
+        ingestHandler.removeCallbacks(restoreSnapshot);
+        // A thread ainda trata o que está na fila; o próximo produtor espera por ela
+        ingestThread.quitSafely();
+        ingestThread = null;
+        ingestHandler = null;
+    }
+
+    private void stopGnss() {
+        locationManager.unregisterGnssStatusCallback(gnssStatusCallback);
+        locationManager.unregisterGnssMeasurementsCallback(measurementsCallback);
+        measurementPipeline.stop();
+        // O gravador é fechado e o cache salvo na própria thread de ingestão
+        ingestHandler.post(closeRecorder);
+        ingestHandler.post(closeExporter);
+        ingestHandler.post(saveSnapshot);
+        cancelFrame();
+    }
+
+    // A thread 'producer' passa a ser a única que publica no store. Retorna a anterior (ou
+    // null), que ela deve esperar terminar (join) antes da primeira publicação.
+    Thread takeOverProducer(Thread producer) {
+        Thread previous = lastProducer;
+        lastProducer = producer;
+        return previous;
+    }
+
+    private static void awaitProducer(Thread previous) {
+        if (previous == null) {
+            return;
+        }
+        try {
+            previous.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Cancela a entrega de um quadro já agendado
+    private void cancelFrame() {
+        mainHandler.removeCallbacks(scheduleFrame);
+        Choreographer.getInstance().removeFrameCallback(deliverFrame);
+        frameScheduled.set(false);
+    }
+
+    // Começa a gravar os eventos recebidos numa nova sessão dentro de 'directory'.
+    // A abertura e a escrita dos arquivos acontecem na thread de ingestão.
+    public void startRecording(final File directory) {
+        if (ingestHandler == null) {
+            return;
+        }
+        ingestHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                closeRecorder.run();
+                try {
+                    recorder = new GnssLogWriter(directory, "session-" + System.currentTimeMillis(), SEGMENT_BYTES);
+                } catch (IOException e) {
+                    Log.w(TAG, "Não foi possível iniciar a gravação", e);
+                }
+            }
+        });
+    }
+
+    public void stopRecording() {
+        if (ingestHandler != null) {
+            ingestHandler.post(closeRecorder);
+        }
+    }
+
+    // Começa a exportar os eventos recebidos nos formatos de 'formats' (EXPORT_*), em
+    // arquivos dentro de 'directory'. Os arquivos são criados na thread de ingestão e
+    // escritos pela thread do ExportWriter.
+    public void startExport(final File directory, final int formats, final boolean gzip) {
+        if (ingestHandler == null) {
+            return;
+        }
+        ingestHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                closeExporter.run();
+                String session = "export-" + System.currentTimeMillis();
+                int count = Integer.bitCount(formats & (EXPORT_NMEA | EXPORT_CSV | EXPORT_GPX));
+                ExportSink[] sinks = new ExportSink[count];
+                try {
+                    int k = 0;
+                    if ((formats & EXPORT_NMEA) != 0) {
+                        sinks[k++] = new ExportSink(directory, session, new NmeaEncoder(), EXPORT_FILE_BYTES, EXPORT_FILE_MILLIS, gzip);
+                    }
+                    if ((formats & EXPORT_CSV) != 0) {
+                        sinks[k++] = new ExportSink(directory, session, new CsvEncoder(), EXPORT_FILE_BYTES, EXPORT_FILE_MILLIS, gzip);
+                    }
+                    if ((formats & EXPORT_GPX) != 0) {
+                        sinks[k] = new ExportSink(directory, session, new GpxEncoder(), EXPORT_FILE_BYTES, EXPORT_FILE_MILLIS, gzip);
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Não foi possível iniciar a exportação", e);
+                    return;
+                }
+                exporter = new ExportWriter(sinks, EXPORT_BATCH_CAPACITY, EXPORT_FLUSH_MILLIS);
+                exporter.start();
+            }
+        });
+    }
+
+    public void stopExport() {
+        if (ingestHandler != null) {
+            ingestHandler.post(closeExporter);
+        }
+    }
+
+    // O ExportWriter termina de escrever e fecha os arquivos na sua própria thread
+    private final Runnable closeExporter = new Runnable() {
+        @Override
+        public void run() {
+            if (exporter == null) {
+                return;
+            }
+            exporter.close();
+            exporter = null;
+        }
+    };
+
+    private final Runnable closeRecorder = new Runnable() {
+        @Override
+        public void run() {
+            if (recorder == null) {
+                return;
+            }
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Falha ao fechar a gravação", e);
+            }
+            recorder = null;
+        }
+    };
+
+    // Publica o retrato do cache se nada foi publicado ainda (os eventos ao vivo têm
+    // prioridade). Na volta do segundo plano, republica o último, que não foi entregue.
+    private final Runnable restoreSnapshot = new Runnable() {
+        @Override
+        public void run() {
+            if (snapshotStore.getPublishedCount() > 0) {
+                snapshotStore.editCopy();
+                onPublished(snapshotStore.publish());
+                return;
+            }
+            if (snapshotCache == null) {
+                return;
+            }
+            try {
+                if (!snapshotCache.load(snapshotStore.edit())) {
+                    return;
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Falha ao ler o cache do último retrato", e);
+                return;
+            }
+            onPublished(snapshotStore.publish());
+        }
+    };
+
+    private final Runnable saveSnapshot = new Runnable() {
+        @Override
+        public void run() {
+            if (snapshotCache == null || snapshotStore.getPublishedCount() == 0) {
+                return;
+            }
+            try {
+                snapshotCache.save(snapshotStore.latest());
+            } catch (IOException e) {
+                Log.w(TAG, "Falha ao salvar o cache do último retrato", e);
+            }
+        }
+    };
+
+    // Publica um retrato reproduzido de uma sessão gravada. Só pode ser chamado pela thread
+    // registrada com takeOverProducer, depois de o produtor anterior terminar (ver GnssReplayer).
+    void publishReplayedStatus(SatelliteSnapshot source) {
+        statusEventCount++;
+        if (HotPathMetrics.enabled) {
+            HotPathMetrics.statusArrived(System.nanoTime());
+        }
+        // A localização do retrato atual é mantida; só os satélites vêm do registro
+        SatelliteSnapshot snapshot = snapshotStore.edit();
+        snapshot.copySatellitesFrom(source);
+        onPublished(snapshotStore.publish());
+        StatusListener statusListener = this.statusListener;
+        if (statusListener != null) {
+            statusListener.onStatus(snapshot);
+        }
+    }
+
+    // Publica uma localização reproduzida de uma sessão gravada (ver publishReplayedStatus)
+    void publishReplayedLocation(double latitude, double longitude, double altitude) {
+        locationEventCount++;
+        if (HotPathMetrics.enabled) {
+            HotPathMetrics.locationArrived(System.nanoTime());
+        }
+        snapshotStore.editCopy().setLocation(latitude, longitude, altitude);
+        onPublished(snapshotStore.publish());
+    }
+
+    public long getStatusEventCount() {
+        return statusEventCount;
+    }
+
+    public long getLocationEventCount() {
+        return locationEventCount;
+    }
+
+    // Perfil, pedido atual e despertares das localizações
+    LocationScheduler getLocationScheduler() {
+        return locationScheduler;
+    }
+
+    // Fila e tabela das medições brutas (contadores de contrapressão)
+    public MeasurementPipeline getMeasurementPipeline() {
+        return measurementPipeline;
+    }
+
+    // Retratos descartados porque um mais novo chegou antes do quadro seguinte
+    public long getCoalescedCount() {
+        return snapshotStore.getCoalescedCount();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    // Chamado na thread que publica, depois de cada publicação. Em segundo plano o retrato
+    // só fica no store, para a volta.
+    private void onPublished(SatelliteSnapshot snapshot) {
+        if (background) {
+            return;
+        }
+        requestFrame();
+        SnapshotListener snapshotListener = this.snapshotListener;
+        if (snapshotListener != null) {
+            snapshotListener.onSnapshotPublished(snapshot);
+        }
+    }
+
+    private void requestFrame() {
+        if (frameScheduled.compareAndSet(false, true)) {
+            mainHandler.post(scheduleFrame);
+        }
+    }
+
+    // O Choreographer precisa ser usado na thread principal
+    private final Runnable scheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(deliverFrame);
+        }
+    };
+
+    private final Choreographer.FrameCallback deliverFrame = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            frameScheduled.set(false);
+            deliveredCount++;
+            boolean measure = HotPathMetrics.enabled;
+            long start = measure ? System.nanoTime() : 0;
+            int allocations = measure ? HotPathMetrics.allocationCount() : 0;
+            if (measure) {
+                HotPathMetrics.frameDelivered();
+            }
+            // A PlotRenderThread, quando existe, desenha a partir da própria cópia dos retratos
+            listener.onSnapshot(snapshotStore.acquire());
+            if (measure) {
+                HotPathMetrics.end(HotPathMetrics.DELIVER, start, allocations);
+            }
+        }
+    };
+
+    private final Runnable notifyProviderDisabled = new Runnable() {
+        @Override
+        public void run() {
+            listener.onProviderDisabled();
+        }
+    };
+
+    // Chamado na thread de ingestão; um lote vira um único retrato
+    private final LocationScheduler.Listener locationListener = new LocationScheduler.Listener() {
+        @Override
+        public void onLocations(@NonNull List<Location> locations) {
+            boolean measure = HotPathMetrics.enabled;
+            long start = measure ? System.nanoTime() : 0;
+            int allocations = measure ? HotPathMetrics.allocationCount() : 0;
+            if (measure) {
+                HotPathMetrics.locationArrived(start);
+            }
+            locationEventCount += locations.size();
+            Location last = locations.get(locations.size() - 1);
+            SatelliteSnapshot snapshot = snapshotStore.editCopy();
+            snapshot.setLocation(last.getLatitude(), last.getLongitude(), last.getAltitude());
+            onPublished(snapshotStore.publish());
+            // Num lote, cada localização é registrada com o seu próprio horário
+            for (int i = 0; i < locations.size(); i++) {
+                Location location = locations.get(i);
+                if (exporter != null) {
+                    exporter.offerLocation(location.getTime(), location.getLatitude(),
+                            location.getLongitude(), location.getAltitude());
+                }
+                if (recorder != null) {
+                    try {
+                        recorder.writeLocation(location.getTime(), location.getLatitude(),
+                                location.getLongitude(), location.getAltitude());
+                    } catch (IOException e) {
+                        Log.w(TAG, "Falha ao gravar a localização; gravação encerrada", e);
+                        closeRecorder.run();
+                    }
+                }
+            }
+            if (measure) {
+                HotPathMetrics.end(HotPathMetrics.INGEST_LOCATION, start, allocations);
+            }
+        }
+
+        @Override
+        public void onProviderDisabled() {
+            mainHandler.post(notifyProviderDisabled);
+        }
+    };
+
+    private final GnssStatus.Callback gnssStatusCallback = new GnssStatus.Callback() {
+        @Override
+        public void onSatelliteStatusChanged(@NonNull GnssStatus status) {
+            boolean measure = HotPathMetrics.enabled;
+            long start = measure ? System.nanoTime() : 0;
+            int allocations = measure ? HotPathMetrics.allocationCount() : 0;
+            if (measure) {
+                HotPathMetrics.statusArrived(start);
+            }
+            statusEventCount++;
+            int count = status.getSatelliteCount();
+            SatelliteSnapshot snapshot = snapshotStore.edit();
+            snapshot.ensureCapacity(count);
+            snapshot.setTimestampMillis(System.currentTimeMillis());
+            // A projeção para o círculo unitário é feita pelo próprio retrato (SkyProjection)
+            boolean hasCarrier = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O;
+            for (int i = 0; i < count; i++) {
+                // A banda separa os sinais de um mesmo satélite (ex.: L1 e L5)
+                byte band = hasCarrier && status.hasCarrierFrequencyHz(i)
+                        ? GnssBand.fromCarrierFrequencyHz(status.getCarrierFrequencyHz(i)) : GnssBand.UNKNOWN;
+                int svid = status.getSvid(i);
+                byte constellation = Constellation.fromType(status.getConstellationType(i));
+                // Sem banda no status, as medições brutas dizem em quais bandas o satélite é rastreado
+                if (band == GnssBand.UNKNOWN && measurementPipeline.addSignals(snapshot, svid, constellation,
+                        status.getAzimuthDegrees(i), status.getElevationDegrees(i), status.usedInFix(i)) > 0) {
+                    continue;
+                }
+                snapshot.add(svid, constellation, status.getAzimuthDegrees(i), status.getElevationDegrees(i),
+                        status.getCn0DbHz(i), status.usedInFix(i), band);
+            }
+            onPublished(snapshotStore.publish());
+            StatusListener statusListener = GnssIngestion.this.statusListener;
+            if (statusListener != null) {
+                statusListener.onStatus(snapshot);
+            }
+            if (exporter != null && !exporter.offerStatus(snapshot) && exporter.getError() != null) {
+                Log.w(TAG, "Falha na exportação; exportação encerrada", exporter.getError());
+                closeExporter.run();
+            }
+            if (recorder != null) {
+                try {
+                    recorder.writeStatus(snapshot);
+                } catch (IOException e) {
+                    Log.w(TAG, "Falha ao gravar o status; gravação encerrada", e);
+                    closeRecorder.run();
+                }
+            }
+            if (measure) {
+                HotPathMetrics.end(HotPathMetrics.INGEST_STATUS, start, allocations);
+            }
+        }
+    };
+
+    // Só enfileira as medições; o processamento acontece na thread do MeasurementPipeline
+    private final GnssMeasurementsEvent.Callback measurementsCallback = new GnssMeasurementsEvent.Callback() {
+        @Override
+        public void onGnssMeasurementsReceived(GnssMeasurementsEvent event) {
+            long timeNanos = event.getClock().getTimeNanos();
+            for (GnssMeasurement measurement : event.getMeasurements()) {
+                float carrierHz = measurement.hasCarrierFrequencyHz() ? measurement.getCarrierFrequencyHz() : 0f;
+                measurementPipeline.offer(timeNanos, measurement.getSvid(),
+                        Constellation.fromType(measurement.getConstellationType()),
+                        carrierHz > 0f ? GnssBand.fromCarrierFrequencyHz(carrierHz) : GnssBand.UNKNOWN,
+                        carrierHz, (float) measurement.getCn0DbHz(),
+                        measurement.getPseudorangeRateMetersPerSecond(),
+                        measurement.getAccumulatedDeltaRangeMeters(),
+                        measurement.getAccumulatedDeltaRangeState(),
+                        (byte) measurement.getMultipathIndicator());
+            }
+            measurementPipeline.endEvent();
+        }
+    };
+}
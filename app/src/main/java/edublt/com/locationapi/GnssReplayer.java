@@ -0,0 +1,94 @@
+package edublt.com.locationapi;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import edublt.com.locationapi.core.GnssLogFormat;
+import edublt.com.locationapi.core.GnssLogReader;
+
+// Reproduz uma sessão gravada, numa thread própria, publicando os registros na
+// GnssIngestion como se viessem dos callbacks. A velocidade é um multiplicador do tempo
+// gravado (1x, 10x...); MAX_SPEED publica tudo sem esperar. A ingestão ao vivo deve
+// estar parada enquanto a reprodução acontece; a thread de ingestão ainda termina a fila
+// dela (gravador, exportação, cache) e a reprodução só publica depois disso.
+public class GnssReplayer extends Thread {
+    private static final String TAG = "GnssReplayer";
+
+    // Reproduz sem respeitar os intervalos gravados
+    public static final float MAX_SPEED = 0f;
+
+    // Avisado (na thread da reprodução) quando a sessão termina ou é interrompida
+    public interface Listener {
+        void onReplayFinished(GnssReplayer replayer, long records);
+    }
+
+    private final List<File> segments;
+    private final float speed;
+    private final GnssIngestion ingestion;
+    private final Listener listener;
+    private Thread previousProducer; // Atribuído antes do start()
+    private volatile boolean cancelled;
+
+    public GnssReplayer(List<File> segments, float speed, GnssIngestion ingestion, Listener listener) {
+        super("gnss-replay");
+        this.segments = segments;
+        this.speed = speed;
+        this.ingestion = ingestion;
+        this.listener = listener;
+    }
+
+    // Registra a reprodução como produtora do store da ingestão e inicia a thread
+    @Override
+    public synchronized void start() {
+        previousProducer = ingestion.takeOverProducer(this);
+        super.start();
+    }
+
+    public void cancel() {
+        cancelled = true;
+        interrupt();
+    }
+
+    @Override
+    public void run() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        long records = 0;
+        try (GnssLogReader reader = new GnssLogReader(segments)) {
+            if (previousProducer != null) {
+                previousProducer.join();
+                previousProducer = null;
+            }
+            long firstTimestamp = -1;
+            long startNanos = System.nanoTime();
+            byte type;
+            while (!cancelled && (type = reader.next()) != GnssLogReader.END) {
+                if (speed > 0) {
+                    if (firstTimestamp < 0) {
+                        firstTimestamp = reader.getTimestampMillis();
+                    }
+                    // Espera até o instante gravado, escalado pela velocidade
+                    long dueNanos = startNanos + (long) ((reader.getTimestampMillis() - firstTimestamp) * 1_000_000L / speed);
+                    long waitNanos = dueNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        Thread.sleep(waitNanos / 1_000_000L, (int) (waitNanos % 1_000_000L));
+                    }
+                }
+                if (type == GnssLogFormat.RECORD_STATUS) {
+                    ingestion.publishReplayedStatus(reader.getStatus());
+                } else {
+                    ingestion.publishReplayedLocation(reader.getLatitude(), reader.getLongitude(), reader.getAltitude());
+                }
+                records++;
+            }
+        } catch (InterruptedException e) {
+            // Reprodução cancelada
+        } catch (IOException e) {
+            Log.w(TAG, "Falha ao ler a sessão gravada", e);
+        }
+        listener.onReplayFinished(this, records);
+    }
+}
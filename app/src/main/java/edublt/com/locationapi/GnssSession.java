@@ -0,0 +1,240 @@
+package edublt.com.locationapi;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.location.LocationManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.preference.PreferenceManager;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.io.File;
+import java.util.List;
+
+import edublt.com.locationapi.core.LocationSchedulePolicy;
+import edublt.com.locationapi.core.SnapshotCache;
+
+// Sessão GNSS ligada ao ciclo de vida da tela: os callbacks do GNSS são registrados em
+// onStart e removidos em onStop, então nada invalida as views em segundo plano. Só o pedido
+// de localização continua até onDestroy, em lotes e sem exigir o GNSS (a sessão usa o
+// contexto da aplicação, então a atividade não fica presa ao LocationManager). Também
+// coordena gravação, exportação e reprodução (que param junto com a tela) e o cache do
+// último retrato, compartilhado por todas as sessões do processo, que permite desenhar a
+// esfera logo ao reabrir a tela. O perfil das localizações é salvo nas preferências, e o
+// LocationScheduler é avisado quando a tela deixa o primeiro plano (onPause).
+public class GnssSession implements DefaultLifecycleObserver {
+    private static final String TAG = "GnssSession";
+    private static final String PREFS_KEY_LOCATION_PROFILE = "location_profile";
+
+    // Avisado na thread principal quando uma reprodução termina
+    public interface Listener {
+        void onReplayFinished(long records);
+    }
+
+    private static SnapshotCache snapshotCache;
+
+    private final Context context;
+    private final GnssIngestion ingestion;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private boolean started; // Entre onStart e onStop
+    private boolean recording;
+    private boolean exporting;
+    private GnssReplayer replayer;
+
+    public GnssSession(Context context, GnssIngestion.Listener ingestionListener, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.listener = listener;
+        LocationManager locationManager = (LocationManager) this.context.getSystemService(Context.LOCATION_SERVICE);
+        int profile = PreferenceManager.getDefaultSharedPreferences(this.context)
+                .getInt(PREFS_KEY_LOCATION_PROFILE, LocationSchedulePolicy.PROFILE_BALANCED);
+        ingestion = new GnssIngestion(this.context, locationManager, profile, ingestionListener,
+                snapshotCacheFor(this.context));
+    }
+
+    private static synchronized SnapshotCache snapshotCacheFor(Context context) {
+        if (snapshotCache == null) {
+            snapshotCache = new SnapshotCache(new File(context.getCacheDir(), "snapshot"));
+        }
+        return snapshotCache;
+    }
+
+    public static boolean hasLocationPermission(Context context) {
+        return context.checkSelfPermission(Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED
+                || context.checkSelfPermission(Manifest.permission.ACCESS_COARSE_LOCATION) == PackageManager.PERMISSION_GRANTED;
+    }
+
+    public GnssIngestion getIngestion() {
+        return ingestion;
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        started = true;
+        // Antes do primeiro pedido, para que ele já saia com o intervalo da tela visível
+        ingestion.getLocationScheduler().setVisible(true);
+        startLive();
+    }
+
+    @Override
+    public void onResume(@NonNull LifecycleOwner owner) {
+        ingestion.getLocationScheduler().setVisible(true);
+    }
+
+    @Override
+    public void onPause(@NonNull LifecycleOwner owner) {
+        ingestion.getLocationScheduler().setVisible(false);
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        started = false;
+        if (replayer != null) {
+            // A próxima sessão ao vivo só publica depois de a thread da reprodução sair
+            replayer.cancel();
+            replayer = null;
+        }
+        recording = false;
+        exporting = false;
+        // Também encerra a gravação e a exportação e salva o último retrato no cache; o
+        // pedido de localização segue com a política de tela oculta
+        ingestion.enterBackground();
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        ingestion.stop();
+    }
+
+    // Chamado quando o usuário concede a permissão de localização
+    public void onPermissionGranted() {
+        if (started) {
+            startLive();
+        }
+    }
+
+    private void startLive() {
+        if (replayer != null || ingestion.isLive() || !hasLocationPermission(context)) {
+            return;
+        }
+        try {
+            ingestion.start();
+        } catch (SecurityException e) {
+            Log.w(TAG, "Permissão de localização revogada", e);
+        }
+    }
+
+    public int getLocationProfile() {
+        return ingestion.getLocationScheduler().getPolicy().getProfile();
+    }
+
+    // Troca o perfil das localizações (LocationSchedulePolicy.PROFILE_*) e o salva
+    public void setLocationProfile(int profile) {
+        ingestion.getLocationScheduler().setProfile(profile);
+        SharedPreferences.Editor editor = PreferenceManager.getDefaultSharedPreferences(context).edit();
+        editor.putInt(PREFS_KEY_LOCATION_PROFILE, profile);
+        editor.apply();
+    }
+
+    // Pedido atual e despertares das localizações
+    public LocationSchedulePolicy getLocationPolicy() {
+        return ingestion.getLocationScheduler().getPolicy();
+    }
+
+    public boolean isLive() {
+        return ingestion.isLive();
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public boolean isReplaying() {
+        return replayer != null;
+    }
+
+    // A gravação só é possível com dados ao vivo; retorna se ela começou
+    public boolean startRecording(File directory) {
+        if (!ingestion.isLive()) {
+            return false;
+        }
+        ingestion.startRecording(directory);
+        recording = true;
+        return true;
+    }
+
+    public void stopRecording() {
+        ingestion.stopRecording();
+        recording = false;
+    }
+
+    public boolean isExporting() {
+        return exporting;
+    }
+
+    // A exportação (GnssIngestion.EXPORT_*) também só é possível com dados ao vivo
+    public boolean startExport(File directory, int formats, boolean gzip) {
+        if (!ingestion.isLive() || formats == 0) {
+            return false;
+        }
+        ingestion.startExport(directory, formats, gzip);
+        exporting = true;
+        return true;
+    }
+
+    public void stopExport() {
+        ingestion.stopExport();
+        exporting = false;
+    }
+
+    // Para os dados ao vivo (a gravação e a exportação) e reproduz os segmentos de uma sessão gravada
+    public void startReplay(List<File> segments, float speed) {
+        if (replayer != null) {
+            return;
+        }
+        if (recording) {
+            stopRecording();
+        }
+        if (exporting) {
+            stopExport();
+        }
+        // A reprodução espera a thread de ingestão terminar a fila antes de publicar
+        ingestion.stop();
+        replayer = new GnssReplayer(segments, speed, ingestion, replayListener);
+        replayer.start();
+    }
+
+    // Interrompe a reprodução; os dados ao vivo voltam quando ela termina
+    public void cancelReplay() {
+        if (replayer != null) {
+            replayer.cancel();
+        }
+    }
+
+    private final GnssReplayer.Listener replayListener = new GnssReplayer.Listener() {
+        @Override
+        public void onReplayFinished(final GnssReplayer finished, final long records) {
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    // Uma reprodução cancelada em onStop já foi descartada
+                    if (finished != replayer) {
+                        return;
+                    }
+                    replayer = null;
+                    if (started) {
+                        startLive();
+                    }
+                    listener.onReplayFinished(records);
+                }
+            });
+        }
+    };
+}
@@ -0,0 +1,151 @@
+package edublt.com.locationapi;
+
+import android.os.Debug;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edublt.com.locationapi.core.ConcurrentHistogram;
+
+// Instrumentação do caminho quente: duração e alocações de cada trecho (callbacks na
+// thread de ingestão, entrega do quadro e onDraw das views) e a latência entre a chegada
+// de um evento e o fim do desenho do quadro que o exibe. Tudo vai para histogramas sem
+// bloqueio. Desligada, cada ponto de medição custa só a leitura de 'enabled'.
+// As alocações vêm de Debug.startAllocCounting()/getThreadAllocCount(), obsoletos mas
+// ainda o único contador por thread do Android (getRuntimeStat só tem totais do processo).
+final class HotPathMetrics {
+    // Trechos medidos
+    static final int INGEST_STATUS = 0;
+    static final int INGEST_LOCATION = 1;
+    static final int DELIVER = 2;
+    static final int DRAW_SKY = 3;
+    static final int DRAW_BARS = 4;
+    private static final int SECTION_COUNT = 5;
+
+    private static final String[] SECTION_NAMES = {
+            "onSatelliteStatusChanged", "LocationScheduler.onLocations", "entrega do quadro",
+            "EsferaCelesteView.onDraw", "SignalQualityView.onDraw"
+    };
+
+    static volatile boolean enabled;
+
+    private static final ConcurrentHistogram[] durations = new ConcurrentHistogram[SECTION_COUNT];
+    private static final ConcurrentHistogram[] allocations = new ConcurrentHistogram[SECTION_COUNT];
+    private static final ConcurrentHistogram statusToFrame = new ConcurrentHistogram();
+    private static final ConcurrentHistogram locationToFrame = new ConcurrentHistogram();
+
+    // Chegada do evento mais antigo ainda não entregue (0 = nenhum), escrita pela ingestão
+    private static final AtomicLong pendingStatusNanos = new AtomicLong();
+    private static final AtomicLong pendingLocationNanos = new AtomicLong();
+    // Chegadas entregues no quadro atual, aguardando o desenho (só thread principal)
+    private static long shownStatusNanos, shownLocationNanos;
+
+    static {
+        for (int s = 0; s < SECTION_COUNT; s++) {
+            durations[s] = new ConcurrentHistogram();
+            allocations[s] = new ConcurrentHistogram();
+        }
+    }
+
+    private HotPathMetrics() {
+    }
+
+    @SuppressWarnings("deprecation") // Contador de alocações por thread; ver o comentário da classe
+    static void setEnabled(boolean on) {
+        if (on == enabled) {
+            return;
+        }
+        if (on) {
+            reset();
+            Debug.startAllocCounting();
+        } else {
+            Debug.stopAllocCounting();
+        }
+        enabled = on;
+    }
+
+    static void reset() {
+        for (int s = 0; s < SECTION_COUNT; s++) {
+            durations[s].reset();
+            allocations[s].reset();
+        }
+        statusToFrame.reset();
+        locationToFrame.reset();
+        pendingStatusNanos.set(0);
+        pendingLocationNanos.set(0);
+    }
+
+    // Contador de alocações da thread atual, para o início de um trecho
+    @SuppressWarnings("deprecation")
+    static int allocationCount() {
+        return Debug.getThreadAllocCount();
+    }
+
+    // Fecha um trecho iniciado com System.nanoTime() e allocationCount()
+    @SuppressWarnings("deprecation")
+    static void end(int section, long startNanos, int startAllocations) {
+        durations[section].record(System.nanoTime() - startNanos);
+        allocations[section].record(Debug.getThreadAllocCount() - startAllocations);
+    }
+
+    // Chamados na chegada dos eventos; em rajadas, vale a chegada mais antiga
+    static void statusArrived(long nanos) {
+        pendingStatusNanos.compareAndSet(0, nanos);
+    }
+
+    static void locationArrived(long nanos) {
+        pendingLocationNanos.compareAndSet(0, nanos);
+    }
+
+    // Chamado na thread principal quando um retrato é entregue às views
+    static void frameDelivered() {
+        long status = pendingStatusNanos.getAndSet(0);
+        if (status != 0) {
+            shownStatusNanos = status;
+        }
+        long location = pendingLocationNanos.getAndSet(0);
+        if (location != 0) {
+            shownLocationNanos = location;
+        }
+    }
+
+    // Retrato igual ao já exibido: nenhum quadro será desenhado para ele
+    static void frameSkipped() {
+        shownStatusNanos = 0;
+        shownLocationNanos = 0;
+    }
+
+    // Chamado ao fim do desenho da esfera: o quadro que exibe os eventos entregues está pronto
+    static void frameDrawn() {
+        long now = System.nanoTime();
+        if (shownStatusNanos != 0) {
+            statusToFrame.record(now - shownStatusNanos);
+            shownStatusNanos = 0;
+        }
+        if (shownLocationNanos != 0) {
+            locationToFrame.record(now - shownLocationNanos);
+            shownLocationNanos = 0;
+        }
+    }
+
+    // Relatório de texto (uma linha por histograma), usado no overlay e no arquivo
+    static void appendReport(StringBuilder sb) {
+        appendLatency(sb, "status -> quadro", statusToFrame);
+        appendLatency(sb, "localização -> quadro", locationToFrame);
+        for (int s = 0; s < SECTION_COUNT; s++) {
+            appendLatency(sb, SECTION_NAMES[s], durations[s]);
+            appendAllocations(sb, allocations[s]);
+        }
+    }
+
+    private static void appendLatency(StringBuilder sb, String name, ConcurrentHistogram histogram) {
+        sb.append(String.format(Locale.US, "%s: n=%d p50=%.2fms p99=%.2fms max=%.2fms%n", name, histogram.getCount(),
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getMax() / 1e6));
+    }
+
+    private static void appendAllocations(StringBuilder sb, ConcurrentHistogram histogram) {
+        sb.append(String.format(Locale.US, "  alocações: p50=%d p99=%d max=%d%n",
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99), histogram.getMax()));
+    }
+}
@@ -0,0 +1,237 @@
+package edublt.com.locationapi;
+
+import android.content.Context;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.common.ConnectionResult;
+import com.google.android.gms.common.GoogleApiAvailability;
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationAvailability;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.tasks.OnFailureListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edublt.com.locationapi.core.LocationSchedulePolicy;
+
+// Pede as localizações ao FusedLocationProviderClient com os parâmetros da
+// LocationSchedulePolicy (intervalo, distância mínima, lote e prioridade) e refaz o
+// pedido quando ela muda. Com lote, várias localizações chegam num único callback e são
+// entregues juntas ao Listener, então a ingestão acorda a UI uma vez por lote. Sem o
+// Google Play Services (ou se o pedido falhar), usa o LocationManager com o mesmo
+// intervalo e distância mínima, sem lotes. Os callbacks rodam no looper de start().
+class LocationScheduler {
+    private static final String TAG = "LocationScheduler";
+
+    // Chamado no looper de start()
+    interface Listener {
+        // Uma ou mais localizações, da mais antiga para a mais recente
+        void onLocations(@NonNull List<Location> locations);
+
+        void onProviderDisabled();
+    }
+
+    private final LocationManager locationManager;
+    private final Listener listener;
+    private final LocationSchedulePolicy policy;
+    private final FusedLocationProviderClient fusedClient; // null sem o Google Play Services
+    private volatile boolean useFused;
+    private volatile boolean running;
+    // Escritos só pela thread principal (start/stop)
+    private Looper looper;
+    private Handler handler;
+    private final List<Location> single = new ArrayList<>(1); // Lista reaproveitada do LocationManager
+
+    LocationScheduler(Context context, LocationManager locationManager, int profile, Listener listener) {
+        this.locationManager = locationManager;
+        this.listener = listener;
+        policy = new LocationSchedulePolicy(profile);
+        boolean available = GoogleApiAvailability.getInstance().isGooglePlayServicesAvailable(context)
+                == ConnectionResult.SUCCESS;
+        fusedClient = available ? LocationServices.getFusedLocationProviderClient(context) : null;
+    }
+
+    // Começa a pedir localizações, com os callbacks no looper dado
+    void start(Looper looper) throws SecurityException {
+        this.looper = looper;
+        handler = new Handler(looper);
+        useFused = fusedClient != null;
+        running = true;
+        request();
+    }
+
+    void stop() {
+        running = false;
+        if (fusedClient != null) {
+            fusedClient.removeLocationUpdates(locationCallback);
+        }
+        locationManager.removeUpdates(locationListener);
+        handler = null;
+        looper = null;
+    }
+
+    // Perfil escolhido pelo usuário (LocationSchedulePolicy.PROFILE_*)
+    void setProfile(final int profile) {
+        Handler h = handler;
+        if (h == null) {
+            policy.setProfile(profile, System.currentTimeMillis());
+            return;
+        }
+        h.post(new Runnable() {
+            @Override
+            public void run() {
+                if (policy.setProfile(profile, System.currentTimeMillis())) {
+                    request();
+                }
+            }
+        });
+    }
+
+    // Tela em primeiro plano (entrega imediata) ou não (entrega em lotes)
+    void setVisible(final boolean visible) {
+        Handler h = handler;
+        if (h == null) {
+            policy.setVisible(visible, System.currentTimeMillis());
+            return;
+        }
+        h.post(new Runnable() {
+            @Override
+            public void run() {
+                if (policy.setVisible(visible, System.currentTimeMillis())) {
+                    request();
+                }
+            }
+        });
+    }
+
+    // Callbacks de status e medições do GNSS registrados (alta precisão) ou não
+    void setGnssRequired(final boolean gnssRequired) {
+        Handler h = handler;
+        if (h == null) {
+            policy.setGnssRequired(gnssRequired, System.currentTimeMillis());
+            return;
+        }
+        h.post(new Runnable() {
+            @Override
+            public void run() {
+                if (policy.setGnssRequired(gnssRequired, System.currentTimeMillis())) {
+                    request();
+                }
+            }
+        });
+    }
+
+    // Decisões e contadores (despertares, localizações, mudanças); leitura de qualquer thread
+    LocationSchedulePolicy getPolicy() {
+        return policy;
+    }
+
+    // Faz (ou refaz) o pedido com os parâmetros atuais; com o mesmo callback, o pedido
+    // novo substitui o anterior
+    private void request() throws SecurityException {
+        Looper l = looper;
+        if (!running || l == null) {
+            return;
+        }
+        Log.i(TAG, "Pedido: " + LocationSchedulePolicy.profileName(policy.getProfile())
+                + " intervalo=" + policy.getIntervalMillis() + " ms distância=" + policy.getMinDistanceMeters()
+                + " m lote=" + policy.getMaxUpdateDelayMillis() + " ms prioridade=" + policy.getPriority()
+                + " (" + LocationSchedulePolicy.reasonName(policy.getLastReason()) + ")");
+        if (useFused) {
+            LocationRequest request = new LocationRequest.Builder(policy.getPriority(), policy.getIntervalMillis())
+                    .setMinUpdateIntervalMillis(policy.getIntervalMillis())
+                    .setMinUpdateDistanceMeters(policy.getMinDistanceMeters())
+                    .setMaxUpdateDelayMillis(policy.getMaxUpdateDelayMillis())
+                    .build();
+            fusedClient.requestLocationUpdates(request, locationCallback, l).addOnFailureListener(fusedFailed);
+        } else {
+            locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER, policy.getIntervalMillis(),
+                    policy.getMinDistanceMeters(), locationListener, l);
+        }
+    }
+
+    // Chamado na thread principal; o pedido é refeito pelo LocationManager no looper dos callbacks
+    private final OnFailureListener fusedFailed = new OnFailureListener() {
+        @Override
+        public void onFailure(@NonNull Exception e) {
+            Log.w(TAG, "Falha no FusedLocationProviderClient; usando o LocationManager", e);
+            Handler h = handler;
+            if (h == null) {
+                return;
+            }
+            h.post(new Runnable() {
+                @Override
+                public void run() {
+                    useFused = false;
+                    try {
+                        request();
+                    } catch (SecurityException e) {
+                        Log.w(TAG, "Permissão de localização revogada", e);
+                    }
+                }
+            });
+        }
+    };
+
+    private void deliver(List<Location> locations) {
+        if (locations.isEmpty()) {
+            return;
+        }
+        policy.onWakeup();
+        boolean changed = false;
+        for (int i = 0; i < locations.size(); i++) {
+            Location location = locations.get(i);
+            changed |= policy.onFix(location.getTime(), location.getLatitude(), location.getLongitude(),
+                    location.hasSpeed() ? location.getSpeed() : Float.NaN,
+                    location.hasAccuracy() ? location.getAccuracy() : Float.NaN);
+        }
+        listener.onLocations(locations);
+        if (changed) {
+            try {
+                request();
+            } catch (SecurityException e) {
+                Log.w(TAG, "Permissão de localização revogada", e);
+            }
+        }
+    }
+
+    private final LocationCallback locationCallback = new LocationCallback() {
+        @Override
+        public void onLocationResult(@NonNull LocationResult result) {
+            deliver(result.getLocations());
+        }
+
+        @Override
+        public void onLocationAvailability(@NonNull LocationAvailability availability) {
+            // O provedor combinado não avisa quando a localização é desligada
+            if (!availability.isLocationAvailable() && !locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER)) {
+                listener.onProviderDisabled();
+            }
+        }
+    };
+
+    private final LocationListener locationListener = new LocationListener() {
+        @Override
+        public void onLocationChanged(@NonNull Location location) {
+            single.clear();
+            single.add(location);
+            deliver(single);
+        }
+
+        @Override
+        public void onProviderDisabled(@NonNull String provider) {
+            listener.onProviderDisabled();
+        }
+    };
+}
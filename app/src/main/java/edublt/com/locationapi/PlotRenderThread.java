@@ -0,0 +1,304 @@
+package edublt.com.locationapi;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.view.Choreographer;
+import android.view.Surface;
+import android.view.TextureView;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edublt.com.locationapi.core.DopEngine;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.FrameGovernor;
+import edublt.com.locationapi.core.SatelliteFilter;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+import edublt.com.locationapi.core.SatelliteSnapshotStore;
+
+// Desenho do céu e das barras numa thread própria, em duas TextureViews atrás das views.
+// A thread recebe uma cópia de cada retrato publicado pela GnssIngestion no seu próprio
+// SatelliteSnapshotStore e, no vsync do Choreographer desta thread, busca o mais recente,
+// avalia o filtro e os DOPs e desenha com o mesmo SkyPlotRenderer e SignalBarsRenderer do
+// onDraw. O FrameGovernor desta thread ignora retratos repetidos e respeita o limite de
+// fps do FrameScheduler. Nada disso passa pela thread principal: ela só pede quadros
+// (invalidate() das views por toques, rolagem, filtro) e grava os pedidos da UI nos
+// renderizadores com LOCK, que cobre apenas essas cópias de campos.
+final class PlotRenderThread implements GnssIngestion.SnapshotListener {
+    static final int SKY = FrameScheduler.SKY;
+    static final int BARS = FrameScheduler.BARS;
+    private static final int SNAPSHOT = 4; // Em 'pending': há retrato novo no store
+    static final Object LOCK = new Object();
+
+    private final Output sky;
+    private final Output bars;
+    private final SkyPlotRenderer skyRenderer;
+    private final SignalBarsRenderer barsRenderer;
+    private final FrameScheduler frameScheduler; // Só o limite de fps é lido aqui
+    private final AtomicInteger pending = new AtomicInteger(); // Alvos aguardando o próximo quadro
+    private volatile boolean running;
+    private HandlerThread thread;
+    private Handler handler;
+
+    // Retratos copiados pela thread que publica (produtora do store)
+    private final SatelliteSnapshotStore store = new SatelliteSnapshotStore(64);
+    private volatile SatelliteFilter filter = SatelliteFilter.ALL; // Escolhido na thread principal
+
+    // Só a thread de renderização acessa
+    private final FilterEngine filterEngine = new FilterEngine();
+    private final DopEngine dopEngine = new DopEngine();
+    private final FrameGovernor governor = new FrameGovernor(FrameScheduler.ALL);
+    private long drawnSequence;
+    private long drawnContentHash;
+    private Choreographer choreographer;
+    private boolean deferredPosted;
+
+    PlotRenderThread(TextureView skyTexture, SkyPlotRenderer skyRenderer,
+                     TextureView barsTexture, SignalBarsRenderer barsRenderer, FrameScheduler frameScheduler) {
+        sky = new Output(SKY, skyTexture);
+        bars = new Output(BARS, barsTexture);
+        this.skyRenderer = skyRenderer;
+        this.barsRenderer = barsRenderer;
+        this.frameScheduler = frameScheduler;
+    }
+
+    // Chamado na thread principal, que deixa de entregar dados aos renderizadores
+    void start() {
+        takeOverRenderers();
+        running = true;
+        thread = new HandlerThread("gnss-render", Process.THREAD_PRIORITY_DISPLAY);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        sky.attach();
+        bars.attach();
+        requestFrame(SKY | BARS | SNAPSHOT);
+    }
+
+    // A partir daqui os DOPs e os retratos dos renderizadores são os desta thread
+    @VisibleForTesting
+    void takeOverRenderers() {
+        skyRenderer.setDopEngine(dopEngine);
+    }
+
+    // Chamado na thread principal. Espera a thread terminar: depois daqui nenhum quadro é
+    // desenhado e as views podem voltar a entregar dados aos renderizadores e desenhar no onDraw.
+    void quit() {
+        running = false;
+        sky.detach();
+        bars.detach();
+        thread.quitSafely();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pending.set(0);
+    }
+
+    // Chamado na thread que publica os retratos (ingestão ou reprodução), e uma vez na
+    // principal antes de registrar a thread, com o retrato atual
+    @Override
+    public void onSnapshotPublished(SatelliteSnapshot snapshot) {
+        store.edit().copyFrom(snapshot);
+        store.publish();
+        requestFrame(SNAPSHOT);
+    }
+
+    // Filtro da FilterEngine da atividade; reavaliado aqui no próximo quadro
+    void setFilter(SatelliteFilter filter) {
+        this.filter = filter;
+        requestFrame(SKY | BARS);
+    }
+
+    // Pede um quadro para os alvos (SKY, BARS); pode ser chamado de qualquer thread
+    void requestFrame(int targets) {
+        if (!running) {
+            return;
+        }
+        int old;
+        do {
+            old = pending.get();
+        } while (!pending.compareAndSet(old, old | targets));
+        if (old == 0) {
+            handler.post(scheduleFrame);
+        }
+    }
+
+    @VisibleForTesting
+    int getPendingTargets() {
+        return pending.get();
+    }
+
+    // O Choreographer precisa ser usado na thread dele
+    private final Runnable scheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            if (choreographer == null) {
+                choreographer = Choreographer.getInstance();
+            }
+            // Um quadro adiado pelo limite de fps dá lugar a este
+            choreographer.removeFrameCallback(drawFrame);
+            deferredPosted = false;
+            choreographer.postFrameCallback(drawFrame);
+        }
+    };
+
+    private final Choreographer.FrameCallback drawFrame = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            deferredPosted = false;
+            if (!running) {
+                return;
+            }
+            int targets = pending.getAndSet(0) & FrameScheduler.ALL;
+            if (takeSnapshot()) {
+                governor.offerContent(drawnContentHash);
+            }
+            governor.setMaxFps(frameScheduler.getMaxFps());
+            targets |= governor.onFrame(frameTimeNanos);
+            if ((targets & SKY) != 0) {
+                sky.draw(frameTimeNanos);
+            }
+            if ((targets & BARS) != 0 && bars.draw(frameTimeNanos)) {
+                requestFrame(BARS);
+            }
+            // Ainda sujo: o limite de fps adiou o quadro
+            if (governor.isDirty() && !deferredPosted) {
+                deferredPosted = true;
+                long delayMillis = (governor.nanosUntilNextFrame(frameTimeNanos) + 999_999) / 1_000_000;
+                choreographer.postFrameCallbackDelayed(drawFrame, delayMillis);
+            }
+        }
+    };
+
+    // Busca o retrato mais recente do store, avalia o filtro e os DOPs dele e o entrega aos
+    // renderizadores; retorna se havia um retrato novo. Só a thread de renderização chama.
+    @VisibleForTesting
+    boolean takeSnapshot() {
+        SatelliteSnapshot snapshot = store.acquire();
+        if (snapshot.getSequence() == 0) {
+            return false; // Nada publicado ainda
+        }
+        filterEngine.setFilter(filter);
+        filterEngine.update(snapshot);
+        if (snapshot.getSequence() == drawnSequence) {
+            return false;
+        }
+        drawnSequence = snapshot.getSequence();
+        drawnContentHash = snapshot.contentHash();
+        dopEngine.update(snapshot);
+        skyRenderer.setSnapshot(snapshot, filterEngine);
+        barsRenderer.setSnapshot(snapshot, filterEngine);
+        return true;
+    }
+
+    // O mesmo desenho do onDraw sobre uma superfície limpa; usado pela thread e pelos testes
+    static void drawSky(SkyPlotRenderer renderer, Canvas canvas) {
+        canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        renderer.draw(canvas);
+    }
+
+    // Retorna se a animação das barras ainda precisa de quadros
+    static boolean drawBars(SignalBarsRenderer renderer, Canvas canvas, long nowNanos) {
+        canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        return renderer.draw(canvas, nowNanos);
+    }
+
+    // Uma TextureView e a Surface desenhada pela thread. A Surface é criada e liberada só na
+    // thread de renderização, então um quadro nunca encontra a superfície sendo destruída.
+    private final class Output implements TextureView.SurfaceTextureListener {
+        private final int target;
+        private final TextureView view;
+        private Surface surface; // Só a thread de renderização acessa
+        private SurfaceTexture texture; // Liberada por nós quando a TextureView a destrói
+
+        Output(int target, TextureView view) {
+            this.target = target;
+            this.view = view;
+        }
+
+        void attach() {
+            view.setOpaque(false);
+            view.setSurfaceTextureListener(this);
+            if (view.isAvailable()) {
+                onSurfaceTextureAvailable(view.getSurfaceTexture(), view.getWidth(), view.getHeight());
+            }
+        }
+
+        // A SurfaceTexture continua com a TextureView; só a nossa Surface é liberada
+        void detach() {
+            view.setSurfaceTextureListener(null);
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (surface != null) {
+                        surface.release();
+                        surface = null;
+                        texture = null;
+                    }
+                }
+            });
+        }
+
+        // Só trava o canvas quando vai desenhar: um canvas travado é sempre limpo antes de postado
+        boolean draw(long nowNanos) {
+            if (!running || surface == null || !surface.isValid()) {
+                return false;
+            }
+            Canvas canvas = surface.lockHardwareCanvas();
+            try {
+                if (target == SKY) {
+                    drawSky(skyRenderer, canvas);
+                    return false;
+                }
+                return drawBars(barsRenderer, canvas, nowNanos);
+            } finally {
+                surface.unlockCanvasAndPost(canvas);
+            }
+        }
+
+        @Override
+        public void onSurfaceTextureAvailable(final SurfaceTexture surfaceTexture, int width, int height) {
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    texture = surfaceTexture;
+                    surface = new Surface(surfaceTexture);
+                }
+            });
+            requestFrame(target);
+        }
+
+        @Override
+        public void onSurfaceTextureSizeChanged(SurfaceTexture surfaceTexture, int width, int height) {
+            requestFrame(target);
+        }
+
+        // Retorna false: a SurfaceTexture é liberada na thread de renderização, depois da Surface
+        @Override
+        public boolean onSurfaceTextureDestroyed(final SurfaceTexture surfaceTexture) {
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (surface != null && texture == surfaceTexture) {
+                        surface.release();
+                        surface = null;
+                        texture = null;
+                    }
+                    surfaceTexture.release();
+                }
+            });
+            return false;
+        }
+
+        @Override
+        public void onSurfaceTextureUpdated(SurfaceTexture surfaceTexture) {
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package edublt.com.locationapi;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import java.util.Arrays;
+
+import edublt.com.locationapi.core.BarModel;
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.SatelliteHistory;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
+// Desenho das barras de C/N0, separado da SignalQualityView para servir ao onDraw dela e
+// à PlotRenderThread. Mantém o BarModel (animado pelo relógio de quem desenha), os
+// rótulos, as linhas de histórico e a rolagem. Como no SkyPlotRenderer, o retrato e o
+// histórico são entregues pela thread que desenha, e os pedidos da UI (tamanho, ordem,
+// rolagem) passam por PlotRenderThread.LOCK e são copiados no início de cada quadro.
+final class SignalBarsRenderer {
+    static final float LABEL_TEXT_SIZE = 30;
+    // Cor das barras por GnssBand, para separar os sinais L1 e L5 de um mesmo satélite
+    private static final int[] BAND_COLORS = {
+            Color.BLUE, Color.BLUE, Color.rgb(0, 150, 136), Color.rgb(103, 58, 183), Color.rgb(0, 121, 107)
+    };
+
+    private final Paint paint = new Paint(); // Objeto Paint utilizado para desenhar na tela
+    private final Paint groupPaint = new Paint(); // Separadores e nomes dos grupos
+    private SatelliteSnapshot snapshot; // Retrato compartilhado com o céu
+    private FilterEngine filterEngine; // Índices filtrados do retrato, compartilhados com o céu
+    private int width, height;
+
+    // Barras mantidas entre os retratos, atualizadas quando o filtro muda de versão
+    private final BarModel barModel = new BarModel(64);
+    private long barFilterVersion = -1;
+
+    // Textos dos SVIDs criados uma única vez por valor
+    private String[] svidLabels = new String[256];
+
+    // Rolagem horizontal quando as barras não cabem na largura
+    private final float minBarPitch;
+    private float scrollOffset;
+    private float maxScroll;
+
+    // Pedidos da thread principal e o resultado da rolagem no último quadro, protegidos por
+    // PlotRenderThread.LOCK
+    private int requestedWidth, requestedHeight;
+    private int requestedOrder = BarModel.ORDER_RECEIVER;
+    private float requestedScroll, drawnMaxScroll;
+
+    // Linha de C/N0 ao longo da janela do histórico sobre cada barra, como segmentos
+    // em coordenadas da própria barra, prontos para drawLines; remontada só quando o
+    // histórico, o filtro ou o tamanho das barras mudam
+    private static final int MAX_SPARK_POINTS = 32;
+    private SatelliteHistory history;
+    private final Paint sparkPaint = new Paint();
+    private float[] sparkLines = new float[0];
+    private int[] sparkOffset = new int[0], sparkCount = new int[0]; // Por slot do BarModel
+    private long sparkHistoryVersion = -1, sparkFilterVersion = -1;
+    private int sparkBarWidth, sparkHeight;
+
+    // minBarPitch em pixels: largura mínima de barra + espaço
+    SignalBarsRenderer(float minBarPitch) {
+        this.minBarPitch = minBarPitch;
+        paint.setTextSize(LABEL_TEXT_SIZE);
+        paint.setTextAlign(Paint.Align.CENTER);
+        groupPaint.setColor(Color.GRAY);
+        groupPaint.setStrokeWidth(2);
+        groupPaint.setTextSize(LABEL_TEXT_SIZE * 0.8f);
+        sparkPaint.setStyle(Paint.Style.STROKE);
+        sparkPaint.setStrokeWidth(2);
+        sparkPaint.setColor(Color.YELLOW);
+    }
+
+    void setSize(int w, int h) {
+        synchronized (PlotRenderThread.LOCK) {
+            requestedWidth = w;
+            requestedHeight = h;
+        }
+    }
+
+    // Copia os pedidos da thread principal; o resto do quadro acontece sem o lock
+    private void applyRequests() {
+        int order;
+        synchronized (PlotRenderThread.LOCK) {
+            width = requestedWidth;
+            height = requestedHeight;
+            order = requestedOrder;
+            scrollOffset = requestedScroll;
+        }
+        if (order != barModel.getOrder()) {
+            barModel.setOrder(order);
+            sparkFilterVersion = -1; // As linhas seguem a ordem das barras
+        }
+    }
+
+    // Desenha as barras animadas até nowNanos; retorna se a animação ainda precisa de quadros
+    boolean draw(Canvas canvas, long nowNanos) {
+        if (snapshot == null) {
+            return false;
+        }
+        boolean measure = HotPathMetrics.enabled;
+        long start = measure ? System.nanoTime() : 0;
+        int allocations = measure ? HotPathMetrics.allocationCount() : 0;
+        applyRequests();
+
+        // Compara o retrato com as barras atuais só quando o filtro foi reavaliado
+        if (filterEngine.getVersion() != barFilterVersion) {
+            barFilterVersion = filterEngine.getVersion();
+            barModel.update(snapshot, filterEngine.getIndices(), filterEngine.getCount());
+        }
+        boolean animating = barModel.animate(nowNanos);
+
+        int count = barModel.getCount();
+
+        // As barras dividem a largura enquanto couberem; depois disso a área rola
+        float pitch = count * minBarPitch <= width ? (float) width / Math.max(count, 1) : minBarPitch;
+        maxScroll = Math.max(0f, count * pitch - width);
+        scrollOffset = Math.min(Math.max(scrollOffset, 0f), maxScroll);
+        synchronized (PlotRenderThread.LOCK) {
+            drawnMaxScroll = maxScroll;
+            requestedScroll = Math.min(requestedScroll, maxScroll);
+        }
+        int barWidth = (int) (pitch * 0.75f); // Espaçamento de 1/4 entre as barras
+        boolean grouped = barModel.getOrder() == BarModel.ORDER_CONSTELLATION;
+
+        if (history != null) {
+            synchronized (history) {
+                updateSparklines(barWidth, height);
+            }
+        }
+
+        for (int k = 0; k < count; k++) {
+            int slot = barModel.getSlot(k);
+            float left = barModel.getPosition(slot) * pitch - scrollOffset;
+            // Virtualização: só desenha as barras visíveis
+            if (left + pitch < 0 || left > width) {
+                continue;
+            }
+            int barHeight = (int) (barModel.getHeight(slot) / 100.0 * height); // Calcula a altura da barra com base no C/N0
+
+            // Desenha a barra na posição correta, com a cor da banda; as que estão saindo ficam cinza
+            paint.setColor(barModel.isPresent(slot) ? BAND_COLORS[barModel.getBand(slot)] : Color.GRAY);
+            canvas.drawRect(left, height - barHeight, left + barWidth, height, paint);
+
+            // Desenha o SVID (identificador do satélite) dentro da barra
+            paint.setColor(Color.WHITE);
+            canvas.drawText(svidLabel(barModel.getSvid(slot)), left + barWidth / 2f, height - barHeight / 2f, paint);
+
+            // Linha do histórico de C/N0 sobre a barra
+            if (history != null && sparkCount[slot] > 0) {
+                canvas.save();
+                canvas.translate(left, 0);
+                canvas.drawLines(sparkLines, sparkOffset[slot], sparkCount[slot], sparkPaint);
+                canvas.restore();
+            }
+
+            // Agrupadas por constelação: separador e nome no início de cada grupo
+            if (grouped && (k == 0 || barModel.getConstellation(barModel.getSlot(k - 1)) != barModel.getConstellation(slot))) {
+                float x = left - (pitch - barWidth) / 2f;
+                canvas.drawLine(x, 0, x, height, groupPaint);
+                canvas.drawText(Constellation.name(barModel.getConstellation(slot)), x + 4, groupPaint.getTextSize(), groupPaint);
+            }
+        }
+
+        if (measure) {
+            HotPathMetrics.end(HotPathMetrics.DRAW_BARS, start, allocations);
+        }
+        return animating;
+    }
+
+    private String svidLabel(int svid) {
+        if (svid < 0) {
+            return String.valueOf(svid);
+        }
+        if (svid >= svidLabels.length) {
+            svidLabels = Arrays.copyOf(svidLabels, Math.max(svid + 1, svidLabels.length * 2));
+        }
+        String label = svidLabels[svid];
+        if (label == null) {
+            label = String.valueOf(svid);
+            svidLabels[svid] = label;
+        }
+        return label;
+    }
+
+    // Remonta as linhas de histórico se algo mudou. O eixo X de cada barra é a janela do
+    // histórico terminando no instante do retrato; o eixo Y usa a mesma escala das barras.
+    private void updateSparklines(int barWidth, int height) {
+        if (history.getVersion() == sparkHistoryVersion && filterEngine.getVersion() == sparkFilterVersion
+                && barWidth == sparkBarWidth && height == sparkHeight) {
+            return;
+        }
+        sparkHistoryVersion = history.getVersion();
+        sparkFilterVersion = filterEngine.getVersion();
+        sparkBarWidth = barWidth;
+        sparkHeight = height;
+
+        int count = barModel.getCount();
+        int needed = count * (MAX_SPARK_POINTS + 1) * 4;
+        if (sparkLines.length < needed) {
+            sparkLines = new float[needed];
+        }
+        if (sparkOffset.length < barModel.getCapacity()) {
+            sparkOffset = new int[barModel.getCapacity()];
+            sparkCount = new int[barModel.getCapacity()];
+        }
+        long end = snapshot.getTimestampMillis();
+        float window = history.getWindowMillis();
+        int maxPoints = Math.max(2, Math.min(MAX_SPARK_POINTS, barWidth / 2));
+        int n = 0;
+        for (int k = 0; k < count; k++) {
+            int slot = barModel.getSlot(k);
+            sparkOffset[slot] = n;
+            sparkCount[slot] = 0;
+            int track = history.findTrack(barModel.getConstellation(slot), barModel.getSvid(slot), barModel.getBand(slot));
+            if (track == SatelliteHistory.NO_TRACK) {
+                continue;
+            }
+            int samples = history.getSampleCount(track);
+            if (samples < 2) {
+                continue;
+            }
+            int stride = (samples + maxPoints - 1) / maxPoints;
+            float lastX = 0, lastY = 0;
+            for (int j = 0; j < samples; j += stride) {
+                if (j + stride >= samples) {
+                    j = samples - 1;
+                }
+                float age = (end - history.getTimeMillis(track, j)) / window;
+                float x = (1f - Math.min(age, 1f)) * barWidth;
+                float y = height - history.getCn0DbHz(track, j) / 100f * height;
+                if (j > 0) {
+                    sparkLines[n++] = lastX;
+                    sparkLines[n++] = lastY;
+                    sparkLines[n++] = x;
+                    sparkLines[n++] = y;
+                }
+                lastX = x;
+                lastY = y;
+            }
+            sparkCount[slot] = n - sparkOffset[slot];
+        }
+    }
+
+    // Define o retrato e o filtro já avaliado; os arrays não são copiados. Como setHistory,
+    // só é chamado pela thread que desenha.
+    void setSnapshot(SatelliteSnapshot snapshot, FilterEngine filterEngine) {
+        this.snapshot = snapshot;
+        this.filterEngine = filterEngine;
+    }
+
+    void setHistory(SatelliteHistory history) {
+        this.history = history;
+        sparkHistoryVersion = -1;
+    }
+
+    void setOrder(int order) {
+        synchronized (PlotRenderThread.LOCK) {
+            requestedOrder = order;
+        }
+    }
+
+    int getOrder() {
+        synchronized (PlotRenderThread.LOCK) {
+            return requestedOrder;
+        }
+    }
+
+    float getScrollOffset() {
+        synchronized (PlotRenderThread.LOCK) {
+            return requestedScroll;
+        }
+    }
+
+    // A posição é limitada a [0, maxScroll] do último quadro desenhado
+    void setScrollOffset(float offset) {
+        synchronized (PlotRenderThread.LOCK) {
+            requestedScroll = Math.min(Math.max(offset, 0f), drawnMaxScroll);
+        }
+    }
+
+    float getMaxScroll() {
+        synchronized (PlotRenderThread.LOCK) {
+            return drawnMaxScroll;
+        }
+    }
+}
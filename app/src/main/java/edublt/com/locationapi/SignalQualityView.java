@@ -1,78 +1,176 @@
 package edublt.com.locationapi;
 
+import android.app.AlertDialog;
 import android.content.Context;
+import android.content.DialogInterface;
+import android.content.SharedPreferences;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
+import android.preference.PreferenceManager;
 import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
 import android.view.View;
+import android.widget.OverScroller;
 
 import androidx.annotation.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
+import edublt.com.locationapi.core.BarModel;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.SatelliteHistory;
+import edublt.com.locationapi.core.SatelliteSnapshot;
 
+// Barras de C/N0, uma por sinal. O estado das barras (BarModel) é mantido entre os
+// retratos e comparado com cada retrato novo, então as barras mantêm a identidade e
+// a altura e a posição são animadas sem alocar por quadro. Com muitos sinais as barras
+// têm uma largura mínima, a área rola na horizontal (arrastar/arremessar) e só as
+// barras visíveis são desenhadas. Um toque longo escolhe a ordem das barras.
 public class SignalQualityView extends View {
-    private Paint paint; // Objeto Paint utilizado para desenhar na tela
-    private List<SatelliteInfo> satelliteInfoList = new ArrayList<>(); // Lista para armazenar informações dos satélites
+    private static final float MIN_BAR_PITCH_DP = 24; // Largura mínima de barra + espaço
+    private static final String PREFS_KEY_ORDER = "bar_order";
 
-    // Construtor da classe, que inicializa o Paint
+    // Todo o desenho fica no SignalBarsRenderer; a view trata os toques e a animação
+    private final SignalBarsRenderer renderer;
+    private PlotRenderThread renderThread; // Não nulo quando as barras são desenhadas numa TextureView
+    private FrameScheduler frameScheduler; // Pede os quadros da animação (respeitando o limite de fps)
+    private SatelliteSnapshot snapshot; // Último retrato entregue, devolvido ao renderizador na volta ao onDraw
+    private FilterEngine filterEngine;
+
+    private final OverScroller scroller;
+    private final GestureDetector gestureDetector;
+
+    // Construtor da classe, que cria o renderizador com a ordem salva
     public SignalQualityView(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
-        paint = new Paint(); // Inicializa o objeto Paint
+        renderer = new SignalBarsRenderer(MIN_BAR_PITCH_DP * context.getResources().getDisplayMetrics().density);
+        scroller = new OverScroller(context);
+        gestureDetector = new GestureDetector(context, gestureListener);
+        renderer.setOrder(PreferenceManager.getDefaultSharedPreferences(context).getInt(PREFS_KEY_ORDER, BarModel.ORDER_RECEIVER));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        renderer.setSize(w, h);
+    }
+
+    SignalBarsRenderer getRenderer() {
+        return renderer;
+    }
+
+    // Com uma PlotRenderThread as barras (e a animação delas) são desenhadas por ela, numa
+    // TextureView atrás desta view, com os retratos dela; os pedidos de redesenho continuam
+    // chegando por invalidate(). Chamado depois de a thread começar ou terminar.
+    void setRenderThread(PlotRenderThread renderThread) {
+        this.renderThread = renderThread;
+        if (renderThread == null && snapshot != null) {
+            renderer.setSnapshot(snapshot, filterEngine);
+        }
+        invalidate();
     }
 
     // Método responsável por desenhar na tela
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
+        if (renderThread != null) {
+            renderThread.requestFrame(PlotRenderThread.BARS);
+        } else if (renderer.draw(canvas, System.nanoTime())) {
+            requestFrame();
+        }
+    }
 
-        // Configuração do Paint para desenhar as barras
-        paint.setStyle(Paint.Style.FILL); // Define o estilo do Paint como preenchido
-        paint.setColor(Color.BLUE); // Define a cor azul para as barras
+    // Próximo quadro da animação; passa pelo FrameScheduler para respeitar o limite de fps
+    private void requestFrame() {
+        if (frameScheduler != null) {
+            frameScheduler.invalidate(FrameScheduler.BARS);
+        } else {
+            postInvalidateOnAnimation();
+        }
+    }
 
-        // Obtém a largura e altura da tela
-        int width = getWidth();
-        int height = getHeight();
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        return gestureDetector.onTouchEvent(event) || super.onTouchEvent(event);
+    }
 
-        // Calcula a largura de cada barra com base no número de satélites
-        int barWidth = width / (satelliteInfoList.size() == 0 ? 1 : satelliteInfoList.size());
-        int barSpacing = barWidth / 4; // Adiciona espaçamento entre as barras
-        barWidth = barWidth - barSpacing; // Ajusta a largura das barras após aplicar o espaçamento
+    // A rolagem segue o dedo diretamente, sem passar pelo limite de fps
+    @Override
+    public void computeScroll() {
+        if (scroller.computeScrollOffset()) {
+            renderer.setScrollOffset(scroller.getCurrX());
+            postInvalidateOnAnimation();
+        }
+    }
 
-        // Loop para desenhar as barras para cada satélite
-        for (int i = 0; i < satelliteInfoList.size(); i++) {
-            SatelliteInfo satInfo = satelliteInfoList.get(i); // Obtém as informações de cada satélite
-            float snr = satInfo.snr; // Relação sinal-ruído (Signal-to-Noise Ratio)
-            int barHeight = (int) (snr / 100.0 * height); // Calcula a altura da barra com base no SNR
+    private final GestureDetector.SimpleOnGestureListener gestureListener = new GestureDetector.SimpleOnGestureListener() {
+        @Override
+        public boolean onDown(MotionEvent e) {
+            scroller.forceFinished(true);
+            return true;
+        }
 
-            // Desenha a barra na posição correta
-            canvas.drawRect(i * (barWidth + barSpacing), height - barHeight, (i * (barWidth + barSpacing)) + barWidth, height, paint);
+        @Override
+        public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+            if (renderer.getMaxScroll() == 0) {
+                return false;
+            }
+            renderer.setScrollOffset(renderer.getScrollOffset() + distanceX);
+            postInvalidateOnAnimation();
+            return true;
+        }
 
-            // Desenha o SVID (identificador do satélite) dentro da barra
-            paint.setColor(Color.WHITE); // Define a cor branca para o texto
-            paint.setTextSize(30); // Define o tamanho do texto
-            paint.setTextAlign(Paint.Align.CENTER); // Alinha o texto no centro
-            canvas.drawText(String.valueOf(satInfo.svid), (i * (barWidth + barSpacing)) + (barWidth / 2), height - barHeight / 2, paint);
+        @Override
+        public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+            float maxScroll = renderer.getMaxScroll();
+            if (maxScroll == 0) {
+                return false;
+            }
+            scroller.fling((int) renderer.getScrollOffset(), 0, (int) -velocityX, 0, 0, (int) maxScroll, 0, 0);
+            postInvalidateOnAnimation();
+            return true;
+        }
 
-            paint.setColor(Color.BLUE); // Restaura a cor azul para a próxima barra
+        @Override
+        public void onLongPress(MotionEvent e) {
+            showOrderDialog();
         }
+    };
+
+    // Diálogo para escolher a ordem das barras, salva nas SharedPreferences
+    private void showOrderDialog() {
+        String[] orders = {"Ordem do receptor", "Agrupar por constelação", "Ordenar por C/N0"};
+        new AlertDialog.Builder(getContext())
+                .setTitle("Ordem das barras")
+                .setItems(orders, new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        renderer.setOrder(which); // As linhas de histórico seguem a nova ordem
+                        SharedPreferences.Editor editor = PreferenceManager.getDefaultSharedPreferences(getContext()).edit();
+                        editor.putInt(PREFS_KEY_ORDER, which);
+                        editor.apply();
+                        requestFrame();
+                    }
+                })
+                .show();
     }
 
-    // Método para definir a lista de informações dos satélites e redesenhar a tela
-    public void setSatelliteInfoList(List<SatelliteInfo> satelliteInfoList) {
-        this.satelliteInfoList = satelliteInfoList;
-        invalidate(); // Solicita a atualização da tela
+    // Método para definir o retrato e o filtro já avaliado; o redesenho é decidido pelo FrameScheduler.
+    // Os arrays não são copiados: a view lê diretamente o retrato compartilhado.
+    public void setSnapshot(SatelliteSnapshot snapshot, FilterEngine filterEngine) {
+        this.snapshot = snapshot;
+        this.filterEngine = filterEngine;
+        if (renderThread == null) {
+            renderer.setSnapshot(snapshot, filterEngine);
+        }
     }
 
-    // Classe interna para armazenar as informações de cada satélite (SVID e SNR)
-    static class SatelliteInfo {
-        int svid; // Identificador do satélite
-        float snr; // Relação sinal-ruído (Signal-to-Noise Ratio)
+    void setFrameScheduler(FrameScheduler frameScheduler) {
+        this.frameScheduler = frameScheduler;
+    }
 
-        SatelliteInfo(int svid, float snr) {
-            this.svid = svid;
-            this.snr = snr;
-        }
+    // Histórico usado para as linhas de C/N0 (gravado a cada status, com trava no próprio objeto)
+    public void setHistory(SatelliteHistory history) {
+        renderer.setHistory(history);
+        invalidate();
     }
 }
@@ -0,0 +1,166 @@
+package edublt.com.locationapi;
+
+import android.app.Activity;
+import android.app.AlertDialog;
+import android.content.DialogInterface;
+import android.widget.Toast;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import edublt.com.locationapi.core.SatelliteSnapshot;
+import edublt.com.locationapi.core.SkyHeatmap;
+
+// Mapa de C/N0 do céu nesta sessão (SkyHeatmap) e o diálogo dele: mostrar no céu,
+// exportar, juntar com mapas exportados antes e zerar. Os status chegam na thread que
+// publica os retratos (ingestão ou reprodução), um a um, então nenhum se perde no
+// coalescimento dos quadros. O mapa é protegido por trava no próprio objeto, que também
+// é segurada pelo SkyPlotRenderer ao rasterizar as células alteradas.
+class SkyHeatmapController {
+    private static final String HEATMAP_SUFFIX = ".heat";
+
+    private final Activity activity;
+    private final EsferaCelesteView skyView;
+    private final FrameScheduler frameScheduler;
+    private final SkyHeatmap heatmap = new SkyHeatmap(); // Protegido por 'heatmap'
+
+    SkyHeatmapController(Activity activity, EsferaCelesteView skyView, FrameScheduler frameScheduler) {
+        this.activity = activity;
+        this.skyView = skyView;
+        this.frameScheduler = frameScheduler;
+        skyView.setHeatmap(heatmap);
+    }
+
+    // Chamado na thread que publica, uma vez por status (ver GnssIngestion.StatusListener)
+    void addStatus(SatelliteSnapshot status) {
+        synchronized (heatmap) {
+            heatmap.addStatus(status);
+        }
+    }
+
+    // Os mapas exportados vão para 'exportsDirectory' e são lidos de lá para juntar
+    void showDialog(final File exportsDirectory) {
+        String[] items = {
+                skyView.isHeatmapVisible() ? "Ocultar do céu" : "Mostrar no céu",
+                "Exportar",
+                "Juntar mapas exportados",
+                "Zerar"
+        };
+        long samples;
+        synchronized (heatmap) {
+            samples = heatmap.getSampleCount();
+        }
+        AlertDialog.Builder builder = new AlertDialog.Builder(activity);
+        builder.setTitle("Mapa de C/N0 (" + samples + " amostras)");
+        builder.setItems(items, new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                switch (which) {
+                    case 0:
+                        skyView.setHeatmapVisible(!skyView.isHeatmapVisible());
+                        frameScheduler.invalidate(FrameScheduler.SKY);
+                        break;
+                    case 1:
+                        export(exportsDirectory);
+                        break;
+                    case 2:
+                        mergeExported(exportsDirectory);
+                        break;
+                    default:
+                        synchronized (heatmap) {
+                            heatmap.clear();
+                        }
+                        frameScheduler.invalidate(FrameScheduler.SKY);
+                        break;
+                }
+            }
+        });
+        builder.show();
+    }
+
+    // Grava uma cópia do mapa em 'directory' (binário, para juntar depois, e CSV), fora da thread principal
+    private void export(final File directory) {
+        final SkyHeatmap copy = new SkyHeatmap();
+        synchronized (heatmap) {
+            copy.merge(heatmap);
+        }
+        final String name = "heatmap-" + System.currentTimeMillis();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                String message;
+                try {
+                    if (!directory.isDirectory() && !directory.mkdirs()) {
+                        throw new IOException("Não foi possível criar " + directory);
+                    }
+                    try (OutputStream out = new BufferedOutputStream(
+                            new FileOutputStream(new File(directory, name + HEATMAP_SUFFIX)))) {
+                        copy.write(out);
+                    }
+                    try (Writer writer = new FileWriter(new File(directory, name + ".csv"))) {
+                        copy.exportCsv(writer);
+                    }
+                    message = "Mapa salvo em " + directory.getAbsolutePath();
+                } catch (IOException e) {
+                    message = "Falha ao salvar o mapa: " + e.getMessage();
+                }
+                showToast(message);
+            }
+        }, "heatmap-export").start();
+    }
+
+    // Lê os mapas exportados numa thread e soma o resultado ao mapa atual
+    private void mergeExported(File directory) {
+        final File[] files = directory.listFiles();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                SkyHeatmap merged = new SkyHeatmap();
+                int count = 0;
+                String failure = null;
+                if (files != null) {
+                    for (File file : files) {
+                        if (!file.getName().endsWith(HEATMAP_SUFFIX)) {
+                            continue;
+                        }
+                        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+                            merged.mergeFrom(in);
+                            count++;
+                        } catch (IOException e) {
+                            failure = file.getName() + ": " + e.getMessage();
+                        }
+                    }
+                }
+                synchronized (heatmap) {
+                    heatmap.merge(merged);
+                }
+                final String message = failure != null ? "Falha ao ler " + failure
+                        : count + " mapas somados (" + merged.getSampleCount() + " amostras)";
+                activity.runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        frameScheduler.invalidate(FrameScheduler.SKY);
+                        Toast.makeText(activity, message, Toast.LENGTH_LONG).show();
+                    }
+                });
+            }
+        }, "heatmap-merge").start();
+    }
+
+    private void showToast(final String message) {
+        activity.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                Toast.makeText(activity, message, Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+}
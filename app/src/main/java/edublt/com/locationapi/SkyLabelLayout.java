@@ -0,0 +1,197 @@
+package edublt.com.locationapi;
+
+import android.graphics.Paint;
+import android.util.LongSparseArray;
+
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.GnssBand;
+import edublt.com.locationapi.core.LabelGrid;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
+// Posiciona os rótulos dos satélites na esfera celeste. O texto e a largura medida de
+// cada rótulo ficam em cache por (svid, constelação, banda, usado na localização), e uma grade
+// de ocupação evita rótulos sobrepostos: cada rótulo tenta quatro posições ao redor do
+// marcador e é escondido se nenhuma estiver livre. O layout só é refeito quando o
+// retrato, o filtro ou o tamanho mudam; fora isso o custo por quadro é quase nulo.
+class SkyLabelLayout {
+    static final float LABEL_TEXT_SIZE = 30;
+    private static final float MARKER_RADIUS = 10;
+    private static final float CELL_SIZE = 16; // Célula da grade de ocupação
+    // Distância entre o centro do marcador e o rótulo. A grade só enxerga células inteiras:
+    // com menos de uma célula além do marcador, o rótulo cairia na célula da borda do
+    // próprio marcador e nenhuma posição seria aceita.
+    private static final float GAP = MARKER_RADIUS + CELL_SIZE;
+
+    // Rótulo em cache: texto já montado e largura medida em LABEL_TEXT_SIZE
+    private static final class Label {
+        final String text;
+        final float width;
+
+        Label(String text, float width) {
+            this.text = text;
+            this.width = width;
+        }
+    }
+
+    private final LongSparseArray<Label> labelCache = new LongSparseArray<>();
+    private final Paint measurePaint = new Paint();
+    private final LabelGrid grid = new LabelGrid(CELL_SIZE);
+    private final float textHeight;
+
+    // Resultado do último layout, indexado pela posição no FilterEngine
+    private String[] texts = new String[64];
+    private float[] textX = new float[64], textY = new float[64];
+    private int count;
+
+    // Chave do último layout
+    private FilterEngine layoutFilterEngine;
+    private long layoutVersion = -1;
+    private int layoutWidth, layoutHeight, layoutRadius;
+
+    SkyLabelLayout() {
+        measurePaint.setTextSize(LABEL_TEXT_SIZE);
+        textHeight = measurePaint.descent() - measurePaint.ascent();
+    }
+
+    // Refaz o layout se algo mudou desde a última chamada
+    void update(SatelliteSnapshot snapshot, FilterEngine filterEngine, int width, int height, int radius) {
+        // A versão do filtro muda sempre que o retrato ou os critérios mudam
+        if (filterEngine == layoutFilterEngine && filterEngine.getVersion() == layoutVersion
+                && width == layoutWidth && height == layoutHeight && radius == layoutRadius) {
+            return;
+        }
+        layoutFilterEngine = filterEngine;
+        layoutVersion = filterEngine.getVersion();
+        layoutWidth = width;
+        layoutHeight = height;
+        layoutRadius = radius;
+
+        int[] indices = filterEngine.getIndices();
+        int n = filterEngine.getCount();
+        if (n > texts.length) {
+            int capacity = Math.max(n, texts.length * 2);
+            texts = new String[capacity];
+            textX = new float[capacity];
+            textY = new float[capacity];
+        }
+        count = n;
+
+        grid.reset(width, height);
+        // Os marcadores sempre aparecem, então ocupam a grade antes dos rótulos
+        for (int k = 0; k < n; k++) {
+            int i = indices[k];
+            float x = centerX(snapshot, i, width, radius);
+            float y = centerY(snapshot, i, height, radius);
+            grid.forceOccupy(x - MARKER_RADIUS, y - MARKER_RADIUS, x + MARKER_RADIUS, y + MARKER_RADIUS);
+        }
+        // Satélites usados na localização têm prioridade sobre os demais
+        for (int pass = 0; pass < 2; pass++) {
+            boolean wantUsed = pass == 0;
+            for (int k = 0; k < n; k++) {
+                int i = indices[k];
+                if (snapshot.isUsedInFix(i) == wantUsed) {
+                    place(snapshot, k, i, width, height, radius);
+                }
+            }
+        }
+    }
+
+    // Tenta direita, esquerda, acima e abaixo do marcador
+    private void place(SatelliteSnapshot snapshot, int k, int i, int width, int height, int radius) {
+        Label label = labelFor(snapshot, i);
+        float x = centerX(snapshot, i, width, radius);
+        float y = centerY(snapshot, i, height, radius);
+        float w = label.width;
+        float h = textHeight;
+        texts[k] = null;
+        for (int position = 0; position < 4; position++) {
+            float left, top;
+            switch (position) {
+                case 0:
+                    left = x + GAP;
+                    top = y - h / 2;
+                    break;
+                case 1:
+                    left = x - GAP - w;
+                    top = y - h / 2;
+                    break;
+                case 2:
+                    left = x - w / 2;
+                    top = y - GAP - h;
+                    break;
+                default:
+                    left = x - w / 2;
+                    top = y + GAP;
+                    break;
+            }
+            if (grid.tryOccupy(left, top, left + w, top + h)) {
+                texts[k] = label.text;
+                textX[k] = left;
+                textY[k] = top - measurePaint.ascent(); // Linha de base do texto
+                return;
+            }
+        }
+    }
+
+    // Retorna o rótulo do satélite, montando e medindo apenas na primeira vez
+    private Label labelFor(SatelliteSnapshot snapshot, int i) {
+        boolean used = snapshot.isUsedInFix(i);
+        byte band = snapshot.getBand(i);
+        long key = ((long) snapshot.getConstellation(i) << 41) | ((long) band << 33)
+                | ((long) snapshot.getSvid(i) << 1) | (used ? 1 : 0);
+        Label label = labelCache.get(key);
+        if (label == null) {
+            String name = Constellation.name(snapshot.getConstellation(i));
+            if (band != GnssBand.UNKNOWN) {
+                name += " " + GnssBand.name(band);
+            }
+            String text = snapshot.getSvid(i) + " (" + name + ") " + (used ? "Used" : "Not Used");
+            label = new Label(text, measurePaint.measureText(text));
+            labelCache.put(key, label);
+        }
+        return label;
+    }
+
+    private static float centerX(SatelliteSnapshot snapshot, int i, int width, int radius) {
+        return width / 2 + snapshot.getSkyX(i) * radius;
+    }
+
+    private static float centerY(SatelliteSnapshot snapshot, int i, int height, int radius) {
+        return height / 2 - snapshot.getSkyY(i) * radius;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    // Texto do rótulo na posição k do filtro, ou null se ele foi escondido
+    String getText(int k) {
+        return texts[k];
+    }
+
+    float getX(int k) {
+        return textX[k];
+    }
+
+    float getY(int k) {
+        return textY[k];
+    }
+
+    // Maior tamanho de texto (em px inteiros, até maxSize) em que o texto cabe na largura,
+    // por busca binária: O(log maxSize) medições em vez de uma por pixel reduzido
+    static float fitTextSize(Paint paint, CharSequence text, int maxWidth, int maxSize) {
+        int low = 1, high = maxSize, best = 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            paint.setTextSize(mid);
+            if (paint.measureText(text, 0, text.length()) <= maxWidth) {
+                best = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,657 @@
+package edublt.com.locationapi;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Picture;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.RectF;
+
+import java.text.DecimalFormatSymbols;
+
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.CoordinateFormatter;
+import edublt.com.locationapi.core.DopEngine;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.LocationFormat;
+import edublt.com.locationapi.core.SatelliteHistory;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+import edublt.com.locationapi.core.SkyHeatmap;
+import edublt.com.locationapi.core.SkyPredictor;
+import edublt.com.locationapi.core.SkyProjection;
+
+// Desenho do céu, separado da EsferaCelesteView para servir aos dois caminhos: o onDraw
+// da própria view e a PlotRenderThread, que desenha numa TextureView. Guarda tudo o que
+// o desenho usa (grade gravada, trilhas, rótulos, previsão, mapa de C/N0, texto de
+// localização e DOPs). Os dados do quadro (retrato, filtro, DOPs, histórico, mapa) são
+// entregues pela thread que desenha: a principal no onDraw ou a PlotRenderThread. Os
+// pedidos da UI (tamanho, formato, seleção...) são gravados com PlotRenderThread.LOCK e
+// copiados no início de cada quadro, então o desenho em si acontece sem o lock. O
+// histórico e o mapa de C/N0 são gravados na thread que publica os retratos e lidos com
+// a trava de cada um.
+final class SkyPlotRenderer {
+    static final long NO_SELECTION = Long.MIN_VALUE;
+
+    private SatelliteSnapshot snapshot; // Último retrato entregue pela GnssIngestion
+    private long locationSequence; // Última localização já formatada
+    private final Paint paint = new Paint();
+    private final Paint gridPaint = new Paint(); // Pincel da grade estática
+    private final Picture gridPicture = new Picture(); // Grade gravada a cada mudança de tamanho
+    private boolean gridCacheEnabled = true;
+    private int r; // Raio da esfera
+    private int height, width; // Altura e largura da área de desenho
+    private double latitude;
+    private double longitude;
+    private double altitude;
+    private FilterEngine filterEngine; // Índices filtrados do retrato, compartilhados com as barras
+
+    // Texto formatado da localização (buffer reaproveitado pelo CoordinateFormatter)
+    private CharSequence formattedText;
+    private final CoordinateFormatter locationFormatter =
+            new CoordinateFormatter(DecimalFormatSymbols.getInstance().getDecimalSeparator());
+    private LocationFormat locationFormat = LocationFormat.DEGREES;
+    private float fittedTextSize; // Tamanho do texto de localização que cabe na largura (0 = recalcular)
+    private int fittedWidth;
+
+    // Diluição de precisão abaixo da localização: uma linha com todas as constelações e
+    // outra com o PDOP de cada uma; o texto só é refeito quando o DopEngine recalcula
+    private DopEngine dopEngine;
+    private long dopVersion = -1;
+    private final StringBuilder dopText = new StringBuilder();
+    private final StringBuilder dopBreakdownText = new StringBuilder();
+
+    private final SkyLabelLayout labelLayout = new SkyLabelLayout(); // Rótulos dos satélites
+
+    // Trilhas dos satélites filtrados, como segmentos prontos para drawLines. São
+    // remontadas só quando o histórico, o filtro ou o tamanho mudam.
+    private static final int MAX_TRACK_POINTS = 64; // Pontos por trilha após a decimação
+    private static final long TRACK_GAP_MILLIS = 10_000; // Intervalos maiores quebram a trilha
+    private SatelliteHistory history;
+    private final Paint trackPaint = new Paint();
+    private float[] trackLines = new float[0];
+    private int trackLineCount;
+    private long trackHistoryVersion = -1, trackFilterVersion = -1;
+    private int trackWidth, trackHeight;
+
+    private long selectedKey = NO_SELECTION; // Satélite destacado enquanto os detalhes estão abertos
+    private final Paint selectionPaint = new Paint();
+
+    // Previsão pelo almanaque (SkyPredictionWorker): trilhas da próxima hora acima do
+    // horizonte e marcadores de nascimento/ocaso na borda. Segmentos e rótulos só são
+    // refeitos quando a versão da janela ou o tamanho mudam.
+    private final SkyPredictor prediction =
+            new SkyPredictor(SkyPredictionWorker.EPOCHS, SkyPredictionWorker.STEP_MILLIS);
+    private final Paint predictionPaint = new Paint();
+    private float[] predictionLines = new float[0];
+    private int predictionLineCount;
+    private long predictionVersion = -1;
+    private int predictionWidth, predictionHeight;
+    private float[] eventX = new float[0], eventY = new float[0];
+    private String[] eventText = new String[0];
+    private int eventCount;
+
+    // Mapa de C/N0 (SkyHeatmap) por baixo da grade, rasterizado num bitmap do tamanho do
+    // céu. A cada quadro só as células alteradas são redesenhadas; o modo SRC substitui
+    // os pixels da célula em vez de misturar com a cor anterior.
+    private static final float HEATMAP_POOR_CN0 = 20f; // Vermelho
+    private static final float HEATMAP_GOOD_CN0 = 45f; // Verde
+    private SkyHeatmap heatmap;
+    private boolean heatmapVisible;
+    private Bitmap heatmapBitmap;
+    private Canvas heatmapCanvas;
+    private final Paint heatmapPaint = new Paint();
+    private final Path heatmapPath = new Path();
+    private final RectF heatmapOuter = new RectF(), heatmapInner = new RectF();
+
+    // Pedidos da thread principal, protegidos por PlotRenderThread.LOCK e copiados no
+    // início de cada quadro (applyRequests)
+    private int requestedWidth, requestedHeight;
+    private LocationFormat requestedFormat = LocationFormat.DEGREES;
+    private boolean requestedHeatmapVisible;
+    private long requestedSelectedKey = NO_SELECTION;
+    private SkyPredictionWorker predictionSource; // Janela nova a buscar, ou null
+    // Faixa do texto de localização no último quadro, lida pelos toques (também protegida)
+    private float drawnTextTop, drawnTextBottom;
+
+    SkyPlotRenderer() {
+        // Configurando o pincel para desenhar a projeção da esfera celeste
+        gridPaint.setStyle(Paint.Style.STROKE);
+        gridPaint.setStrokeWidth(5);
+        gridPaint.setColor(Color.BLUE);
+
+        trackPaint.setStyle(Paint.Style.STROKE);
+        trackPaint.setStrokeWidth(3);
+        trackPaint.setColor(Color.argb(110, 255, 0, 0));
+
+        predictionPaint.setStyle(Paint.Style.STROKE);
+        predictionPaint.setStrokeWidth(2);
+        predictionPaint.setColor(Color.argb(90, 0, 0, 160));
+
+        heatmapPaint.setStyle(Paint.Style.FILL);
+        heatmapPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC));
+
+        selectionPaint.setStyle(Paint.Style.STROKE);
+        selectionPaint.setStrokeWidth(4);
+        selectionPaint.setColor(Color.BLACK);
+    }
+
+    // Chamado na thread principal; o novo tamanho vale a partir do próximo quadro
+    void setSize(int w, int h) {
+        synchronized (PlotRenderThread.LOCK) {
+            requestedWidth = w;
+            requestedHeight = h;
+        }
+    }
+
+    // O raio só muda quando a área é redimensionada; as posições dos satélites ficam
+    // no círculo unitário e são escaladas no desenho, então nada precisa ser reprojetado
+    private void resize(int w, int h) {
+        width = w;
+        height = h;
+        r = radiusFor(w, h);
+
+        // A grade só depende do tamanho: é gravada uma vez e reproduzida em cada quadro
+        drawGrid(gridPicture.beginRecording(w, h));
+        gridPicture.endRecording();
+
+        // O mapa de C/N0 é rasterizado de novo, inteiro, no novo tamanho
+        releaseHeatmapBitmap();
+    }
+
+    // Definindo o raio da esfera celeste
+    private static int radiusFor(int width, int height) {
+        if (width < height)
+            return (int) (width / 2 * 0.9);
+        else
+            return (int) (height / 2 * 0.9);
+    }
+
+    // Tamanho e raio pedidos pela view (toques, na thread principal)
+    int getRadius() {
+        synchronized (PlotRenderThread.LOCK) {
+            return radiusFor(requestedWidth, requestedHeight);
+        }
+    }
+
+    int getWidth() {
+        synchronized (PlotRenderThread.LOCK) {
+            return requestedWidth;
+        }
+    }
+
+    int getHeight() {
+        synchronized (PlotRenderThread.LOCK) {
+            return requestedHeight;
+        }
+    }
+
+    // Copia os pedidos da thread principal; o resto do quadro acontece sem o lock
+    private void applyRequests() {
+        int w, h;
+        LocationFormat format;
+        SkyPredictionWorker newPrediction;
+        synchronized (PlotRenderThread.LOCK) {
+            w = requestedWidth;
+            h = requestedHeight;
+            format = requestedFormat;
+            heatmapVisible = requestedHeatmapVisible;
+            selectedKey = requestedSelectedKey;
+            newPrediction = predictionSource;
+            predictionSource = null;
+        }
+        if (w != width || h != height) {
+            resize(w, h);
+        }
+        if (format != locationFormat) {
+            locationFormat = format;
+            if (formattedText != null) {
+                updateLocationText();
+            }
+        }
+        if (newPrediction != null) {
+            newPrediction.copyPrediction(prediction);
+        }
+    }
+
+    // Desenha a projeção da esfera celeste (círculos concêntricos e eixos)
+    private void drawGrid(Canvas canvas) {
+        int radius = r;
+        canvas.drawCircle(computeXc(0), computeYc(0), radius, gridPaint);
+        radius = (int) (radius * Math.cos(Math.toRadians(45)));
+        canvas.drawCircle(computeXc(0), computeYc(0), radius, gridPaint);
+        radius = (int) (radius * Math.cos(Math.toRadians(60)));
+        canvas.drawCircle(computeXc(0), computeYc(0), radius, gridPaint);
+
+        // Desenhando os eixos
+        canvas.drawLine(computeXc(0), computeYc(-r), computeXc(0), computeYc(r), gridPaint);
+        canvas.drawLine(computeXc(-r), computeYc(0), computeXc(r), computeYc(0), gridPaint);
+    }
+
+    void setGridCacheEnabled(boolean enabled) {
+        gridCacheEnabled = enabled;
+    }
+
+    void draw(Canvas canvas) {
+        boolean measure = HotPathMetrics.enabled;
+        long start = measure ? System.nanoTime() : 0;
+        int allocations = measure ? HotPathMetrics.allocationCount() : 0;
+        applyRequests();
+
+        // Mapa de C/N0 por baixo de tudo
+        if (heatmapVisible && heatmap != null && width > 0 && height > 0) {
+            synchronized (heatmap) {
+                updateHeatmapBitmap();
+            }
+            canvas.drawBitmap(heatmapBitmap, 0, 0, null);
+        }
+
+        // Camada estática: a grade gravada em setSize
+        if (gridCacheEnabled) {
+            canvas.drawPicture(gridPicture);
+        } else {
+            drawGrid(canvas);
+        }
+
+        // Previsão por baixo dos satélites observados
+        if (prediction.getSatelliteCount() > 0) {
+            drawPrediction(canvas);
+        }
+
+        // Camada dinâmica: configurando o pincel para desenhar os satélites
+        paint.setColor(Color.RED);
+        paint.setStyle(Paint.Style.FILL);
+
+        // Desenhando os satélites se o status do GNSS estiver disponível
+        if (snapshot != null) {
+            // Trilhas por baixo dos marcadores
+            if (history != null) {
+                synchronized (history) {
+                    updateTracks();
+                }
+                canvas.drawLines(trackLines, 0, trackLineCount, trackPaint);
+            }
+
+            int[] filteredIndices = filterEngine.getIndices();
+            int filteredCount = filterEngine.getCount();
+            for (int k = 0; k < filteredCount; k++) {
+                int i = filteredIndices[k];
+                float x = snapshot.getSkyX(i) * r;
+                float y = snapshot.getSkyY(i) * r;
+                canvas.drawCircle(computeXc(x), computeYc(y), 10, paint);
+                if (selectedKey != NO_SELECTION && selectedKey == SatelliteHistory.key(snapshot.getConstellation(i),
+                        snapshot.getSvid(i), snapshot.getBand(i))) {
+                    canvas.drawCircle(computeXc(x), computeYc(y), 18, selectionPaint);
+                }
+            }
+
+            // Rótulos: o layout (com os sobrepostos escondidos) só é refeito quando algo muda
+            labelLayout.update(snapshot, filterEngine, width, height, r);
+            paint.setTextAlign(Paint.Align.LEFT);
+            paint.setTextSize(SkyLabelLayout.LABEL_TEXT_SIZE);
+            for (int k = 0; k < labelLayout.getCount(); k++) {
+                String label = labelLayout.getText(k);
+                if (label != null) {
+                    canvas.drawText(label, labelLayout.getX(k), labelLayout.getY(k), paint);
+                }
+            }
+        }
+
+        // Configurando o pincel para desenhar a posição do usuário
+        paint.setColor(Color.GREEN);
+        paint.setTextAlign(Paint.Align.CENTER);
+
+        // Use o texto formatado armazenado
+        float textTop = 0, textBottom = 0;
+        if (formattedText != null) {
+            // O tamanho só é recalculado quando o texto ou a largura mudam
+            if (fittedTextSize == 0 || fittedWidth != width) {
+                fittedTextSize = SkyLabelLayout.fitTextSize(paint, formattedText, width, 40);
+                fittedWidth = width;
+            }
+            paint.setTextSize(fittedTextSize); // Ajustando o tamanho do texto
+            canvas.drawText(formattedText, 0, formattedText.length(), computeXc(0), computeYc(-r - 50), paint); // Desenhando a posição do usuário
+            textTop = computeYc(-r - 50) - fittedTextSize;
+            textBottom = computeYc(-r - 50) + fittedTextSize * 0.3f;
+        }
+
+        // DOPs logo abaixo do texto de localização
+        if (dopEngine != null) {
+            updateDopText();
+            float size = (fittedTextSize == 0 ? 40 : fittedTextSize) * 0.8f;
+            paint.setTextSize(size);
+            float y = computeYc(-r - 50) + size * 1.2f;
+            canvas.drawText(dopText, 0, dopText.length(), computeXc(0), y, paint);
+            canvas.drawText(dopBreakdownText, 0, dopBreakdownText.length(), computeXc(0), y + size * 1.2f, paint);
+            if (textBottom > textTop) {
+                textBottom = y + size * 1.5f;
+            }
+        }
+        synchronized (PlotRenderThread.LOCK) {
+            drawnTextTop = textTop;
+            drawnTextBottom = textBottom;
+        }
+
+        if (measure) {
+            HotPathMetrics.end(HotPathMetrics.DRAW_SKY, start, allocations);
+        }
+    }
+
+    // Faixa vertical do texto de localização no último quadro desenhado (vazia sem texto)
+    float getLocationTextTop() {
+        synchronized (PlotRenderThread.LOCK) {
+            return drawnTextTop;
+        }
+    }
+
+    float getLocationTextBottom() {
+        synchronized (PlotRenderThread.LOCK) {
+            return drawnTextBottom;
+        }
+    }
+
+    // Remonta os segmentos das trilhas dos satélites filtrados, se algo mudou. Cada
+    // trilha é decimada para até MAX_TRACK_POINTS pontos, então o custo não depende
+    // do tamanho da janela do histórico.
+    private void updateTracks() {
+        if (history.getVersion() == trackHistoryVersion && filterEngine.getVersion() == trackFilterVersion
+                && width == trackWidth && height == trackHeight) {
+            return;
+        }
+        trackHistoryVersion = history.getVersion();
+        trackFilterVersion = filterEngine.getVersion();
+        trackWidth = width;
+        trackHeight = height;
+
+        int[] indices = filterEngine.getIndices();
+        int filteredCount = filterEngine.getCount();
+        int needed = filteredCount * (MAX_TRACK_POINTS + 1) * 4;
+        if (trackLines.length < needed) {
+            trackLines = new float[needed];
+        }
+        int n = 0;
+        for (int k = 0; k < filteredCount; k++) {
+            int track = history.findTrack(snapshot, indices[k]);
+            if (track == SatelliteHistory.NO_TRACK) {
+                continue;
+            }
+            int samples = history.getSampleCount(track);
+            if (samples < 2) {
+                continue;
+            }
+            int stride = (samples + MAX_TRACK_POINTS - 1) / MAX_TRACK_POINTS;
+            float lastX = 0, lastY = 0;
+            long lastTime = 0;
+            for (int j = 0; j < samples; j += stride) {
+                // O último ponto entra sempre, para a trilha terminar no marcador
+                if (j + stride >= samples) {
+                    j = samples - 1;
+                }
+                float az = history.getAzimuthDegrees(track, j);
+                float el = history.getElevationDegrees(track, j);
+                float x = computeXc(SkyProjection.unitX(az, el) * r);
+                float y = computeYc(SkyProjection.unitY(az, el) * r);
+                long time = history.getTimeMillis(track, j);
+                if (j > 0 && time - lastTime <= TRACK_GAP_MILLIS * stride) {
+                    trackLines[n++] = lastX;
+                    trackLines[n++] = lastY;
+                    trackLines[n++] = x;
+                    trackLines[n++] = y;
+                }
+                lastX = x;
+                lastY = y;
+                lastTime = time;
+            }
+        }
+        trackLineCount = n;
+    }
+
+    // Redesenha no bitmap as células alteradas desde o último quadro (todas, se o bitmap é novo)
+    private void updateHeatmapBitmap() {
+        if (heatmapBitmap == null) {
+            heatmapBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            heatmapCanvas = new Canvas(heatmapBitmap);
+            heatmap.markAllDirty();
+        }
+        for (int cell = heatmap.nextDirty(0); cell >= 0; cell = heatmap.nextDirty(cell + 1)) {
+            drawHeatmapCell(cell);
+        }
+        heatmap.clearDirty();
+    }
+
+    private void releaseHeatmapBitmap() {
+        if (heatmapBitmap != null) {
+            heatmapBitmap.recycle();
+            heatmapBitmap = null;
+        }
+    }
+
+    // Setor anular da célula, com os raios da mesma projeção dos satélites (r·cos(elevação))
+    private void drawHeatmapCell(int cell) {
+        float step = SkyHeatmap.CELL_DEGREES;
+        int e = SkyHeatmap.elevationBin(cell);
+        float outer = (float) (r * Math.cos(Math.toRadians(e * step)));
+        float inner = (float) (r * Math.cos(Math.toRadians((e + 1) * step)));
+        float cx = computeXc(0), cy = computeYc(0);
+        heatmapOuter.set(cx - outer, cy - outer, cx + outer, cy + outer);
+        heatmapInner.set(cx - inner, cy - inner, cx + inner, cy + inner);
+        // Azimute 0° para cima, crescendo no sentido horário
+        float start = SkyHeatmap.azimuthBin(cell) * step - 90f;
+        heatmapPath.reset();
+        heatmapPath.arcTo(heatmapOuter, start, step, true);
+        heatmapPath.arcTo(heatmapInner, start + step, -step, false);
+        heatmapPath.close();
+        heatmapPaint.setColor(heatmapColor(heatmap.getCount(cell), heatmap.getMean(cell)));
+        heatmapCanvas.drawPath(heatmapPath, heatmapPaint);
+    }
+
+    // Vermelho (C/N0 médio baixo) -> amarelo -> verde; transparente sem amostras
+    private static int heatmapColor(int count, float meanCn0) {
+        if (count == 0) {
+            return Color.TRANSPARENT;
+        }
+        float t = (meanCn0 - HEATMAP_POOR_CN0) / (HEATMAP_GOOD_CN0 - HEATMAP_POOR_CN0);
+        t = Math.min(1f, Math.max(0f, t));
+        int red = t < 0.5f ? 255 : (int) ((1f - t) * 2f * 255);
+        int green = t < 0.5f ? (int) (t * 2f * 255) : 255;
+        return Color.argb(120, red, green, 0);
+    }
+
+    private void drawPrediction(Canvas canvas) {
+        updatePredictionLayout();
+        canvas.drawLines(predictionLines, 0, predictionLineCount, predictionPaint);
+        paint.setColor(predictionPaint.getColor());
+        paint.setStyle(Paint.Style.FILL);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setTextSize(SkyLabelLayout.LABEL_TEXT_SIZE);
+        for (int e = 0; e < eventCount; e++) {
+            canvas.drawCircle(eventX[e], eventY[e], 6, predictionPaint);
+            canvas.drawText(eventText[e], eventX[e], eventY[e] - 10, paint);
+        }
+    }
+
+    // Segmentos das épocas consecutivas acima do horizonte e o primeiro nascimento/ocaso de
+    // cada satélite dentro da janela, com o tempo que falta (ex.: "G12 ↑ +12 min")
+    private void updatePredictionLayout() {
+        if (prediction.getVersion() == predictionVersion && width == predictionWidth && height == predictionHeight) {
+            return;
+        }
+        predictionVersion = prediction.getVersion();
+        predictionWidth = width;
+        predictionHeight = height;
+
+        int count = prediction.getSatelliteCount();
+        int epochs = prediction.getEpochCount();
+        int needed = count * (epochs - 1) * 4;
+        if (predictionLines.length < needed) {
+            predictionLines = new float[needed];
+        }
+        if (eventText.length < count * 2) {
+            eventX = new float[count * 2];
+            eventY = new float[count * 2];
+            eventText = new String[count * 2];
+        }
+        int n = 0;
+        eventCount = 0;
+        long now = System.currentTimeMillis();
+        for (int k = 0; k < count; k++) {
+            float lastX = 0, lastY = 0;
+            boolean lastVisible = false;
+            for (int j = 0; j < epochs; j++) {
+                float az = prediction.getAzimuthDegrees(k, j);
+                float el = prediction.getElevationDegrees(k, j);
+                boolean visible = el >= 0;
+                float x = computeXc(SkyProjection.unitX(az, el) * r);
+                float y = computeYc(SkyProjection.unitY(az, el) * r);
+                if (visible && lastVisible) {
+                    predictionLines[n++] = lastX;
+                    predictionLines[n++] = lastY;
+                    predictionLines[n++] = x;
+                    predictionLines[n++] = y;
+                }
+                lastX = x;
+                lastY = y;
+                lastVisible = visible;
+            }
+            addEvent(k, prediction.findCrossingMillis(k, 0, true), true, now);
+            addEvent(k, prediction.findCrossingMillis(k, 0, false), false, now);
+        }
+        predictionLineCount = n;
+    }
+
+    private void addEvent(int k, long crossingMillis, boolean rising, long now) {
+        if (crossingMillis < 0) {
+            return;
+        }
+        // Azimute da época acima do horizonte mais próxima do cruzamento, projetado na borda
+        int j = (int) ((crossingMillis - prediction.getFirstEpochMillis()) / prediction.getStepMillis());
+        float az = prediction.getAzimuthDegrees(k, rising ? Math.min(j + 1, prediction.getEpochCount() - 1) : j);
+        eventX[eventCount] = computeXc(SkyProjection.unitX(az, 0) * r);
+        eventY[eventCount] = computeYc(SkyProjection.unitY(az, 0) * r);
+        long minutes = Math.max(0, (crossingMillis - now) / 60_000);
+        eventText[eventCount] = "" + Constellation.letter(prediction.getConstellation(k)) + prediction.getSvid(k)
+                + (rising ? " ↑ +" : " ↓ +") + minutes + " min";
+        eventCount++;
+    }
+
+    // Refaz as linhas de DOP se o DopEngine recalculou, sem alocar
+    private void updateDopText() {
+        if (dopEngine.getVersion() == dopVersion) {
+            return;
+        }
+        dopVersion = dopEngine.getVersion();
+        int all = DopEngine.COMBINED;
+        dopText.setLength(0);
+        if (Float.isNaN(dopEngine.getGdop(all))) {
+            dopText.append("DOP indisponível (").append(dopEngine.getSatelliteCount(all)).append(" sat.)");
+        } else {
+            appendDop(dopText, "GDOP ", dopEngine.getGdop(all));
+            appendDop(dopText, "  PDOP ", dopEngine.getPdop(all));
+            appendDop(dopText, "  HDOP ", dopEngine.getHdop(all));
+            appendDop(dopText, "  VDOP ", dopEngine.getVdop(all));
+            appendDop(dopText, "  TDOP ", dopEngine.getTdop(all));
+            dopText.append("  (").append(dopEngine.getSatelliteCount(all)).append(" sat.)");
+        }
+        dopBreakdownText.setLength(0);
+        for (int c = 0; c < Constellation.COUNT; c++) {
+            if (dopEngine.getSatelliteCount(c) == 0) {
+                continue;
+            }
+            if (dopBreakdownText.length() > 0) {
+                dopBreakdownText.append("  ");
+            }
+            dopBreakdownText.append(Constellation.name(c)).append(' ');
+            if (Float.isNaN(dopEngine.getPdop(c))) {
+                dopBreakdownText.append('-');
+            } else {
+                locationFormatter.appendFixed(dopBreakdownText, dopEngine.getPdop(c), 1);
+            }
+            dopBreakdownText.append(" (").append(dopEngine.getSatelliteCount(c)).append(')');
+        }
+    }
+
+    private void appendDop(StringBuilder sb, String name, float value) {
+        sb.append(name);
+        locationFormatter.appendFixed(sb, value, 1);
+    }
+
+    // Calcula a posição X do centro da tela
+    private int computeXc(double x) {
+        return (int) (x + width / 2);
+    }
+
+    // Calcula a posição Y do centro da tela
+    private int computeYc(double y) {
+        return (int) (-y + height / 2);
+    }
+
+    // Define o retrato e o filtro já avaliado para ele. Como os outros dados do quadro
+    // (setHistory, setHeatmap, setDopEngine), só é chamado pela thread que desenha.
+    void setSnapshot(SatelliteSnapshot snapshot, FilterEngine filterEngine) {
+        this.snapshot = snapshot;
+        this.filterEngine = filterEngine;
+        if (!snapshot.hasLocation() || snapshot.getLocationSequence() == locationSequence) {
+            return;
+        }
+        locationSequence = snapshot.getLocationSequence();
+        latitude = snapshot.getLatitude();
+        longitude = snapshot.getLongitude();
+        altitude = snapshot.getAltitude();
+        updateLocationText();
+    }
+
+    void setLocationFormat(LocationFormat format) {
+        synchronized (PlotRenderThread.LOCK) {
+            requestedFormat = format;
+        }
+    }
+
+    // Atualiza o texto formatado de acordo com o formato selecionado, sem alocar
+    private void updateLocationText() {
+        formattedText = locationFormatter.format(locationFormat, latitude, longitude, altitude);
+        fittedTextSize = 0;
+    }
+
+    // Há uma janela de previsão nova em 'source'; a cópia é feita no próximo quadro, pela
+    // thread que desenha (chamado na thread principal)
+    void updatePrediction(SkyPredictionWorker source) {
+        synchronized (PlotRenderThread.LOCK) {
+            predictionSource = source;
+        }
+    }
+
+    void setHeatmap(SkyHeatmap heatmap) {
+        this.heatmap = heatmap;
+        releaseHeatmapBitmap();
+    }
+
+    void setHeatmapVisible(boolean visible) {
+        synchronized (PlotRenderThread.LOCK) {
+            requestedHeatmapVisible = visible;
+        }
+    }
+
+    boolean isHeatmapVisible() {
+        synchronized (PlotRenderThread.LOCK) {
+            return requestedHeatmapVisible;
+        }
+    }
+
+    void setHistory(SatelliteHistory history) {
+        this.history = history;
+        trackHistoryVersion = -1;
+    }
+
+    void setDopEngine(DopEngine dopEngine) {
+        this.dopEngine = dopEngine;
+        dopVersion = -1;
+    }
+
+    void setSelectedKey(long key) {
+        synchronized (PlotRenderThread.LOCK) {
+            requestedSelectedKey = key;
+        }
+    }
+}
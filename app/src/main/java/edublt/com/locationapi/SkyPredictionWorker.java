@@ -0,0 +1,177 @@
+package edublt.com.locationapi;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import edublt.com.locationapi.core.Almanac;
+import edublt.com.locationapi.core.AlmanacParser;
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.SkyPredictor;
+
+// Previsão das próximas horas de céu a partir dos almanaques em files/almanac/ (YUMA:
+// .alm/.yuma; SEM: .al3/.sem; a constelação vem do nome do arquivo, ex.: galileo.alm,
+// e é GPS por padrão). A propagação roda numa thread própria ("gnss-prediction"), que
+// avança a janela a cada época; o resultado é copiado para uma cópia da frente, protegida
+// por trava, e o Listener é avisado na thread principal para buscá-la (copyPrediction).
+// Ativa entre onStart e onStop da tela.
+class SkyPredictionWorker implements DefaultLifecycleObserver {
+    private static final String TAG = "SkyPredictionWorker";
+    static final int EPOCHS = 60;
+    static final long STEP_MILLIS = 60_000; // A próxima hora, minuto a minuto
+
+    // Chamado na thread principal quando há uma janela nova
+    interface Listener {
+        void onPredictionUpdated();
+    }
+
+    private final File directory;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final SkyPredictor back = new SkyPredictor(EPOCHS, STEP_MILLIS); // Só a thread de previsão acessa
+    private final SkyPredictor front = new SkyPredictor(EPOCHS, STEP_MILLIS); // Protegida por 'front'
+    private HandlerThread thread;
+    private Handler handler;
+    private boolean almanacLoaded; // Só a thread de previsão acessa
+
+    // Última posição informada (setObserver), lida pela thread de previsão
+    private volatile boolean hasObserver;
+    private volatile double latitude, longitude, altitude;
+
+    SkyPredictionWorker(Context context, Listener listener) {
+        directory = new File(context.getFilesDir(), "almanac");
+        this.listener = listener;
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        thread = new HandlerThread("gnss-prediction", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        handler.post(loadAlmanac);
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        handler.removeCallbacks(loadAlmanac);
+        handler.removeCallbacks(advance);
+        thread.quitSafely();
+        thread = null;
+        handler = null;
+        mainHandler.removeCallbacks(notifyUpdated);
+    }
+
+    // Posição do aparelho; a janela só é refeita se ela mudou mais que 1 km (ver SkyPredictor)
+    void setObserver(double latitude, double longitude, double altitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.altitude = altitude;
+        boolean first = !hasObserver;
+        hasObserver = true;
+        Handler h = handler;
+        if (first && h != null) {
+            h.post(advance);
+        }
+    }
+
+    // Copia a última janela publicada (thread principal)
+    void copyPrediction(SkyPredictor into) {
+        synchronized (front) {
+            into.copyFrom(front);
+        }
+    }
+
+    private final Runnable loadAlmanac = new Runnable() {
+        @Override
+        public void run() {
+            Almanac almanac = new Almanac(128);
+            File[] files = directory.listFiles();
+            int week = SkyPredictor.gpsWeek(System.currentTimeMillis());
+            if (files != null) {
+                for (File file : files) {
+                    try {
+                        load(file, week, almanac);
+                    } catch (IOException e) {
+                        Log.w(TAG, "Almanaque inválido: " + file, e);
+                    }
+                }
+            }
+            if (almanac.getCount() == 0) {
+                Log.i(TAG, "Nenhum almanaque em " + directory + "; sem previsão");
+                return;
+            }
+            back.setAlmanac(almanac);
+            almanacLoaded = true;
+            advance.run();
+        }
+    };
+
+    private static void load(File file, int week, Almanac into) throws IOException {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        boolean yuma = name.endsWith(".alm") || name.endsWith(".yuma");
+        boolean sem = name.endsWith(".al3") || name.endsWith(".sem");
+        if (!yuma && !sem) {
+            return;
+        }
+        byte constellation = Constellation.GPS;
+        if (name.contains("galileo")) {
+            constellation = Constellation.GALILEO;
+        } else if (name.contains("beidou")) {
+            constellation = Constellation.BEIDOU;
+        } else if (name.contains("qzss")) {
+            constellation = Constellation.QZSS;
+        } else if (name.contains("glonass")) {
+            // O almanaque do Glonass não é kepleriano no mesmo formato
+            Log.i(TAG, "Almanaque do Glonass não suportado: " + file);
+            return;
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.US_ASCII)) {
+            int count = yuma ? AlmanacParser.parseYuma(reader, constellation, week, into)
+                    : AlmanacParser.parseSem(reader, constellation, week, into);
+            Log.i(TAG, count + " satélites de " + file.getName());
+        }
+    }
+
+    // Avança a janela até a época atual e se agenda para o início da próxima
+    private final Runnable advance = new Runnable() {
+        @Override
+        public void run() {
+            Handler h = handler;
+            if (!almanacLoaded || !hasObserver || h == null) {
+                return;
+            }
+            h.removeCallbacks(this);
+            long now = System.currentTimeMillis();
+            back.setObserver(latitude, longitude, altitude);
+            if (back.update(now) > 0) {
+                synchronized (front) {
+                    front.copyFrom(back);
+                }
+                mainHandler.post(notifyUpdated);
+            }
+            h.postDelayed(this, STEP_MILLIS - now % STEP_MILLIS);
+        }
+    };
+
+    private final Runnable notifyUpdated = new Runnable() {
+        @Override
+        public void run() {
+            listener.onPredictionUpdated();
+        }
+    };
+}
@@ -0,0 +1,99 @@
+package edublt.com.locationapi;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.IOException;
+
+import edublt.com.locationapi.bench.BenchmarkResults;
+import edublt.com.locationapi.bench.SyntheticSky;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
+import static org.junit.Assert.*;
+
+// Tempo médio do onDraw da esfera com 0, 50 e 200 satélites, com a grade redesenhada a
+// cada quadro (antes) e reproduzida da gravação (depois), e das barras para os mesmos céus.
+// Os céus vêm do SyntheticSky; os tempos também vão para build/bench/render.json, no
+// formato do JMH, para comparar execuções.
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class EsferaCelesteViewRenderBenchmarkTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1400;
+    private static final int WARMUP_FRAMES = 50;
+    private static final int MEASURED_FRAMES = 200;
+    private static final File RESULTS = new File("build/bench/render.json");
+
+    @Test
+    public void reportOnDrawTimes() throws IOException {
+        BenchmarkResults results = new BenchmarkResults();
+        System.out.println("satélites  grade-por-quadro(us)  grade-gravada(us)  barras(us)");
+        for (int satellites : new int[]{0, 50, 200}) {
+            double before = measure(satellites, false);
+            double after = measure(satellites, true);
+            double bars = measureBars(satellites);
+            System.out.printf("%9d  %20.1f  %17.1f  %10.1f%n", satellites, before, after, bars);
+            assertTrue(after > 0 && before > 0 && bars > 0);
+            String count = String.valueOf(satellites);
+            results.add("EsferaCelesteView.onDraw", before, "us/op", "satellites", count, "gridCache", "false");
+            results.add("EsferaCelesteView.onDraw", after, "us/op", "satellites", count, "gridCache", "true");
+            results.add("SignalQualityView.onDraw", bars, "us/op", "satellites", count);
+        }
+        results.write(RESULTS);
+    }
+
+    private double measure(int satellites, boolean cachedGrid) {
+        EsferaCelesteView view = new EsferaCelesteView(RuntimeEnvironment.getApplication(), null);
+        view.setGridCacheEnabled(cachedGrid);
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+        SatelliteSnapshot snapshot = syntheticSnapshot(satellites);
+        FilterEngine filterEngine = new FilterEngine();
+        filterEngine.update(snapshot);
+        view.setSnapshot(snapshot, filterEngine);
+
+        return time(view);
+    }
+
+    private double measureBars(int satellites) {
+        SignalQualityView view = new SignalQualityView(RuntimeEnvironment.getApplication(), null);
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT / 3, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT / 3);
+        SatelliteSnapshot snapshot = syntheticSnapshot(satellites);
+        FilterEngine filterEngine = new FilterEngine();
+        filterEngine.update(snapshot);
+        view.setSnapshot(snapshot, filterEngine);
+        return time(view);
+    }
+
+    private static double time(View view) {
+        Canvas canvas = new Canvas(Bitmap.createBitmap(view.getWidth(), view.getHeight(), Bitmap.Config.ARGB_8888));
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            view.draw(canvas);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            view.draw(canvas);
+        }
+        return (System.nanoTime() - start) / 1000.0 / MEASURED_FRAMES;
+    }
+
+    private static SatelliteSnapshot syntheticSnapshot(int satellites) {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(Math.max(satellites, 1));
+        new SyntheticSky(satellites, SyntheticSky.DEFAULT_CONSTELLATIONS, false, 1, satellites).next(snapshot);
+        return snapshot;
+    }
+}
@@ -0,0 +1,195 @@
+package edublt.com.locationapi;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.TextureView;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import edublt.com.locationapi.bench.SyntheticSky;
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.DopEngine;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.SatelliteFilter;
+import edublt.com.locationapi.core.SatelliteHistory;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+import edublt.com.locationapi.core.SkyHeatmap;
+
+import static org.junit.Assert.*;
+
+// O desenho nos dois modos é o mesmo renderizador; o que muda é o caminho dos dados. No
+// onDraw o retrato, o filtro e os DOPs vêm da atividade; na PlotRenderThread, de uma cópia
+// do retrato no store dela, com o filtro e os DOPs avaliados por ela. Os testes comparam
+// os quadros dos dois caminhos para o mesmo céu sintético, com um filtro que esconde
+// parte dos satélites.
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class PlotRenderThreadTest {
+    private static final int WIDTH = 1080;
+    private static final int SKY_HEIGHT = 1400;
+    private static final int BARS_HEIGHT = 450;
+    private static final int STATUSES = 60;
+    private static final SatelliteFilter FILTER = new SatelliteFilter(
+            Constellation.mask(Constellation.GPS) | Constellation.mask(Constellation.GALILEO), 15f, 0f, false);
+
+    private final SatelliteSnapshot snapshot = new SatelliteSnapshot(1);
+    private final SatelliteHistory history = new SatelliteHistory(192, 1800, 30 * 60 * 1000L);
+    private final SkyHeatmap heatmap = new SkyHeatmap();
+
+    @Test
+    public void threadPipelineDrawsTheSameSkyAsOnDraw() {
+        Bitmap onDraw = draw(skyView(FILTER));
+        assertFalse(onDraw.sameAs(draw(skyView(SatelliteFilter.ALL)))); // O filtro muda o quadro
+
+        EsferaCelesteView view = skyView(null);
+        PlotRenderThread renderThread = renderThreadFor(view, barsView(null));
+        Bitmap frame = blank(view);
+        PlotRenderThread.drawSky(view.getRenderer(), new Canvas(frame));
+
+        assertTrue(onDraw.sameAs(frame));
+        assertFalse(renderThread.takeSnapshot()); // O mesmo retrato não é entregue de novo
+    }
+
+    @Test
+    public void threadPipelineDrawsTheSameBarsAsOnDrawOnceSettled() {
+        SignalQualityView onDrawView = barsView(FILTER);
+        settle(onDrawView.getRenderer());
+        Bitmap onDraw = draw(onDrawView);
+
+        SignalQualityView view = barsView(null);
+        renderThreadFor(skyView(null), view);
+        settle(view.getRenderer());
+        Bitmap frame = blank(view);
+        assertFalse(PlotRenderThread.drawBars(view.getRenderer(), new Canvas(frame), System.nanoTime()));
+
+        assertFalse(onDraw.sameAs(blank(view)));
+        assertTrue(onDraw.sameAs(frame));
+    }
+
+    @Test
+    public void viewsDrawNothingWhileTheRenderThreadIsAttached() {
+        EsferaCelesteView sky = skyView(FILTER);
+        SignalQualityView bars = barsView(FILTER);
+        Bitmap before = draw(sky);
+        PlotRenderThread renderThread = renderThread(sky, bars);
+        renderThread.setFilter(FILTER);
+        renderThread.onSnapshotPublished(snapshot);
+        renderThread.start();
+        sky.setRenderThread(renderThread);
+        bars.setRenderThread(renderThread);
+
+        assertTrue(draw(sky).sameAs(blank(sky)));
+        assertTrue(draw(bars).sameAs(blank(bars)));
+
+        // Depois de quit nenhum quadro fica pendente e o onDraw volta com o quadro de antes
+        renderThread.quit();
+        assertEquals(0, renderThread.getPendingTargets());
+        renderThread.requestFrame(PlotRenderThread.SKY);
+        assertEquals(0, renderThread.getPendingTargets());
+        sky.setRenderThread(null);
+        bars.setRenderThread(null);
+        assertTrue(draw(sky).sameAs(before));
+    }
+
+    // Uma thread (sem iniciar) dona dos dois renderizadores, com o retrato já buscado do store
+    private PlotRenderThread renderThreadFor(EsferaCelesteView sky, SignalQualityView bars) {
+        PlotRenderThread renderThread = renderThread(sky, bars);
+        renderThread.setFilter(FILTER);
+        renderThread.takeOverRenderers();
+        sky.setRenderThread(renderThread);
+        bars.setRenderThread(renderThread);
+        renderThread.onSnapshotPublished(snapshot);
+        assertTrue(renderThread.takeSnapshot());
+        return renderThread;
+    }
+
+    private static PlotRenderThread renderThread(EsferaCelesteView sky, SignalQualityView bars) {
+        return new PlotRenderThread(
+                new TextureView(RuntimeEnvironment.getApplication()), sky.getRenderer(),
+                new TextureView(RuntimeEnvironment.getApplication()), bars.getRenderer(),
+                new FrameScheduler(RuntimeEnvironment.getApplication(), sky, bars));
+    }
+
+    // Com 'filter' a view recebe os dados como na atividade; com null, nenhum retrato
+    private EsferaCelesteView skyView(SatelliteFilter filter) {
+        feed();
+        EsferaCelesteView view = new EsferaCelesteView(RuntimeEnvironment.getApplication(), null);
+        layout(view, SKY_HEIGHT);
+        view.setHistory(history);
+        view.setHeatmap(heatmap);
+        view.setHeatmapVisible(true);
+        if (filter != null) {
+            DopEngine dopEngine = new DopEngine();
+            dopEngine.update(snapshot);
+            view.setDopEngine(dopEngine);
+            view.setSnapshot(snapshot, filterFor(filter));
+        }
+        return view;
+    }
+
+    private SignalQualityView barsView(SatelliteFilter filter) {
+        feed();
+        SignalQualityView view = new SignalQualityView(RuntimeEnvironment.getApplication(), null);
+        layout(view, BARS_HEIGHT);
+        view.setHistory(history);
+        if (filter != null) {
+            view.setSnapshot(snapshot, filterFor(filter));
+        }
+        return view;
+    }
+
+    private FilterEngine filterFor(SatelliteFilter filter) {
+        FilterEngine filterEngine = new FilterEngine();
+        filterEngine.setFilter(filter);
+        filterEngine.update(snapshot);
+        return filterEngine;
+    }
+
+    // Um minuto de céu sintético, com o histórico e o mapa gravados a cada status
+    private void feed() {
+        if (history.getTrackCount() > 0) {
+            return;
+        }
+        SyntheticSky sky = new SyntheticSky(24, SyntheticSky.DEFAULT_CONSTELLATIONS, true, 1, 11);
+        for (int i = 0; i < STATUSES; i++) {
+            sky.next(snapshot);
+            history.record(snapshot);
+            heatmap.addStatus(snapshot);
+        }
+        snapshot.setLocation(-23.5505, -46.6333, 760);
+    }
+
+    // Anima as barras até pararem; os dois caminhos comparados usam relógios diferentes
+    private static void settle(SignalBarsRenderer renderer) {
+        Canvas scratch = new Canvas(Bitmap.createBitmap(WIDTH, BARS_HEIGHT, Bitmap.Config.ARGB_8888));
+        long now = 1;
+        int frames = 0;
+        while (renderer.draw(scratch, now)) {
+            now += 100_000_000L;
+            assertTrue("animação não assentou", ++frames < 500);
+        }
+    }
+
+    private static void layout(View view, int height) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, height);
+    }
+
+    private static Bitmap draw(View view) {
+        Bitmap bitmap = blank(view);
+        view.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    private static Bitmap blank(View view) {
+        return Bitmap.createBitmap(view.getWidth(), view.getHeight(), Bitmap.Config.ARGB_8888);
+    }
+}
@@ -0,0 +1,66 @@
+package edublt.com.locationapi;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class SkyLabelLayoutTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1400;
+    private static final int RADIUS = 486;
+
+    @Test
+    public void loneSatelliteGetsALabelBesideItsMarker() {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(1);
+        snapshot.add(5, Constellation.GPS, 0f, 90f, 40f, true);
+        SkyLabelLayout layout = layout(snapshot);
+
+        assertEquals(1, layout.getCount());
+        assertNotNull(layout.getText(0));
+        // À direita do marcador, sem cobrir o centro dele
+        assertTrue(layout.getX(0) > WIDTH / 2f);
+    }
+
+    // Em qualquer posição do céu (fora das bordas) o rótulo de um satélite sozinho aparece
+    @Test
+    public void everyLoneSatelliteIsLabelled() {
+        for (int az = 0; az < 360; az += 7) {
+            for (int el = 5; el <= 90; el += 5) {
+                SatelliteSnapshot snapshot = new SatelliteSnapshot(1);
+                snapshot.add(12, Constellation.GALILEO, az, el, 35f, false);
+                assertNotNull("az=" + az + " el=" + el, layout(snapshot).getText(0));
+            }
+        }
+    }
+
+    @Test
+    public void distantSatellitesAreAllLabelled() {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(3);
+        snapshot.add(1, Constellation.GPS, 0f, 60f, 40f, true);
+        snapshot.add(2, Constellation.GPS, 120f, 60f, 40f, true);
+        snapshot.add(3, Constellation.GPS, 240f, 60f, 40f, false);
+        SkyLabelLayout layout = layout(snapshot);
+
+        assertEquals(3, layout.getCount());
+        for (int k = 0; k < 3; k++) {
+            assertNotNull(layout.getText(k));
+        }
+    }
+
+    private static SkyLabelLayout layout(SatelliteSnapshot snapshot) {
+        FilterEngine filterEngine = new FilterEngine();
+        filterEngine.update(snapshot);
+        SkyLabelLayout layout = new SkyLabelLayout();
+        layout.update(snapshot, filterEngine, WIDTH, HEIGHT, RADIUS);
+        return layout;
+    }
+}
@@ -0,0 +1,26 @@
+plugins {
+    id("java-library")
+    id("me.champeau.jmh")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    api(project(":gnss-core"))
+    testImplementation("junit:junit:4.13.2")
+}
+
+// ./gradlew :gnss-bench:jmh grava os resultados em JSON, para comparar entre execuções;
+// o profiler gc acrescenta as alocações por operação (gc.alloc.rate.norm)
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
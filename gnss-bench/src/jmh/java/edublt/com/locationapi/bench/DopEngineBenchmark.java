@@ -0,0 +1,51 @@
+package edublt.com.locationapi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.DopEngine;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
+// DopEngine com 10 a 150 satélites usados no fix, com conteúdo diferente a cada chamada
+// (nenhum recálculo é evitado)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DopEngineBenchmark {
+    private static final int SNAPSHOTS = 16;
+
+    @Param({"10", "25", "50", "100", "150"})
+    public int satellites;
+
+    private final SatelliteSnapshot[] snapshots = new SatelliteSnapshot[SNAPSHOTS];
+    private final DopEngine engine = new DopEngine();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int s = 0; s < SNAPSHOTS; s++) {
+            snapshots[s] = new SatelliteSnapshot(satellites);
+            for (int i = 0; i < satellites; i++) {
+                snapshots[s].add(1 + i % 40, Constellation.fromType(1 + i / 40 % 6), random.nextFloat() * 360f,
+                        5f + random.nextFloat() * 85f, 20f + random.nextFloat() * 25f, true);
+            }
+        }
+    }
+
+    @Benchmark
+    public float update() {
+        engine.update(snapshots[next++ & (SNAPSHOTS - 1)]);
+        return engine.getPdop(DopEngine.COMBINED);
+    }
+}
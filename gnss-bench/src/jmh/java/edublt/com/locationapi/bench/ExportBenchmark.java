@@ -0,0 +1,83 @@
+package edublt.com.locationapi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.CsvEncoder;
+import edublt.com.locationapi.core.ExportSink;
+import edublt.com.locationapi.core.GpxEncoder;
+import edublt.com.locationapi.core.NmeaEncoder;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
+// Exportação no caso pedido: uma época com 150 sinais e uma localização, gravadas em
+// NMEA, CSV e GPX ao mesmo tempo num diretório temporário, com e sem gzip. Para
+// acompanhar fixes a 10 Hz, cada operação precisa ficar bem abaixo de 100 ms.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExportBenchmark {
+    private static final int SIGNALS = 150;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private final SatelliteSnapshot snapshot = new SatelliteSnapshot(SIGNALS);
+    private File directory;
+    private ExportSink[] sinks;
+    private long timeMillis = 1714566605000L;
+    private int epoch;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("export-bench").toFile();
+        sinks = new ExportSink[]{
+                new ExportSink(directory, "b", new NmeaEncoder(), 64L << 20, 0, gzip),
+                new ExportSink(directory, "b", new CsvEncoder(), 64L << 20, 0, gzip),
+                new ExportSink(directory, "b", new GpxEncoder(), 64L << 20, 0, gzip)
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (ExportSink sink : sinks) {
+            sink.close();
+        }
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public long epoch() throws IOException {
+        epoch++;
+        timeMillis += 100;
+        snapshot.clear();
+        snapshot.setTimestampMillis(timeMillis);
+        for (int i = 0; i < SIGNALS; i++) {
+            snapshot.add(1 + i % 50, Constellation.fromType(1 + i / 50 * 2), (i * 7 + epoch * 0.01f) % 360f,
+                    5f + i % 80, 20f + (i + epoch) % 30, i % 3 == 0, (byte) (1 + i % 3));
+        }
+        for (ExportSink sink : sinks) {
+            sink.writeStatus(snapshot);
+            sink.writeLocation(timeMillis, -15.79 + epoch * 1e-6, -47.88, 1100.0);
+        }
+        return sinks[0].getBytesWritten();
+    }
+}
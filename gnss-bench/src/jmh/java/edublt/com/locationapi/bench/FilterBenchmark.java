@@ -0,0 +1,52 @@
+package edublt.com.locationapi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.SatelliteFilter;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
+// Avaliação do filtro (o antigo getFilteredSatelliteInfoList) pelo FilterEngine. Os
+// retratos se alternam, então o cache nunca acerta e cada chamada refaz os índices.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FilterBenchmark {
+    private static final int FRAMES = 64;
+
+    @Param({"16", "64", "200"})
+    public int satellites;
+
+    // "all" deixa passar tudo; "strict" fica com GPS e Galileo acima de 15° e 25 dB-Hz
+    @Param({"all", "strict"})
+    public String filter;
+
+    private SatelliteSnapshot[] frames;
+    private final FilterEngine engine = new FilterEngine();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        frames = new SyntheticSky(satellites, SyntheticSky.DEFAULT_CONSTELLATIONS, true, 10, 2).generate(FRAMES);
+        if (filter.equals("strict")) {
+            engine.setFilter(new SatelliteFilter(Constellation.mask(Constellation.GPS)
+                    | Constellation.mask(Constellation.GALILEO), 15f, 25f, false));
+        }
+    }
+
+    @Benchmark
+    public int update() {
+        engine.update(frames[next++ & (FRAMES - 1)]);
+        return engine.getCount();
+    }
+}
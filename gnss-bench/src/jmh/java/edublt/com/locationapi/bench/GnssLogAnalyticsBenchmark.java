@@ -0,0 +1,88 @@
+package edublt.com.locationapi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.GnssLogAnalytics;
+import edublt.com.locationapi.core.GnssLogStats;
+import edublt.com.locationapi.core.GnssLogWriter;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
+// Análise offline de sessões de 1 hora a 1 Hz com 60 sinais, com 1 a 8 threads: poucas
+// sessões longas (divididas por segmento) e muitas curtas. A escala com os núcleos é a
+// razão entre os tempos de 'threads'.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GnssLogAnalyticsBenchmark {
+    private static final int EPOCHS = 3600;
+    private static final int SIGNALS = 60;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"2", "32"})
+    public int sessionCount;
+
+    private File directory;
+    private List<List<File>> sessions;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("analytics-bench").toFile();
+        SatelliteSnapshot status = new SatelliteSnapshot(SIGNALS);
+        for (int s = 0; s < sessionCount; s++) {
+            try (GnssLogWriter writer = new GnssLogWriter(directory, "bench" + s, 1 << 20)) {
+                for (int epoch = 0; epoch < EPOCHS; epoch++) {
+                    long t = epoch * 1000L;
+                    status.clear();
+                    status.setTimestampMillis(t);
+                    for (int i = 0; i < SIGNALS; i++) {
+                        status.add(1 + i % 30, Constellation.fromType(1 + i / 30 * 5), (i * 37 + epoch * 0.01f) % 360f,
+                                (i * 13 + epoch * 0.005f) % 90f, 15f + (i + epoch) % 35, i % 4 == 0);
+                    }
+                    writer.writeStatus(status);
+                    if (epoch >= 25 + s) {
+                        writer.writeLocation(t, -15.8, -47.9, 1100.0);
+                    }
+                }
+            }
+        }
+        sessions = GnssLogAnalytics.listSessions(Collections.singletonList(directory));
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public GnssLogStats analyze() throws IOException {
+        return GnssLogAnalytics.analyze(sessions, pool);
+    }
+}
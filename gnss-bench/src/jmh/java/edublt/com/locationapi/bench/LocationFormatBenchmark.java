@@ -0,0 +1,85 @@
+package edublt.com.locationapi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import edublt.com.locationapi.core.CoordinateFormatter;
+import edublt.com.locationapi.core.LocationFormat;
+
+// Formatação do texto de localização da esfera celeste, nos três formatos: o
+// CoordinateFormatter contra o caminho antigo com String.format (linha de base). As
+// alocações por operação saem do profiler gc (gc.alloc.rate.norm), ligado no build.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LocationFormatBenchmark {
+    private static final int LOCATIONS = 1024;
+
+    @Param({"DEGREES", "DEGREES_MINUTES", "DEGREES_MINUTES_SECONDS"})
+    public LocationFormat format;
+
+    private final double[] latitude = new double[LOCATIONS];
+    private final double[] longitude = new double[LOCATIONS];
+    private final double[] altitude = new double[LOCATIONS];
+    private final CoordinateFormatter formatter = new CoordinateFormatter('.');
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(4);
+        for (int i = 0; i < LOCATIONS; i++) {
+            latitude[i] = random.nextDouble() * 180 - 90;
+            longitude[i] = random.nextDouble() * 360 - 180;
+            altitude[i] = random.nextDouble() * 3000;
+        }
+    }
+
+    @Benchmark
+    public int format() {
+        int i = next++ & (LOCATIONS - 1);
+        return formatter.format(format, latitude[i], longitude[i], altitude[i]).length();
+    }
+
+    @Benchmark
+    public int stringFormat() {
+        int i = next++ & (LOCATIONS - 1);
+        return legacyFormat(format, latitude[i], longitude[i], altitude[i]).length();
+    }
+
+    // O texto como era montado antes do CoordinateFormatter
+    private static String legacyFormat(LocationFormat format, double latitude, double longitude, double altitude) {
+        switch (format) {
+            case DEGREES_MINUTES:
+                return String.format("Lat: %s, Long: %s, Alt: %.2f",
+                        legacyDegreesMinutes(latitude), legacyDegreesMinutes(longitude), altitude);
+            case DEGREES_MINUTES_SECONDS:
+                return String.format("Lat: %s, Long: %s, Alt: %.2f",
+                        legacyDegreesMinutesSeconds(latitude), legacyDegreesMinutesSeconds(longitude), altitude);
+            default:
+                return String.format("Lat: %.5f, Long: %.5f, Alt: %.2f", latitude, longitude, altitude);
+        }
+    }
+
+    private static String legacyDegreesMinutes(double value) {
+        int degrees = (int) value;
+        double minutes = Math.abs((value - degrees) * 60);
+        return String.format("%d°%.5f'", degrees, minutes);
+    }
+
+    private static String legacyDegreesMinutesSeconds(double value) {
+        int degrees = (int) value;
+        double minutes = Math.abs((value - degrees) * 60);
+        int intMinutes = (int) minutes;
+        double seconds = (minutes - intMinutes) * 60;
+        return String.format("%d°%d'%.2f\"", degrees, intMinutes, seconds);
+    }
+}
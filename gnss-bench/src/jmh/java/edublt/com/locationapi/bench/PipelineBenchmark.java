@@ -0,0 +1,64 @@
+package edublt.com.locationapi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import edublt.com.locationapi.core.BarModel;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.SatelliteHistory;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+import edublt.com.locationapi.core.SatelliteSnapshotStore;
+
+// Um segundo de status na taxa dada (até 100 Hz), pelo caminho completo da ingestão até
+// o estado das views: publicação, histórico, filtro e barras. O tempo por operação é o
+// custo de CPU de cada segundo de uso, fora o desenho.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PipelineBenchmark {
+    @Param({"64", "200"})
+    public int satellites;
+
+    @Param({"1", "10", "100"})
+    public int rateHz;
+
+    private SatelliteSnapshot[] frames;
+    private SatelliteSnapshotStore store;
+    private SatelliteHistory history;
+    private final FilterEngine engine = new FilterEngine();
+    private BarModel bars;
+    private long second;
+
+    @Setup
+    public void setUp() {
+        SyntheticSky sky = new SyntheticSky(satellites, SyntheticSky.DEFAULT_CONSTELLATIONS, true, rateHz, 5);
+        frames = sky.generate(rateHz);
+        store = new SatelliteSnapshotStore(sky.getSignalCount());
+        history = new SatelliteHistory(sky.getSignalCount(), 1800, 30 * 60 * 1000L);
+        bars = new BarModel(sky.getSignalCount());
+    }
+
+    @Benchmark
+    public int oneSecond() {
+        for (int f = 0; f < rateHz; f++) {
+            SatelliteSnapshot snapshot = store.edit();
+            snapshot.copySatellitesFrom(frames[f]);
+            snapshot.setTimestampMillis(second * 1000 + frames[f].getTimestampMillis());
+            store.publish();
+            SatelliteSnapshot latest = store.acquire();
+            history.record(latest);
+            engine.update(latest);
+            bars.update(latest, engine.getIndices(), engine.getCount());
+        }
+        second++;
+        return engine.getCount();
+    }
+}
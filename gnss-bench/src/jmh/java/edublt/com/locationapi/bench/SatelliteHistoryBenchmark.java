@@ -0,0 +1,78 @@
+package edublt.com.locationapi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.SatelliteHistory;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+import edublt.com.locationapi.core.SkyProjection;
+
+// Histórico no pior caso: 150 sinais com a janela de 30 minutos cheia (uma amostra por
+// segundo). Mede a gravação de um status e a montagem das trilhas decimadas de todos os
+// sinais, como a EsferaCelesteView faz quando o histórico muda.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SatelliteHistoryBenchmark {
+    private static final int SIGNALS = 150;
+    private static final int SAMPLES = 1800;
+    private static final long WINDOW_MILLIS = 30 * 60 * 1000L;
+    private static final int TRACK_POINTS = 64;
+
+    private final SatelliteSnapshot snapshot = new SatelliteSnapshot(SIGNALS);
+    private final SatelliteHistory history = new SatelliteHistory(192, SAMPLES, WINDOW_MILLIS);
+    private final float[] azimuth = new float[SIGNALS];
+    private final float[] lines = new float[SIGNALS * (TRACK_POINTS + 1) * 2];
+    private int epoch;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < SIGNALS; i++) {
+            azimuth[i] = random.nextFloat() * 360f;
+        }
+        // Janela cheia antes da medição
+        while (epoch < SAMPLES * 2) {
+            record();
+        }
+    }
+
+    @Benchmark
+    public int record() {
+        epoch++;
+        snapshot.clear();
+        snapshot.setTimestampMillis(epoch * 1000L);
+        for (int i = 0; i < SIGNALS; i++) {
+            snapshot.add(1 + i % 50, Constellation.fromType(1 + i / 50), azimuth[i] + epoch * 0.01f,
+                    10f + (epoch + i) % 80, 20f + i % 30, false, (byte) (1 + i % 3));
+        }
+        history.record(snapshot);
+        return history.getTrackCount();
+    }
+
+    @Benchmark
+    public float tracks() {
+        int n = 0;
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            int track = history.findTrack(snapshot, i);
+            int samples = history.getSampleCount(track);
+            int stride = (samples + TRACK_POINTS - 1) / TRACK_POINTS;
+            for (int j = 0; j < samples; j += stride) {
+                float a = history.getAzimuthDegrees(track, j);
+                float e = history.getElevationDegrees(track, j);
+                lines[n++] = SkyProjection.unitX(a, e);
+                lines[n++] = SkyProjection.unitY(a, e);
+            }
+        }
+        return lines[n - 1];
+    }
+}
@@ -0,0 +1,63 @@
+package edublt.com.locationapi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import edublt.com.locationapi.core.BarModel;
+import edublt.com.locationapi.core.FilterEngine;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
+// O que substituiu a cópia do updateSignalQualityView: o BarModel compara o retrato
+// filtrado com as barras atuais e anima um quadro de 60 fps.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SignalBarsBenchmark {
+    private static final int FRAMES = 64;
+    private static final long FRAME_NANOS = 16_666_667;
+
+    @Param({"16", "64", "200"})
+    public int satellites;
+
+    @Param({"0", "1", "2"}) // BarModel.ORDER_*
+    public int order;
+
+    private SatelliteSnapshot[] frames;
+    private int[][] indices;
+    private int[] counts;
+    private BarModel model;
+    private long nanos;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        frames = new SyntheticSky(satellites, SyntheticSky.DEFAULT_CONSTELLATIONS, true, 10, 3).generate(FRAMES);
+        indices = new int[FRAMES][];
+        counts = new int[FRAMES];
+        FilterEngine engine = new FilterEngine();
+        for (int f = 0; f < FRAMES; f++) {
+            engine.update(frames[f]);
+            counts[f] = engine.getCount();
+            indices[f] = engine.getIndices().clone();
+        }
+        model = new BarModel(satellites * 2);
+        model.setOrder(order);
+    }
+
+    @Benchmark
+    public int updateAndAnimate() {
+        int f = next++ & (FRAMES - 1);
+        model.update(frames[f], indices[f], counts[f]);
+        nanos += FRAME_NANOS;
+        model.animate(nanos);
+        return model.getCount();
+    }
+}
@@ -0,0 +1,65 @@
+package edublt.com.locationapi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import edublt.com.locationapi.core.Almanac;
+import edublt.com.locationapi.core.AlmanacParser;
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.SkyPredictor;
+
+// SkyPredictor com 120 satélites em órbitas de GPS/Galileo sorteadas: a janela inteira de
+// 60 épocas (observador novo) e o avanço de um minuto, que só propaga a época nova
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SkyPredictorBenchmark {
+    private static final int SATELLITES = 120;
+
+    private final SkyPredictor predictor = new SkyPredictor(60, 60_000);
+    private long now;
+    private int round;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(20);
+        Almanac almanac = new Almanac(SATELLITES);
+        double toa = 2290 * AlmanacParser.SECONDS_PER_WEEK + 405_504;
+        for (int i = 0; i < SATELLITES; i++) {
+            boolean galileo = i >= SATELLITES / 2;
+            almanac.add(galileo ? Constellation.GALILEO : Constellation.GPS, 1 + i % 60, 0, toa,
+                    random.nextDouble() * 0.02, Math.toRadians(galileo ? 56 : 55), -8e-9,
+                    galileo ? 5440.6 : 5153.6, random.nextDouble() * 2 * Math.PI - Math.PI,
+                    random.nextDouble() * 2 * Math.PI - Math.PI, random.nextDouble() * 2 * Math.PI - Math.PI);
+        }
+        predictor.setAlmanac(almanac);
+        now = Math.round((toa - SkyPredictor.LEAP_SECONDS) * 1000) + SkyPredictor.GPS_EPOCH_UNIX_MILLIS;
+        predictor.setObserver(-15.79, -47.88, 1100);
+        predictor.update(now);
+    }
+
+    // Um observador novo invalida a janela inteira: 120 satélites x 60 épocas
+    @Benchmark
+    public float fullWindow() {
+        round++;
+        predictor.setObserver(round % 2 == 0 ? -15.79 : 15.79, -47.88, 1100);
+        predictor.update(now);
+        return predictor.getElevationDegrees(round % SATELLITES, 0);
+    }
+
+    // O tempo avança um minuto: 120 satélites x 1 época
+    @Benchmark
+    public float nextMinute() {
+        round++;
+        predictor.update(now + round * 60_000L);
+        return predictor.getElevationDegrees(round % SATELLITES, 59);
+    }
+}
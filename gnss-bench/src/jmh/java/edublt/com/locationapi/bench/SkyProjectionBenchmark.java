@@ -0,0 +1,55 @@
+package edublt.com.locationapi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import edublt.com.locationapi.core.SkyProjection;
+
+// Projeção de 150 satélites no círculo unitário: a tabela do SkyProjection contra o
+// caminho antigo com Math.toRadians/cos/sin (linha de base)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SkyProjectionBenchmark {
+    private static final int SATELLITES = 150;
+
+    private final float[] azimuth = new float[SATELLITES];
+    private final float[] elevation = new float[SATELLITES];
+    private final float[] x = new float[SATELLITES];
+    private final float[] y = new float[SATELLITES];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < SATELLITES; i++) {
+            azimuth[i] = random.nextFloat() * 360f;
+            elevation[i] = random.nextFloat() * 90f;
+        }
+    }
+
+    @Benchmark
+    public float table() {
+        for (int i = 0; i < SATELLITES; i++) {
+            x[i] = SkyProjection.unitX(azimuth[i], elevation[i]);
+            y[i] = SkyProjection.unitY(azimuth[i], elevation[i]);
+        }
+        return x[SATELLITES - 1] + y[SATELLITES - 1];
+    }
+
+    @Benchmark
+    public float math() {
+        for (int i = 0; i < SATELLITES; i++) {
+            x[i] = (float) (Math.cos(Math.toRadians(elevation[i])) * Math.sin(Math.toRadians(azimuth[i])));
+            y[i] = (float) (Math.cos(Math.toRadians(elevation[i])) * Math.cos(Math.toRadians(azimuth[i])));
+        }
+        return x[SATELLITES - 1] + y[SATELLITES - 1];
+    }
+}
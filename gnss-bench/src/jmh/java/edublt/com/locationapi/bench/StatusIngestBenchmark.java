@@ -0,0 +1,56 @@
+package edublt.com.locationapi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import edublt.com.locationapi.core.SatelliteSnapshot;
+import edublt.com.locationapi.core.SatelliteSnapshotStore;
+
+// Caminho do onSatelliteStatusChanged: cada sinal do status é copiado para o retrato de
+// trás (com a projeção no círculo unitário feita em SatelliteSnapshot.add) e o retrato
+// é publicado. Os status vêm prontos do SyntheticSky, fora da medição.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatusIngestBenchmark {
+    private static final int FRAMES = 64;
+
+    @Param({"16", "64", "200"})
+    public int satellites;
+
+    @Param({"false", "true"})
+    public boolean dualFrequency;
+
+    private SatelliteSnapshot[] frames;
+    private SatelliteSnapshotStore store;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticSky sky = new SyntheticSky(satellites, SyntheticSky.DEFAULT_CONSTELLATIONS, dualFrequency, 10, 1);
+        frames = sky.generate(FRAMES);
+        store = new SatelliteSnapshotStore(sky.getSignalCount());
+    }
+
+    @Benchmark
+    public SatelliteSnapshot ingest() {
+        SatelliteSnapshot status = frames[next++ & (FRAMES - 1)];
+        int count = status.getCount();
+        SatelliteSnapshot snapshot = store.edit();
+        snapshot.ensureCapacity(count);
+        snapshot.setTimestampMillis(status.getTimestampMillis());
+        for (int i = 0; i < count; i++) {
+            snapshot.add(status.getSvid(i), status.getConstellation(i), status.getAzimuthDegrees(i),
+                    status.getElevationDegrees(i), status.getCn0DbHz(i), status.isUsedInFix(i), status.getBand(i));
+        }
+        return store.publish();
+    }
+}
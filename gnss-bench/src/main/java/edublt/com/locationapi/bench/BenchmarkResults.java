@@ -0,0 +1,76 @@
+package edublt.com.locationapi.bench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Resultados de medições feitas fora do JMH (ex.: os tempos de onDraw sob o Robolectric),
+// gravados no mesmo formato JSON do JMH (benchmark, mode, params e primaryMetric) para
+// que as duas fontes possam ser comparadas entre execuções pela mesma ferramenta.
+public final class BenchmarkResults {
+    private final List<String> entries = new ArrayList<>();
+
+    // 'params' em pares nome, valor
+    public void add(String benchmark, double score, String unit, String... params) {
+        if (params.length % 2 != 0) {
+            throw new IllegalArgumentException("Parâmetros devem vir em pares nome, valor");
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("  {\n    \"benchmark\": ");
+        appendString(sb, benchmark);
+        sb.append(",\n    \"mode\": \"avgt\",\n    \"params\": {");
+        for (int p = 0; p < params.length; p += 2) {
+            sb.append(p == 0 ? "" : ", ");
+            appendString(sb, params[p]);
+            sb.append(": ");
+            appendString(sb, params[p + 1]);
+        }
+        sb.append("},\n    \"primaryMetric\": {\"score\": ").append(score).append(", \"scoreUnit\": ");
+        appendString(sb, unit);
+        sb.append("}\n  }");
+        entries.add(sb.toString());
+    }
+
+    public int getCount() {
+        return entries.size();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < entries.size(); i++) {
+            sb.append(entries.get(i)).append(i + 1 < entries.size() ? ",\n" : "\n");
+        }
+        return sb.append("]\n").toString();
+    }
+
+    // Grava (substituindo) o arquivo, criando os diretórios que faltarem
+    public void write(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Não foi possível criar " + parent);
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+    }
+
+    private static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,136 @@
+package edublt.com.locationapi.bench;
+
+import java.util.Random;
+
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.GnssBand;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
+// Gerador determinístico de céus sintéticos, para exercitar ingestão e desenho sem sair
+// de casa. Cada satélite descreve uma passagem suave (azimute girando, elevação oscilando
+// entre 5° e 85°) e o C/N0 acompanha a elevação com um ruído gaussiano; com
+// dupla frequência, cada satélite gera também um sinal L5 (L2 no Glonass) 3 dB abaixo.
+// A mesma configuração e semente produzem sempre a mesma sequência de status.
+// Não é thread-safe.
+public final class SyntheticSky {
+    public static final int MAX_RATE_HZ = 100;
+    // Constelações de um receptor multi-GNSS típico
+    public static final byte[] DEFAULT_CONSTELLATIONS = {
+            Constellation.GPS, Constellation.GLONASS, Constellation.GALILEO, Constellation.BEIDOU
+    };
+
+    private static final float MIN_ELEVATION = 5f;
+    private static final float ELEVATION_SPAN = 80f;
+    private static final float SECOND_BAND_OFFSET = -3f; // dB-Hz
+    private static final float USED_MIN_ELEVATION = 15f;
+    private static final float USED_MIN_CN0 = 28f;
+
+    private final int satellites;
+    private final boolean dualFrequency;
+    private final int rateHz;
+    private final long seed;
+
+    // Órbita de cada satélite, sorteada uma vez a partir da semente
+    private final int[] svid;
+    private final byte[] constellation;
+    private final float[] azimuth0, azimuthRate; // Graus, graus/s
+    private final float[] phase0, phaseRate; // Radianos, radianos/s
+    private final float[] cn0Offset; // dB-Hz, diferença de cada satélite
+
+    private Random noise;
+    private long frame;
+
+    // 'constellations' é distribuída em rodízio entre os satélites; rateHz até MAX_RATE_HZ
+    public SyntheticSky(int satellites, byte[] constellations, boolean dualFrequency, int rateHz, long seed) {
+        if (satellites < 0 || constellations.length == 0) {
+            throw new IllegalArgumentException("Céu sintético sem satélites ou constelações");
+        }
+        if (rateHz <= 0 || rateHz > MAX_RATE_HZ) {
+            throw new IllegalArgumentException("Taxa fora de 1.." + MAX_RATE_HZ + " Hz: " + rateHz);
+        }
+        this.satellites = satellites;
+        this.dualFrequency = dualFrequency;
+        this.rateHz = rateHz;
+        this.seed = seed;
+        svid = new int[satellites];
+        constellation = new byte[satellites];
+        azimuth0 = new float[satellites];
+        azimuthRate = new float[satellites];
+        phase0 = new float[satellites];
+        phaseRate = new float[satellites];
+        cn0Offset = new float[satellites];
+
+        Random random = new Random(seed);
+        int[] nextSvid = new int[Constellation.COUNT];
+        for (int i = 0; i < satellites; i++) {
+            byte c = constellations[i % constellations.length];
+            constellation[i] = c;
+            svid[i] = ++nextSvid[c];
+            azimuth0[i] = random.nextFloat() * 360f;
+            // Passagens de algumas horas, aceleradas para que o céu mude a cada segundo
+            azimuthRate[i] = (random.nextFloat() - 0.5f) * 0.2f;
+            phase0[i] = random.nextFloat() * (float) (2 * Math.PI);
+            phaseRate[i] = 0.001f + random.nextFloat() * 0.004f;
+            cn0Offset[i] = (float) random.nextGaussian() * 2f;
+        }
+        reset();
+    }
+
+    // Volta ao primeiro status da sequência
+    public void reset() {
+        noise = new Random(seed ^ 0x5DEECE66DL);
+        frame = 0;
+    }
+
+    // Sinais por status (satélites x bandas)
+    public int getSignalCount() {
+        return dualFrequency ? satellites * 2 : satellites;
+    }
+
+    public int getRateHz() {
+        return rateHz;
+    }
+
+    // Instante do próximo status, contado a partir do primeiro
+    public long getTimeMillis() {
+        return frame * 1000 / rateHz;
+    }
+
+    // Preenche o retrato com o próximo status da sequência (o retrato é limpo antes)
+    public void next(SatelliteSnapshot into) {
+        float t = frame / (float) rateHz;
+        into.clear();
+        into.ensureCapacity(getSignalCount());
+        into.setTimestampMillis(getTimeMillis());
+        for (int i = 0; i < satellites; i++) {
+            float az = (azimuth0[i] + azimuthRate[i] * t) % 360f;
+            if (az < 0) {
+                az += 360f;
+            }
+            float el = MIN_ELEVATION
+                    + ELEVATION_SPAN * 0.5f * (1f + (float) Math.sin(phase0[i] + phaseRate[i] * t));
+            float cn0 = 20f + 0.3f * el + cn0Offset[i] + (float) noise.nextGaussian() * 1.5f;
+            boolean used = el >= USED_MIN_ELEVATION && cn0 >= USED_MIN_CN0;
+            if (dualFrequency) {
+                byte c = constellation[i];
+                into.add(svid[i], c, az, el, cn0, used, GnssBand.L1);
+                into.add(svid[i], c, az, el, cn0 + SECOND_BAND_OFFSET, used,
+                        c == Constellation.GLONASS ? GnssBand.L2 : GnssBand.L5);
+            } else {
+                into.add(svid[i], constellation[i], az, el, cn0, used);
+            }
+        }
+        frame++;
+    }
+
+    // Gera os próximos 'count' status em retratos novos (para os benchmarks alternarem
+    // entre retratos distintos, como na ingestão real)
+    public SatelliteSnapshot[] generate(int count) {
+        SatelliteSnapshot[] frames = new SatelliteSnapshot[count];
+        for (int f = 0; f < count; f++) {
+            frames[f] = new SatelliteSnapshot(getSignalCount());
+            next(frames[f]);
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,65 @@
+package edublt.com.locationapi.bench;
+
+import org.junit.Test;
+
+import edublt.com.locationapi.core.Constellation;
+import edublt.com.locationapi.core.GnssBand;
+import edublt.com.locationapi.core.SatelliteSnapshot;
+
+import static org.junit.Assert.*;
+
+public class SyntheticSkyTest {
+    @Test
+    public void sameSeedProducesTheSameSequence() {
+        SyntheticSky a = new SyntheticSky(40, SyntheticSky.DEFAULT_CONSTELLATIONS, true, 100, 7);
+        SyntheticSky b = new SyntheticSky(40, SyntheticSky.DEFAULT_CONSTELLATIONS, true, 100, 7);
+        SatelliteSnapshot[] first = a.generate(20);
+        SatelliteSnapshot[] second = b.generate(20);
+        for (int f = 0; f < first.length; f++) {
+            assertEquals(first[f].contentHash(), second[f].contentHash());
+            assertEquals(f * 10L, first[f].getTimestampMillis()); // 100 Hz
+        }
+        a.reset();
+        SatelliteSnapshot again = new SatelliteSnapshot(1);
+        a.next(again);
+        assertEquals(first[0].contentHash(), again.contentHash());
+        assertNotEquals(first[0].contentHash(), first[1].contentHash()); // O céu muda
+    }
+
+    @Test
+    public void dualFrequencyAddsASecondBandPerSatellite() {
+        SyntheticSky sky = new SyntheticSky(10, new byte[]{Constellation.GPS, Constellation.GLONASS}, true, 1, 1);
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(1);
+        sky.next(snapshot);
+        assertEquals(20, sky.getSignalCount());
+        assertEquals(20, snapshot.getCount());
+        for (int i = 0; i < snapshot.getCount(); i += 2) {
+            assertEquals(snapshot.getSvid(i), snapshot.getSvid(i + 1));
+            assertEquals(GnssBand.L1, snapshot.getBand(i));
+            byte second = snapshot.getConstellation(i) == Constellation.GLONASS ? GnssBand.L2 : GnssBand.L5;
+            assertEquals(second, snapshot.getBand(i + 1));
+            assertTrue(snapshot.getCn0DbHz(i + 1) < snapshot.getCn0DbHz(i));
+            assertTrue(snapshot.getElevationDegrees(i) >= 5 && snapshot.getElevationDegrees(i) <= 85);
+            assertTrue(snapshot.getAzimuthDegrees(i) >= 0 && snapshot.getAzimuthDegrees(i) < 360);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsRatesAbove100Hz() {
+        new SyntheticSky(10, SyntheticSky.DEFAULT_CONSTELLATIONS, false, 101, 1);
+    }
+
+    @Test
+    public void resultsUseTheJmhLayout() {
+        BenchmarkResults results = new BenchmarkResults();
+        results.add("EsferaCelesteView.onDraw", 123.5, "us/op", "satellites", "64", "label", "a\"b");
+        results.add("SignalQualityView.onDraw", 7, "us/op");
+        String json = results.toJson();
+        assertEquals(2, results.getCount());
+        assertTrue(json.startsWith("[\n  {\n    \"benchmark\": \"EsferaCelesteView.onDraw\""));
+        assertTrue(json.contains("\"params\": {\"satellites\": \"64\", \"label\": \"a\\\"b\"}"));
+        assertTrue(json.contains("\"primaryMetric\": {\"score\": 123.5, \"scoreUnit\": \"us/op\"}"));
+        assertTrue(json.contains("\"params\": {}"));
+        assertTrue(json.endsWith("]\n"));
+    }
+}
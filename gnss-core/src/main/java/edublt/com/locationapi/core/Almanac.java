@@ -0,0 +1,149 @@
+package edublt.com.locationapi.core;
+
+import java.util.Arrays;
+
+// Elementos keplerianos de almanaque (formato do IS-GPS-200), um satélite por índice, em
+// arrays paralelos como o SatelliteSnapshot. Ângulos em radianos, tempos em segundos GPS
+// desde a época GPS (6/1/1980), com a semana já completa (ver AlmanacParser).
+public final class Almanac {
+    private int count;
+    private byte[] constellation;
+    private int[] svid;
+    private int[] health;
+    private double[] toa; // Tempo de referência
+    private double[] eccentricity;
+    private double[] inclination;
+    private double[] rateOfRightAscension; // rad/s
+    private double[] sqrtA; // m^1/2
+    private double[] rightAscension; // Na semana (Omega0)
+    private double[] argumentOfPerigee;
+    private double[] meanAnomaly;
+
+    public Almanac(int initialCapacity) {
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    private void allocate(int capacity) {
+        constellation = new byte[capacity];
+        svid = new int[capacity];
+        health = new int[capacity];
+        toa = new double[capacity];
+        eccentricity = new double[capacity];
+        inclination = new double[capacity];
+        rateOfRightAscension = new double[capacity];
+        sqrtA = new double[capacity];
+        rightAscension = new double[capacity];
+        argumentOfPerigee = new double[capacity];
+        meanAnomaly = new double[capacity];
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    // Acrescenta um satélite; um svid repetido da mesma constelação substitui o anterior
+    public int add(byte constellation, int svid, int health, double toaGpsSeconds, double eccentricity,
+                   double inclination, double rateOfRightAscension, double sqrtA, double rightAscension,
+                   double argumentOfPerigee, double meanAnomaly) {
+        int i = indexOf(constellation, svid);
+        if (i < 0) {
+            if (count == this.svid.length) {
+                grow(count * 2);
+            }
+            i = count++;
+        }
+        this.constellation[i] = constellation;
+        this.svid[i] = svid;
+        this.health[i] = health;
+        this.toa[i] = toaGpsSeconds;
+        this.eccentricity[i] = eccentricity;
+        this.inclination[i] = inclination;
+        this.rateOfRightAscension[i] = rateOfRightAscension;
+        this.sqrtA[i] = sqrtA;
+        this.rightAscension[i] = rightAscension;
+        this.argumentOfPerigee[i] = argumentOfPerigee;
+        this.meanAnomaly[i] = meanAnomaly;
+        return i;
+    }
+
+    // Acrescenta todos os satélites de outro almanaque (ex.: GPS e Galileo de arquivos diferentes)
+    public void addAll(Almanac other) {
+        for (int i = 0; i < other.count; i++) {
+            add(other.constellation[i], other.svid[i], other.health[i], other.toa[i], other.eccentricity[i],
+                    other.inclination[i], other.rateOfRightAscension[i], other.sqrtA[i], other.rightAscension[i],
+                    other.argumentOfPerigee[i], other.meanAnomaly[i]);
+        }
+    }
+
+    public int indexOf(byte constellation, int svid) {
+        for (int i = 0; i < count; i++) {
+            if (this.svid[i] == svid && this.constellation[i] == constellation) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void grow(int capacity) {
+        constellation = Arrays.copyOf(constellation, capacity);
+        svid = Arrays.copyOf(svid, capacity);
+        health = Arrays.copyOf(health, capacity);
+        toa = Arrays.copyOf(toa, capacity);
+        eccentricity = Arrays.copyOf(eccentricity, capacity);
+        inclination = Arrays.copyOf(inclination, capacity);
+        rateOfRightAscension = Arrays.copyOf(rateOfRightAscension, capacity);
+        sqrtA = Arrays.copyOf(sqrtA, capacity);
+        rightAscension = Arrays.copyOf(rightAscension, capacity);
+        argumentOfPerigee = Arrays.copyOf(argumentOfPerigee, capacity);
+        meanAnomaly = Arrays.copyOf(meanAnomaly, capacity);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public byte getConstellation(int i) {
+        return constellation[i];
+    }
+
+    public int getSvid(int i) {
+        return svid[i];
+    }
+
+    // 0 = saudável
+    public int getHealth(int i) {
+        return health[i];
+    }
+
+    public double getToaGpsSeconds(int i) {
+        return toa[i];
+    }
+
+    public double getEccentricity(int i) {
+        return eccentricity[i];
+    }
+
+    public double getInclination(int i) {
+        return inclination[i];
+    }
+
+    public double getRateOfRightAscension(int i) {
+        return rateOfRightAscension[i];
+    }
+
+    public double getSqrtA(int i) {
+        return sqrtA[i];
+    }
+
+    public double getRightAscension(int i) {
+        return rightAscension[i];
+    }
+
+    public double getArgumentOfPerigee(int i) {
+        return argumentOfPerigee[i];
+    }
+
+    public double getMeanAnomaly(int i) {
+        return meanAnomaly[i];
+    }
+}
@@ -0,0 +1,130 @@
+package edublt.com.locationapi.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+
+// Leitura de almanaques nos formatos YUMA e SEM (os publicados para o GPS; ferramentas de
+// planejamento usam os mesmos formatos para Galileo, BeiDou e QZSS, então a constelação
+// é informada por quem chama). Os dois formatos trazem a semana truncada em 10 bits: ela
+// é completada com a semana mais próxima de 'referenceWeek' (ex.: a semana atual).
+public final class AlmanacParser {
+    public static final double SECONDS_PER_WEEK = 604_800;
+    private static final int WEEK_ROLLOVER = 1024;
+    private static final double SEMICIRCLE = Math.PI;
+    private static final double SEM_REFERENCE_INCLINATION = 0.30; // Semicírculos; o SEM traz só a diferença
+
+    private AlmanacParser() {
+    }
+
+    // Completa uma semana de 10 bits com a mais próxima da semana de referência
+    static int resolveWeek(int week, int referenceWeek) {
+        if (week >= WEEK_ROLLOVER || referenceWeek < WEEK_ROLLOVER) {
+            return week;
+        }
+        long rollovers = Math.round((referenceWeek - week) / (double) WEEK_ROLLOVER);
+        return (int) (week + rollovers * WEEK_ROLLOVER);
+    }
+
+    // YUMA: um bloco "chave: valor" por satélite, terminado pela linha "week"; retorna
+    // quantos satélites foram lidos
+    public static int parseYuma(Reader source, byte constellation, int referenceWeek, Almanac into) throws IOException {
+        BufferedReader reader = new BufferedReader(source);
+        int added = 0;
+        int svid = -1, health = 0;
+        double e = 0, toa = 0, i0 = 0, omegaDot = 0, sqrtA = 0, omega0 = 0, w = 0, m0 = 0;
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int colon = line.indexOf(':');
+            if (colon < 0 || line.startsWith("*")) {
+                continue;
+            }
+            String key = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            try {
+                if (key.equals("id")) {
+                    svid = Integer.parseInt(value);
+                } else if (key.equals("health")) {
+                    health = Integer.parseInt(value);
+                } else if (key.startsWith("eccentricity")) {
+                    e = Double.parseDouble(value);
+                } else if (key.startsWith("time of applicability")) {
+                    toa = Double.parseDouble(value);
+                } else if (key.startsWith("orbital inclination")) {
+                    i0 = Double.parseDouble(value);
+                } else if (key.startsWith("rate of right ascen")) {
+                    omegaDot = Double.parseDouble(value);
+                } else if (key.startsWith("sqrt(a)")) {
+                    sqrtA = Double.parseDouble(value);
+                } else if (key.startsWith("right ascen at week")) {
+                    omega0 = Double.parseDouble(value);
+                } else if (key.startsWith("argument of perigee")) {
+                    w = Double.parseDouble(value);
+                } else if (key.startsWith("mean anom")) {
+                    m0 = Double.parseDouble(value);
+                } else if (key.equals("week")) {
+                    if (svid < 0) {
+                        throw new IOException("Almanaque YUMA sem ID antes da linha " + lineNumber);
+                    }
+                    int week = resolveWeek(Integer.parseInt(value), referenceWeek);
+                    into.add(constellation, svid, health, week * SECONDS_PER_WEEK + toa, e, i0, omegaDot,
+                            sqrtA, omega0, w, m0);
+                    added++;
+                    svid = -1;
+                }
+            } catch (NumberFormatException ex) {
+                throw new IOException("Valor inválido na linha " + lineNumber + " do almanaque YUMA: " + line, ex);
+            }
+        }
+        return added;
+    }
+
+    // SEM: cabeçalho (quantidade e nome; semana e toa) seguido de um registro por satélite,
+    // com ângulos em semicírculos; retorna quantos satélites foram lidos
+    public static int parseSem(Reader source, byte constellation, int referenceWeek, Almanac into) throws IOException {
+        BufferedReader reader = new BufferedReader(source);
+        StringBuilder text = new StringBuilder();
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IOException("Almanaque SEM vazio");
+        }
+        // A primeira linha termina com o nome do almanaque, que pode ter espaços
+        String[] header = line.trim().split("\\s+");
+        String rest;
+        while ((rest = reader.readLine()) != null) {
+            text.append(rest).append('\n');
+        }
+        String[] tokens = text.toString().trim().split("\\s+");
+        try {
+            int records = Integer.parseInt(header[0]);
+            int week = resolveWeek(Integer.parseInt(tokens[0]), referenceWeek);
+            double toa = week * SECONDS_PER_WEEK + Double.parseDouble(tokens[1]);
+            int t = 2;
+            for (int r = 0; r < records; r++) {
+                if (t + 14 > tokens.length) {
+                    throw new IOException("Almanaque SEM truncado no registro " + (r + 1) + " de " + records);
+                }
+                int svid = Integer.parseInt(tokens[t]);
+                // tokens[t + 1] = SVN, tokens[t + 2] = URA
+                double e = Double.parseDouble(tokens[t + 3]);
+                double i0 = (SEM_REFERENCE_INCLINATION + Double.parseDouble(tokens[t + 4])) * SEMICIRCLE;
+                double omegaDot = Double.parseDouble(tokens[t + 5]) * SEMICIRCLE;
+                double sqrtA = Double.parseDouble(tokens[t + 6]);
+                double omega0 = Double.parseDouble(tokens[t + 7]) * SEMICIRCLE;
+                double w = Double.parseDouble(tokens[t + 8]) * SEMICIRCLE;
+                double m0 = Double.parseDouble(tokens[t + 9]) * SEMICIRCLE;
+                // tokens[t + 10] = af0, tokens[t + 11] = af1 (o relógio não importa para a visibilidade)
+                int health = Integer.parseInt(tokens[t + 12]);
+                // tokens[t + 13] = configuração do satélite
+                into.add(constellation, svid, health, toa, e, i0, omegaDot, sqrtA, omega0, w, m0);
+                t += 14;
+            }
+            return records;
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+            throw new IOException("Almanaque SEM inválido", ex);
+        }
+    }
+}
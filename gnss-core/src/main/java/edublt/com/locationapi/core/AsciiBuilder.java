@@ -0,0 +1,159 @@
+package edublt.com.locationapi.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Texto ASCII montado direto em bytes, reaproveitado entre registros: os números são
+// escritos dígito a dígito, sem String.format nem objetos temporários. O array só
+// cresce quando um registro não cabe. Usado pelos codificadores de exportação.
+public final class AsciiBuilder {
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L
+    };
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private byte[] bytes;
+    private int length;
+    private final byte[] digits = new byte[20];
+
+    public AsciiBuilder(int initialCapacity) {
+        bytes = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    public void reset() {
+        length = 0;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    // Array interno; válido até a próxima escrita
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    public byte byteAt(int i) {
+        return bytes[i];
+    }
+
+    public AsciiBuilder append(char c) {
+        ensure(1);
+        bytes[length++] = (byte) c;
+        return this;
+    }
+
+    // Só caracteres ASCII (os textos fixos dos formatos)
+    public AsciiBuilder append(String s) {
+        int n = s.length();
+        ensure(n);
+        for (int i = 0; i < n; i++) {
+            bytes[length++] = (byte) s.charAt(i);
+        }
+        return this;
+    }
+
+    public AsciiBuilder append(long value) {
+        if (value < 0) {
+            append('-');
+            if (value == Long.MIN_VALUE) {
+                return append("9223372036854775808");
+            }
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        ensure(n);
+        while (n > 0) {
+            bytes[length++] = digits[--n];
+        }
+        return this;
+    }
+
+    // Inteiro não negativo com zeros à esquerda até 'width' dígitos
+    public AsciiBuilder appendPadded(long value, int width) {
+        for (int w = width - 1; w > 0 && value < POWERS_OF_TEN[w]; w--) {
+            append('0');
+        }
+        return append(value);
+    }
+
+    // Ponto fixo com 'decimals' casas (até 9), arredondando metade para cima; "NaN" se não finito
+    public AsciiBuilder appendFixed(double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return append("NaN");
+        }
+        long unit = POWERS_OF_TEN[decimals];
+        long scaled = Math.round(Math.abs(value) * unit);
+        if (value < 0 && scaled != 0) {
+            append('-');
+        }
+        append(scaled / unit);
+        if (decimals > 0) {
+            append('.');
+            appendPadded(scaled % unit, decimals);
+        }
+        return this;
+    }
+
+    // Dois dígitos hexadecimais maiúsculos (checksum NMEA)
+    public AsciiBuilder appendHex2(int value) {
+        append(Character.toUpperCase(Character.forDigit((value >> 4) & 0xF, 16)));
+        return append(Character.toUpperCase(Character.forDigit(value & 0xF, 16)));
+    }
+
+    // Data e hora UTC no formato ISO 8601 com milissegundos (ex.: 2024-05-01T12:30:05.250Z)
+    public AsciiBuilder appendIsoUtc(long timeMillis) {
+        long days = Math.floorDiv(timeMillis, MILLIS_PER_DAY);
+        long millisOfDay = timeMillis - days * MILLIS_PER_DAY;
+        // Conversão de dias desde 1970-01-01 para ano/mês/dia (calendário gregoriano proléptico)
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        appendPadded(year, 4).append('-').appendPadded(month, 2).append('-').appendPadded(day, 2).append('T');
+        appendClock(millisOfDay, ':');
+        return append('.').appendPadded(millisOfDay % 1000, 3).append('Z');
+    }
+
+    // Hora UTC do dia no formato NMEA hhmmss.ss
+    public AsciiBuilder appendNmeaUtcTime(long timeMillis) {
+        long millisOfDay = Math.floorMod(timeMillis, MILLIS_PER_DAY);
+        appendClock(millisOfDay, (char) 0);
+        return append('.').appendPadded(millisOfDay % 1000 / 10, 2);
+    }
+
+    private void appendClock(long millisOfDay, char separator) {
+        long seconds = millisOfDay / 1000;
+        appendPadded(seconds / 3600, 2);
+        if (separator != 0) {
+            append(separator);
+        }
+        appendPadded(seconds / 60 % 60, 2);
+        if (separator != 0) {
+            append(separator);
+        }
+        appendPadded(seconds % 60, 2);
+    }
+
+    // Texto atual como String (para testes e diagnóstico; aloca)
+    @Override
+    public String toString() {
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(length + extra, bytes.length * 2));
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package edublt.com.locationapi.core;
+
+import java.util.Arrays;
+
+// Estado das barras de sinal, uma por sinal (constelação, svid, banda), guardado em
+// arrays primitivos indexados por slot. Cada retrato é comparado com o estado atual:
+// sinais novos ganham um slot e crescem a partir de zero, os que continuam só mudam
+// de alvo e os que sumiram descem até zero antes de o slot ser liberado. Altura e
+// posição são interpoladas até o alvo em animate(), sem alocar por quadro; os arrays
+// só crescem se aparecerem mais sinais do que a capacidade.
+// Não é thread-safe; deve ser usado só pela thread principal.
+public final class BarModel {
+    // Ordem das barras
+    public static final int ORDER_RECEIVER = 0; // Ordem em que o receptor informa
+    public static final int ORDER_CONSTELLATION = 1; // Agrupadas por constelação, depois svid
+    public static final int ORDER_CN0 = 2; // C/N0 decrescente
+
+    private static final float TIME_CONSTANT_SECONDS = 0.12f;
+    private static final float SETTLE_HEIGHT = 0.05f; // dB-Hz
+    private static final float SETTLE_POSITION = 0.01f; // Barras
+
+    private final LongIntMap slotByKey;
+    private long[] keys;
+    private int[] svid;
+    private byte[] constellation;
+    private byte[] band;
+    private boolean[] used;
+    private boolean[] present; // No último retrato (false = saindo)
+    private int[] receiverIndex; // Posição no último retrato em que apareceu
+    private float[] targetHeight, height; // C/N0 em dB-Hz
+    private float[] targetPosition, position; // Em barras, a partir da esquerda
+    private int capacity;
+
+    private int[] order; // Slots em uso, na ordem de exibição
+    private int count;
+    private int[] freeSlots;
+    private int freeCount;
+
+    private int orderMode = ORDER_RECEIVER;
+    private long lastAnimateNanos;
+
+    public BarModel(int initialCapacity) {
+        slotByKey = new LongIntMap(initialCapacity);
+        allocate(Math.max(initialCapacity, 1));
+    }
+
+    public void setOrder(int mode) {
+        if (mode != orderMode) {
+            orderMode = mode;
+            sort();
+        }
+    }
+
+    public int getOrder() {
+        return orderMode;
+    }
+
+    // Compara os sinais filtrados do retrato com as barras atuais
+    public void update(SatelliteSnapshot snapshot, int[] indices, int n) {
+        for (int k = 0; k < count; k++) {
+            present[order[k]] = false;
+        }
+        for (int k = 0; k < n; k++) {
+            int i = indices[k];
+            long key = SatelliteHistory.key(snapshot.getConstellation(i), snapshot.getSvid(i), snapshot.getBand(i));
+            int slot = slotByKey.get(key, -1);
+            if (slot < 0) {
+                slot = add(key, snapshot.getSvid(i), snapshot.getConstellation(i), snapshot.getBand(i));
+            }
+            present[slot] = true;
+            used[slot] = snapshot.isUsedInFix(i);
+            receiverIndex[slot] = k;
+            targetHeight[slot] = Math.max(0f, snapshot.getCn0DbHz(i));
+        }
+        for (int k = 0; k < count; k++) {
+            int slot = order[k];
+            if (!present[slot]) {
+                targetHeight[slot] = 0f;
+            }
+        }
+        sort();
+    }
+
+    private int add(long key, int svidValue, byte constellationValue, byte bandValue) {
+        if (freeCount == 0) {
+            allocate(capacity * 2);
+        }
+        int slot = freeSlots[--freeCount];
+        keys[slot] = key;
+        svid[slot] = svidValue;
+        constellation[slot] = constellationValue;
+        band[slot] = bandValue;
+        height[slot] = 0f;
+        position[slot] = -1f; // Marca a barra nova: ela nasce já na posição final
+        slotByKey.put(key, slot);
+        order[count++] = slot;
+        return slot;
+    }
+
+    // Avança a animação até 'nowNanos'; retorna se alguma barra ainda está em movimento
+    public boolean animate(long nowNanos) {
+        float dt = lastAnimateNanos == 0 ? 0.016f : Math.min(0.1f, (nowNanos - lastAnimateNanos) / 1e9f);
+        lastAnimateNanos = nowNanos;
+        float factor = 1f - (float) Math.exp(-dt / TIME_CONSTANT_SECONDS);
+        boolean moving = false;
+        int kept = 0;
+        for (int k = 0; k < count; k++) {
+            int slot = order[k];
+            float dh = targetHeight[slot] - height[slot];
+            if (Math.abs(dh) < SETTLE_HEIGHT) {
+                height[slot] = targetHeight[slot];
+            } else {
+                height[slot] += dh * factor;
+                moving = true;
+            }
+            float dp = targetPosition[slot] - position[slot];
+            if (Math.abs(dp) < SETTLE_POSITION) {
+                position[slot] = targetPosition[slot];
+            } else {
+                position[slot] += dp * factor;
+                moving = true;
+            }
+            // Barras que saíram e já chegaram a zero liberam o slot
+            if (!present[slot] && height[slot] == 0f) {
+                slotByKey.remove(keys[slot]);
+                freeSlots[freeCount++] = slot;
+            } else {
+                order[kept++] = slot;
+            }
+        }
+        if (kept != count) {
+            // As barras à direita das removidas precisam deslizar
+            count = kept;
+            assignPositions();
+            moving = true;
+        }
+        return moving;
+    }
+
+    // Ordenação por inserção: entre dois retratos a ordem quase não muda, então é ~O(n)
+    private void sort() {
+        for (int k = 1; k < count; k++) {
+            int slot = order[k];
+            int j = k - 1;
+            while (j >= 0 && compare(order[j], slot) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = slot;
+        }
+        assignPositions();
+    }
+
+    private void assignPositions() {
+        for (int k = 0; k < count; k++) {
+            int slot = order[k];
+            targetPosition[slot] = k;
+            if (position[slot] < 0) {
+                position[slot] = k;
+            }
+        }
+    }
+
+    private int compare(int a, int b) {
+        switch (orderMode) {
+            case ORDER_CONSTELLATION:
+                if (constellation[a] != constellation[b]) {
+                    return constellation[a] - constellation[b];
+                }
+                if (svid[a] != svid[b]) {
+                    return svid[a] - svid[b];
+                }
+                return band[a] - band[b];
+            case ORDER_CN0:
+                if (targetHeight[a] != targetHeight[b]) {
+                    return targetHeight[a] > targetHeight[b] ? -1 : 1;
+                }
+                return svid[a] - svid[b];
+            default:
+                return receiverIndex[a] - receiverIndex[b];
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        keys = grow(keys, newCapacity);
+        svid = grow(svid, newCapacity);
+        constellation = grow(constellation, newCapacity);
+        band = grow(band, newCapacity);
+        used = grow(used, newCapacity);
+        present = grow(present, newCapacity);
+        receiverIndex = grow(receiverIndex, newCapacity);
+        targetHeight = grow(targetHeight, newCapacity);
+        height = grow(height, newCapacity);
+        targetPosition = grow(targetPosition, newCapacity);
+        position = grow(position, newCapacity);
+        order = grow(order, newCapacity);
+        int[] newFree = new int[newCapacity];
+        if (freeSlots != null) {
+            System.arraycopy(freeSlots, 0, newFree, 0, freeCount);
+        }
+        // Os slots novos entram na lista livre de forma que os menores saiam primeiro
+        for (int slot = newCapacity - 1; slot >= capacity; slot--) {
+            newFree[freeCount++] = slot;
+        }
+        freeSlots = newFree;
+        capacity = newCapacity;
+    }
+
+    // Quantidade de barras (inclusive as que estão saindo)
+    public int getCount() {
+        return count;
+    }
+
+    // Maior índice de slot possível + 1, para dimensionar caches por slot
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Slot da k-ésima barra na ordem de exibição
+    public int getSlot(int k) {
+        return order[k];
+    }
+
+    public int getSvid(int slot) {
+        return svid[slot];
+    }
+
+    public byte getConstellation(int slot) {
+        return constellation[slot];
+    }
+
+    public byte getBand(int slot) {
+        return band[slot];
+    }
+
+    public boolean isUsedInFix(int slot) {
+        return used[slot];
+    }
+
+    public boolean isPresent(int slot) {
+        return present[slot];
+    }
+
+    // Altura animada atual, em dB-Hz
+    public float getHeight(int slot) {
+        return height[slot];
+    }
+
+    // Posição animada atual, em barras
+    public float getPosition(int slot) {
+        return position[slot];
+    }
+
+    private static long[] grow(long[] array, int length) {
+        return array == null ? new long[length] : Arrays.copyOf(array, length);
+    }
+
+    private static int[] grow(int[] array, int length) {
+        return array == null ? new int[length] : Arrays.copyOf(array, length);
+    }
+
+    private static byte[] grow(byte[] array, int length) {
+        return array == null ? new byte[length] : Arrays.copyOf(array, length);
+    }
+
+    private static float[] grow(float[] array, int length) {
+        return array == null ? new float[length] : Arrays.copyOf(array, length);
+    }
+
+    private static boolean[] grow(boolean[] array, int length) {
+        return array == null ? new boolean[length] : Arrays.copyOf(array, length);
+    }
+}
@@ -0,0 +1,62 @@
+package edublt.com.locationapi.core;
+
+// Códigos de constelação usados pelo núcleo. Os valores são os mesmos de
+// android.location.GnssStatus.CONSTELLATION_*, então a conversão é um simples cast.
+public final class Constellation {
+    public static final byte UNKNOWN = 0;
+    public static final byte GPS = 1;
+    public static final byte SBAS = 2;
+    public static final byte GLONASS = 3;
+    public static final byte QZSS = 4;
+    public static final byte BEIDOU = 5;
+    public static final byte GALILEO = 6;
+    public static final byte IRNSS = 7;
+
+    // Quantidade de códigos conhecidos (UNKNOWN incluído)
+    public static final int COUNT = 8;
+
+    // Máscara com todas as constelações (um bit por código, ver mask())
+    public static final int ALL_MASK = (1 << COUNT) - 1;
+
+    // Nomes exibidos na tela, indexados pelo código da constelação
+    private static final String[] NAMES = {
+            "Other", "GPS", "SBAS", "Glonass", "QZSS", "BeiDou", "Galileo", "IRNSS"
+    };
+
+    private Constellation() {
+    }
+
+    // Converte o tipo informado pelo GnssStatus para o código interno
+    public static byte fromType(int constellationType) {
+        if (constellationType <= 0 || constellationType >= COUNT) {
+            return UNKNOWN;
+        }
+        return (byte) constellationType;
+    }
+
+    // Bit da constelação em máscaras de filtro; códigos desconhecidos caem em UNKNOWN
+    public static int mask(int constellation) {
+        if (constellation <= 0 || constellation >= COUNT) {
+            return 1 << UNKNOWN;
+        }
+        return 1 << constellation;
+    }
+
+    // Letras do RINEX (G = GPS, R = Glonass, E = Galileo...), indexadas pelo código
+    private static final char[] LETTERS = {'?', 'G', 'S', 'R', 'J', 'C', 'E', 'I'};
+
+    public static char letter(int constellation) {
+        if (constellation <= 0 || constellation >= COUNT) {
+            return LETTERS[UNKNOWN];
+        }
+        return LETTERS[constellation];
+    }
+
+    // Retorna o nome da constelação sem alocar novas Strings
+    public static String name(int constellation) {
+        if (constellation <= 0 || constellation >= COUNT) {
+            return NAMES[UNKNOWN];
+        }
+        return NAMES[constellation];
+    }
+}
@@ -0,0 +1,159 @@
+package edublt.com.locationapi.core;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Formata latitude, longitude e altitude direto num StringBuilder reaproveitado,
+// com aritmética inteira de precisão fixa, sem String.format (que interpreta o padrão
+// e aloca Formatter/Locale a cada chamada). A saída segue a dos antigos métodos da
+// EsferaCelesteView, exceto em dois casos em que eles estavam errados:
+//  - valores entre -1° e 0° perdiam o sinal ("0°30'" em vez de "-0°30'");
+//  - minutos/segundos arredondados para 60 não passavam para a unidade de cima.
+// Não é thread-safe: cada thread deve usar a sua instância.
+public final class CoordinateFormatter {
+    // Distância do meio (em unidades da última casa) abaixo da qual o arredondamento é ambíguo
+    private static final double TIE_TOLERANCE = 1e-6;
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L, 100000L};
+
+    private static final int DEGREE_DECIMALS = 5;
+    private static final int MINUTE_DECIMALS = 5;
+    private static final int SECOND_DECIMALS = 2;
+    private static final int ALTITUDE_DECIMALS = 2;
+
+    private final StringBuilder out = new StringBuilder(96);
+    private final char decimalSeparator;
+
+    // O separador decimal deve ser o do Locale padrão para manter a saída do String.format
+    public CoordinateFormatter(char decimalSeparator) {
+        this.decimalSeparator = decimalSeparator;
+    }
+
+    // Monta o texto completo de localização. O StringBuilder retornado é reaproveitado
+    // na próxima chamada; copie-o se precisar guardar o texto.
+    public StringBuilder format(LocationFormat format, double latitude, double longitude, double altitude) {
+        out.setLength(0);
+        out.append("Lat: ");
+        appendCoordinate(out, format, latitude);
+        out.append(", Long: ");
+        appendCoordinate(out, format, longitude);
+        out.append(", Alt: ");
+        appendFixed(out, altitude, ALTITUDE_DECIMALS);
+        return out;
+    }
+
+    public void appendCoordinate(StringBuilder sb, LocationFormat format, double value) {
+        switch (format) {
+            case DEGREES:
+                appendFixed(sb, value, DEGREE_DECIMALS);
+                break;
+            case DEGREES_MINUTES:
+                appendDegreesMinutes(sb, value);
+                break;
+            case DEGREES_MINUTES_SECONDS:
+                appendDegreesMinutesSeconds(sb, value);
+                break;
+        }
+    }
+
+    // +/-DDD°MM.MMMMM'
+    public void appendDegreesMinutes(StringBuilder sb, double value) {
+        if (appendNonFinite(sb, value)) {
+            return;
+        }
+        int degrees = Math.abs((int) value);
+        double minutes = Math.abs((value - (int) value) * 60);
+        long scaledMinutes = roundHalfUp(minutes, MINUTE_DECIMALS);
+        long minuteUnit = 60 * POWERS_OF_TEN[MINUTE_DECIMALS];
+        if (scaledMinutes >= minuteUnit) {
+            scaledMinutes -= minuteUnit;
+            degrees++;
+        }
+        appendSign(sb, value, degrees != 0 || scaledMinutes != 0);
+        sb.append(degrees).append('°');
+        appendScaled(sb, scaledMinutes, MINUTE_DECIMALS);
+        sb.append('\'');
+    }
+
+    // +/-DDD°MM'SS.SS"
+    public void appendDegreesMinutesSeconds(StringBuilder sb, double value) {
+        if (appendNonFinite(sb, value)) {
+            return;
+        }
+        int degrees = Math.abs((int) value);
+        double minutes = Math.abs((value - (int) value) * 60);
+        int intMinutes = (int) minutes;
+        long scaledSeconds = roundHalfUp((minutes - intMinutes) * 60, SECOND_DECIMALS);
+        long secondUnit = 60 * POWERS_OF_TEN[SECOND_DECIMALS];
+        if (scaledSeconds >= secondUnit) {
+            scaledSeconds -= secondUnit;
+            intMinutes++;
+        }
+        if (intMinutes >= 60) {
+            intMinutes -= 60;
+            degrees++;
+        }
+        appendSign(sb, value, degrees != 0 || intMinutes != 0 || scaledSeconds != 0);
+        sb.append(degrees).append('°');
+        sb.append(intMinutes).append('\'');
+        appendScaled(sb, scaledSeconds, SECOND_DECIMALS);
+        sb.append('"');
+    }
+
+    // Equivalente a "%.Nf": o sinal de -0.0 e de valores negativos arredondados a zero é mantido
+    public void appendFixed(StringBuilder sb, double value, int decimals) {
+        if (appendNonFinite(sb, value)) {
+            return;
+        }
+        if (Double.doubleToRawLongBits(value) < 0) {
+            sb.append('-');
+        }
+        appendScaled(sb, roundHalfUp(Math.abs(value), decimals), decimals);
+    }
+
+    // Escreve um valor em ponto fixo (ex.: 123456 com 2 casas -> "1234.56")
+    private void appendScaled(StringBuilder sb, long scaled, int decimals) {
+        long unit = POWERS_OF_TEN[decimals];
+        sb.append(scaled / unit);
+        if (decimals == 0) {
+            return;
+        }
+        sb.append(decimalSeparator);
+        long fraction = scaled % unit;
+        for (long digit = unit / 10; digit > 0; digit /= 10) {
+            sb.append((char) ('0' + fraction / digit % 10));
+        }
+    }
+
+    // Valores negativos que arredondam para zero são exibidos sem sinal
+    private static void appendSign(StringBuilder sb, double value, boolean nonZero) {
+        if (value < 0 && nonZero) {
+            sb.append('-');
+        }
+    }
+
+    private static boolean appendNonFinite(StringBuilder sb, double value) {
+        if (Double.isNaN(value)) {
+            sb.append("NaN");
+            return true;
+        }
+        if (Double.isInfinite(value)) {
+            sb.append(value > 0 ? "Infinity" : "-Infinity");
+            return true;
+        }
+        return false;
+    }
+
+    // Arredonda meio para cima como o Formatter. O Formatter arredonda a representação
+    // decimal do double, então valores como 1.005 (guardado como 1.00499999...) viram
+    // 1.01. Só quando o valor escalado fica praticamente no meio entre dois inteiros
+    // é preciso consultar essa representação; nos demais casos a conta inteira basta.
+    private static long roundHalfUp(double value, int decimals) {
+        double scaled = value * POWERS_OF_TEN[decimals];
+        double floor = Math.floor(scaled);
+        if (Math.abs(scaled - floor - 0.5) > TIE_TOLERANCE) {
+            return (long) Math.floor(scaled + 0.5);
+        }
+        return new BigDecimal(Double.toString(value)).setScale(decimals, RoundingMode.HALF_UP)
+                .unscaledValue().longValue();
+    }
+}
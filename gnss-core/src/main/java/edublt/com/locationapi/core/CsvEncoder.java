@@ -0,0 +1,47 @@
+package edublt.com.locationapi.core;
+
+// CSV com uma linha por sinal de cada status e uma por localização, na ordem recebida:
+//  record,time_millis,svid,constellation,band,azimuth_deg,elevation_deg,cn0_dbhz,used_in_fix,latitude,longitude,altitude_m
+// As colunas que não se aplicam ao tipo da linha ficam vazias.
+public final class CsvEncoder implements ExportEncoder {
+    public static final String HEADER =
+            "record,time_millis,svid,constellation,band,azimuth_deg,elevation_deg,cn0_dbhz,used_in_fix,latitude,longitude,altitude_m";
+
+    @Override
+    public String getExtension() {
+        return "csv";
+    }
+
+    @Override
+    public void beginFile(AsciiBuilder out) {
+        out.append(HEADER).append('\n');
+    }
+
+    @Override
+    public void encodeStatus(SatelliteSnapshot snapshot, AsciiBuilder out) {
+        long time = snapshot.getTimestampMillis();
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            out.append("status,").append(time).append(',')
+                    .append(snapshot.getSvid(i)).append(',')
+                    .append(Constellation.name(snapshot.getConstellation(i))).append(',')
+                    .append(GnssBand.name(snapshot.getBand(i))).append(',')
+                    .appendFixed(snapshot.getAzimuthDegrees(i), 1).append(',')
+                    .appendFixed(snapshot.getElevationDegrees(i), 1).append(',')
+                    .appendFixed(snapshot.getCn0DbHz(i), 1).append(',')
+                    .append(snapshot.isUsedInFix(i) ? '1' : '0')
+                    .append(",,,\n");
+        }
+    }
+
+    @Override
+    public void encodeLocation(long timeMillis, double latitude, double longitude, double altitude, AsciiBuilder out) {
+        out.append("location,").append(timeMillis).append(",,,,,,,,")
+                .appendFixed(latitude, 7).append(',')
+                .appendFixed(longitude, 7).append(',')
+                .appendFixed(altitude, 2).append('\n');
+    }
+
+    @Override
+    public void endFile(AsciiBuilder out) {
+    }
+}
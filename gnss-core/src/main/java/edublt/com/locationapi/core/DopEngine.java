@@ -0,0 +1,200 @@
+package edublt.com.locationapi.core;
+
+import java.util.Arrays;
+
+// Diluição de precisão (GDOP, PDOP, HDOP, VDOP, TDOP) a partir do azimute e da elevação
+// dos satélites usados no fix. Cada satélite contribui com a linha
+// [-cos(el)sen(az), -cos(el)cos(az), -sen(el), 1] da matriz de geometria H (leste, norte,
+// cima, relógio); a matriz normal HᵀH 4x4 é acumulada em arrays primitivos, uma por
+// constelação e uma para todas juntas, e os DOPs vêm da diagonal de (HᵀH)⁻¹.
+// A combinação usa um único relógio do receptor (vieses entre sistemas considerados já
+// corrigidos). Um satélite com vários sinais (L1 + L5...) entra uma única vez.
+// Nada é alocado por atualização. Não é thread-safe.
+public final class DopEngine {
+    // Grupo com todas as constelações juntas; os demais grupos são os códigos de Constellation
+    public static final int COMBINED = Constellation.COUNT;
+    private static final int GROUPS = Constellation.COUNT + 1;
+
+    // Mínimo de satélites para resolver posição e relógio
+    private static final int MIN_SATELLITES = 4;
+
+    // Matriz normal de cada grupo: 16 doubles por grupo (linha a linha)
+    private final double[] normal = new double[GROUPS * 16];
+    private final int[] satellites = new int[GROUPS];
+
+    // Resultados por grupo (NaN quando a geometria não tem solução)
+    private final float[] gdop = new float[GROUPS];
+    private final float[] pdop = new float[GROUPS];
+    private final float[] hdop = new float[GROUPS];
+    private final float[] vdop = new float[GROUPS];
+    private final float[] tdop = new float[GROUPS];
+
+    // Área de trabalho da inversão (Gauss-Jordan sobre [A | I])
+    private final double[] work = new double[4 * 8];
+
+    private final LongIntMap seen = new LongIntMap(64); // Satélites já contados neste retrato
+    private long contentHash;
+    private boolean hasContent;
+    private long version;
+
+    public DopEngine() {
+        clearResults();
+    }
+
+    // Recalcula para o retrato; retorna false se o conteúdo é igual ao da última chamada
+    public boolean update(SatelliteSnapshot snapshot) {
+        long hash = snapshot.contentHash();
+        if (hasContent && hash == contentHash) {
+            return false;
+        }
+        hasContent = true;
+        contentHash = hash;
+
+        Arrays.fill(normal, 0.0);
+        Arrays.fill(satellites, 0);
+        seen.clear();
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            if (!snapshot.isUsedInFix(i)) {
+                continue;
+            }
+            byte constellation = snapshot.getConstellation(i);
+            long key = SatelliteHistory.key(constellation, snapshot.getSvid(i), GnssBand.UNKNOWN);
+            if (seen.get(key, 0) != 0) {
+                continue;
+            }
+            seen.put(key, 1);
+            double az = Math.toRadians(snapshot.getAzimuthDegrees(i));
+            double el = Math.toRadians(snapshot.getElevationDegrees(i));
+            double cosEl = Math.cos(el);
+            double e = -cosEl * Math.sin(az);
+            double n = -cosEl * Math.cos(az);
+            double u = -Math.sin(el);
+            accumulate(constellation, e, n, u);
+            accumulate(COMBINED, e, n, u);
+        }
+        for (int group = 0; group < GROUPS; group++) {
+            solve(group);
+        }
+        version++;
+        return true;
+    }
+
+    // Soma o produto externo da linha [e, n, u, 1] na matriz normal do grupo
+    private void accumulate(int group, double e, double n, double u) {
+        int base = group * 16;
+        double[] m = normal;
+        m[base] += e * e;
+        m[base + 1] += e * n;
+        m[base + 2] += e * u;
+        m[base + 3] += e;
+        m[base + 5] += n * n;
+        m[base + 6] += n * u;
+        m[base + 7] += n;
+        m[base + 10] += u * u;
+        m[base + 11] += u;
+        m[base + 15] += 1.0;
+        satellites[group]++;
+    }
+
+    private void solve(int group) {
+        gdop[group] = pdop[group] = hdop[group] = vdop[group] = tdop[group] = Float.NaN;
+        if (satellites[group] < MIN_SATELLITES) {
+            return;
+        }
+        int base = group * 16;
+        // Monta [A | I], espelhando a metade inferior da matriz simétrica
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                int r = Math.min(row, col), c = Math.max(row, col);
+                work[row * 8 + col] = normal[base + r * 4 + c];
+                work[row * 8 + 4 + col] = row == col ? 1.0 : 0.0;
+            }
+        }
+        if (!invert()) {
+            return;
+        }
+        double qe = work[4], qn = work[8 + 5], qu = work[16 + 6], qt = work[24 + 7];
+        gdop[group] = (float) Math.sqrt(qe + qn + qu + qt);
+        pdop[group] = (float) Math.sqrt(qe + qn + qu);
+        hdop[group] = (float) Math.sqrt(qe + qn);
+        vdop[group] = (float) Math.sqrt(qu);
+        tdop[group] = (float) Math.sqrt(qt);
+    }
+
+    // Gauss-Jordan com pivotamento parcial; a inversa fica nas colunas 4..7 de 'work'
+    private boolean invert() {
+        for (int col = 0; col < 4; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < 4; row++) {
+                if (Math.abs(work[row * 8 + col]) > Math.abs(work[pivot * 8 + col])) {
+                    pivot = row;
+                }
+            }
+            double p = work[pivot * 8 + col];
+            // Geometria degenerada (ex.: satélites todos na mesma direção)
+            if (Math.abs(p) < 1e-12) {
+                return false;
+            }
+            if (pivot != col) {
+                for (int k = 0; k < 8; k++) {
+                    double t = work[col * 8 + k];
+                    work[col * 8 + k] = work[pivot * 8 + k];
+                    work[pivot * 8 + k] = t;
+                }
+            }
+            for (int k = 0; k < 8; k++) {
+                work[col * 8 + k] /= p;
+            }
+            for (int row = 0; row < 4; row++) {
+                if (row == col) {
+                    continue;
+                }
+                double f = work[row * 8 + col];
+                if (f != 0.0) {
+                    for (int k = 0; k < 8; k++) {
+                        work[row * 8 + k] -= f * work[col * 8 + k];
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void clearResults() {
+        Arrays.fill(gdop, Float.NaN);
+        Arrays.fill(pdop, Float.NaN);
+        Arrays.fill(hdop, Float.NaN);
+        Arrays.fill(vdop, Float.NaN);
+        Arrays.fill(tdop, Float.NaN);
+    }
+
+    // Incrementada a cada recálculo, para as views saberem quando refazer o texto
+    public long getVersion() {
+        return version;
+    }
+
+    // Satélites usados no fix contados no grupo (COMBINED ou um código de Constellation)
+    public int getSatelliteCount(int group) {
+        return satellites[group];
+    }
+
+    public float getGdop(int group) {
+        return gdop[group];
+    }
+
+    public float getPdop(int group) {
+        return pdop[group];
+    }
+
+    public float getHdop(int group) {
+        return hdop[group];
+    }
+
+    public float getVdop(int group) {
+        return vdop[group];
+    }
+
+    public float getTdop(int group) {
+        return tdop[group];
+    }
+}
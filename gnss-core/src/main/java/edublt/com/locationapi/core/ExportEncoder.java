@@ -0,0 +1,19 @@
+package edublt.com.locationapi.core;
+
+// Codifica os registros de uma sessão num formato de texto para outras ferramentas
+// (ver NmeaEncoder, CsvEncoder e GpxEncoder). Cada arquivo produzido pelo ExportSink
+// começa com beginFile e termina com endFile, então formatos com cabeçalho e rodapé
+// continuam válidos depois da rotação. As instâncias guardam estado entre registros
+// e pertencem a um único ExportSink.
+public interface ExportEncoder {
+    // Extensão dos arquivos, sem o ponto (ex.: "nmea")
+    String getExtension();
+
+    void beginFile(AsciiBuilder out);
+
+    void encodeStatus(SatelliteSnapshot snapshot, AsciiBuilder out);
+
+    void encodeLocation(long timeMillis, double latitude, double longitude, double altitude, AsciiBuilder out);
+
+    void endFile(AsciiBuilder out);
+}
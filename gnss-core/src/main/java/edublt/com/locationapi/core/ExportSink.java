@@ -0,0 +1,189 @@
+package edublt.com.locationapi.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPOutputStream;
+
+// Escreve os registros codificados por um ExportEncoder em arquivos
+// <sessão>-<número com 4 dígitos>.<extensão>[.gz]. O texto de cada registro é montado
+// num AsciiBuilder reaproveitado e copiado para um ByteBuffer, escrito pelo FileChannel
+// em blocos (ou, com gzip, comprimido por um GZIPOutputStream sobre o mesmo canal). Um arquivo novo
+// é aberto quando o atual passa de maxFileBytes (bytes antes da compressão) ou cobre
+// mais de maxFileMillis do tempo dos registros. Deve ser usado por uma única thread.
+public final class ExportSink implements Closeable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final File directory;
+    private final String session;
+    private final ExportEncoder encoder;
+    private final long maxFileBytes;
+    private final long maxFileMillis; // 0 = sem rotação por tempo
+    private final boolean gzip;
+    private final AsciiBuilder text = new AsciiBuilder(4096);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    private FileChannel channel; // null = nenhum arquivo aberto
+    private OutputStream gzipStream;
+    private int fileIndex;
+    private int fileCount;
+    private long fileBytes;
+    private long fileStartMillis;
+    private long totalBytes;
+    private long recordCount;
+
+    public ExportSink(File directory, String session, ExportEncoder encoder, long maxFileBytes, long maxFileMillis,
+                      boolean gzip) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Não foi possível criar " + directory);
+        }
+        this.directory = directory;
+        this.session = session;
+        this.encoder = encoder;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFileMillis = maxFileMillis;
+        this.gzip = gzip;
+    }
+
+    public void writeStatus(SatelliteSnapshot snapshot) throws IOException {
+        prepare(snapshot.getTimestampMillis());
+        encoder.encodeStatus(snapshot, text);
+        write();
+    }
+
+    public void writeLocation(long timeMillis, double latitude, double longitude, double altitude) throws IOException {
+        prepare(timeMillis);
+        encoder.encodeLocation(timeMillis, latitude, longitude, altitude, text);
+        write();
+    }
+
+    // Nome do arquivo 'index' desta sessão
+    public String fileName(int index) {
+        StringBuilder sb = new StringBuilder(session.length() + 16);
+        sb.append(session).append('-');
+        for (int digit = 1000; digit > 0; digit /= 10) {
+            sb.append((char) ('0' + index / digit % 10));
+        }
+        sb.append('.').append(encoder.getExtension());
+        if (gzip) {
+            sb.append(".gz");
+        }
+        return sb.toString();
+    }
+
+    // Arquivos abertos até agora
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    // Bytes codificados (antes da compressão)
+    public long getBytesWritten() {
+        return totalBytes;
+    }
+
+    // Entrega ao sistema o que estiver no buffer
+    public void flush() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        drain();
+        if (gzipStream != null) {
+            gzipStream.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeFile();
+    }
+
+    // Rotaciona se preciso e deixa o texto pronto para o próximo registro
+    private void prepare(long timeMillis) throws IOException {
+        if (channel != null && (fileBytes >= maxFileBytes
+                || (maxFileMillis > 0 && timeMillis - fileStartMillis >= maxFileMillis))) {
+            closeFile();
+            fileIndex++;
+        }
+        if (channel == null) {
+            openFile(timeMillis);
+        }
+        text.reset();
+    }
+
+    private void openFile(long timeMillis) throws IOException {
+        File file = new File(directory, fileName(fileIndex));
+        channel = new FileOutputStream(file).getChannel();
+        if (gzip) {
+            gzipStream = new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES);
+        }
+        fileCount++;
+        fileBytes = 0;
+        fileStartMillis = timeMillis;
+        text.reset();
+        encoder.beginFile(text);
+        put();
+    }
+
+    private void closeFile() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            text.reset();
+            encoder.endFile(text);
+            put();
+            drain();
+            if (gzipStream != null) {
+                gzipStream.close(); // Escreve o rodapé do gzip e fecha o canal
+            }
+        } finally {
+            channel.close();
+            channel = null;
+            gzipStream = null;
+        }
+    }
+
+    private void write() throws IOException {
+        put();
+        recordCount++;
+    }
+
+    // Copia o texto atual para o buffer, escrevendo o buffer sempre que ele enche.
+    // Com gzip o texto vai direto para o GZIPOutputStream, que tem o seu próprio buffer.
+    private void put() throws IOException {
+        byte[] bytes = text.bytes();
+        int length = text.length();
+        int offset = 0;
+        if (gzipStream != null) {
+            gzipStream.write(bytes, 0, length);
+            offset = length;
+        }
+        while (offset < length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int n = Math.min(buffer.remaining(), length - offset);
+            buffer.put(bytes, offset, n);
+            offset += n;
+        }
+        fileBytes += length;
+        totalBytes += length;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
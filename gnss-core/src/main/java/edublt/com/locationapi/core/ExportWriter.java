@@ -0,0 +1,222 @@
+package edublt.com.locationapi.core;
+
+import java.io.IOException;
+
+// Exportação em segundo plano: os callbacks copiam status e localizações para um lote
+// preenchido na memória (offerStatus/offerLocation, sem tocar no disco) e uma thread
+// própria ("gnss-export") troca esse lote por um vazio a cada flushMillis, ou antes se
+// ele passar da metade, e o codifica em todos os ExportSinks. Os lotes e os retratos
+// dentro deles são reaproveitados. Se a thread não acompanhar e o lote encher, os
+// registros novos são descartados e contados; o produtor nunca espera pelo disco.
+// Uma falha de escrita encerra a exportação (ver getError).
+public final class ExportWriter {
+    private final ExportSink[] sinks;
+    private final long flushMillis;
+    private final Object lock = new Object();
+    private Batch filling; // Protegido por 'lock'
+    private Batch writing; // Só a thread de escrita acessa
+    private final Thread thread;
+    private boolean running = true; // Protegido por 'lock'
+
+    // Contadores lidos por qualquer thread
+    private volatile long offeredCount;
+    private volatile long droppedCount;
+    private volatile long batchCount;
+    private volatile IOException error;
+
+    public ExportWriter(ExportSink[] sinks, int batchCapacity, long flushMillis) {
+        this.sinks = sinks;
+        this.flushMillis = flushMillis;
+        filling = new Batch(batchCapacity);
+        writing = new Batch(batchCapacity);
+        thread = new Thread(write, "gnss-export");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    // Produtor: copia o status para o lote; retorna false se ele foi descartado
+    public boolean offerStatus(SatelliteSnapshot snapshot) {
+        synchronized (lock) {
+            offeredCount++;
+            if (!running || error != null || filling.isFull()) {
+                droppedCount++;
+                return false;
+            }
+            filling.addStatus(snapshot);
+            wakeIfHalfFull();
+        }
+        return true;
+    }
+
+    // Produtor: copia a localização para o lote; retorna false se ela foi descartada
+    public boolean offerLocation(long timeMillis, double latitude, double longitude, double altitude) {
+        synchronized (lock) {
+            offeredCount++;
+            if (!running || error != null || filling.isFull()) {
+                droppedCount++;
+                return false;
+            }
+            filling.addLocation(timeMillis, latitude, longitude, altitude);
+            wakeIfHalfFull();
+        }
+        return true;
+    }
+
+    private void wakeIfHalfFull() {
+        if (filling.count == filling.capacity / 2) {
+            lock.notify();
+        }
+    }
+
+    // Encerra sem esperar: a thread escreve o que falta, fecha os arquivos e termina
+    public void close() {
+        synchronized (lock) {
+            running = false;
+            lock.notify();
+        }
+    }
+
+    // Espera a thread terminar depois de close(); retorna se ela terminou
+    public boolean awaitTermination(long millis) throws InterruptedException {
+        thread.join(millis);
+        return !thread.isAlive();
+    }
+
+    private final Runnable write = new Runnable() {
+        @Override
+        public void run() {
+            boolean last = false;
+            while (!last) {
+                synchronized (lock) {
+                    if (running && filling.count < filling.capacity / 2) {
+                        try {
+                            lock.wait(flushMillis);
+                        } catch (InterruptedException e) {
+                            running = false;
+                        }
+                    }
+                    last = !running;
+                    Batch batch = filling;
+                    filling = writing;
+                    writing = batch;
+                }
+                if (error == null && writing.count > 0) {
+                    try {
+                        writeBatch(writing);
+                        batchCount++;
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                }
+                writing.clear();
+            }
+            closeSinks();
+        }
+    };
+
+    private void writeBatch(Batch batch) throws IOException {
+        for (int k = 0; k < batch.count; k++) {
+            int index = batch.index[k];
+            if (batch.isStatus[k]) {
+                SatelliteSnapshot snapshot = batch.statuses[index];
+                for (ExportSink sink : sinks) {
+                    sink.writeStatus(snapshot);
+                }
+            } else {
+                for (ExportSink sink : sinks) {
+                    sink.writeLocation(batch.time[index], batch.latitude[index], batch.longitude[index],
+                            batch.altitude[index]);
+                }
+            }
+        }
+        for (ExportSink sink : sinks) {
+            sink.flush();
+        }
+    }
+
+    private void closeSinks() {
+        for (ExportSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+    }
+
+    public long getOfferedCount() {
+        return offeredCount;
+    }
+
+    // Registros descartados porque o lote encheu antes de a thread de escrita trocá-lo
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    // Primeira falha de escrita, ou null
+    public IOException getError() {
+        return error;
+    }
+
+    // Registros na ordem de chegada; status e localizações ficam em áreas separadas,
+    // apontadas por 'index'
+    private static final class Batch {
+        final int capacity;
+        int count;
+        final boolean[] isStatus;
+        final int[] index;
+        final SatelliteSnapshot[] statuses;
+        int statusCount;
+        final long[] time;
+        final double[] latitude, longitude, altitude;
+        int locationCount;
+
+        Batch(int capacity) {
+            this.capacity = capacity;
+            isStatus = new boolean[capacity];
+            index = new int[capacity];
+            statuses = new SatelliteSnapshot[capacity];
+            time = new long[capacity];
+            latitude = new double[capacity];
+            longitude = new double[capacity];
+            altitude = new double[capacity];
+        }
+
+        boolean isFull() {
+            return count == capacity;
+        }
+
+        void addStatus(SatelliteSnapshot snapshot) {
+            if (statuses[statusCount] == null) {
+                statuses[statusCount] = new SatelliteSnapshot(snapshot.getCount());
+            }
+            statuses[statusCount].copySatellitesFrom(snapshot);
+            isStatus[count] = true;
+            index[count++] = statusCount++;
+        }
+
+        void addLocation(long timeMillis, double lat, double lon, double alt) {
+            time[locationCount] = timeMillis;
+            latitude[locationCount] = lat;
+            longitude[locationCount] = lon;
+            altitude[locationCount] = alt;
+            isStatus[count] = false;
+            index[count++] = locationCount++;
+        }
+
+        void clear() {
+            count = 0;
+            statusCount = 0;
+            locationCount = 0;
+        }
+    }
+}
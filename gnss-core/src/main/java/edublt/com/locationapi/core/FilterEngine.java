@@ -0,0 +1,64 @@
+package edublt.com.locationapi.core;
+
+// Avalia o filtro uma única vez por retrato e guarda os índices aprovados num array
+// reaproveitado. As views e o diálogo de filtro leem o mesmo resultado; o cache só é
+// recalculado quando o retrato ou o filtro mudam. Deve ser usado por uma única thread.
+public final class FilterEngine {
+    private SatelliteFilter filter = SatelliteFilter.ALL;
+    private int[] indices = new int[64];
+    private int count;
+    private long version; // Incrementado a cada recálculo dos índices
+
+    private SatelliteSnapshot cachedSnapshot;
+    private long cachedSequence = -1;
+
+    public SatelliteFilter getFilter() {
+        return filter;
+    }
+
+    // Troca o filtro; o cache é invalidado apenas se os critérios mudaram
+    public void setFilter(SatelliteFilter filter) {
+        if (!this.filter.equals(filter)) {
+            this.filter = filter;
+            cachedSnapshot = null;
+        }
+    }
+
+    // Recalcula os índices se o retrato ou o filtro mudaram desde a última chamada.
+    // Retorna true quando o cache foi recalculado.
+    public boolean update(SatelliteSnapshot snapshot) {
+        if (snapshot == cachedSnapshot && snapshot.getSequence() == cachedSequence) {
+            return false;
+        }
+        int total = snapshot.getCount();
+        if (total > indices.length) {
+            indices = new int[Math.max(total, indices.length * 2)];
+        }
+        int n = 0;
+        for (int i = 0; i < total; i++) {
+            if (filter.matches(snapshot, i)) {
+                indices[n++] = i;
+            }
+        }
+        count = n;
+        cachedSnapshot = snapshot;
+        cachedSequence = snapshot.getSequence();
+        version++;
+        return true;
+    }
+
+    // Índices (no retrato da última chamada a update) dos satélites aprovados
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    // Muda sempre que os índices são recalculados; permite a quem deriva dados do
+    // resultado (layout de rótulos, por exemplo) saber se precisa refazê-los
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,102 @@
+package edublt.com.locationapi.core;
+
+// Política de redesenho das views: acumula quais views estão sujas e decide, a cada
+// oportunidade de quadro, se elas podem ser redesenhadas agora. Retratos com o mesmo
+// conteúdo (hash) do último desenhado não sujam nada, e um limite opcional de quadros
+// por segundo (ex.: 10 fps no modo de economia de bateria) adia os redesenhos que
+// chegam cedo demais. Não depende do Android: o tempo vem do chamador, em nanossegundos.
+// Não é thread-safe; deve ser usada só pela thread que desenha.
+public final class FrameGovernor {
+    // Folga para o jitter do vsync: um quadro que chega até 2 ms antes do intervalo ainda vale
+    private static final long SLACK_NANOS = 2_000_000L;
+
+    private final int allTargets;
+    private long minIntervalNanos; // 0 = sem limite
+    private long lastFrameNanos;
+    private boolean hasFrame;
+    private int dirty;
+
+    private boolean hasContent;
+    private long contentHash;
+
+    // Contadores para relatórios e testes
+    private long renderedFrames;
+    private long unchangedContent;
+    private long deferredFrames;
+
+    // allTargets: máscara com um bit por view controlada
+    public FrameGovernor(int allTargets) {
+        this.allTargets = allTargets;
+    }
+
+    // Limite de quadros por segundo; 0 desliga o limite (um quadro por vsync)
+    public void setMaxFps(int fps) {
+        minIntervalNanos = fps <= 0 ? 0 : 1_000_000_000L / fps;
+    }
+
+    public int getMaxFps() {
+        return minIntervalNanos == 0 ? 0 : (int) (1_000_000_000L / minIntervalNanos);
+    }
+
+    // Marca views como sujas por algo que não é o retrato (ex.: filtro, formato, tamanho)
+    public void invalidate(int targets) {
+        dirty |= targets & allTargets;
+    }
+
+    // Novo retrato: suja todas as views só se o conteúdo mudou; retorna se algo ficou sujo
+    public boolean offerContent(long hash) {
+        if (hasContent && hash == contentHash) {
+            unchangedContent++;
+            return dirty != 0;
+        }
+        hasContent = true;
+        contentHash = hash;
+        dirty = allTargets;
+        return true;
+    }
+
+    public boolean isDirty() {
+        return dirty != 0;
+    }
+
+    // Oportunidade de quadro em 'nowNanos': retorna as views a redesenhar agora
+    // (limpando-as) ou 0 se não há nada sujo ou o limite de fps ainda não permite
+    public int onFrame(long nowNanos) {
+        if (dirty == 0) {
+            return 0;
+        }
+        if (nanosUntilNextFrame(nowNanos) > 0) {
+            deferredFrames++;
+            return 0;
+        }
+        hasFrame = true;
+        lastFrameNanos = nowNanos;
+        int targets = dirty;
+        dirty = 0;
+        renderedFrames++;
+        return targets;
+    }
+
+    // Tempo até o limite de fps permitir o próximo quadro (0 = já permite)
+    public long nanosUntilNextFrame(long nowNanos) {
+        if (!hasFrame || minIntervalNanos == 0) {
+            return 0;
+        }
+        long wait = lastFrameNanos + minIntervalNanos - SLACK_NANOS - nowNanos;
+        return Math.max(0, wait);
+    }
+
+    public long getRenderedFrames() {
+        return renderedFrames;
+    }
+
+    // Retratos ignorados por terem o mesmo conteúdo do anterior
+    public long getUnchangedContent() {
+        return unchangedContent;
+    }
+
+    // Oportunidades de quadro adiadas pelo limite de fps
+    public long getDeferredFrames() {
+        return deferredFrames;
+    }
+}
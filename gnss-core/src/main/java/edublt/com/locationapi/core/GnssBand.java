@@ -0,0 +1,46 @@
+package edublt.com.locationapi.core;
+
+// Bandas de frequência dos sinais GNSS. Um mesmo satélite pode aparecer várias vezes
+// no GnssStatus, uma por banda (ex.: L1 e L5), então a banda faz parte da identidade
+// do sinal. A classificação agrupa as portadoras próximas de cada constelação
+// (ex.: L1, E1, B1 e G1 caem todas em L1).
+public final class GnssBand {
+    public static final byte UNKNOWN = 0;
+    public static final byte L1 = 1; // GPS L1, Galileo E1, BeiDou B1, GLONASS G1
+    public static final byte L2 = 2; // GPS L2, GLONASS G2
+    public static final byte L5 = 3; // GPS L5, Galileo E5a/E5b, BeiDou B2, GLONASS G3
+    public static final byte E6 = 4; // Galileo E6, BeiDou B3, QZSS L6
+
+    // Quantidade de códigos conhecidos (UNKNOWN incluído)
+    public static final int COUNT = 5;
+
+    private static final String[] NAMES = {"?", "L1", "L2", "L5", "E6"};
+
+    private GnssBand() {
+    }
+
+    // Classifica a frequência da portadora informada pelo GnssStatus
+    public static byte fromCarrierFrequencyHz(float hz) {
+        float mhz = hz / 1e6f;
+        if (mhz >= 1559f && mhz <= 1610f) {
+            return L1;
+        }
+        if (mhz >= 1164f && mhz < 1215f) {
+            return L5;
+        }
+        if (mhz >= 1215f && mhz < 1260f) {
+            return L2;
+        }
+        if (mhz >= 1260f && mhz <= 1300f) {
+            return E6;
+        }
+        return UNKNOWN;
+    }
+
+    public static String name(int band) {
+        if (band <= 0 || band >= COUNT) {
+            return NAMES[UNKNOWN];
+        }
+        return NAMES[band];
+    }
+}
@@ -0,0 +1,154 @@
+package edublt.com.locationapi.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Análise offline de sessões gravadas (ver GnssLogStats). Cada sessão é lida por um
+// GnssLogReader, que percorre os segmentos em blocos de 64 KB com um único retrato
+// reaproveitado, então a memória não cresce com o tamanho dos logs. As sessões, e os
+// segmentos de cada sessão, são divididos ao meio recursivamente num ForkJoinPool: cada
+// folha lê um segmento (registros nunca são divididos entre segmentos) com as suas
+// próprias estatísticas, e os resultados são combinados na volta, sem estado
+// compartilhado entre as threads. Assim uma sessão longa também usa todos os núcleos.
+// Também pode ser executada pelo main:
+//   java edublt.com.locationapi.core.GnssLogAnalytics <diretório de sessões>...
+public final class GnssLogAnalytics {
+    private GnssLogAnalytics() {
+    }
+
+    // Todas as sessões dos diretórios, cada uma como a lista dos seus segmentos
+    public static List<List<File>> listSessions(List<File> directories) {
+        List<List<File>> sessions = new ArrayList<>();
+        for (File directory : directories) {
+            for (String session : GnssLogReader.listSessions(directory)) {
+                sessions.add(GnssLogReader.segmentsOf(directory, session));
+            }
+        }
+        return sessions;
+    }
+
+    // Analisa as sessões no pool; falhas de leitura são relançadas como IOException
+    public static GnssLogStats analyze(List<List<File>> sessions, ForkJoinPool pool) throws IOException {
+        try {
+            return pool.invoke(new AnalyzeTask(sessions, 0, sessions.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Lê uma sessão inteira para 'stats', na thread atual
+    public static void analyzeSession(List<File> segments, GnssLogStats stats) throws IOException {
+        stats.beginSession();
+        try {
+            read(segments, stats);
+        } finally {
+            stats.endSession();
+        }
+    }
+
+    // Acumula os registros dos segmentos na sessão aberta em 'stats'
+    private static void read(List<File> segments, GnssLogStats stats) throws IOException {
+        try (GnssLogReader reader = new GnssLogReader(segments)) {
+            byte type;
+            while ((type = reader.next()) != GnssLogReader.END) {
+                if (type == GnssLogFormat.RECORD_STATUS) {
+                    stats.acceptStatus(reader.getStatus());
+                } else {
+                    stats.acceptLocation(reader.getTimestampMillis());
+                }
+            }
+        }
+    }
+
+    // Sessões [from, to), cada uma encerrada
+    private static final class AnalyzeTask extends RecursiveTask<GnssLogStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<List<File>> sessions;
+        private final int from, to;
+
+        AnalyzeTask(List<List<File>> sessions, int from, int to) {
+            this.sessions = sessions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GnssLogStats compute() {
+            if (to - from <= 1) {
+                if (to == from) {
+                    return new GnssLogStats();
+                }
+                List<File> segments = sessions.get(from);
+                GnssLogStats stats = new SegmentTask(segments, 0, segments.size()).compute();
+                stats.endSession();
+                return stats;
+            }
+            int middle = (from + to) >>> 1;
+            AnalyzeTask left = new AnalyzeTask(sessions, from, middle);
+            left.fork();
+            GnssLogStats right = new AnalyzeTask(sessions, middle, to).compute();
+            GnssLogStats stats = left.join();
+            stats.merge(right);
+            return stats;
+        }
+    }
+
+    // Segmentos [from, to) de uma sessão, com a sessão ainda aberta no resultado
+    private static final class SegmentTask extends RecursiveTask<GnssLogStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<File> segments;
+        private final int from, to;
+
+        SegmentTask(List<File> segments, int from, int to) {
+            this.segments = segments;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GnssLogStats compute() {
+            if (to - from <= 1) {
+                GnssLogStats stats = new GnssLogStats();
+                stats.beginSession();
+                try {
+                    read(segments.subList(from, to), stats);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return stats;
+            }
+            int middle = (from + to) >>> 1;
+            SegmentTask left = new SegmentTask(segments, from, middle);
+            left.fork();
+            GnssLogStats right = new SegmentTask(segments, middle, to).compute();
+            GnssLogStats stats = left.join();
+            stats.continueSession(right);
+            return stats;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("uso: GnssLogAnalytics <diretório de sessões>...");
+            System.exit(2);
+        }
+        List<File> directories = new ArrayList<>();
+        for (String arg : args) {
+            directories.add(new File(arg));
+        }
+        List<List<File>> sessions = listSessions(directories);
+        long start = System.nanoTime();
+        GnssLogStats stats = analyze(sessions, ForkJoinPool.commonPool());
+        StringBuilder sb = new StringBuilder();
+        stats.appendReport(sb);
+        System.out.print(sb);
+        System.out.printf("(%d sessões analisadas em %.1f ms)%n", sessions.size(), (System.nanoTime() - start) / 1e6);
+    }
+}
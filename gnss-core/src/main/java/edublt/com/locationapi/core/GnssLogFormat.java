@@ -0,0 +1,42 @@
+package edublt.com.locationapi.core;
+
+// Formato binário das sessões gravadas. Cada segmento começa com um cabeçalho
+// (MAGIC + versão) seguido de registros:
+//  STATUS:   tipo(1) tempo(8) quantidade(2) e, por satélite, 16 bytes fixos:
+//            svid(2) constelação(1) flags(1) azimute(4) elevação(4) C/N0(4)
+//            (flags: bit 0 = usado na localização, bits 4-7 = GnssBand desde a versão 2)
+//  LOCATION: tipo(1) tempo(8) latitude(8) longitude(8) altitude(8)
+// Todos os números são big-endian; o tempo é em milissegundos desde a época Unix.
+public final class GnssLogFormat {
+    public static final long MAGIC = 0x474E53534C4F4731L; // "GNSSLOG1"
+    public static final short VERSION = 2;
+    public static final short MIN_VERSION = 1; // Ainda lida: sem banda gravada
+    public static final short VERSION_BAND = 2; // Primeira versão com a banda em flags
+    public static final int HEADER_BYTES = 8 + 2;
+
+    public static final byte RECORD_STATUS = 1;
+    public static final byte RECORD_LOCATION = 2;
+
+    public static final int STATUS_HEADER_BYTES = 1 + 8 + 2;
+    public static final int SATELLITE_BYTES = 16;
+    public static final int LOCATION_BYTES = 1 + 8 + 8 + 8 + 8;
+
+    // Bits do campo flags de cada satélite
+    public static final int FLAG_USED_IN_FIX = 1;
+    public static final int FLAG_BAND_SHIFT = 4; // Segmentos da versão 1 leem GnssBand.UNKNOWN
+
+    public static final String SEGMENT_SUFFIX = ".gnss";
+
+    private GnssLogFormat() {
+    }
+
+    // Nome do segmento: <sessão>-<número com 4 dígitos>.gnss, para que a ordem alfabética seja a de gravação
+    public static String segmentName(String session, int segment) {
+        StringBuilder sb = new StringBuilder(session.length() + 10);
+        sb.append(session).append('-');
+        for (int digit = 1000; digit > 0; digit /= 10) {
+            sb.append((char) ('0' + segment / digit % 10));
+        }
+        return sb.append(SEGMENT_SUFFIX).toString();
+    }
+}
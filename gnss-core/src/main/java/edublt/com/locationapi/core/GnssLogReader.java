@@ -0,0 +1,197 @@
+package edublt.com.locationapi.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Lê sessões gravadas pelo GnssLogWriter, segmento por segmento, com um ByteBuffer
+// reaproveitado. Roda em qualquer JVM, então os logs de campo podem alimentar testes e
+// benchmarks fora do Android. Um registro truncado no fim (gravação interrompida) é
+// tratado como fim da sessão. Lê as versões de GnssLogFormat.MIN_VERSION até VERSION.
+public final class GnssLogReader implements Closeable {
+    // Retornado por next() quando não há mais registros
+    public static final byte END = 0;
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final List<File> segments;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final SatelliteSnapshot status = new SatelliteSnapshot(64);
+    private FileChannel channel;
+    private int nextSegment;
+    private boolean channelEof;
+    private boolean segmentHasBand; // Versão do segmento atual >= VERSION_BAND
+
+    private long timestampMillis;
+    private double latitude, longitude, altitude;
+
+    public GnssLogReader(List<File> segments) {
+        this.segments = new ArrayList<>(segments);
+        buffer.limit(0);
+    }
+
+    // Lista as sessões gravadas no diretório, em ordem de gravação
+    public static List<String> listSessions(File directory) {
+        List<String> sessions = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return sessions;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            String name = file.getName();
+            int dash = name.lastIndexOf('-');
+            if (name.endsWith(GnssLogFormat.SEGMENT_SUFFIX) && dash > 0) {
+                String session = name.substring(0, dash);
+                if (sessions.isEmpty() || !sessions.get(sessions.size() - 1).equals(session)) {
+                    sessions.add(session);
+                }
+            }
+        }
+        return sessions;
+    }
+
+    // Segmentos de uma sessão, na ordem em que foram gravados
+    public static List<File> segmentsOf(File directory, String session) {
+        List<File> segments = new ArrayList<>();
+        for (int segment = 0; ; segment++) {
+            File file = new File(directory, GnssLogFormat.segmentName(session, segment));
+            if (!file.isFile()) {
+                return segments;
+            }
+            segments.add(file);
+        }
+    }
+
+    // Lê o próximo registro e retorna o seu tipo (GnssLogFormat.RECORD_*) ou END
+    public byte next() throws IOException {
+        while (true) {
+            if (!ensure(1)) {
+                if (!openNextSegment()) {
+                    return END;
+                }
+                continue;
+            }
+            byte type = buffer.get();
+            switch (type) {
+                case GnssLogFormat.RECORD_STATUS:
+                    return readStatus() ? type : END;
+                case GnssLogFormat.RECORD_LOCATION:
+                    return readLocation() ? type : END;
+                default:
+                    throw new IOException("Registro desconhecido: " + type);
+            }
+        }
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    // Satélites do último registro STATUS (retrato reaproveitado a cada leitura)
+    public SatelliteSnapshot getStatus() {
+        return status;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double getAltitude() {
+        return altitude;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private boolean readStatus() throws IOException {
+        if (!ensure(GnssLogFormat.STATUS_HEADER_BYTES - 1)) {
+            return false;
+        }
+        timestampMillis = buffer.getLong();
+        int count = buffer.getShort() & 0xFFFF;
+        status.clear();
+        status.ensureCapacity(count);
+        status.setTimestampMillis(timestampMillis);
+        for (int i = 0; i < count; i++) {
+            if (!ensure(GnssLogFormat.SATELLITE_BYTES)) {
+                return false;
+            }
+            int svid = buffer.getShort() & 0xFFFF;
+            byte constellation = buffer.get();
+            int flags = buffer.get();
+            float azimuth = buffer.getFloat();
+            float elevation = buffer.getFloat();
+            float cn0 = buffer.getFloat();
+            byte band = segmentHasBand ? (byte) ((flags & 0xFF) >>> GnssLogFormat.FLAG_BAND_SHIFT) : GnssBand.UNKNOWN;
+            status.add(svid, constellation, azimuth, elevation, cn0, (flags & GnssLogFormat.FLAG_USED_IN_FIX) != 0, band);
+        }
+        return true;
+    }
+
+    private boolean readLocation() throws IOException {
+        if (!ensure(GnssLogFormat.LOCATION_BYTES - 1)) {
+            return false;
+        }
+        timestampMillis = buffer.getLong();
+        latitude = buffer.getDouble();
+        longitude = buffer.getDouble();
+        altitude = buffer.getDouble();
+        return true;
+    }
+
+    // Garante 'bytes' disponíveis no buffer, lendo mais do segmento atual se preciso
+    private boolean ensure(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            if (channel == null || channelEof) {
+                return false;
+            }
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) {
+                channelEof = true;
+            }
+        }
+        return true;
+    }
+
+    // Abre o próximo segmento e valida o cabeçalho; segmentos vazios (gravação
+    // interrompida antes do primeiro flush) são ignorados
+    private boolean openNextSegment() throws IOException {
+        do {
+            close();
+            if (nextSegment >= segments.size()) {
+                return false;
+            }
+            channel = new FileInputStream(segments.get(nextSegment++)).getChannel();
+            channelEof = false;
+            buffer.clear();
+            buffer.limit(0);
+        } while (!ensure(GnssLogFormat.HEADER_BYTES));
+        if (buffer.getLong() != GnssLogFormat.MAGIC) {
+            throw new IOException("Arquivo não é uma sessão GNSS: " + segments.get(nextSegment - 1));
+        }
+        short version = buffer.getShort();
+        if (version < GnssLogFormat.MIN_VERSION || version > GnssLogFormat.VERSION) {
+            throw new IOException("Versão de sessão não suportada: " + version);
+        }
+        segmentHasBand = version >= GnssLogFormat.VERSION_BAND;
+        return true;
+    }
+}
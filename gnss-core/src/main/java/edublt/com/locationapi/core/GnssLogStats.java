@@ -0,0 +1,270 @@
+package edublt.com.locationapi.core;
+
+import java.util.Arrays;
+
+// Estatísticas de uma ou mais sessões gravadas, acumuladas registro a registro em
+// contadores primitivos (o tamanho não depende da duração das sessões). Instâncias de
+// sessões diferentes podem ser combinadas com merge(), o que permite acumular cada
+// sessão numa thread e juntar no fim (ver GnssLogAnalytics). Uma sessão também pode ser
+// lida por segmentos, cada um com a sua instância, e remontada com continueSession().
+// Não é thread-safe.
+//  - disponibilidade: fração dos status em que a constelação tinha ao menos um sinal com C/N0 > 0
+//  - histograma de C/N0 por constelação, em faixas de 1 dB-Hz (a última acumula o resto)
+//  - fração dos sinais usados no fix, por constelação
+//  - cobertura do céu: sinais por célula de 10° de elevação x 10° de azimute, por constelação
+//  - tempo até o primeiro fix (TTFF) de cada sessão: do primeiro registro até a primeira localização
+public final class GnssLogStats {
+    public static final int CN0_BINS = 64;
+    public static final int ELEVATION_BINS = 9; // 0-90°
+    public static final int AZIMUTH_BINS = 36; // 0-360°
+    private static final int SKY_CELLS = ELEVATION_BINS * AZIMUTH_BINS;
+    private static final int COUNT = Constellation.COUNT;
+
+    private long statusCount;
+    private long locationCount;
+    private long sessionCount;
+    private long durationMillis;
+    private final long[] availableEpochs = new long[COUNT];
+    private final long[] signalCount = new long[COUNT];
+    private final long[] usedCount = new long[COUNT];
+    private final long[] cn0Histogram = new long[COUNT * CN0_BINS];
+    private final long[] skyCoverage = new long[COUNT * SKY_CELLS];
+    private long[] ttffMillis = new long[8];
+    private int ttffCount;
+
+    // Estado da sessão em andamento
+    private boolean inSession;
+    private long sessionStartMillis;
+    private long sessionEndMillis;
+    private long sessionFixMillis; // Long.MIN_VALUE até a primeira localização
+    private final boolean[] seenInEpoch = new boolean[COUNT];
+
+    public void beginSession() {
+        inSession = true;
+        sessionStartMillis = Long.MIN_VALUE;
+        sessionFixMillis = Long.MIN_VALUE;
+    }
+
+    public void endSession() {
+        if (!inSession) {
+            return;
+        }
+        sessionCount++;
+        if (sessionStartMillis != Long.MIN_VALUE) {
+            durationMillis += sessionEndMillis - sessionStartMillis;
+        }
+        if (sessionFixMillis != Long.MIN_VALUE) {
+            if (ttffCount == ttffMillis.length) {
+                ttffMillis = Arrays.copyOf(ttffMillis, ttffCount * 2);
+            }
+            ttffMillis[ttffCount++] = sessionFixMillis - sessionStartMillis;
+        }
+        inSession = false;
+    }
+
+    // Continua a sessão aberta aqui com a sessão aberta em 'next', lida do trecho seguinte
+    // da mesma gravação (segmentos em ordem). A sessão continua aberta.
+    public void continueSession(GnssLogStats next) {
+        if (!inSession || !next.inSession) {
+            throw new IllegalStateException("Sem sessão aberta");
+        }
+        merge(next);
+        if (next.sessionStartMillis != Long.MIN_VALUE) {
+            if (sessionStartMillis == Long.MIN_VALUE) {
+                sessionStartMillis = next.sessionStartMillis;
+            }
+            sessionEndMillis = next.sessionEndMillis;
+        }
+        if (sessionFixMillis == Long.MIN_VALUE) {
+            sessionFixMillis = next.sessionFixMillis;
+        }
+    }
+
+    public void acceptStatus(SatelliteSnapshot status) {
+        touch(status.getTimestampMillis());
+        statusCount++;
+        Arrays.fill(seenInEpoch, false);
+        for (int i = 0; i < status.getCount(); i++) {
+            int c = status.getConstellation(i);
+            if (c < 0 || c >= COUNT) {
+                c = Constellation.UNKNOWN;
+            }
+            float cn0 = status.getCn0DbHz(i);
+            signalCount[c]++;
+            if (status.isUsedInFix(i)) {
+                usedCount[c]++;
+            }
+            if (cn0 > 0) {
+                seenInEpoch[c] = true;
+            }
+            int bin = Math.min(CN0_BINS - 1, Math.max(0, (int) cn0));
+            cn0Histogram[c * CN0_BINS + bin]++;
+            skyCoverage[c * SKY_CELLS + skyCell(status.getElevationDegrees(i), status.getAzimuthDegrees(i))]++;
+        }
+        for (int c = 0; c < COUNT; c++) {
+            if (seenInEpoch[c]) {
+                availableEpochs[c]++;
+            }
+        }
+    }
+
+    public void acceptLocation(long timeMillis) {
+        touch(timeMillis);
+        locationCount++;
+        if (inSession && sessionFixMillis == Long.MIN_VALUE) {
+            sessionFixMillis = timeMillis;
+        }
+    }
+
+    private void touch(long timeMillis) {
+        if (inSession && sessionStartMillis == Long.MIN_VALUE) {
+            sessionStartMillis = timeMillis;
+        }
+        sessionEndMillis = timeMillis;
+    }
+
+    static int skyCell(float elevation, float azimuth) {
+        int e = Math.min(ELEVATION_BINS - 1, Math.max(0, (int) (elevation / 10f)));
+        float az = azimuth % 360f;
+        if (az < 0) {
+            az += 360f;
+        }
+        int a = Math.min(AZIMUTH_BINS - 1, (int) (az / 10f));
+        return e * AZIMUTH_BINS + a;
+    }
+
+    // Soma as estatísticas de outra instância (sessões já encerradas; a aberta lá é ignorada)
+    public void merge(GnssLogStats other) {
+        statusCount += other.statusCount;
+        locationCount += other.locationCount;
+        sessionCount += other.sessionCount;
+        durationMillis += other.durationMillis;
+        add(availableEpochs, other.availableEpochs);
+        add(signalCount, other.signalCount);
+        add(usedCount, other.usedCount);
+        add(cn0Histogram, other.cn0Histogram);
+        add(skyCoverage, other.skyCoverage);
+        if (ttffCount + other.ttffCount > ttffMillis.length) {
+            ttffMillis = Arrays.copyOf(ttffMillis, ttffCount + other.ttffCount);
+        }
+        System.arraycopy(other.ttffMillis, 0, ttffMillis, ttffCount, other.ttffCount);
+        ttffCount += other.ttffCount;
+    }
+
+    private static void add(long[] into, long[] from) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] += from[i];
+        }
+    }
+
+    public long getStatusCount() {
+        return statusCount;
+    }
+
+    public long getLocationCount() {
+        return locationCount;
+    }
+
+    public long getSessionCount() {
+        return sessionCount;
+    }
+
+    // Soma das durações das sessões (do primeiro ao último registro de cada uma)
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    // Fração dos status em que a constelação tinha algum sinal (0 sem status)
+    public double getAvailability(int constellation) {
+        return statusCount == 0 ? 0 : (double) availableEpochs[constellation] / statusCount;
+    }
+
+    // Média de sinais da constelação por status
+    public double getMeanSignals(int constellation) {
+        return statusCount == 0 ? 0 : (double) signalCount[constellation] / statusCount;
+    }
+
+    public long getSignalCount(int constellation) {
+        return signalCount[constellation];
+    }
+
+    // Fração dos sinais da constelação que estavam no fix (NaN sem sinais)
+    public double getUsedRatio(int constellation) {
+        return signalCount[constellation] == 0 ? Double.NaN : (double) usedCount[constellation] / signalCount[constellation];
+    }
+
+    // Sinais com C/N0 em [bin, bin + 1) dB-Hz
+    public long getCn0Count(int constellation, int bin) {
+        return cn0Histogram[constellation * CN0_BINS + bin];
+    }
+
+    // Sinais na célula de elevação [10 * e, 10 * e + 10) e azimute [10 * a, 10 * a + 10)
+    public long getSkyCount(int constellation, int elevationBin, int azimuthBin) {
+        return skyCoverage[constellation * SKY_CELLS + elevationBin * AZIMUTH_BINS + azimuthBin];
+    }
+
+    // Sessões que chegaram a ter localização
+    public int getTtffCount() {
+        return ttffCount;
+    }
+
+    // Percentil (0-100) dos TTFFs das sessões, pelo método do vizinho mais próximo; -1 sem TTFF.
+    // Ordena uma cópia: é para relatórios, não para o caminho quente.
+    public long getTtffPercentile(double percentile) {
+        if (ttffCount == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(ttffMillis, ttffCount);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * ttffCount) - 1;
+        return sorted[Math.max(0, Math.min(ttffCount - 1, rank))];
+    }
+
+    // Resumo em texto, uma constelação por linha
+    public void appendReport(StringBuilder sb) {
+        sb.append("sessões=").append(sessionCount)
+                .append(" duração=").append(durationMillis / 1000).append(" s")
+                .append(" status=").append(statusCount)
+                .append(" localizações=").append(locationCount).append('\n');
+        if (ttffCount > 0) {
+            sb.append("TTFF (s): mín=").append(getTtffPercentile(0) / 1000.0)
+                    .append(" mediana=").append(getTtffPercentile(50) / 1000.0)
+                    .append(" p90=").append(getTtffPercentile(90) / 1000.0)
+                    .append(" máx=").append(getTtffPercentile(100) / 1000.0)
+                    .append(" (").append(ttffCount).append(" sessões com fix)\n");
+        }
+        for (int c = 0; c < COUNT; c++) {
+            if (signalCount[c] == 0) {
+                continue;
+            }
+            sb.append(Constellation.name(c))
+                    .append(": disponibilidade=").append(Math.round(getAvailability(c) * 1000) / 10.0).append('%')
+                    .append(" sinais/status=").append(Math.round(getMeanSignals(c) * 10) / 10.0)
+                    .append(" usados=").append(Math.round(getUsedRatio(c) * 1000) / 10.0).append('%')
+                    .append(" C/N0 mediano=").append(cn0Median(c)).append(" dB-Hz")
+                    .append(" céu coberto=").append(coveredCells(c)).append('/').append(SKY_CELLS).append(" células\n");
+        }
+    }
+
+    private int cn0Median(int constellation) {
+        long half = (signalCount[constellation] + 1) / 2;
+        long seen = 0;
+        for (int bin = 0; bin < CN0_BINS; bin++) {
+            seen += cn0Histogram[constellation * CN0_BINS + bin];
+            if (seen >= half) {
+                return bin;
+            }
+        }
+        return CN0_BINS - 1;
+    }
+
+    private int coveredCells(int constellation) {
+        int covered = 0;
+        for (int cell = 0; cell < SKY_CELLS; cell++) {
+            if (skyCoverage[constellation * SKY_CELLS + cell] > 0) {
+                covered++;
+            }
+        }
+        return covered;
+    }
+}
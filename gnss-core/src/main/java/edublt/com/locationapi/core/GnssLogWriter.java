@@ -0,0 +1,116 @@
+package edublt.com.locationapi.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Grava retratos e localizações no formato de GnssLogFormat. Os registros são
+// acumulados num ByteBuffer e escritos pelo FileChannel em blocos; quando um segmento
+// passa de maxSegmentBytes, um novo arquivo é aberto. Deve ser usado por uma única thread.
+public final class GnssLogWriter implements Closeable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final File directory;
+    private final String session;
+    private final long maxSegmentBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    private FileChannel channel;
+    private int segment;
+    private long segmentBytes;
+    private long recordCount;
+
+    public GnssLogWriter(File directory, String session, long maxSegmentBytes) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Não foi possível criar " + directory);
+        }
+        this.directory = directory;
+        this.session = session;
+        this.maxSegmentBytes = maxSegmentBytes;
+        openSegment();
+    }
+
+    public void writeStatus(SatelliteSnapshot snapshot) throws IOException {
+        int count = Math.min(snapshot.getCount(), 0xFFFF);
+        reserve(GnssLogFormat.STATUS_HEADER_BYTES + count * GnssLogFormat.SATELLITE_BYTES);
+        buffer.put(GnssLogFormat.RECORD_STATUS);
+        buffer.putLong(snapshot.getTimestampMillis());
+        buffer.putShort((short) count);
+        for (int i = 0; i < count; i++) {
+            if (buffer.remaining() < GnssLogFormat.SATELLITE_BYTES) {
+                drain();
+            }
+            buffer.putShort((short) snapshot.getSvid(i));
+            buffer.put(snapshot.getConstellation(i));
+            int flags = (snapshot.isUsedInFix(i) ? GnssLogFormat.FLAG_USED_IN_FIX : 0)
+                    | (snapshot.getBand(i) << GnssLogFormat.FLAG_BAND_SHIFT);
+            buffer.put((byte) flags);
+            buffer.putFloat(snapshot.getAzimuthDegrees(i));
+            buffer.putFloat(snapshot.getElevationDegrees(i));
+            buffer.putFloat(snapshot.getCn0DbHz(i));
+        }
+        recordCount++;
+    }
+
+    public void writeLocation(long timestampMillis, double latitude, double longitude, double altitude) throws IOException {
+        reserve(GnssLogFormat.LOCATION_BYTES);
+        buffer.put(GnssLogFormat.RECORD_LOCATION);
+        buffer.putLong(timestampMillis);
+        buffer.putDouble(latitude);
+        buffer.putDouble(longitude);
+        buffer.putDouble(altitude);
+        recordCount++;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    // Escreve no arquivo o que estiver no buffer
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Garante espaço para um registro inteiro no segmento atual (registros não são divididos
+    // entre segmentos); registros maiores que o buffer são escritos em partes pelo chamador
+    private void reserve(int bytes) throws IOException {
+        if (segmentBytes + bytes > maxSegmentBytes && segmentBytes > GnssLogFormat.HEADER_BYTES) {
+            drain();
+            channel.close();
+            segment++;
+            openSegment();
+        }
+        if (buffer.remaining() < Math.min(bytes, BUFFER_BYTES)) {
+            drain();
+        }
+        segmentBytes += bytes;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void openSegment() throws IOException {
+        File file = new File(directory, GnssLogFormat.segmentName(session, segment));
+        channel = new FileOutputStream(file).getChannel();
+        buffer.putLong(GnssLogFormat.MAGIC);
+        buffer.putShort(GnssLogFormat.VERSION);
+        segmentBytes = GnssLogFormat.HEADER_BYTES;
+    }
+}
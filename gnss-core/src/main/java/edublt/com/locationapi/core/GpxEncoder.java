@@ -0,0 +1,48 @@
+package edublt.com.locationapi.core;
+
+// GPX 1.1: cada arquivo é um <trk> com um <trkseg> e um <trkpt> por localização. O GPX
+// não tem onde guardar os sinais, então dos status só fica a quantidade de satélites
+// usados no fix (<sat>) do último status antes de cada ponto.
+public final class GpxEncoder implements ExportEncoder {
+    private int satellitesUsed = -1; // -1 = nenhum status ainda
+
+    @Override
+    public String getExtension() {
+        return "gpx";
+    }
+
+    @Override
+    public void beginFile(AsciiBuilder out) {
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<gpx version=\"1.1\" creator=\"LocationAPI\" xmlns=\"http://www.topografix.com/GPX/1/1\">\n")
+                .append("<trk><trkseg>\n");
+    }
+
+    @Override
+    public void encodeStatus(SatelliteSnapshot snapshot, AsciiBuilder out) {
+        int used = 0;
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            if (snapshot.isUsedInFix(i)) {
+                used++;
+            }
+        }
+        satellitesUsed = used;
+    }
+
+    @Override
+    public void encodeLocation(long timeMillis, double latitude, double longitude, double altitude, AsciiBuilder out) {
+        out.append("<trkpt lat=\"").appendFixed(latitude, 7)
+                .append("\" lon=\"").appendFixed(longitude, 7).append("\">")
+                .append("<ele>").appendFixed(altitude, 2).append("</ele>")
+                .append("<time>").appendIsoUtc(timeMillis).append("</time>");
+        if (satellitesUsed >= 0) {
+            out.append("<sat>").append(satellitesUsed).append("</sat>");
+        }
+        out.append("</trkpt>\n");
+    }
+
+    @Override
+    public void endFile(AsciiBuilder out) {
+        out.append("</trkseg></trk>\n</gpx>\n");
+    }
+}
@@ -0,0 +1,74 @@
+package edublt.com.locationapi.core;
+
+import java.util.Arrays;
+
+// Grade uniforme de ocupação usada para posicionar rótulos sem sobreposição. Cada
+// retângulo aceito marca as células que cobre; um novo rótulo só é aceito se todas as
+// suas células estiverem livres. A limpeza é O(1): as células guardam a geração em
+// que foram ocupadas e reset() apenas incrementa a geração.
+public final class LabelGrid {
+    private final float cellSize;
+    private int columns, rows;
+    private int[] stamps = new int[0];
+    private int generation;
+
+    public LabelGrid(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    // Prepara a grade para uma área width x height, liberando todas as células
+    public void reset(int width, int height) {
+        int newColumns = Math.max(1, (int) Math.ceil(width / cellSize));
+        int newRows = Math.max(1, (int) Math.ceil(height / cellSize));
+        if (newColumns * newRows > stamps.length) {
+            stamps = new int[newColumns * newRows];
+            generation = 0;
+        }
+        columns = newColumns;
+        rows = newRows;
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    // Ocupa o retângulo se ele estiver livre e dentro da área; retorna se foi aceito
+    public boolean tryOccupy(float left, float top, float right, float bottom) {
+        if (left < 0 || top < 0 || right > columns * cellSize || bottom > rows * cellSize) {
+            return false;
+        }
+        int c0 = (int) (left / cellSize);
+        int r0 = (int) (top / cellSize);
+        int c1 = Math.min(columns - 1, (int) (right / cellSize));
+        int r1 = Math.min(rows - 1, (int) (bottom / cellSize));
+        for (int r = r0; r <= r1; r++) {
+            int row = r * columns;
+            for (int c = c0; c <= c1; c++) {
+                if (stamps[row + c] == generation) {
+                    return false;
+                }
+            }
+        }
+        occupy(c0, r0, c1, r1);
+        return true;
+    }
+
+    // Ocupa o retângulo sem verificar (ex.: marcadores que nunca são escondidos)
+    public void forceOccupy(float left, float top, float right, float bottom) {
+        int c0 = Math.max(0, (int) (left / cellSize));
+        int r0 = Math.max(0, (int) (top / cellSize));
+        int c1 = Math.min(columns - 1, (int) (right / cellSize));
+        int r1 = Math.min(rows - 1, (int) (bottom / cellSize));
+        occupy(c0, r0, c1, r1);
+    }
+
+    private void occupy(int c0, int r0, int c1, int r1) {
+        for (int r = r0; r <= r1; r++) {
+            int row = r * columns;
+            for (int c = c0; c <= c1; c++) {
+                stamps[row + c] = generation;
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package edublt.com.locationapi.core;
+
+// Formatos de exibição da localização. Os nomes são gravados nas preferências,
+// então não devem ser renomeados.
+public enum LocationFormat {
+    DEGREES,
+    DEGREES_MINUTES,
+    DEGREES_MINUTES_SECONDS
+}
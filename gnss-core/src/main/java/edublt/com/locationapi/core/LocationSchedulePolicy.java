@@ -0,0 +1,301 @@
+package edublt.com.locationapi.core;
+
+// Decide como pedir as localizações (intervalo, distância mínima, atraso máximo de lote e
+// prioridade) a partir do perfil escolhido, da velocidade, da tendência da precisão e da
+// visibilidade da tela. Não conhece a API do Android: recebe as localizações por onFix
+// e as mudanças por setProfile/setVisible/setGnssRequired, e cada chamada retorna se o pedido mudou e
+// precisa ser refeito. Assim a política pode ser testada com trajetos gravados na JVM.
+//  - parado, o intervalo e a distância mínima crescem; em movimento voltam ao do perfil
+//  - com a precisão piorando, o intervalo volta ao do perfil e a distância mínima é
+//    suspensa até ela se estabilizar
+//  - com a tela oculta, as localizações são entregues em lotes (maxUpdateDelay)
+//  - enquanto os callbacks de status e medições do GNSS estão registrados, a prioridade é
+//    sempre alta precisão: é o pedido de localização que mantém o receptor ligado (o
+//    callback de status sozinho não o liga), e com Wi-Fi ou rede celular o provedor
+//    combinado o desligaria. Os perfis então só mudam intervalo, distância e lote.
+// Pedidos mais frequentes são aplicados na hora; os mais espaçados só depois de
+// MIN_RELAX_MILLIS desde a última mudança, para não refazer o pedido a cada oscilação.
+// Chamada por uma única thread; os valores e contadores podem ser lidos por qualquer uma.
+public final class LocationSchedulePolicy {
+    public static final int PROFILE_HIGH_RATE = 0;
+    public static final int PROFILE_BALANCED = 1;
+    public static final int PROFILE_LOW_POWER = 2;
+    public static final int PROFILE_COUNT = 3;
+    private static final String[] PROFILE_NAMES = {"Alta taxa", "Equilibrado", "Economia"};
+
+    // Mesmos valores de com.google.android.gms.location.Priority
+    public static final int PRIORITY_HIGH_ACCURACY = 100;
+    public static final int PRIORITY_BALANCED_POWER_ACCURACY = 102;
+
+    // Motivo da última mudança do pedido
+    public static final int REASON_INITIAL = 0;
+    public static final int REASON_PROFILE = 1;
+    public static final int REASON_VISIBILITY = 2;
+    public static final int REASON_MOVING = 3;
+    public static final int REASON_STATIONARY = 4;
+    public static final int REASON_ACCURACY_DEGRADING = 5;
+    public static final int REASON_ACCURACY_STABLE = 6;
+    public static final int REASON_GNSS = 7;
+    private static final String[] REASON_NAMES = {
+            "inicial", "perfil", "visibilidade", "em movimento", "parado", "precisão piorando", "precisão estável",
+            "GNSS"
+    };
+
+    // Parâmetros por perfil (índices PROFILE_*)
+    private static final long[] MOVING_INTERVAL_MILLIS = {1000, 2000, 10_000};
+    private static final long[] STATIONARY_INTERVAL_MILLIS = {2000, 10_000, 60_000};
+    private static final float[] MOVING_DISTANCE_METERS = {0, 2, 10};
+    private static final float[] STATIONARY_DISTANCE_METERS = {0, 5, 25};
+    private static final long[] VISIBLE_BATCH_MILLIS = {0, 0, 60_000};
+    private static final long[] HIDDEN_BATCH_MILLIS = {5000, 30_000, 300_000};
+
+    // Movimento com histerese sobre a média móvel da velocidade. O peso de cada amostra
+    // depende do tempo desde a anterior, então intervalos longos reagem tão rápido quanto curtos.
+    static final float MOVING_SPEED = 1.0f; // m/s
+    static final float STATIONARY_SPEED = 0.4f;
+    private static final double SPEED_TIME_CONSTANT_MILLIS = 3000;
+    // A precisão piora quando o erro passa da média móvel em 50% (e 2 m); volta a ser
+    // estável quando fica de novo abaixo da média
+    private static final float ACCURACY_ALPHA = 0.2f;
+    private static final float DEGRADING_RATIO = 1.5f;
+    private static final float DEGRADING_MARGIN_METERS = 2f;
+    static final long MIN_RELAX_MILLIS = 15_000;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    private volatile int profile;
+    private boolean visible = true;
+    private boolean gnssRequired = true;
+
+    // Estimativas a partir das localizações
+    private float speed = Float.NaN; // Média móvel, m/s
+    private float accuracy = Float.NaN; // Média móvel do erro, m
+    private boolean moving;
+    private boolean accuracyDegrading;
+    private long lastFixMillis = Long.MIN_VALUE;
+    private double lastLatitude, lastLongitude;
+
+    // Pedido atual
+    private volatile long intervalMillis;
+    private volatile float minDistanceMeters;
+    private volatile long maxUpdateDelayMillis;
+    private volatile int priority;
+    private volatile int lastReason = REASON_INITIAL;
+    private long lastChangeMillis = Long.MIN_VALUE;
+    private int deferredReason = REASON_INITIAL; // Mudança adiada por MIN_RELAX_MILLIS, refeita nas próximas localizações
+
+    private volatile long fixCount;
+    private volatile long wakeupCount;
+    private volatile long changeCount;
+
+    public LocationSchedulePolicy(int profile) {
+        this.profile = clampProfile(profile);
+        apply(REASON_INITIAL, Long.MIN_VALUE);
+    }
+
+    // Troca o perfil; retorna se o pedido mudou
+    public boolean setProfile(int profile, long nowMillis) {
+        profile = clampProfile(profile);
+        if (profile == this.profile) {
+            return false;
+        }
+        this.profile = profile;
+        return apply(REASON_PROFILE, nowMillis);
+    }
+
+    // Tela visível (entrega imediata) ou oculta (entrega em lotes); retorna se o pedido mudou
+    public boolean setVisible(boolean visible, long nowMillis) {
+        if (visible == this.visible) {
+            return false;
+        }
+        this.visible = visible;
+        return apply(REASON_VISIBILITY, nowMillis);
+    }
+
+    // Callbacks do GNSS registrados (o receptor precisa ficar ligado) ou não; retorna se o pedido mudou
+    public boolean setGnssRequired(boolean gnssRequired, long nowMillis) {
+        if (gnssRequired == this.gnssRequired) {
+            return false;
+        }
+        this.gnssRequired = gnssRequired;
+        return apply(REASON_GNSS, nowMillis);
+    }
+
+    // Uma localização recebida (speed/accuracy NaN quando o provedor não informa);
+    // retorna se o pedido mudou
+    public boolean onFix(long timeMillis, double latitude, double longitude, float speedMetersPerSecond,
+                         float accuracyMeters) {
+        fixCount++;
+        long elapsed = lastFixMillis == Long.MIN_VALUE ? Long.MAX_VALUE : timeMillis - lastFixMillis;
+        if (Float.isNaN(speedMetersPerSecond) && lastFixMillis != Long.MIN_VALUE && elapsed > 0) {
+            // Sem velocidade do provedor, ela é estimada pelo deslocamento desde a última localização
+            double dy = (latitude - lastLatitude) * METERS_PER_DEGREE;
+            double dx = (longitude - lastLongitude) * METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+            speedMetersPerSecond = (float) (Math.sqrt(dx * dx + dy * dy) * 1000.0 / elapsed);
+        }
+        lastFixMillis = timeMillis;
+        lastLatitude = latitude;
+        lastLongitude = longitude;
+
+        int reason = REASON_INITIAL;
+        if (!Float.isNaN(speedMetersPerSecond)) {
+            float alpha = (float) (1 - Math.exp(-Math.max(0, elapsed) / SPEED_TIME_CONSTANT_MILLIS));
+            speed = Float.isNaN(speed) ? speedMetersPerSecond : speed + alpha * (speedMetersPerSecond - speed);
+            if (!moving && speed > MOVING_SPEED) {
+                moving = true;
+                reason = REASON_MOVING;
+            } else if (moving && speed < STATIONARY_SPEED) {
+                moving = false;
+                reason = REASON_STATIONARY;
+            }
+        }
+        if (!Float.isNaN(accuracyMeters)) {
+            if (Float.isNaN(accuracy)) {
+                accuracy = accuracyMeters;
+            } else {
+                if (!accuracyDegrading && accuracyMeters > accuracy * DEGRADING_RATIO + DEGRADING_MARGIN_METERS) {
+                    accuracyDegrading = true;
+                    reason = REASON_ACCURACY_DEGRADING;
+                } else if (accuracyDegrading && accuracyMeters <= accuracy) {
+                    accuracyDegrading = false;
+                    reason = REASON_ACCURACY_STABLE;
+                }
+                accuracy += ACCURACY_ALPHA * (accuracyMeters - accuracy);
+            }
+        }
+        if (reason == REASON_INITIAL) {
+            reason = deferredReason;
+        }
+        return reason != REASON_INITIAL && apply(reason, timeMillis);
+    }
+
+    // Um callback entregou uma ou mais localizações de uma vez
+    public void onWakeup() {
+        wakeupCount++;
+    }
+
+    // Recalcula o pedido; retorna se ele mudou. Pedidos mais espaçados que o atual esperam
+    // MIN_RELAX_MILLIS desde a última mudança (a não ser que venham do usuário).
+    private boolean apply(int reason, long nowMillis) {
+        boolean fast = moving || accuracyDegrading;
+        long interval = fast ? MOVING_INTERVAL_MILLIS[profile] : STATIONARY_INTERVAL_MILLIS[profile];
+        // Com a precisão piorando, a distância mínima mediria só o ruído das posições
+        float distance = accuracyDegrading ? 0 : moving ? MOVING_DISTANCE_METERS[profile] : STATIONARY_DISTANCE_METERS[profile];
+        long batch = visible ? VISIBLE_BATCH_MILLIS[profile] : HIDDEN_BATCH_MILLIS[profile];
+        if (batch < 2 * interval) {
+            batch = 0; // Um lote menor que dois intervalos não economiza nenhum despertar
+        }
+        // Sem os callbacks do GNSS, equilibrado parado e estável dispensa o receptor e economia nunca o exige
+        int newPriority = gnssRequired || profile == PROFILE_HIGH_RATE || (profile == PROFILE_BALANCED && fast)
+                ? PRIORITY_HIGH_ACCURACY : PRIORITY_BALANCED_POWER_ACCURACY;
+
+        boolean changed = interval != intervalMillis || distance != minDistanceMeters
+                || batch != maxUpdateDelayMillis || newPriority != priority;
+        if (!changed) {
+            deferredReason = REASON_INITIAL;
+            return false;
+        }
+        boolean user = reason == REASON_INITIAL || reason == REASON_PROFILE || reason == REASON_VISIBILITY
+                || reason == REASON_GNSS;
+        if (!user && interval > intervalMillis && lastChangeMillis != Long.MIN_VALUE
+                && nowMillis - lastChangeMillis < MIN_RELAX_MILLIS) {
+            deferredReason = reason;
+            return false;
+        }
+        deferredReason = REASON_INITIAL;
+        intervalMillis = interval;
+        minDistanceMeters = distance;
+        maxUpdateDelayMillis = batch;
+        priority = newPriority;
+        lastReason = reason;
+        lastChangeMillis = nowMillis;
+        if (reason != REASON_INITIAL) {
+            changeCount++;
+        }
+        return true;
+    }
+
+    private static int clampProfile(int profile) {
+        return profile < 0 || profile >= PROFILE_COUNT ? PROFILE_BALANCED : profile;
+    }
+
+    public static String profileName(int profile) {
+        return PROFILE_NAMES[clampProfile(profile)];
+    }
+
+    public static String reasonName(int reason) {
+        return REASON_NAMES[reason];
+    }
+
+    public int getProfile() {
+        return profile;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public boolean isGnssRequired() {
+        return gnssRequired;
+    }
+
+    public boolean isMoving() {
+        return moving;
+    }
+
+    public boolean isAccuracyDegrading() {
+        return accuracyDegrading;
+    }
+
+    // Média móvel da velocidade (NaN antes da primeira)
+    public float getSpeedMetersPerSecond() {
+        return speed;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public float getMinDistanceMeters() {
+        return minDistanceMeters;
+    }
+
+    // 0 = entrega imediata
+    public long getMaxUpdateDelayMillis() {
+        return maxUpdateDelayMillis;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public int getLastReason() {
+        return lastReason;
+    }
+
+    public long getFixCount() {
+        return fixCount;
+    }
+
+    // Callbacks recebidos; com lotes, cada um traz várias localizações
+    public long getWakeupCount() {
+        return wakeupCount;
+    }
+
+    // Vezes em que o pedido foi refeito (sem contar o inicial)
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    // Resumo em uma linha, para o overlay de métricas
+    public void appendReport(StringBuilder sb) {
+        sb.append("localização: ").append(profileName(profile))
+                .append(" intervalo=").append(intervalMillis / 1000.0).append(" s")
+                .append(" dist=").append(minDistanceMeters).append(" m")
+                .append(" lote=").append(maxUpdateDelayMillis / 1000).append(" s")
+                .append(priority == PRIORITY_HIGH_ACCURACY ? " alta precisão" : " equilibrada")
+                .append(" (").append(reasonName(lastReason)).append(')')
+                .append(" despertares=").append(wakeupCount)
+                .append(" fixes=").append(fixCount)
+                .append(" mudanças=").append(changeCount).append('\n');
+    }
+}
@@ -0,0 +1,127 @@
+package edublt.com.locationapi.core;
+
+import java.util.Arrays;
+
+// Mapa long -> int com endereçamento aberto (sondagem linear) sobre arrays primitivos,
+// sem boxing nem objetos por entrada. A remoção desloca as entradas seguintes para
+// trás, então não há marcadores de remoção e as buscas continuam curtas.
+public final class LongIntMap {
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    public LongIntMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Retorna o valor da chave ou 'missing' se ela não estiver no mapa
+    public int get(long key, int missing) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missing;
+    }
+
+    public void put(long key, int value) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        // Mantém a ocupação abaixo de 50% para as sondagens continuarem curtas
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    // Remove a chave; retorna se ela estava no mapa
+    public boolean remove(long key) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                shiftBack(slot);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    // Preenche o buraco em 'gap' com as entradas seguintes que dependem dele para serem achadas
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (!used[slot]) {
+                break;
+            }
+            int home = hash(keys[slot]) & mask;
+            // A entrada só pode voltar se o buraco estiver entre a posição ideal e a atual
+            boolean movable = gap <= slot ? (home <= gap || home > slot) : (home <= gap && home > slot);
+            if (movable) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        used[gap] = false;
+    }
+
+    private void rehash(int newLength) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(newLength);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int length) {
+        keys = new long[length];
+        values = new int[length];
+        used = new boolean[length];
+        mask = length - 1;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int length = 4;
+        while (length < expectedSize * 2) {
+            length <<= 1;
+        }
+        return length;
+    }
+
+    // Espalha os bits da chave (finalizador do MurmurHash3)
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,181 @@
+package edublt.com.locationapi.core;
+
+import java.util.concurrent.locks.LockSupport;
+
+// Medições brutas do receptor: o callback enfileira cada medição no MeasurementRing
+// (sem travas, descartando se cheio) e uma thread própria ("gnss-measurements") esvazia
+// a fila numa tabela com o último valor de cada sinal. Ao fim de cada lote a tabela é
+// copiada para a cópia da frente, que é a lida pela thread de ingestão ao montar os
+// retratos (addSignals); só essa cópia curta usa trava. Sinais sem medição por
+// MAX_MISSED_EPOCHS épocas saem da tabela.
+public final class MeasurementPipeline {
+    // Mesmo valor de GnssMeasurement.MULTIPATH_INDICATOR_DETECTED
+    public static final byte MULTIPATH_DETECTED = 1;
+
+    private static final int MAX_MISSED_EPOCHS = 5;
+    private static final long IDLE_PARK_NANOS = 100_000_000L; // Espera máxima sem aviso do produtor
+
+    private final MeasurementRing ring;
+    private final MeasurementTable back = new MeasurementTable(64); // Só a thread consumidora acessa
+    private final MeasurementTable front = new MeasurementTable(64); // Protegida por 'front'
+
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    // Escritos só pela thread consumidora
+    private long epoch;
+    private long epochTimeNanos = Long.MIN_VALUE;
+    private boolean pending; // A tabela de trás mudou e ainda não foi copiada para a frente
+    private volatile long processedCount;
+    private volatile long epochCount;
+    private volatile long multipathCount; // Medições com multicaminho detectado
+
+    public MeasurementPipeline(int ringCapacity) {
+        ring = new MeasurementRing(ringCapacity);
+    }
+
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        running = true;
+        worker = new Thread(consume, "gnss-measurements");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Encerra a thread consumidora, esperando que ela termine
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            thread = worker;
+            worker = null;
+            running = false;
+        }
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Produtor: enfileira uma medição de um sinal (ver MeasurementRing.offer)
+    public boolean offer(long timeNanos, int svid, byte constellation, byte band, float carrierHz, float cn0,
+                         double pseudorangeRate, double accumulatedDeltaRange, int adrState, byte multipath) {
+        return ring.offer(timeNanos, svid, constellation, band, carrierHz, cn0, pseudorangeRate,
+                accumulatedDeltaRange, adrState, multipath);
+    }
+
+    // Produtor: fim de um evento de medições; acorda a thread consumidora
+    public void endEvent() {
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private final Runnable consume = new Runnable() {
+        @Override
+        public void run() {
+            while (running) {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        }
+    };
+
+    // Consumidor: esvazia a fila e publica a tabela; retorna quantas medições foram lidas.
+    // Chamado pela thread própria (ou diretamente nos testes, sem start()).
+    int drain() {
+        int n = 0;
+        int slot;
+        while ((slot = ring.poll()) >= 0) {
+            long time = ring.getTimeNanos(slot);
+            if (time != epochTimeNanos) {
+                epochTimeNanos = time;
+                epoch++;
+                epochCount++;
+                pending = true; // Mesmo sem sinais com banda, a época nova pode expirar os antigos
+            }
+            // Só sinais com banda conhecida podem ser separados por banda
+            if (ring.getBand(slot) != GnssBand.UNKNOWN) {
+                back.put(ring, slot, epoch);
+                pending = true;
+            }
+            if (ring.getMultipath(slot) == MULTIPATH_DETECTED) {
+                multipathCount++;
+            }
+            ring.release();
+            n++;
+        }
+        if (n > 0) {
+            processedCount += n;
+        }
+        if (pending) {
+            pending = false;
+            back.expire(epoch - MAX_MISSED_EPOCHS);
+            synchronized (front) {
+                front.copyFrom(back);
+            }
+        }
+        return n;
+    }
+
+    // Junção com o GnssStatus: acrescenta ao retrato um sinal por banda medida do satélite,
+    // com o C/N0 da medição, e retorna quantos foram acrescentados (0 = nenhuma medição;
+    // o chamador acrescenta então o sinal do status sem banda). Chamado pela thread de ingestão.
+    public int addSignals(SatelliteSnapshot snapshot, int svid, byte constellation, float azimuth,
+                          float elevation, boolean usedInFix) {
+        int added = 0;
+        synchronized (front) {
+            for (byte band = 1; band < GnssBand.COUNT; band++) {
+                int i = front.find(constellation, svid, band);
+                if (i >= 0) {
+                    snapshot.add(svid, constellation, azimuth, elevation, front.getCn0DbHz(i), usedInFix, band);
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    // Copia a tabela atual (para relatórios), sem travar a thread consumidora por mais que a cópia
+    public void copyTable(MeasurementTable into) {
+        synchronized (front) {
+            into.copyFrom(front);
+        }
+    }
+
+    public long getOfferedCount() {
+        return ring.getOfferedCount();
+    }
+
+    public long getDroppedCount() {
+        return ring.getDroppedCount();
+    }
+
+    public int getHighWatermark() {
+        return ring.getHighWatermark();
+    }
+
+    public int getCapacity() {
+        return ring.getCapacity();
+    }
+
+    public long getProcessedCount() {
+        return processedCount;
+    }
+
+    public long getEpochCount() {
+        return epochCount;
+    }
+
+    public long getMultipathCount() {
+        return multipathCount;
+    }
+}
@@ -0,0 +1,162 @@
+package edublt.com.locationapi.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fila circular limitada, sem travas, de medições brutas (uma por sinal de um
+// GnssMeasurementsEvent) entre uma única thread produtora (callback) e uma única
+// consumidora (MeasurementPipeline). Os registros ficam em arrays primitivos por campo;
+// o produtor escreve o slot e só então avança 'tail', e o consumidor lê o slot e só
+// então avança 'head', então cada slot é de um único lado de cada vez. Com a fila
+// cheia a medição é descartada e contada (o produtor nunca espera).
+public final class MeasurementRing {
+    private final int mask;
+    private final long[] timeNanos; // Relógio do receptor (GnssClock) da época
+    private final int[] svid;
+    private final byte[] constellation;
+    private final byte[] band;
+    private final byte[] multipath; // GnssMeasurement.MULTIPATH_INDICATOR_*
+    private final int[] adrState; // GnssMeasurement.ADR_STATE_*
+    private final float[] carrierHz; // 0 = desconhecida
+    private final float[] cn0;
+    private final double[] pseudorangeRate; // m/s
+    private final double[] accumulatedDeltaRange; // m
+
+    private final AtomicLong head = new AtomicLong(); // Próximo a ler (escrito pelo consumidor)
+    private final AtomicLong tail = new AtomicLong(); // Próximo a escrever (escrito pelo produtor)
+    private long cachedHead; // Cópia de 'head' do produtor, evita ler o atômico a cada oferta
+    private long reading = -1; // Registro entregue ao consumidor por poll() e ainda não liberado
+
+    // Contadores escritos só pelo produtor e lidos por qualquer thread
+    private volatile long offeredCount;
+    private volatile long droppedCount;
+    private volatile int highWatermark; // Maior ocupação observada (limite superior)
+
+    // capacity é arredondada para a próxima potência de 2
+    public MeasurementRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        mask = size - 1;
+        timeNanos = new long[size];
+        svid = new int[size];
+        constellation = new byte[size];
+        band = new byte[size];
+        multipath = new byte[size];
+        adrState = new int[size];
+        carrierHz = new float[size];
+        cn0 = new float[size];
+        pseudorangeRate = new double[size];
+        accumulatedDeltaRange = new double[size];
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    // Produtor: enfileira uma medição; retorna false (e conta o descarte) se a fila está cheia
+    public boolean offer(long timeNanos, int svid, byte constellation, byte band, float carrierHz, float cn0,
+                         double pseudorangeRate, double accumulatedDeltaRange, int adrState, byte multipath) {
+        offeredCount++;
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                droppedCount++;
+                return false;
+            }
+        }
+        int slot = (int) t & mask;
+        this.timeNanos[slot] = timeNanos;
+        this.svid[slot] = svid;
+        this.constellation[slot] = constellation;
+        this.band[slot] = band;
+        this.carrierHz[slot] = carrierHz;
+        this.cn0[slot] = cn0;
+        this.pseudorangeRate[slot] = pseudorangeRate;
+        this.accumulatedDeltaRange[slot] = accumulatedDeltaRange;
+        this.adrState[slot] = adrState;
+        this.multipath[slot] = multipath;
+        // lazySet: o consumidor vê os campos antes do novo 'tail' (ordem de escrita garantida)
+        tail.lazySet(t + 1);
+        int occupancy = (int) (t + 1 - cachedHead);
+        if (occupancy > highWatermark) {
+            highWatermark = occupancy;
+        }
+        return true;
+    }
+
+    // Consumidor: retorna o slot do próximo registro ou -1 se a fila está vazia.
+    // O registro pode ser lido pelos getters até release().
+    public int poll() {
+        long h = head.get();
+        if (h >= tail.get()) {
+            return -1;
+        }
+        reading = h;
+        return (int) h & mask;
+    }
+
+    // Consumidor: devolve ao produtor o slot obtido em poll()
+    public void release() {
+        if (reading >= 0) {
+            head.lazySet(reading + 1);
+            reading = -1;
+        }
+    }
+
+    // Registros prontos para o consumidor (aproximado se lido por outra thread)
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public long getTimeNanos(int slot) {
+        return timeNanos[slot];
+    }
+
+    public int getSvid(int slot) {
+        return svid[slot];
+    }
+
+    public byte getConstellation(int slot) {
+        return constellation[slot];
+    }
+
+    public byte getBand(int slot) {
+        return band[slot];
+    }
+
+    public float getCarrierHz(int slot) {
+        return carrierHz[slot];
+    }
+
+    public float getCn0DbHz(int slot) {
+        return cn0[slot];
+    }
+
+    public double getPseudorangeRateMps(int slot) {
+        return pseudorangeRate[slot];
+    }
+
+    public double getAccumulatedDeltaRangeMeters(int slot) {
+        return accumulatedDeltaRange[slot];
+    }
+
+    public int getAdrState(int slot) {
+        return adrState[slot];
+    }
+
+    public byte getMultipath(int slot) {
+        return multipath[slot];
+    }
+
+    public long getOfferedCount() {
+        return offeredCount;
+    }
+
+    // Medições descartadas por falta de espaço (o consumidor não acompanhou)
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public int getHighWatermark() {
+        return highWatermark;
+    }
+}
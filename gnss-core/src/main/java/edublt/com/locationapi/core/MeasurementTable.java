@@ -0,0 +1,166 @@
+package edublt.com.locationapi.core;
+
+import java.util.Arrays;
+
+// Últimos valores das medições brutas de cada sinal (constelação, svid, banda), em
+// arrays primitivos densos indexados por entrada. Entradas que deixam de ser medidas
+// por algumas épocas são removidas (a última ocupa o lugar da removida). Só cresce
+// se aparecerem mais sinais do que a capacidade. Não é thread-safe.
+public final class MeasurementTable {
+    private final LongIntMap entryByKey;
+    private int count;
+    private long[] keys;
+    private int[] svid;
+    private byte[] constellation;
+    private byte[] band;
+    private byte[] multipath;
+    private int[] adrState;
+    private float[] carrierHz;
+    private float[] cn0;
+    private double[] pseudorangeRate;
+    private double[] accumulatedDeltaRange;
+    private long[] epoch; // Última época em que o sinal foi medido
+
+    public MeasurementTable(int initialCapacity) {
+        entryByKey = new LongIntMap(initialCapacity);
+        allocate(Math.max(initialCapacity, 1));
+    }
+
+    // Guarda o registro 'slot' da fila como o valor mais recente do sinal
+    public void put(MeasurementRing ring, int slot, long epochIndex) {
+        byte c = ring.getConstellation(slot);
+        int s = ring.getSvid(slot);
+        byte b = ring.getBand(slot);
+        long key = SatelliteHistory.key(c, s, b);
+        int i = entryByKey.get(key, -1);
+        if (i < 0) {
+            if (count == keys.length) {
+                allocate(count * 2);
+            }
+            i = count++;
+            keys[i] = key;
+            svid[i] = s;
+            constellation[i] = c;
+            band[i] = b;
+            entryByKey.put(key, i);
+        }
+        multipath[i] = ring.getMultipath(slot);
+        adrState[i] = ring.getAdrState(slot);
+        carrierHz[i] = ring.getCarrierHz(slot);
+        cn0[i] = ring.getCn0DbHz(slot);
+        pseudorangeRate[i] = ring.getPseudorangeRateMps(slot);
+        accumulatedDeltaRange[i] = ring.getAccumulatedDeltaRangeMeters(slot);
+        epoch[i] = epochIndex;
+    }
+
+    // Remove os sinais medidos pela última vez antes da época 'minEpoch'
+    public void expire(long minEpoch) {
+        for (int i = count - 1; i >= 0; i--) {
+            if (epoch[i] < minEpoch) {
+                entryByKey.remove(keys[i]);
+                int last = --count;
+                if (i != last) {
+                    move(last, i);
+                    entryByKey.put(keys[i], i);
+                }
+            }
+        }
+    }
+
+    // Copia todas as entradas de outra tabela, sem alocar se houver capacidade
+    public void copyFrom(MeasurementTable other) {
+        if (keys.length < other.count) {
+            allocate(other.keys.length);
+        }
+        int n = other.count;
+        System.arraycopy(other.keys, 0, keys, 0, n);
+        System.arraycopy(other.svid, 0, svid, 0, n);
+        System.arraycopy(other.constellation, 0, constellation, 0, n);
+        System.arraycopy(other.band, 0, band, 0, n);
+        System.arraycopy(other.multipath, 0, multipath, 0, n);
+        System.arraycopy(other.adrState, 0, adrState, 0, n);
+        System.arraycopy(other.carrierHz, 0, carrierHz, 0, n);
+        System.arraycopy(other.cn0, 0, cn0, 0, n);
+        System.arraycopy(other.pseudorangeRate, 0, pseudorangeRate, 0, n);
+        System.arraycopy(other.accumulatedDeltaRange, 0, accumulatedDeltaRange, 0, n);
+        System.arraycopy(other.epoch, 0, epoch, 0, n);
+        count = n;
+        entryByKey.clear();
+        for (int i = 0; i < n; i++) {
+            entryByKey.put(keys[i], i);
+        }
+    }
+
+    // Índice da entrada do sinal ou -1 se ele não está sendo medido
+    public int find(byte constellation, int svid, byte band) {
+        return entryByKey.get(SatelliteHistory.key(constellation, svid, band), -1);
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        svid[to] = svid[from];
+        constellation[to] = constellation[from];
+        band[to] = band[from];
+        multipath[to] = multipath[from];
+        adrState[to] = adrState[from];
+        carrierHz[to] = carrierHz[from];
+        cn0[to] = cn0[from];
+        pseudorangeRate[to] = pseudorangeRate[from];
+        accumulatedDeltaRange[to] = accumulatedDeltaRange[from];
+        epoch[to] = epoch[from];
+    }
+
+    private void allocate(int capacity) {
+        keys = keys == null ? new long[capacity] : Arrays.copyOf(keys, capacity);
+        svid = svid == null ? new int[capacity] : Arrays.copyOf(svid, capacity);
+        constellation = constellation == null ? new byte[capacity] : Arrays.copyOf(constellation, capacity);
+        band = band == null ? new byte[capacity] : Arrays.copyOf(band, capacity);
+        multipath = multipath == null ? new byte[capacity] : Arrays.copyOf(multipath, capacity);
+        adrState = adrState == null ? new int[capacity] : Arrays.copyOf(adrState, capacity);
+        carrierHz = carrierHz == null ? new float[capacity] : Arrays.copyOf(carrierHz, capacity);
+        cn0 = cn0 == null ? new float[capacity] : Arrays.copyOf(cn0, capacity);
+        pseudorangeRate = pseudorangeRate == null ? new double[capacity] : Arrays.copyOf(pseudorangeRate, capacity);
+        accumulatedDeltaRange = accumulatedDeltaRange == null ? new double[capacity] : Arrays.copyOf(accumulatedDeltaRange, capacity);
+        epoch = epoch == null ? new long[capacity] : Arrays.copyOf(epoch, capacity);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getSvid(int i) {
+        return svid[i];
+    }
+
+    public byte getConstellation(int i) {
+        return constellation[i];
+    }
+
+    public byte getBand(int i) {
+        return band[i];
+    }
+
+    public byte getMultipath(int i) {
+        return multipath[i];
+    }
+
+    public int getAdrState(int i) {
+        return adrState[i];
+    }
+
+    public float getCarrierHz(int i) {
+        return carrierHz[i];
+    }
+
+    public float getCn0DbHz(int i) {
+        return cn0[i];
+    }
+
+    public double getPseudorangeRateMps(int i) {
+        return pseudorangeRate[i];
+    }
+
+    public double getAccumulatedDeltaRangeMeters(int i) {
+        return accumulatedDeltaRange[i];
+    }
+}
@@ -0,0 +1,149 @@
+package edublt.com.locationapi.core;
+
+import java.util.Arrays;
+
+// NMEA 0183: uma sentença GGA por localização ($GNGGA, com a quantidade de satélites
+// usados no último status) e, por status, sentenças GSV por sistema ($GPGSV, $GLGSV,
+// $GAGSV, $GBGSV, $GQGSV, $GIGSV), quatro satélites por sentença. O GSV clássico não
+// identifica o sinal, então só entra um sinal por satélite (L1 ou banda desconhecida);
+// as outras bandas ficam no CSV. Os svids seguem a numeração NMEA (SBAS = PRN - 87,
+// GLONASS = slot + 64).
+public final class NmeaEncoder implements ExportEncoder {
+    private static final String[] TALKERS = {"GP", "GL", "GA", "GB", "GQ", "GI"};
+    private static final int SATELLITES_PER_GSV = 4;
+    private static final long MINUTE_SCALE = 100_000L; // 5 casas nos minutos
+
+    private int[][] groups = new int[TALKERS.length][32]; // Índices do retrato por sistema
+    private final int[] groupCount = new int[TALKERS.length];
+    private int satellitesUsed;
+
+    @Override
+    public String getExtension() {
+        return "nmea";
+    }
+
+    @Override
+    public void beginFile(AsciiBuilder out) {
+    }
+
+    @Override
+    public void encodeStatus(SatelliteSnapshot snapshot, AsciiBuilder out) {
+        int used = 0;
+        for (int t = 0; t < TALKERS.length; t++) {
+            groupCount[t] = 0;
+        }
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            if (snapshot.isUsedInFix(i)) {
+                used++;
+            }
+            byte band = snapshot.getBand(i);
+            int talker = talkerOf(snapshot.getConstellation(i));
+            if (talker < 0 || (band != GnssBand.UNKNOWN && band != GnssBand.L1)) {
+                continue;
+            }
+            if (groupCount[talker] == groups[talker].length) {
+                groups[talker] = Arrays.copyOf(groups[talker], groupCount[talker] * 2);
+            }
+            groups[talker][groupCount[talker]++] = i;
+        }
+        satellitesUsed = used;
+
+        for (int t = 0; t < TALKERS.length; t++) {
+            int n = groupCount[t];
+            int messages = (n + SATELLITES_PER_GSV - 1) / SATELLITES_PER_GSV;
+            for (int m = 0; m < messages; m++) {
+                int start = begin(out, TALKERS[t], "GSV");
+                out.append(',').append(messages).append(',').append(m + 1).append(',').appendPadded(n, 2);
+                int end = Math.min(n, (m + 1) * SATELLITES_PER_GSV);
+                for (int k = m * SATELLITES_PER_GSV; k < end; k++) {
+                    int i = groups[t][k];
+                    out.append(',').appendPadded(nmeaSvid(snapshot.getConstellation(i), snapshot.getSvid(i)), 2);
+                    out.append(',').appendPadded(clamp(Math.round(snapshot.getElevationDegrees(i)), 0, 90), 2);
+                    out.append(',').appendPadded(Math.floorMod(Math.round(snapshot.getAzimuthDegrees(i)), 360), 3);
+                    out.append(',');
+                    if (snapshot.getCn0DbHz(i) > 0) {
+                        out.appendPadded(clamp(Math.round(snapshot.getCn0DbHz(i)), 0, 99), 2);
+                    }
+                }
+                end(out, start);
+            }
+        }
+    }
+
+    @Override
+    public void encodeLocation(long timeMillis, double latitude, double longitude, double altitude, AsciiBuilder out) {
+        int start = begin(out, "GN", "GGA");
+        out.append(',').appendNmeaUtcTime(timeMillis).append(',');
+        appendAngle(out, latitude, 2);
+        out.append(',').append(latitude < 0 ? 'S' : 'N').append(',');
+        appendAngle(out, longitude, 3);
+        out.append(',').append(longitude < 0 ? 'W' : 'E');
+        // Qualidade 1 (fix GNSS), satélites usados, HDOP desconhecido, altitude, separação geoidal desconhecida
+        out.append(",1,").appendPadded(Math.min(satellitesUsed, 99), 2).append(",,")
+                .appendFixed(altitude, 1).append(",M,,M,,");
+        end(out, start);
+    }
+
+    @Override
+    public void endFile(AsciiBuilder out) {
+    }
+
+    // Ângulo em graus e minutos decimais (ddmm.mmmmm / dddmm.mmmmm), sem sinal
+    private static void appendAngle(AsciiBuilder out, double degrees, int degreeDigits) {
+        long scaled = Math.round(Math.abs(degrees) * 60 * MINUTE_SCALE); // Minutos totais escalados
+        long minutesPerDegree = 60 * MINUTE_SCALE;
+        long minutes = scaled % minutesPerDegree;
+        out.appendPadded(scaled / minutesPerDegree, degreeDigits)
+                .appendPadded(minutes / MINUTE_SCALE, 2).append('.')
+                .appendPadded(minutes % MINUTE_SCALE, 5);
+    }
+
+    private static int begin(AsciiBuilder out, String talker, String type) {
+        int start = out.length();
+        out.append('$').append(talker).append(type);
+        return start;
+    }
+
+    // Fecha a sentença com o checksum: XOR dos bytes entre '$' e '*'
+    private static void end(AsciiBuilder out, int start) {
+        int checksum = 0;
+        for (int i = start + 1; i < out.length(); i++) {
+            checksum ^= out.byteAt(i);
+        }
+        out.append('*').appendHex2(checksum).append("\r\n");
+    }
+
+    private static int talkerOf(byte constellation) {
+        switch (constellation) {
+            case Constellation.GPS:
+            case Constellation.SBAS:
+                return 0;
+            case Constellation.GLONASS:
+                return 1;
+            case Constellation.GALILEO:
+                return 2;
+            case Constellation.BEIDOU:
+                return 3;
+            case Constellation.QZSS:
+                return 4;
+            case Constellation.IRNSS:
+                return 5;
+            default:
+                return -1;
+        }
+    }
+
+    static int nmeaSvid(byte constellation, int svid) {
+        if (constellation == Constellation.SBAS && svid >= 120) {
+            return svid - 87;
+        }
+        if (constellation == Constellation.GLONASS && svid >= 1 && svid <= 24) {
+            return svid + 64;
+        }
+        return svid;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,72 @@
+package edublt.com.locationapi.core;
+
+// Critérios de exibição dos satélites. Imutável: para mudar o filtro, crie outro
+// e entregue ao FilterEngine, que invalida o cache de índices.
+public final class SatelliteFilter {
+    // Filtro que deixa passar todos os satélites
+    public static final SatelliteFilter ALL = new SatelliteFilter(Constellation.ALL_MASK, -90f, 0f, false);
+
+    private final int constellationMask; // Bits de Constellation.mask()
+    private final float minElevationDegrees;
+    private final float minCn0DbHz;
+    private final boolean usedInFixOnly;
+
+    public SatelliteFilter(int constellationMask, float minElevationDegrees, float minCn0DbHz, boolean usedInFixOnly) {
+        this.constellationMask = constellationMask;
+        this.minElevationDegrees = minElevationDegrees;
+        this.minCn0DbHz = minCn0DbHz;
+        this.usedInFixOnly = usedInFixOnly;
+    }
+
+    public int getConstellationMask() {
+        return constellationMask;
+    }
+
+    public float getMinElevationDegrees() {
+        return minElevationDegrees;
+    }
+
+    public float getMinCn0DbHz() {
+        return minCn0DbHz;
+    }
+
+    public boolean isUsedInFixOnly() {
+        return usedInFixOnly;
+    }
+
+    public boolean includes(int constellation) {
+        return (constellationMask & Constellation.mask(constellation)) != 0;
+    }
+
+    // Verifica se o satélite 'i' do retrato passa no filtro
+    public boolean matches(SatelliteSnapshot snapshot, int i) {
+        return (constellationMask & Constellation.mask(snapshot.getConstellation(i))) != 0
+                && snapshot.getElevationDegrees(i) >= minElevationDegrees
+                && snapshot.getCn0DbHz(i) >= minCn0DbHz
+                && (!usedInFixOnly || snapshot.isUsedInFix(i));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SatelliteFilter)) {
+            return false;
+        }
+        SatelliteFilter other = (SatelliteFilter) o;
+        return constellationMask == other.constellationMask
+                && Float.compare(minElevationDegrees, other.minElevationDegrees) == 0
+                && Float.compare(minCn0DbHz, other.minCn0DbHz) == 0
+                && usedInFixOnly == other.usedInFixOnly;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = constellationMask;
+        result = 31 * result + Float.floatToIntBits(minElevationDegrees);
+        result = 31 * result + Float.floatToIntBits(minCn0DbHz);
+        result = 31 * result + (usedInFixOnly ? 1 : 0);
+        return result;
+    }
+}
@@ -0,0 +1,217 @@
+package edublt.com.locationapi.core;
+
+import java.util.Arrays;
+
+// Histórico recente de cada sinal (constelação, svid, banda): instante, azimute,
+// elevação e C/N0 em anéis de tamanho fixo, guardados em arrays primitivos contíguos
+// (uma faixa de 'samplesPerTrack' amostras por trilha). A memória é alocada uma vez
+// no construtor: no máximo 'maxTracks' sinais e uma amostra por sinal a cada
+// windowMillis / samplesPerTrack, então o anel sempre cobre a janela inteira.
+// Amostras mais antigas que a janela são descartadas e as trilhas que ficam vazias
+// voltam para a lista livre; se todas estiverem em uso, a menos recente é reaproveitada.
+// Não é thread-safe: gravação e leitura devem acontecer na mesma thread.
+public final class SatelliteHistory {
+    public static final int NO_TRACK = -1;
+
+    private final int maxTracks;
+    private final int samplesPerTrack;
+    private final long windowMillis;
+    private final long minIntervalMillis; // Intervalo mínimo entre amostras de uma trilha
+
+    private final LongIntMap trackByKey;
+    private final long[] trackKeys;
+    private final int[] head; // Índice da amostra mais antiga dentro da faixa da trilha
+    private final int[] size; // Amostras válidas; 0 = trilha livre
+    private final int[] freeTracks;
+    private int freeCount;
+
+    private final long[] time;
+    private final float[] azimuth;
+    private final float[] elevation;
+    private final float[] cn0;
+
+    private long lastTimestampMillis = Long.MIN_VALUE;
+    private long version;
+
+    public SatelliteHistory(int maxTracks, int samplesPerTrack, long windowMillis) {
+        this.maxTracks = maxTracks;
+        this.samplesPerTrack = samplesPerTrack;
+        this.windowMillis = windowMillis;
+        this.minIntervalMillis = Math.max(1, windowMillis / samplesPerTrack);
+        trackByKey = new LongIntMap(maxTracks);
+        trackKeys = new long[maxTracks];
+        head = new int[maxTracks];
+        size = new int[maxTracks];
+        freeTracks = new int[maxTracks];
+        int samples = maxTracks * samplesPerTrack;
+        time = new long[samples];
+        azimuth = new float[samples];
+        elevation = new float[samples];
+        cn0 = new float[samples];
+        clear();
+    }
+
+    // Chave do sinal: constelação, banda e svid empacotados num long
+    public static long key(byte constellation, int svid, byte band) {
+        return ((long) (constellation & 0xFF) << 40) | ((long) (band & 0xFF) << 32) | (svid & 0xFFFFFFFFL);
+    }
+
+    // Descarta todo o histórico
+    public void clear() {
+        trackByKey.clear();
+        Arrays.fill(size, 0);
+        for (int t = 0; t < maxTracks; t++) {
+            freeTracks[t] = maxTracks - 1 - t;
+        }
+        freeCount = maxTracks;
+        lastTimestampMillis = Long.MIN_VALUE;
+        version++;
+    }
+
+    // Acrescenta os sinais do retrato (no instante do status) e descarta o que saiu da janela.
+    // Retratos com o mesmo instante do anterior (ex.: só a localização mudou) são ignorados.
+    public void record(SatelliteSnapshot snapshot) {
+        long now = snapshot.getTimestampMillis();
+        if (now == lastTimestampMillis) {
+            return;
+        }
+        if (now < lastTimestampMillis) {
+            // O tempo voltou (ex.: início de uma reprodução): o histórico não vale mais
+            clear();
+        }
+        lastTimestampMillis = now;
+        boolean changed = false;
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            long key = key(snapshot.getConstellation(i), snapshot.getSvid(i), snapshot.getBand(i));
+            int track = trackByKey.get(key, NO_TRACK);
+            if (track == NO_TRACK) {
+                track = allocate(key);
+            } else if (now - time[index(track, size[track] - 1)] < minIntervalMillis) {
+                continue;
+            }
+            append(track, now, snapshot.getAzimuthDegrees(i), snapshot.getElevationDegrees(i), snapshot.getCn0DbHz(i));
+            changed = true;
+        }
+        if (expire(now - windowMillis) || changed) {
+            version++;
+        }
+    }
+
+    private int allocate(long key) {
+        int track;
+        if (freeCount > 0) {
+            track = freeTracks[--freeCount];
+        } else {
+            // Sem trilhas livres: reaproveita a que recebeu a última amostra há mais tempo
+            track = 0;
+            long oldest = Long.MAX_VALUE;
+            for (int t = 0; t < maxTracks; t++) {
+                long last = time[index(t, size[t] - 1)];
+                if (last < oldest) {
+                    oldest = last;
+                    track = t;
+                }
+            }
+            trackByKey.remove(trackKeys[track]);
+        }
+        trackKeys[track] = key;
+        head[track] = 0;
+        size[track] = 0;
+        trackByKey.put(key, track);
+        return track;
+    }
+
+    private void append(int track, long timestampMillis, float azimuthDegrees, float elevationDegrees, float cn0DbHz) {
+        int k;
+        if (size[track] < samplesPerTrack) {
+            k = index(track, size[track]++);
+        } else {
+            // Anel cheio: sobrescreve a amostra mais antiga
+            k = index(track, 0);
+            head[track] = head[track] + 1 == samplesPerTrack ? 0 : head[track] + 1;
+        }
+        time[k] = timestampMillis;
+        azimuth[k] = azimuthDegrees;
+        elevation[k] = elevationDegrees;
+        cn0[k] = cn0DbHz;
+    }
+
+    // Remove amostras anteriores a 'cutoffMillis' e libera as trilhas vazias; retorna se algo mudou
+    private boolean expire(long cutoffMillis) {
+        boolean changed = false;
+        for (int t = 0; t < maxTracks; t++) {
+            int n = size[t];
+            if (n == 0) {
+                continue;
+            }
+            int dropped = 0;
+            while (dropped < n && time[index(t, dropped)] < cutoffMillis) {
+                dropped++;
+            }
+            if (dropped == 0) {
+                continue;
+            }
+            changed = true;
+            size[t] = n - dropped;
+            if (size[t] == 0) {
+                trackByKey.remove(trackKeys[t]);
+                freeTracks[freeCount++] = t;
+            } else {
+                head[t] = (head[t] + dropped) % samplesPerTrack;
+            }
+        }
+        return changed;
+    }
+
+    // Posição da j-ésima amostra (0 = mais antiga) da trilha nos arrays
+    private int index(int track, int j) {
+        int k = head[track] + j;
+        if (k >= samplesPerTrack) {
+            k -= samplesPerTrack;
+        }
+        return track * samplesPerTrack + k;
+    }
+
+    // Trilha do sinal na posição i do retrato, ou NO_TRACK
+    public int findTrack(SatelliteSnapshot snapshot, int i) {
+        return findTrack(snapshot.getConstellation(i), snapshot.getSvid(i), snapshot.getBand(i));
+    }
+
+    public int findTrack(byte constellation, int svid, byte band) {
+        return trackByKey.get(key(constellation, svid, band), NO_TRACK);
+    }
+
+    // Incrementado sempre que alguma amostra entra ou sai
+    public long getVersion() {
+        return version;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public int getTrackCount() {
+        return trackByKey.size();
+    }
+
+    public int getSampleCount(int track) {
+        return size[track];
+    }
+
+    // Amostras da trilha, da mais antiga (j = 0) para a mais recente
+    public long getTimeMillis(int track, int j) {
+        return time[index(track, j)];
+    }
+
+    public float getAzimuthDegrees(int track, int j) {
+        return azimuth[index(track, j)];
+    }
+
+    public float getElevationDegrees(int track, int j) {
+        return elevation[index(track, j)];
+    }
+
+    public float getCn0DbHz(int track, int j) {
+        return cn0[index(track, j)];
+    }
+}
@@ -0,0 +1,234 @@
+package edublt.com.locationapi.core;
+
+import java.util.Arrays;
+
+// Retrato de um GnssStatus (e da última localização) em formato de arrays primitivos
+// (struct-of-arrays). As instâncias são reaproveitadas pelo SatelliteSnapshotStore,
+// então nenhum objeto é criado por satélite a cada atualização. Depois de publicado,
+// o retrato só é lido; ele volta a ser escrito apenas quando retorna ao produtor.
+public final class SatelliteSnapshot {
+    private int count; // Número de satélites válidos nos arrays
+    private volatile long sequence; // Número da publicação que gerou este retrato
+    private long timestampMillis; // Momento em que o status foi recebido
+
+    private boolean hasLocation;
+    private long locationSequence; // Incrementado a cada nova localização
+    private double latitude, longitude, altitude;
+
+    private int[] svid;
+    private byte[] constellation;
+    private byte[] band; // GnssBand
+    private float[] azimuth; // Graus
+    private float[] elevation; // Graus
+    private float[] cn0; // dB-Hz
+    private float[] skyX, skyY; // Posição no círculo unitário da esfera celeste (ver SkyProjection)
+    private long[] usedInFix; // Bitset, um bit por satélite
+
+    public SatelliteSnapshot(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        svid = new int[capacity];
+        constellation = new byte[capacity];
+        band = new byte[capacity];
+        azimuth = new float[capacity];
+        elevation = new float[capacity];
+        cn0 = new float[capacity];
+        skyX = new float[capacity];
+        skyY = new float[capacity];
+        usedInFix = new long[wordsFor(capacity)];
+    }
+
+    // Limpa os satélites do retrato mantendo os arrays alocados e a localização
+    public void clear() {
+        Arrays.fill(usedInFix, 0, wordsFor(count), 0L);
+        count = 0;
+        timestampMillis = 0;
+    }
+
+    // Copia satélites e localização de outro retrato, sem alocar se houver capacidade
+    public void copyFrom(SatelliteSnapshot other) {
+        copySatellitesFrom(other);
+        copyLocationFrom(other);
+    }
+
+    // Copia apenas os satélites (e o instante do status) de outro retrato
+    public void copySatellitesFrom(SatelliteSnapshot other) {
+        ensureCapacity(other.count);
+        int n = other.count;
+        System.arraycopy(other.svid, 0, svid, 0, n);
+        System.arraycopy(other.constellation, 0, constellation, 0, n);
+        System.arraycopy(other.band, 0, band, 0, n);
+        System.arraycopy(other.azimuth, 0, azimuth, 0, n);
+        System.arraycopy(other.elevation, 0, elevation, 0, n);
+        System.arraycopy(other.cn0, 0, cn0, 0, n);
+        System.arraycopy(other.skyX, 0, skyX, 0, n);
+        System.arraycopy(other.skyY, 0, skyY, 0, n);
+        Arrays.fill(usedInFix, 0L);
+        System.arraycopy(other.usedInFix, 0, usedInFix, 0, wordsFor(n));
+        count = n;
+        timestampMillis = other.timestampMillis;
+    }
+
+    // Copia apenas a localização de outro retrato
+    public void copyLocationFrom(SatelliteSnapshot other) {
+        hasLocation = other.hasLocation;
+        locationSequence = other.locationSequence;
+        latitude = other.latitude;
+        longitude = other.longitude;
+        altitude = other.altitude;
+    }
+
+    // Registra uma nova localização no retrato
+    public void setLocation(double latitude, double longitude, double altitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.altitude = altitude;
+        hasLocation = true;
+        locationSequence++;
+    }
+
+    // Adiciona um satélite de banda desconhecida e retorna o seu índice
+    public int add(int svid, byte constellation, float azimuth, float elevation, float cn0, boolean usedInFix) {
+        return add(svid, constellation, azimuth, elevation, cn0, usedInFix, GnssBand.UNKNOWN);
+    }
+
+    // Adiciona um sinal (satélite numa banda) e retorna o seu índice
+    public int add(int svid, byte constellation, float azimuth, float elevation, float cn0, boolean usedInFix, byte band) {
+        ensureCapacity(count + 1);
+        int i = count++;
+        this.svid[i] = svid;
+        this.constellation[i] = constellation;
+        this.band[i] = band;
+        this.azimuth[i] = azimuth;
+        this.elevation[i] = elevation;
+        this.cn0[i] = cn0;
+        int azSteps = SkyProjection.toSteps(azimuth);
+        float horizontal = SkyProjection.cosSteps(SkyProjection.toSteps(elevation));
+        skyX[i] = horizontal * SkyProjection.sinSteps(azSteps);
+        skyY[i] = horizontal * SkyProjection.cosSteps(azSteps);
+        if (usedInFix) {
+            this.usedInFix[i >>> 6] |= 1L << i;
+        }
+        return i;
+    }
+
+    // Garante espaço para pelo menos 'capacity' satélites; só aloca quando precisa crescer
+    public void ensureCapacity(int capacity) {
+        if (capacity <= svid.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, svid.length * 2);
+        svid = Arrays.copyOf(svid, newCapacity);
+        constellation = Arrays.copyOf(constellation, newCapacity);
+        band = Arrays.copyOf(band, newCapacity);
+        azimuth = Arrays.copyOf(azimuth, newCapacity);
+        elevation = Arrays.copyOf(elevation, newCapacity);
+        cn0 = Arrays.copyOf(cn0, newCapacity);
+        skyX = Arrays.copyOf(skyX, newCapacity);
+        skyY = Arrays.copyOf(skyY, newCapacity);
+        usedInFix = Arrays.copyOf(usedInFix, wordsFor(newCapacity));
+    }
+
+    // Hash do conteúdo visível (satélites e localização), sem o instante nem a sequência:
+    // dois retratos com o mesmo hash produzem o mesmo desenho
+    public long contentHash() {
+        long h = 1125899906842597L;
+        h = 31 * h + count;
+        for (int i = 0; i < count; i++) {
+            h = 31 * h + svid[i];
+            h = 31 * h + ((constellation[i] << 8) | band[i]);
+            h = 31 * h + Float.floatToIntBits(azimuth[i]);
+            h = 31 * h + Float.floatToIntBits(elevation[i]);
+            h = 31 * h + Float.floatToIntBits(cn0[i]);
+        }
+        for (int w = 0; w < wordsFor(count); w++) {
+            h = 31 * h + usedInFix[w];
+        }
+        if (hasLocation) {
+            h = 31 * h + Double.doubleToLongBits(latitude);
+            h = 31 * h + Double.doubleToLongBits(longitude);
+            h = 31 * h + Double.doubleToLongBits(altitude);
+        }
+        return h;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public void setTimestampMillis(long timestampMillis) {
+        this.timestampMillis = timestampMillis;
+    }
+
+    public boolean hasLocation() {
+        return hasLocation;
+    }
+
+    public long getLocationSequence() {
+        return locationSequence;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double getAltitude() {
+        return altitude;
+    }
+
+    public int getSvid(int i) {
+        return svid[i];
+    }
+
+    public byte getConstellation(int i) {
+        return constellation[i];
+    }
+
+    public byte getBand(int i) {
+        return band[i];
+    }
+
+    public float getAzimuthDegrees(int i) {
+        return azimuth[i];
+    }
+
+    public float getElevationDegrees(int i) {
+        return elevation[i];
+    }
+
+    public float getCn0DbHz(int i) {
+        return cn0[i];
+    }
+
+    // Posição projetada no círculo unitário; multiplique pelo raio da esfera para obter pixels
+    public float getSkyX(int i) {
+        return skyX[i];
+    }
+
+    public float getSkyY(int i) {
+        return skyY[i];
+    }
+
+    public boolean isUsedInFix(int i) {
+        return (usedInFix[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static int wordsFor(int bits) {
+        return (bits + 63) >>> 6;
+    }
+}
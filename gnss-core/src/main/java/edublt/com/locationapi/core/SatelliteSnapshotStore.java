@@ -0,0 +1,83 @@
+package edublt.com.locationapi.core;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Troca de retratos sem travas entre uma thread produtora (ingestão do GNSS) e uma
+// consumidora (UI), usando três buffers: o produtor escreve no de trás, o consumidor
+// lê o da frente e o do meio é trocado atomicamente entre os dois. Se o produtor
+// publica de novo antes de o consumidor buscar, o retrato anterior é descartado
+// (coalescido) e o consumidor sempre recebe o mais recente. Nenhum retrato é
+// alocado depois da construção; apenas os arrays crescem se aparecerem mais satélites.
+public final class SatelliteSnapshotStore {
+    private final AtomicReference<SatelliteSnapshot> middle;
+    private SatelliteSnapshot back; // Apenas o produtor acessa
+    private SatelliteSnapshot latest; // Último retrato publicado pelo produtor
+    private SatelliteSnapshot front; // Apenas o consumidor acessa
+    private long sequence;
+
+    // Contadores escritos só pelo produtor e lidos por qualquer thread
+    private volatile long publishedCount;
+    private volatile long coalescedCount;
+
+    public SatelliteSnapshotStore(int initialCapacity) {
+        back = new SatelliteSnapshot(initialCapacity);
+        middle = new AtomicReference<>(new SatelliteSnapshot(initialCapacity));
+        front = new SatelliteSnapshot(initialCapacity);
+        latest = front;
+    }
+
+    // Produtor: retorna o retrato de trás, sem satélites, para ser preenchido.
+    // A localização do último retrato publicado é mantida.
+    public SatelliteSnapshot edit() {
+        back.clear();
+        if (back != latest) {
+            back.copyLocationFrom(latest);
+        }
+        return back;
+    }
+
+    // Produtor: retorna o retrato de trás com uma cópia do último retrato publicado
+    public SatelliteSnapshot editCopy() {
+        if (back != latest) {
+            back.copyFrom(latest);
+        }
+        return back;
+    }
+
+    // Produtor: publica o retrato preenchido em edit()/editCopy()
+    public SatelliteSnapshot publish() {
+        SatelliteSnapshot published = back;
+        published.setSequence(++sequence);
+        back = middle.getAndSet(published);
+        latest = published;
+        // Se o retrato devolvido é o publicado imediatamente antes, o consumidor não chegou a vê-lo
+        if (back.getSequence() == sequence - 1 && sequence > 1) {
+            coalescedCount++;
+        }
+        publishedCount++;
+        return published;
+    }
+
+    // Consumidor: retorna o retrato mais recente publicado. Enquanto não houver
+    // publicação nova, retorna o mesmo retrato da chamada anterior.
+    public SatelliteSnapshot acquire() {
+        if (middle.get().getSequence() > front.getSequence()) {
+            front = middle.getAndSet(front);
+        }
+        return front;
+    }
+
+    // Produtor: último retrato publicado, apenas para leitura (ex.: salvar em cache)
+    public SatelliteSnapshot latest() {
+        return latest;
+    }
+
+    public long getPublishedCount() {
+        return publishedCount;
+    }
+
+    // Quantos retratos foram substituídos antes de o consumidor buscá-los
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+}
@@ -0,0 +1,211 @@
+package edublt.com.locationapi.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+// Cobertura de C/N0 do céu numa grade polar fixa de 10° de elevação x 10° de azimute
+// (as mesmas células de GnssLogStats). Cada célula guarda, em arrays primitivos, a
+// quantidade de amostras, a média e o mínimo de C/N0; cada amostra custa O(1) e a memória
+// não depende da duração. As células alteradas desde a última rasterização ficam marcadas
+// num bitset (nextDirty/clearDirty), para que só elas sejam redesenhadas. Mapas de sessões
+// diferentes podem ser gravados (write, exportCsv) e combinados com merge()/mergeFrom().
+// Não é thread-safe.
+public final class SkyHeatmap {
+    public static final int ELEVATION_BINS = GnssLogStats.ELEVATION_BINS;
+    public static final int AZIMUTH_BINS = GnssLogStats.AZIMUTH_BINS;
+    public static final int CELLS = ELEVATION_BINS * AZIMUTH_BINS;
+    public static final float CELL_DEGREES = 10f;
+
+    // Arquivo: MAGIC + versão, seguidos por célula de quantidade(4) média(4) mínimo(4)
+    static final long MAGIC = 0x534B594845415431L; // "SKYHEAT1"
+    static final short VERSION = 1;
+
+    private final int[] count = new int[CELLS];
+    private final float[] mean = new float[CELLS]; // dB-Hz
+    private final float[] min = new float[CELLS]; // dB-Hz
+    private final long[] dirty = new long[(CELLS + 63) / 64];
+    private long sampleCount;
+    private long version; // Incrementado a cada mudança
+
+    // Acumula uma amostra; sinais sem C/N0 ou abaixo do horizonte são ignorados
+    public boolean add(float azimuthDegrees, float elevationDegrees, float cn0DbHz) {
+        if (!(cn0DbHz > 0) || elevationDegrees < 0) {
+            return false;
+        }
+        int cell = GnssLogStats.skyCell(elevationDegrees, azimuthDegrees);
+        int n = ++count[cell];
+        if (n == 1) {
+            mean[cell] = cn0DbHz;
+            min[cell] = cn0DbHz;
+        } else {
+            mean[cell] += (cn0DbHz - mean[cell]) / n;
+            min[cell] = Math.min(min[cell], cn0DbHz);
+        }
+        dirty[cell >>> 6] |= 1L << cell;
+        sampleCount++;
+        version++;
+        return true;
+    }
+
+    // Acumula todos os sinais de um status; retorna quantos entraram no mapa
+    public int addStatus(SatelliteSnapshot status) {
+        int added = 0;
+        for (int i = 0; i < status.getCount(); i++) {
+            if (add(status.getAzimuthDegrees(i), status.getElevationDegrees(i), status.getCn0DbHz(i))) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    // Soma as amostras de outro mapa (ex.: de outra sessão); média ponderada pelas quantidades
+    public void merge(SkyHeatmap other) {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int m = other.count[cell];
+            if (m == 0) {
+                continue;
+            }
+            int n = count[cell];
+            if (n == 0) {
+                mean[cell] = other.mean[cell];
+                min[cell] = other.min[cell];
+            } else {
+                mean[cell] = (float) (((double) mean[cell] * n + (double) other.mean[cell] * m) / (n + m));
+                min[cell] = Math.min(min[cell], other.min[cell]);
+            }
+            count[cell] = n + m;
+            dirty[cell >>> 6] |= 1L << cell;
+        }
+        sampleCount += other.sampleCount;
+        version++;
+    }
+
+    public void clear() {
+        Arrays.fill(count, 0);
+        Arrays.fill(mean, 0f);
+        Arrays.fill(min, 0f);
+        sampleCount = 0;
+        markAllDirty();
+    }
+
+    // Primeira célula alterada a partir de 'fromCell', ou -1 se não há mais nenhuma
+    public int nextDirty(int fromCell) {
+        for (int cell = fromCell; cell < CELLS; ) {
+            long word = dirty[cell >>> 6] >>> cell; // O deslocamento usa só os 6 bits baixos
+            if (word != 0) {
+                return cell + Long.numberOfTrailingZeros(word);
+            }
+            cell = (cell | 63) + 1;
+        }
+        return -1;
+    }
+
+    public void clearDirty() {
+        Arrays.fill(dirty, 0L);
+    }
+
+    // Para quem rasteriza o mapa de novo do zero (ex.: a view mudou de tamanho)
+    public void markAllDirty() {
+        Arrays.fill(dirty, -1L);
+        dirty[dirty.length - 1] = -1L >>> (dirty.length * 64 - CELLS);
+        version++;
+    }
+
+    public static int elevationBin(int cell) {
+        return cell / AZIMUTH_BINS;
+    }
+
+    public static int azimuthBin(int cell) {
+        return cell % AZIMUTH_BINS;
+    }
+
+    public int getCount(int cell) {
+        return count[cell];
+    }
+
+    // Média e mínimo de C/N0 da célula; 0 se ela não tem amostras
+    public float getMean(int cell) {
+        return mean[cell];
+    }
+
+    public float getMin(int cell) {
+        return min[cell];
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeLong(MAGIC);
+        data.writeShort(VERSION);
+        for (int cell = 0; cell < CELLS; cell++) {
+            data.writeInt(count[cell]);
+            data.writeFloat(mean[cell]);
+            data.writeFloat(min[cell]);
+        }
+        data.flush();
+    }
+
+    // Lê um mapa gravado por write() e o combina com este
+    public void mergeFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readLong() != MAGIC) {
+            throw new IOException("Arquivo não é um mapa de C/N0");
+        }
+        short fileVersion = data.readShort();
+        if (fileVersion != VERSION) {
+            throw new IOException("Versão de mapa de C/N0 não suportada: " + fileVersion);
+        }
+        SkyHeatmap other = new SkyHeatmap();
+        for (int cell = 0; cell < CELLS; cell++) {
+            int n = data.readInt();
+            if (n < 0) {
+                throw new IOException("Quantidade inválida na célula " + cell);
+            }
+            other.count[cell] = n;
+            other.mean[cell] = data.readFloat();
+            other.min[cell] = data.readFloat();
+            other.sampleCount += n;
+        }
+        merge(other);
+    }
+
+    // Uma linha por célula com amostras: faixas de elevação e azimute, quantidade, média e mínimo
+    public void exportCsv(Writer writer) throws IOException {
+        StringBuilder sb = new StringBuilder(64);
+        writer.write("elevation_min,elevation_max,azimuth_min,azimuth_max,count,mean_cn0,min_cn0\n");
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (count[cell] == 0) {
+                continue;
+            }
+            int el = elevationBin(cell) * (int) CELL_DEGREES;
+            int az = azimuthBin(cell) * (int) CELL_DEGREES;
+            sb.setLength(0);
+            sb.append(el).append(',').append(el + (int) CELL_DEGREES).append(',')
+                    .append(az).append(',').append(az + (int) CELL_DEGREES).append(',')
+                    .append(count[cell]).append(',');
+            appendTenths(sb, mean[cell]);
+            sb.append(',');
+            appendTenths(sb, min[cell]);
+            sb.append('\n');
+            writer.append(sb);
+        }
+        writer.flush();
+    }
+
+    private static void appendTenths(StringBuilder sb, float value) {
+        long tenths = Math.round(value * 10.0);
+        sb.append(tenths / 10).append('.').append(Math.abs(tenths % 10));
+    }
+}
@@ -0,0 +1,105 @@
+package edublt.com.locationapi.core;
+
+import java.util.Arrays;
+
+// Índice espacial para toques no céu: grade uniforme sobre o quadrado [-1, 1] x [-1, 1]
+// do círculo unitário (SkyProjection), com os índices do retrato agrupados por célula
+// num único vetor (contagem por célula + somas prefixadas). A grade não depende do
+// tamanho da view e é refeita em O(n), sem alocar, só quando o retrato ou o filtro
+// mudam (ver rebuild). Uma consulta olha apenas as células a até maxDistance do ponto,
+// então o custo é constante para um raio de toque da ordem de uma célula.
+public final class SkyHitGrid {
+    public static final int NONE = -1;
+
+    private final int cells; // Células por lado
+    private final float cellSize;
+    private final int[] cellStart; // Início de cada célula em 'items' (mais uma sentinela no fim)
+    private final int[] cellFill;
+    private int[] items = new int[64]; // Índices do retrato, agrupados por célula
+    private float[] itemX = new float[64], itemY = new float[64];
+    private long builtSequence = Long.MIN_VALUE, builtFilterVersion = Long.MIN_VALUE;
+
+    public SkyHitGrid(int cellsPerSide) {
+        cells = cellsPerSide;
+        cellSize = 2f / cellsPerSide;
+        cellStart = new int[cellsPerSide * cellsPerSide + 1];
+        cellFill = new int[cellsPerSide * cellsPerSide];
+    }
+
+    // Refaz a grade com os satélites filtrados, se o retrato ou o filtro mudaram desde a
+    // última vez; retorna se refez
+    public boolean update(SatelliteSnapshot snapshot, FilterEngine filterEngine) {
+        if (snapshot.getSequence() == builtSequence && filterEngine.getVersion() == builtFilterVersion) {
+            return false;
+        }
+        builtSequence = snapshot.getSequence();
+        builtFilterVersion = filterEngine.getVersion();
+        rebuild(snapshot, filterEngine.getIndices(), filterEngine.getCount());
+        return true;
+    }
+
+    // Refaz a grade com os índices dados do retrato
+    public void rebuild(SatelliteSnapshot snapshot, int[] indices, int count) {
+        if (items.length < count) {
+            int capacity = Math.max(count, items.length * 2);
+            items = new int[capacity];
+            itemX = new float[capacity];
+            itemY = new float[capacity];
+        }
+        Arrays.fill(cellFill, 0);
+        for (int k = 0; k < count; k++) {
+            int i = indices[k];
+            cellFill[cellOf(snapshot.getSkyX(i), snapshot.getSkyY(i))]++;
+        }
+        int start = 0;
+        for (int cell = 0; cell < cellFill.length; cell++) {
+            cellStart[cell] = start;
+            start += cellFill[cell];
+            cellFill[cell] = cellStart[cell]; // Passa a ser a próxima posição livre da célula
+        }
+        cellStart[cellFill.length] = start;
+        for (int k = 0; k < count; k++) {
+            int i = indices[k];
+            float x = snapshot.getSkyX(i);
+            float y = snapshot.getSkyY(i);
+            int slot = cellFill[cellOf(x, y)]++;
+            items[slot] = i;
+            itemX[slot] = x;
+            itemY[slot] = y;
+        }
+    }
+
+    // Índice no retrato do satélite mais próximo de (x, y), no círculo unitário, a até
+    // maxDistance; NONE se não houver nenhum
+    public int nearest(float x, float y, float maxDistance) {
+        int column0 = clamp((int) Math.floor((x - maxDistance + 1f) / cellSize));
+        int column1 = clamp((int) Math.floor((x + maxDistance + 1f) / cellSize));
+        int row0 = clamp((int) Math.floor((y - maxDistance + 1f) / cellSize));
+        int row1 = clamp((int) Math.floor((y + maxDistance + 1f) / cellSize));
+        int best = NONE;
+        float bestDistance = maxDistance * maxDistance;
+        for (int row = row0; row <= row1; row++) {
+            for (int column = column0; column <= column1; column++) {
+                int cell = row * cells + column;
+                for (int slot = cellStart[cell]; slot < cellStart[cell + 1]; slot++) {
+                    float dx = itemX[slot] - x;
+                    float dy = itemY[slot] - y;
+                    float distance = dx * dx + dy * dy;
+                    if (distance <= bestDistance) {
+                        bestDistance = distance;
+                        best = items[slot];
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private int cellOf(float x, float y) {
+        return clamp((int) ((y + 1f) / cellSize)) * cells + clamp((int) ((x + 1f) / cellSize));
+    }
+
+    private int clamp(int cell) {
+        return Math.max(0, Math.min(cells - 1, cell));
+    }
+}
@@ -0,0 +1,347 @@
+package edublt.com.locationapi.core;
+
+// Previsão de azimute/elevação a partir do almanaque, numa janela de épocas igualmente
+// espaçadas que começa na época atual (ex.: 60 épocas de 1 min = a próxima hora).
+// As órbitas são propagadas em lote (algoritmo do IS-GPS-200, sem correções de relógio),
+// satélite por satélite sobre arrays primitivos, com as constantes de cada órbita
+// calculadas uma vez em setAlmanac. A janela é um anel: quando o tempo avança, update()
+// só calcula as épocas novas e as que saíram da janela são sobrescritas. Trocar de
+// almanaque ou mover o observador mais que MAX_OBSERVER_SHIFT_METERS refaz tudo.
+// Não é thread-safe; use copyFrom para publicar uma cópia para outra thread.
+public final class SkyPredictor {
+    static final double MU = 3.986005e14; // Constante gravitacional da Terra (WGS-84), m^3/s^2
+    static final double EARTH_ROTATION = 7.2921151467e-5; // rad/s
+    private static final double WGS84_A = 6_378_137.0;
+    private static final double WGS84_E2 = 6.69437999014e-3;
+    public static final long GPS_EPOCH_UNIX_MILLIS = 315_964_800_000L;
+    public static final int LEAP_SECONDS = 18; // GPS - UTC desde 2017
+    private static final double MAX_OBSERVER_SHIFT_METERS = 1000;
+    private static final int KEPLER_ITERATIONS = 3; // Newton a partir de M + e sen M; basta para e < 0,1
+
+    private final int epochs;
+    private final long stepMillis;
+
+    // Constantes de cada órbita
+    private int count;
+    private byte[] constellation = new byte[0];
+    private int[] svid = new int[0];
+    private double[] toa = new double[0];
+    private double[] semiMajorAxis = new double[0];
+    private double[] meanMotion = new double[0];
+    private double[] eccentricity = new double[0];
+    private double[] orbitShape = new double[0]; // sqrt(1 - e^2)
+    private double[] cosInclination = new double[0], sinInclination = new double[0];
+    private double[] cosPerigee = new double[0], sinPerigee = new double[0];
+    private double[] node0 = new double[0]; // Omega0 - wE * toa (segundos da semana)
+    private double[] nodeRate = new double[0]; // OmegaDot - wE
+    private double[] meanAnomaly = new double[0];
+
+    // Observador (ECEF e base local leste/norte/cima)
+    private boolean hasObserver;
+    private double latitude, longitude;
+    private double observerX, observerY, observerZ;
+    private double sinLat, cosLat, sinLon, cosLon;
+
+    // Janela: a época absoluta e corresponde à coluna (e % epochs)
+    private float[] azimuth = new float[0];
+    private float[] elevation = new float[0];
+    private long firstEpoch = Long.MIN_VALUE; // Época atual (tempo / stepMillis)
+    private long computedEnd = Long.MIN_VALUE; // Épocas [computedStart, computedEnd) já calculadas
+    private long computedStart = Long.MIN_VALUE;
+    private long version;
+    private long computedEpochCount; // Total de épocas propagadas (para métricas e testes)
+    private final double[] position = new double[3];
+
+    public SkyPredictor(int epochs, long stepMillis) {
+        this.epochs = epochs;
+        this.stepMillis = stepMillis;
+    }
+
+    // Converte o horário UTC (ms desde 1970) para segundos GPS
+    public static double gpsSeconds(long unixMillis) {
+        return (unixMillis - GPS_EPOCH_UNIX_MILLIS) / 1000.0 + LEAP_SECONDS;
+    }
+
+    // Semana GPS completa do horário UTC (referência para AlmanacParser)
+    public static int gpsWeek(long unixMillis) {
+        return (int) Math.floor(gpsSeconds(unixMillis) / AlmanacParser.SECONDS_PER_WEEK);
+    }
+
+    // Calcula as constantes das órbitas; satélites sem saúde ficam de fora
+    public void setAlmanac(Almanac almanac) {
+        int n = almanac.getCount();
+        if (svid.length < n) {
+            allocate(n);
+        }
+        count = 0;
+        for (int i = 0; i < n; i++) {
+            if (almanac.getHealth(i) != 0) {
+                continue;
+            }
+            int k = count++;
+            constellation[k] = almanac.getConstellation(i);
+            svid[k] = almanac.getSvid(i);
+            toa[k] = almanac.getToaGpsSeconds(i);
+            double a = almanac.getSqrtA(i) * almanac.getSqrtA(i);
+            double e = almanac.getEccentricity(i);
+            semiMajorAxis[k] = a;
+            meanMotion[k] = Math.sqrt(MU / (a * a * a));
+            eccentricity[k] = e;
+            orbitShape[k] = Math.sqrt(1 - e * e);
+            cosInclination[k] = Math.cos(almanac.getInclination(i));
+            sinInclination[k] = Math.sin(almanac.getInclination(i));
+            cosPerigee[k] = Math.cos(almanac.getArgumentOfPerigee(i));
+            sinPerigee[k] = Math.sin(almanac.getArgumentOfPerigee(i));
+            double toaOfWeek = toa[k] - Math.floor(toa[k] / AlmanacParser.SECONDS_PER_WEEK) * AlmanacParser.SECONDS_PER_WEEK;
+            node0[k] = almanac.getRightAscension(i) - EARTH_ROTATION * toaOfWeek;
+            nodeRate[k] = almanac.getRateOfRightAscension(i) - EARTH_ROTATION;
+            meanAnomaly[k] = almanac.getMeanAnomaly(i);
+        }
+        if (azimuth.length < count * epochs) {
+            azimuth = new float[count * epochs];
+            elevation = new float[count * epochs];
+        }
+        invalidate();
+    }
+
+    private void allocate(int n) {
+        constellation = new byte[n];
+        svid = new int[n];
+        toa = new double[n];
+        semiMajorAxis = new double[n];
+        meanMotion = new double[n];
+        eccentricity = new double[n];
+        orbitShape = new double[n];
+        cosInclination = new double[n];
+        sinInclination = new double[n];
+        cosPerigee = new double[n];
+        sinPerigee = new double[n];
+        node0 = new double[n];
+        nodeRate = new double[n];
+        meanAnomaly = new double[n];
+    }
+
+    // Posição do observador (graus, metros); só invalida a janela se ele se moveu o bastante
+    public void setObserver(double latitudeDegrees, double longitudeDegrees, double altitudeMeters) {
+        double lat = Math.toRadians(latitudeDegrees);
+        double lon = Math.toRadians(longitudeDegrees);
+        double sLat = Math.sin(lat), cLat = Math.cos(lat);
+        double sLon = Math.sin(lon), cLon = Math.cos(lon);
+        double radius = WGS84_A / Math.sqrt(1 - WGS84_E2 * sLat * sLat);
+        double x = (radius + altitudeMeters) * cLat * cLon;
+        double y = (radius + altitudeMeters) * cLat * sLon;
+        double z = (radius * (1 - WGS84_E2) + altitudeMeters) * sLat;
+        if (hasObserver) {
+            double dx = x - observerX, dy = y - observerY, dz = z - observerZ;
+            if (dx * dx + dy * dy + dz * dz < MAX_OBSERVER_SHIFT_METERS * MAX_OBSERVER_SHIFT_METERS) {
+                return;
+            }
+        }
+        hasObserver = true;
+        latitude = latitudeDegrees;
+        longitude = longitudeDegrees;
+        observerX = x;
+        observerY = y;
+        observerZ = z;
+        sinLat = sLat;
+        cosLat = cLat;
+        sinLon = sLon;
+        cosLon = cLon;
+        invalidate();
+    }
+
+    public boolean hasObserver() {
+        return hasObserver;
+    }
+
+    private void invalidate() {
+        computedStart = Long.MIN_VALUE;
+        computedEnd = Long.MIN_VALUE;
+    }
+
+    // Move a janela para o horário UTC dado e calcula só as épocas que faltam; retorna
+    // quantas épocas foram propagadas (0 = nada mudou)
+    public int update(long unixMillis) {
+        if (!hasObserver || count == 0) {
+            return 0;
+        }
+        long first = Math.floorDiv(unixMillis, stepMillis);
+        long end = first + epochs;
+        long from = first;
+        if (computedEnd != Long.MIN_VALUE && computedStart <= first && computedEnd > first) {
+            from = computedEnd; // As épocas [first, computedEnd) continuam válidas no anel
+        }
+        firstEpoch = first;
+        if (from >= end) {
+            return 0;
+        }
+        for (int k = 0; k < count; k++) {
+            propagate(k, from, end);
+        }
+        computedStart = first;
+        computedEnd = end;
+        computedEpochCount += end - from;
+        version++;
+        return (int) (end - from);
+    }
+
+    // Propaga o satélite k nas épocas [from, end) e converte para azimute/elevação
+    private void propagate(int k, long from, long end) {
+        double[] p = position;
+        int row = k * epochs;
+        for (long epoch = from; epoch < end; epoch++) {
+            satellitePosition(k, gpsSeconds(epoch * stepMillis), p);
+            // ECEF -> leste/norte/cima do observador
+            double dx = p[0] - observerX, dy = p[1] - observerY, dz = p[2] - observerZ;
+            double east = -sinLon * dx + cosLon * dy;
+            double north = -sinLat * cosLon * dx - sinLat * sinLon * dy + cosLat * dz;
+            double up = cosLat * cosLon * dx + cosLat * sinLon * dy + sinLat * dz;
+            double az = Math.toDegrees(Math.atan2(east, north));
+            int slot = row + (int) Math.floorMod(epoch, (long) epochs);
+            azimuth[slot] = (float) (az < 0 ? az + 360 : az);
+            elevation[slot] = (float) Math.toDegrees(Math.atan2(up, Math.sqrt(east * east + north * north)));
+        }
+    }
+
+    // Posição ECEF (m) do satélite k no tempo GPS dado
+    void satellitePosition(int k, double gpsSeconds, double[] xyz) {
+        double e = eccentricity[k];
+        double tk = gpsSeconds - toa[k];
+        // Equação de Kepler
+        double m = meanAnomaly[k] + meanMotion[k] * tk;
+        double ecc = m + e * Math.sin(m);
+        for (int it = 0; it < KEPLER_ITERATIONS; it++) {
+            ecc -= (ecc - e * Math.sin(ecc) - m) / (1 - e * Math.cos(ecc));
+        }
+        double sinE = Math.sin(ecc), cosE = Math.cos(ecc);
+        double denominator = 1 - e * cosE;
+        // Anomalia verdadeira sem atan2: cos v e sen v direto de E
+        double cosV = (cosE - e) / denominator;
+        double sinV = orbitShape[k] * sinE / denominator;
+        double cosU = cosV * cosPerigee[k] - sinV * sinPerigee[k];
+        double sinU = sinV * cosPerigee[k] + cosV * sinPerigee[k];
+        double r = semiMajorAxis[k] * denominator;
+        double xp = r * cosU, yp = r * sinU;
+        double omega = node0[k] + nodeRate[k] * tk;
+        double cosO = Math.cos(omega), sinO = Math.sin(omega);
+        xyz[0] = xp * cosO - yp * cosInclination[k] * sinO;
+        xyz[1] = xp * sinO + yp * cosInclination[k] * cosO;
+        xyz[2] = yp * sinInclination[k];
+    }
+
+    // Copia as órbitas, o observador e a janela (para publicar para outra thread sem
+    // travar a propagação); a cópia pode continuar sendo atualizada
+    public void copyFrom(SkyPredictor other) {
+        if (other.epochs != epochs || other.stepMillis != stepMillis) {
+            throw new IllegalArgumentException("Janelas de tamanhos diferentes");
+        }
+        int n = other.count;
+        if (svid.length < n) {
+            allocate(n);
+        }
+        count = n;
+        System.arraycopy(other.constellation, 0, constellation, 0, n);
+        System.arraycopy(other.svid, 0, svid, 0, n);
+        System.arraycopy(other.toa, 0, toa, 0, n);
+        System.arraycopy(other.semiMajorAxis, 0, semiMajorAxis, 0, n);
+        System.arraycopy(other.meanMotion, 0, meanMotion, 0, n);
+        System.arraycopy(other.eccentricity, 0, eccentricity, 0, n);
+        System.arraycopy(other.orbitShape, 0, orbitShape, 0, n);
+        System.arraycopy(other.cosInclination, 0, cosInclination, 0, n);
+        System.arraycopy(other.sinInclination, 0, sinInclination, 0, n);
+        System.arraycopy(other.cosPerigee, 0, cosPerigee, 0, n);
+        System.arraycopy(other.sinPerigee, 0, sinPerigee, 0, n);
+        System.arraycopy(other.node0, 0, node0, 0, n);
+        System.arraycopy(other.nodeRate, 0, nodeRate, 0, n);
+        System.arraycopy(other.meanAnomaly, 0, meanAnomaly, 0, n);
+        if (azimuth.length < n * epochs) {
+            azimuth = new float[n * epochs];
+            elevation = new float[n * epochs];
+        }
+        System.arraycopy(other.azimuth, 0, azimuth, 0, n * epochs);
+        System.arraycopy(other.elevation, 0, elevation, 0, n * epochs);
+        hasObserver = other.hasObserver;
+        latitude = other.latitude;
+        longitude = other.longitude;
+        observerX = other.observerX;
+        observerY = other.observerY;
+        observerZ = other.observerZ;
+        sinLat = other.sinLat;
+        cosLat = other.cosLat;
+        sinLon = other.sinLon;
+        cosLon = other.cosLon;
+        firstEpoch = other.firstEpoch;
+        computedStart = other.computedStart;
+        computedEnd = other.computedEnd;
+        version = other.version;
+        computedEpochCount = other.computedEpochCount;
+    }
+
+    public int getSatelliteCount() {
+        return count;
+    }
+
+    public int getEpochCount() {
+        return epochs;
+    }
+
+    public long getStepMillis() {
+        return stepMillis;
+    }
+
+    // Horário UTC da primeira época da janela (Long.MIN_VALUE antes do primeiro update)
+    public long getFirstEpochMillis() {
+        return firstEpoch == Long.MIN_VALUE ? Long.MIN_VALUE : firstEpoch * stepMillis;
+    }
+
+    public byte getConstellation(int k) {
+        return constellation[k];
+    }
+
+    public int getSvid(int k) {
+        return svid[k];
+    }
+
+    // Azimute/elevação do satélite k na época j da janela (0 = atual)
+    public float getAzimuthDegrees(int k, int j) {
+        return azimuth[k * epochs + (int) Math.floorMod(firstEpoch + j, (long) epochs)];
+    }
+
+    public float getElevationDegrees(int k, int j) {
+        return elevation[k * epochs + (int) Math.floorMod(firstEpoch + j, (long) epochs)];
+    }
+
+    // Horário UTC em que o satélite k passa a elevação dada subindo (ou descendo, com
+    // rising = false) dentro da janela, interpolado entre as épocas; -1 se não passa
+    public long findCrossingMillis(int k, float elevationDegrees, boolean rising) {
+        float previous = getElevationDegrees(k, 0);
+        for (int j = 1; j < epochs; j++) {
+            float current = getElevationDegrees(k, j);
+            boolean crossed = rising ? previous < elevationDegrees && current >= elevationDegrees
+                    : previous >= elevationDegrees && current < elevationDegrees;
+            if (crossed) {
+                double fraction = (elevationDegrees - previous) / (double) (current - previous);
+                return (firstEpoch + j - 1) * stepMillis + (long) (fraction * stepMillis);
+            }
+            previous = current;
+        }
+        return -1;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    // Incrementado a cada update que calculou alguma época
+    public long getVersion() {
+        return version;
+    }
+
+    public long getComputedEpochCount() {
+        return computedEpochCount;
+    }
+}
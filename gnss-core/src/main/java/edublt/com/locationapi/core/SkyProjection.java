@@ -0,0 +1,49 @@
+package edublt.com.locationapi.core;
+
+// Projeção azimute/elevação para o plano da esfera celeste, em coordenadas do
+// círculo unitário (o horizonte tem raio 1). Usa tabelas de seno com resolução de
+// 0,1° endereçadas por índices em ponto fixo, evitando Math.toRadians/sin/cos.
+// A escala em pixels é aplicada apenas no momento do desenho.
+public final class SkyProjection {
+    // Passos da tabela por grau (resolução de 0,1°)
+    public static final int STEPS_PER_DEGREE = 10;
+    private static final int FULL_TURN = 360 * STEPS_PER_DEGREE;
+    private static final int QUARTER_TURN = FULL_TURN / 4;
+
+    // Seno de 0° a 450°, para que o cosseno seja lido com o deslocamento de 90°
+    private static final float[] SIN = new float[FULL_TURN + QUARTER_TURN];
+
+    static {
+        for (int i = 0; i < SIN.length; i++) {
+            SIN[i] = (float) Math.sin(Math.toRadians((double) i / STEPS_PER_DEGREE));
+        }
+    }
+
+    private SkyProjection() {
+    }
+
+    // Converte graus para o índice da tabela (ponto fixo, arredondado e normalizado em 0..360°)
+    public static int toSteps(float degrees) {
+        int steps = (int) Math.floor(degrees * STEPS_PER_DEGREE + 0.5f);
+        steps %= FULL_TURN;
+        return steps < 0 ? steps + FULL_TURN : steps;
+    }
+
+    public static float sinSteps(int steps) {
+        return SIN[steps];
+    }
+
+    public static float cosSteps(int steps) {
+        return SIN[steps + QUARTER_TURN];
+    }
+
+    // Coordenada X (leste) no círculo unitário
+    public static float unitX(float azimuthDegrees, float elevationDegrees) {
+        return cosSteps(toSteps(elevationDegrees)) * sinSteps(toSteps(azimuthDegrees));
+    }
+
+    // Coordenada Y (norte) no círculo unitário
+    public static float unitY(float azimuthDegrees, float elevationDegrees) {
+        return cosSteps(toSteps(elevationDegrees)) * cosSteps(toSteps(azimuthDegrees));
+    }
+}
@@ -0,0 +1,67 @@
+package edublt.com.locationapi.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+// Último retrato conhecido, para que a tela seja desenhada logo ao ser reaberta em vez
+// de esperar o primeiro callback. Guarda uma cópia em memória (reaberturas no mesmo
+// processo) e outra em disco no formato de GnssLogFormat: uma sessão de um segmento
+// com um registro de status e, se houver, um de localização. O arquivo é escrito com
+// outro nome e renomeado no fim, então uma gravação interrompida não corrompe o cache.
+public final class SnapshotCache {
+    private static final String SESSION = "last";
+    private static final String TEMP_SESSION = "last.tmp";
+
+    private final File directory;
+    private SatelliteSnapshot memory;
+
+    public SnapshotCache(File directory) {
+        this.directory = directory;
+    }
+
+    public synchronized void save(SatelliteSnapshot snapshot) throws IOException {
+        if (memory == null) {
+            memory = new SatelliteSnapshot(snapshot.getCount());
+        }
+        memory.copyFrom(snapshot);
+
+        try (GnssLogWriter writer = new GnssLogWriter(directory, TEMP_SESSION, Long.MAX_VALUE)) {
+            writer.writeStatus(snapshot);
+            if (snapshot.hasLocation()) {
+                writer.writeLocation(snapshot.getTimestampMillis(), snapshot.getLatitude(),
+                        snapshot.getLongitude(), snapshot.getAltitude());
+            }
+        }
+        File temp = new File(directory, GnssLogFormat.segmentName(TEMP_SESSION, 0));
+        File target = new File(directory, GnssLogFormat.segmentName(SESSION, 0));
+        if (!temp.renameTo(target)) {
+            throw new IOException("Não foi possível substituir " + target);
+        }
+    }
+
+    // Copia o retrato guardado para 'into' (satélites e localização); retorna false se não há cache
+    public synchronized boolean load(SatelliteSnapshot into) throws IOException {
+        if (memory != null) {
+            into.copyFrom(memory);
+            return true;
+        }
+        List<File> segments = GnssLogReader.segmentsOf(directory, SESSION);
+        if (segments.isEmpty()) {
+            return false;
+        }
+        boolean loaded = false;
+        try (GnssLogReader reader = new GnssLogReader(segments)) {
+            byte type;
+            while ((type = reader.next()) != GnssLogReader.END) {
+                if (type == GnssLogFormat.RECORD_STATUS) {
+                    into.copySatellitesFrom(reader.getStatus());
+                } else {
+                    into.setLocation(reader.getLatitude(), reader.getLongitude(), reader.getAltitude());
+                }
+                loaded = true;
+            }
+        }
+        return loaded;
+    }
+}
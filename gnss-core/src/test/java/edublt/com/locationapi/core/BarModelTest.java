@@ -0,0 +1,107 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BarModelTest {
+    private static final long FRAME = 16_666_667L;
+
+    private static SatelliteSnapshot snapshot(int[] svids, float[] cn0) {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(svids.length);
+        for (int i = 0; i < svids.length; i++) {
+            byte constellation = svids[i] > 100 ? Constellation.GALILEO : Constellation.GPS;
+            snapshot.add(svids[i], constellation, 0f, 45f, cn0[i], false);
+        }
+        return snapshot;
+    }
+
+    private static int[] all(int n) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    // Anima até parar e retorna o número de quadros
+    private static int settle(BarModel model, long[] clock) {
+        int frames = 0;
+        while (model.animate(clock[0] += FRAME)) {
+            frames++;
+            assertTrue("a animação não converge", frames < 1000);
+        }
+        return frames;
+    }
+
+    @Test
+    public void keepsSlotIdentityAcrossSnapshots() {
+        BarModel model = new BarModel(4);
+        long[] clock = {1};
+        model.update(snapshot(new int[]{3, 7}, new float[]{20, 30}), all(2), 2);
+        settle(model, clock);
+        int slotOf7 = model.getSlot(1);
+        assertEquals(7, model.getSvid(slotOf7));
+        assertEquals(30f, model.getHeight(slotOf7), 0f);
+
+        // O svid 7 muda de posição no retrato, mas continua com o mesmo slot e anima a altura
+        model.update(snapshot(new int[]{7, 3}, new float[]{40, 20}), all(2), 2);
+        assertEquals(slotOf7, model.getSlot(0));
+        assertTrue(model.animate(clock[0] += FRAME));
+        float h = model.getHeight(slotOf7);
+        assertTrue(h > 30f && h < 40f);
+        settle(model, clock);
+        assertEquals(40f, model.getHeight(slotOf7), 0f);
+    }
+
+    @Test
+    public void removedSignalsShrinkBeforeTheirSlotIsFreed() {
+        BarModel model = new BarModel(2);
+        long[] clock = {1};
+        model.update(snapshot(new int[]{1, 2, 3}, new float[]{30, 30, 30}), all(3), 3);
+        settle(model, clock);
+        model.update(snapshot(new int[]{1, 3}, new float[]{30, 30}), all(2), 2);
+        assertEquals(3, model.getCount());
+        assertFalse(model.isPresent(model.getSlot(1)));
+        settle(model, clock);
+        assertEquals(2, model.getCount());
+        // A barra da direita desliza para a posição liberada
+        assertEquals(1f, model.getPosition(model.getSlot(1)), 0f);
+        assertEquals(3, model.getSvid(model.getSlot(1)));
+    }
+
+    @Test
+    public void sortsByConstellationAndByCn0() {
+        BarModel model = new BarModel(8);
+        SatelliteSnapshot s = snapshot(new int[]{105, 9, 101, 4}, new float[]{25, 45, 35, 15});
+        model.update(s, all(4), 4);
+
+        model.setOrder(BarModel.ORDER_CONSTELLATION);
+        int[] expected = {4, 9, 101, 105};
+        for (int k = 0; k < 4; k++) {
+            assertEquals(expected[k], model.getSvid(model.getSlot(k)));
+        }
+
+        model.setOrder(BarModel.ORDER_CN0);
+        int[] byCn0 = {9, 101, 105, 4};
+        for (int k = 0; k < 4; k++) {
+            assertEquals(byCn0[k], model.getSvid(model.getSlot(k)));
+        }
+    }
+
+    @Test
+    public void growsBeyondInitialCapacity() {
+        BarModel model = new BarModel(4);
+        int n = 150;
+        int[] svids = new int[n];
+        float[] cn0 = new float[n];
+        for (int i = 0; i < n; i++) {
+            svids[i] = i + 1;
+            cn0[i] = i % 50;
+        }
+        model.update(snapshot(svids, cn0), all(n), n);
+        assertEquals(n, model.getCount());
+        assertTrue(model.getCapacity() >= n);
+        assertEquals(150, model.getSvid(model.getSlot(149)));
+    }
+}
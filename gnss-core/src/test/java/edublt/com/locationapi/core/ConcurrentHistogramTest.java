@@ -0,0 +1,61 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentHistogramTest {
+    @Test
+    public void percentilesStayWithinBucketError() {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v * 1000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000L, histogram.getMax());
+        assertNear(50_000_000L, histogram.getValueAtPercentile(50));
+        assertNear(99_000_000L, histogram.getValueAtPercentile(99));
+        assertEquals(100_000_000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void bucketsCoverEveryValueExactlyOnce() {
+        for (long v : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789L, Long.MAX_VALUE}) {
+            int bucket = ConcurrentHistogram.bucketOf(v);
+            assertTrue(v <= ConcurrentHistogram.upperBoundOf(bucket));
+            if (bucket > 0) {
+                assertTrue(v > ConcurrentHistogram.upperBoundOf(bucket - 1));
+            }
+        }
+    }
+
+    @Test
+    public void countsEveryRecordFromConcurrentThreads() throws Exception {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 50_000; i++) {
+                        histogram.record(i + offset);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(200_000, histogram.getCount());
+        assertEquals(50_002, histogram.getMax());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    private static void assertNear(long expected, long actual) {
+        assertTrue(actual + " != " + expected, Math.abs(actual - expected) <= expected / 16);
+    }
+}
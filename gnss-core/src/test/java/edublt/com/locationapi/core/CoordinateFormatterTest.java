@@ -0,0 +1,121 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CoordinateFormatterTest {
+    private final CoordinateFormatter formatter = new CoordinateFormatter('.');
+
+    // Implementações antigas da EsferaCelesteView, usadas como referência
+    private static String legacyDegrees(double lat, double lon, double alt) {
+        return String.format(Locale.US, "Lat: %.5f, Long: %.5f, Alt: %.2f", lat, lon, alt);
+    }
+
+    private static String legacyDegreesMinutes(double value) {
+        int degrees = (int) value;
+        double minutes = Math.abs((value - degrees) * 60);
+        return String.format(Locale.US, "%d°%.5f'", degrees, minutes);
+    }
+
+    private static String legacyDegreesMinutesSeconds(double value) {
+        int degrees = (int) value;
+        double minutes = Math.abs((value - degrees) * 60);
+        int intMinutes = (int) minutes;
+        double seconds = (minutes - intMinutes) * 60;
+        return String.format(Locale.US, "%d°%d'%.2f\"", degrees, intMinutes, seconds);
+    }
+
+    private String dm(double value) {
+        StringBuilder sb = new StringBuilder();
+        formatter.appendDegreesMinutes(sb, value);
+        return sb.toString();
+    }
+
+    private String dms(double value) {
+        StringBuilder sb = new StringBuilder();
+        formatter.appendDegreesMinutesSeconds(sb, value);
+        return sb.toString();
+    }
+
+    @Test
+    public void matchesLegacyOutputForRandomCoordinates() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lon = random.nextDouble() * 360 - 180;
+            double alt = random.nextDouble() * 9000 - 500;
+            if (i % 2 == 0) {
+                // Valores exatos na casa decimal do meio exercitam o arredondamento
+                lat = Math.round(lat * 1e3) / 1e3 + 0.000005;
+                alt = Math.round(alt * 1e1) / 1e1 + 0.005;
+            }
+            assertEquals(legacyDegrees(lat, lon, alt),
+                    formatter.format(LocationFormat.DEGREES, lat, lon, alt).toString());
+
+            // Fora de (-1°, 0°) e sem o "60" arredondado, DM e DMS devem ser idênticos
+            String legacyDm = legacyDegreesMinutes(lon);
+            if (lon <= -1 || lon >= 0) {
+                if (!legacyDm.contains("60.00000")) {
+                    assertEquals(legacyDm, dm(lon));
+                }
+                String legacyDms = legacyDegreesMinutesSeconds(lon);
+                if (!legacyDms.contains("'60.00")) {
+                    assertEquals(legacyDms, dms(lon));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void roundsHalfUpLikeFormatter() {
+        StringBuilder sb = new StringBuilder();
+        formatter.appendFixed(sb, 1.005, 2);
+        sb.append(' ');
+        formatter.appendFixed(sb, 0.125, 2);
+        sb.append(' ');
+        formatter.appendFixed(sb, 168.39200499999998, 5);
+        assertEquals(String.format(Locale.US, "%.2f %.2f %.5f", 1.005, 0.125, 168.39200499999998), sb.toString());
+    }
+
+    @Test
+    public void negativeZeroKeepsSignLikeFormatter() {
+        StringBuilder sb = new StringBuilder();
+        formatter.appendFixed(sb, -0.0, 5);
+        sb.append(' ');
+        formatter.appendFixed(sb, -0.000001, 5);
+        sb.append(' ');
+        formatter.appendFixed(sb, 0.0, 5);
+        assertEquals("-0.00000 -0.00000 0.00000", sb.toString());
+    }
+
+    @Test
+    public void southernAndWesternHemisphereBelowOneDegreeKeepSign() {
+        // As versões antigas imprimiam "0°30.00000'" e perdiam o hemisfério
+        assertEquals("0°30.00000'", legacyDegreesMinutes(-0.5));
+        assertEquals("-0°30.00000'", dm(-0.5));
+        assertEquals("-0°30'0.00\"", dms(-0.5));
+        assertEquals("0°30.00000'", dm(0.5));
+        // Negativo arredondado para zero não recebe sinal
+        assertEquals("0°0.00000'", dm(-0.0));
+        assertEquals("0°0'0.00\"", dms(-1e-9));
+    }
+
+    @Test
+    public void roundedSixtyCarriesToNextUnit() {
+        assertEquals("-85°17'60.00\"", legacyDegreesMinutesSeconds(-85.3));
+        assertEquals("-85°18'0.00\"", dms(-85.3));
+        assertEquals("11°0.00000'", dm(10.9999999999));
+        assertEquals("-11°0'0.00\"", dms(-10.9999999999));
+    }
+
+    @Test
+    public void usesConfiguredDecimalSeparator() {
+        CoordinateFormatter comma = new CoordinateFormatter(',');
+        assertEquals(String.format(Locale.GERMANY, "Lat: %.5f, Long: %.5f, Alt: %.2f", -15.7934, -47.8823, 1172.5),
+                comma.format(LocationFormat.DEGREES, -15.7934, -47.8823, 1172.5).toString());
+    }
+}
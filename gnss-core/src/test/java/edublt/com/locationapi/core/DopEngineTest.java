@@ -0,0 +1,78 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DopEngineTest {
+    private static final float EPS = 1e-4f;
+
+    // Quatro satélites no horizonte (N, L, S, O) e um no zênite: HᵀH tem solução fechada
+    private static void addCross(SatelliteSnapshot snapshot, byte constellation, int firstSvid) {
+        snapshot.add(firstSvid, constellation, 0f, 0f, 30f, true);
+        snapshot.add(firstSvid + 1, constellation, 90f, 0f, 30f, true);
+        snapshot.add(firstSvid + 2, constellation, 180f, 0f, 30f, true);
+        snapshot.add(firstSvid + 3, constellation, 270f, 0f, 30f, true);
+        snapshot.add(firstSvid + 4, constellation, 0f, 90f, 30f, true);
+    }
+
+    @Test
+    public void matchesClosedFormGeometry() {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(8);
+        addCross(snapshot, Constellation.GPS, 1);
+        DopEngine engine = new DopEngine();
+        assertTrue(engine.update(snapshot));
+
+        int g = DopEngine.COMBINED;
+        assertEquals(5, engine.getSatelliteCount(g));
+        assertEquals(1.0f, engine.getHdop(g), EPS);
+        assertEquals((float) Math.sqrt(1.25), engine.getVdop(g), EPS);
+        assertEquals(0.5f, engine.getTdop(g), EPS);
+        assertEquals(1.5f, engine.getPdop(g), EPS);
+        assertEquals((float) Math.sqrt(2.5), engine.getGdop(g), EPS);
+        assertEquals(engine.getGdop(g), engine.getGdop(Constellation.GPS), 0f);
+    }
+
+    @Test
+    public void breaksDownPerConstellationAndIgnoresUnusedAndExtraBands() {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(16);
+        addCross(snapshot, Constellation.GPS, 1);
+        snapshot.add(1, Constellation.GPS, 0f, 0f, 30f, true, GnssBand.L5); // Mesmo satélite, outra banda
+        snapshot.add(20, Constellation.GPS, 45f, 45f, 30f, false); // Fora do fix
+        snapshot.add(1, Constellation.GALILEO, 10f, 30f, 30f, true);
+        snapshot.add(2, Constellation.GALILEO, 200f, 60f, 30f, true);
+
+        DopEngine engine = new DopEngine();
+        engine.update(snapshot);
+        assertEquals(5, engine.getSatelliteCount(Constellation.GPS));
+        assertEquals(2, engine.getSatelliteCount(Constellation.GALILEO));
+        assertEquals(7, engine.getSatelliteCount(DopEngine.COMBINED));
+        assertEquals(1.5f, engine.getPdop(Constellation.GPS), EPS);
+        // Poucos satélites: sem solução
+        assertTrue(Float.isNaN(engine.getPdop(Constellation.GALILEO)));
+        // Mais satélites só podem melhorar a geometria
+        assertTrue(engine.getPdop(DopEngine.COMBINED) < engine.getPdop(Constellation.GPS));
+    }
+
+    @Test
+    public void degenerateGeometryHasNoSolution() {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(4);
+        for (int svid = 1; svid <= 4; svid++) {
+            snapshot.add(svid, Constellation.GPS, 123f, 40f, 30f, true);
+        }
+        DopEngine engine = new DopEngine();
+        engine.update(snapshot);
+        assertTrue(Float.isNaN(engine.getGdop(DopEngine.COMBINED)));
+    }
+
+    @Test
+    public void skipsUnchangedSnapshots() {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(8);
+        addCross(snapshot, Constellation.GPS, 1);
+        DopEngine engine = new DopEngine();
+        assertTrue(engine.update(snapshot));
+        long version = engine.getVersion();
+        assertFalse(engine.update(snapshot));
+        assertEquals(version, engine.getVersion());
+    }
+}
@@ -0,0 +1,126 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import static org.junit.Assert.*;
+
+public class ExportEncodersTest {
+    // 2024-05-01T12:30:05.250Z
+    private static final long TIME = 1714566605250L;
+
+    private static SatelliteSnapshot status() {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(8);
+        snapshot.setTimestampMillis(TIME);
+        snapshot.add(5, Constellation.GPS, 45.4f, 30.6f, 41.2f, true);
+        snapshot.add(5, Constellation.GPS, 45.4f, 30.6f, 37f, true, GnssBand.L5);
+        snapshot.add(12, Constellation.GPS, 300f, 10f, 0f, false);
+        snapshot.add(131, Constellation.SBAS, 200f, 40f, 30f, false);
+        snapshot.add(7, Constellation.GPS, 359.6f, 80f, 25f, true);
+        snapshot.add(22, Constellation.GPS, 90f, 5f, 18f, false);
+        snapshot.add(3, Constellation.GLONASS, 10f, 50f, 33f, true);
+        return snapshot;
+    }
+
+    // Confere o checksum de cada sentença e retorna as linhas
+    private static String[] sentences(AsciiBuilder out) {
+        String[] lines = out.toString().split("\r\n");
+        for (String line : lines) {
+            int star = line.indexOf('*');
+            int checksum = 0;
+            for (int i = 1; i < star; i++) {
+                checksum ^= line.charAt(i);
+            }
+            assertEquals(line, String.format("%02X", checksum), line.substring(star + 1));
+        }
+        return lines;
+    }
+
+    @Test
+    public void nmeaGgaAndGsv() {
+        NmeaEncoder encoder = new NmeaEncoder();
+        AsciiBuilder out = new AsciiBuilder(16);
+        encoder.encodeStatus(status(), out);
+        String[] gsv = sentences(out);
+        // GPS + SBAS: 5 sinais L1 em 2 sentenças; GLONASS: 1; o sinal L5 fica de fora
+        assertEquals(3, gsv.length);
+        assertEquals("$GPGSV,2,1,05,05,31,045,41,12,10,300,,44,40,200,30,07,80,000,25", gsv[0].substring(0, gsv[0].indexOf('*')));
+        assertTrue(gsv[1].startsWith("$GPGSV,2,2,05,22,05,090,18*"));
+        assertTrue(gsv[2].startsWith("$GLGSV,1,1,01,67,50,010,33*"));
+
+        out.reset();
+        encoder.encodeLocation(TIME, -15.7938806, -47.8827778, 1172.35, out);
+        String gga = sentences(out)[0];
+        assertEquals("$GNGGA,123005.25,1547.63284,S,04752.96667,W,1,04,,1172.4,M,,M,,", gga.substring(0, gga.indexOf('*')));
+    }
+
+    @Test
+    public void nmeaMinutesCarryIntoDegrees() {
+        AsciiBuilder out = new AsciiBuilder(16);
+        new NmeaEncoder().encodeLocation(0, 10.9999999999, 0.0, 0.0, out);
+        assertTrue(out.toString(), out.toString().startsWith("$GNGGA,000000.00,1100.00000,N,00000.00000,E,"));
+    }
+
+    @Test
+    public void csvRows() {
+        CsvEncoder encoder = new CsvEncoder();
+        AsciiBuilder out = new AsciiBuilder(16);
+        encoder.beginFile(out);
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(1);
+        snapshot.setTimestampMillis(TIME);
+        snapshot.add(5, Constellation.GALILEO, 45.44f, -0.25f, 41.25f, true, GnssBand.L5);
+        encoder.encodeStatus(snapshot, out);
+        encoder.encodeLocation(TIME, -15.7938806, -47.8827778, -3.5, out);
+        String[] lines = out.toString().split("\n");
+        assertEquals(CsvEncoder.HEADER, lines[0]);
+        assertEquals("status,1714566605250,5,Galileo,L5,45.4,-0.3,41.3,1,,,", lines[1]);
+        assertEquals("location,1714566605250,,,,,,,,-15.7938806,-47.8827778,-3.50", lines[2]);
+        // Todas as linhas têm o mesmo número de colunas do cabeçalho
+        for (String line : lines) {
+            assertEquals(12, line.split(",", -1).length);
+        }
+    }
+
+    @Test
+    public void gpxIsValidXml() throws Exception {
+        GpxEncoder encoder = new GpxEncoder();
+        AsciiBuilder out = new AsciiBuilder(16);
+        encoder.beginFile(out);
+        encoder.encodeLocation(TIME, 1.5, 2.5, 3.0, out);
+        encoder.encodeStatus(status(), out);
+        encoder.encodeLocation(TIME + 1000, -1.25, -2.75, 4.0, out);
+        encoder.endFile(out);
+
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(out.toString().getBytes("US-ASCII")));
+        assertEquals("gpx", document.getDocumentElement().getTagName());
+        Element first = (Element) document.getElementsByTagName("trkpt").item(0);
+        assertEquals("1.5000000", first.getAttribute("lat"));
+        assertEquals("2024-05-01T12:30:05.250Z", first.getElementsByTagName("time").item(0).getTextContent());
+        assertEquals(0, first.getElementsByTagName("sat").getLength());
+        Element second = (Element) document.getElementsByTagName("trkpt").item(1);
+        assertEquals("-2.7500000", second.getAttribute("lon"));
+        assertEquals("4", second.getElementsByTagName("sat").item(0).getTextContent());
+    }
+
+    @Test
+    public void isoTimeMatchesJavaTime() {
+        AsciiBuilder out = new AsciiBuilder(16);
+        long[] times = {0L, -1L, 951782400000L, 4102444799999L, TIME};
+        String[] expected = {
+                "1970-01-01T00:00:00.000Z", "1969-12-31T23:59:59.999Z", "2000-02-29T00:00:00.000Z",
+                "2099-12-31T23:59:59.999Z", "2024-05-01T12:30:05.250Z"
+        };
+        for (int k = 0; k < times.length; k++) {
+            out.reset();
+            out.appendIsoUtc(times[k]);
+            assertEquals(expected[k], out.toString());
+        }
+    }
+}
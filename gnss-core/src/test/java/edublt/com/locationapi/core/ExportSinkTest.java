@@ -0,0 +1,115 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class ExportSinkTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String read(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void rotatesBySizeAndKeepsEveryFileComplete() throws Exception {
+        File dir = folder.getRoot();
+        ExportSink sink = new ExportSink(dir, "s", new GpxEncoder(), 400, 0, false);
+        for (int i = 0; i < 10; i++) {
+            sink.writeLocation(i * 1000L, i, i, i);
+        }
+        sink.close();
+        assertTrue(sink.getFileCount() > 1);
+        int points = 0;
+        for (int f = 0; f < sink.getFileCount(); f++) {
+            String text = read(new File(dir, sink.fileName(f)));
+            assertTrue(text.startsWith("<?xml"));
+            assertTrue(text.endsWith("</gpx>\n"));
+            points += text.split("<trkpt").length - 1;
+        }
+        assertEquals(10, points);
+        assertEquals("s-0001.gpx", sink.fileName(1));
+    }
+
+    @Test
+    public void rotatesByRecordTime() throws Exception {
+        File dir = folder.getRoot();
+        ExportSink sink = new ExportSink(dir, "t", new CsvEncoder(), Long.MAX_VALUE, 60_000, false);
+        for (int i = 0; i < 5; i++) {
+            sink.writeLocation(i * 30_000L, 0, 0, 0); // 0, 30, 60, 90, 120 s
+        }
+        sink.close();
+        assertEquals(3, sink.getFileCount());
+        assertEquals(3, read(new File(dir, sink.fileName(0))).split("\n").length); // Cabeçalho + 2
+        assertTrue(read(new File(dir, sink.fileName(2))).startsWith(CsvEncoder.HEADER));
+    }
+
+    @Test
+    public void gzipOutputDecompressesToPlainText() throws Exception {
+        File dir = folder.getRoot();
+        ExportSink plain = new ExportSink(new File(dir, "plain"), "p", new NmeaEncoder(), Long.MAX_VALUE, 0, false);
+        ExportSink gzip = new ExportSink(new File(dir, "gzip"), "p", new NmeaEncoder(), Long.MAX_VALUE, 0, true);
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(4);
+        for (int epoch = 0; epoch < 100; epoch++) {
+            snapshot.clear();
+            snapshot.setTimestampMillis(epoch * 100L);
+            for (int svid = 1; svid <= 12; svid++) {
+                snapshot.add(svid, Constellation.GPS, svid * 30f, 40f, 30f + epoch % 5, svid % 2 == 0);
+            }
+            for (ExportSink sink : new ExportSink[]{plain, gzip}) {
+                sink.writeStatus(snapshot);
+                sink.writeLocation(epoch * 100L, -15.8, -47.9, 1100.0 + epoch);
+            }
+        }
+        plain.close();
+        gzip.close();
+        assertEquals("p-0000.nmea.gz", gzip.fileName(0));
+        File compressed = new File(dir, "gzip/" + gzip.fileName(0));
+        String expected = read(new File(dir, "plain/" + plain.fileName(0)));
+        try (InputStream in = new GZIPInputStream(new FileInputStream(compressed))) {
+            byte[] buffer = new byte[expected.length() + 1];
+            int n = 0, r;
+            while ((r = in.read(buffer, n, buffer.length - n)) > 0) {
+                n += r;
+            }
+            assertEquals(expected, new String(buffer, 0, n, StandardCharsets.US_ASCII));
+        }
+        assertTrue(compressed.length() < expected.length() / 3);
+    }
+
+    @Test
+    public void writerBatchesOnItsOwnThread() throws Exception {
+        File dir = folder.getRoot();
+        ExportSink csv = new ExportSink(dir, "w", new CsvEncoder(), Long.MAX_VALUE, 0, false);
+        ExportWriter writer = new ExportWriter(new ExportSink[]{csv}, 64, 20);
+        writer.start();
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(2);
+        for (int epoch = 0; epoch < 50; epoch++) {
+            snapshot.clear();
+            snapshot.setTimestampMillis(epoch);
+            snapshot.add(1, Constellation.GPS, 0f, 10f, 20f, false);
+            snapshot.add(2, Constellation.GPS, 0f, 10f, 20f, false);
+            assertTrue(writer.offerStatus(snapshot));
+            assertTrue(writer.offerLocation(epoch, 1, 2, 3));
+            Thread.sleep(1);
+        }
+        writer.close();
+        assertTrue(writer.awaitTermination(5000));
+        assertNull(writer.getError());
+        assertEquals(0, writer.getDroppedCount());
+        assertFalse(writer.offerLocation(0, 0, 0, 0));
+        String[] lines = read(new File(dir, csv.fileName(0))).split("\n");
+        assertEquals(1 + 50 * 3, lines.length);
+        assertEquals("status,49,2,GPS,?,0.0,10.0,20.0,0,,,", lines[lines.length - 2]);
+    }
+}
@@ -0,0 +1,58 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FilterEngineTest {
+    private static SatelliteSnapshot sampleSnapshot() {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(8);
+        snapshot.add(1, Constellation.GPS, 0f, 45f, 40f, true);
+        snapshot.add(2, Constellation.BEIDOU, 0f, 5f, 20f, false);
+        snapshot.add(3, Constellation.GALILEO, 0f, 30f, 35f, true);
+        snapshot.add(4, Constellation.QZSS, 0f, 60f, 45f, false);
+        snapshot.add(5, Constellation.UNKNOWN, 0f, -2f, 10f, false);
+        return snapshot;
+    }
+
+    @Test
+    public void combinesConstellationsAndThresholds() {
+        SatelliteSnapshot snapshot = sampleSnapshot();
+        FilterEngine engine = new FilterEngine();
+        engine.update(snapshot);
+        assertEquals(5, engine.getCount());
+
+        int mask = Constellation.mask(Constellation.GPS) | Constellation.mask(Constellation.BEIDOU)
+                | Constellation.mask(Constellation.QZSS);
+        engine.setFilter(new SatelliteFilter(mask, 10f, 30f, false));
+        assertTrue(engine.update(snapshot));
+        assertEquals(2, engine.getCount());
+        assertEquals(0, engine.getIndices()[0]);
+        assertEquals(3, engine.getIndices()[1]);
+
+        engine.setFilter(new SatelliteFilter(Constellation.ALL_MASK, -90f, 0f, true));
+        engine.update(snapshot);
+        assertEquals(2, engine.getCount());
+        assertEquals(2, engine.getIndices()[1]);
+    }
+
+    @Test
+    public void cacheInvalidatedOnlyWhenFilterOrSnapshotChanges() {
+        SatelliteSnapshotStore store = new SatelliteSnapshotStore(8);
+        store.edit().add(1, Constellation.GPS, 0f, 45f, 40f, true);
+        store.publish();
+        SatelliteSnapshot snapshot = store.acquire();
+
+        FilterEngine engine = new FilterEngine();
+        assertTrue(engine.update(snapshot));
+        assertFalse(engine.update(snapshot));
+
+        // Um filtro igual ao atual não invalida o cache
+        engine.setFilter(new SatelliteFilter(Constellation.ALL_MASK, -90f, 0f, false));
+        assertFalse(engine.update(snapshot));
+
+        store.edit().add(2, Constellation.GPS, 0f, 45f, 40f, true);
+        store.publish();
+        assertTrue(engine.update(store.acquire()));
+    }
+}
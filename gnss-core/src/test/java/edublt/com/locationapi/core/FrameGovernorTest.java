@@ -0,0 +1,129 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+// Simula 20 s de eventos contra um vsync de 60 Hz e compara o número de redesenhos
+// do caminho antigo (cada callback invalidando as duas views) com o FrameGovernor.
+public class FrameGovernorTest {
+    private static final int SKY = 1;
+    private static final int BARS = 2;
+    private static final int BOTH = SKY | BARS;
+    private static final long VSYNC_NANOS = 16_666_667L;
+    private static final long MILLIS = 1_000_000L;
+
+    // Eventos por segundo: três status em vsyncs distintos (alguns receptores entregam um
+    // por grupo de constelações) e uma localização. Depois de 10 s o receptor está parado
+    // e o retrato (satélites e localização) se repete.
+    private static final long[] EVENT_OFFSETS = {3 * MILLIS, 40 * MILLIS, 80 * MILLIS, 500 * MILLIS};
+    private static final int SECONDS = 20;
+
+    private static long contentAt(int second, int event) {
+        return second >= 10 ? 1_000 : second * 10L + event;
+    }
+
+    // Caminho antigo: cada evento invalida as duas views; o Android junta as invalidações
+    // de um mesmo vsync, então conta-se um redesenho por view suja em cada vsync
+    private static int framesBefore() {
+        int redraws = 0;
+        int event = 0;
+        long[] times = eventTimes();
+        for (long vsync = 0; vsync < SECONDS * 1_000 * MILLIS; vsync += VSYNC_NANOS) {
+            int dirty = 0;
+            while (event < times.length && times[event] <= vsync) {
+                dirty |= BOTH;
+                event++;
+            }
+            redraws += Integer.bitCount(dirty);
+        }
+        return redraws;
+    }
+
+    // Caminho novo: a ingestão entrega o retrato mais recente por vsync e o governor decide
+    private static int framesAfter(FrameGovernor governor, long[] frameTimes) {
+        int redraws = 0;
+        int event = 0;
+        int frames = 0;
+        long[] times = eventTimes();
+        for (long vsync = 0; vsync < SECONDS * 1_000 * MILLIS; vsync += VSYNC_NANOS) {
+            long content = -1;
+            while (event < times.length && times[event] <= vsync) {
+                content = contentAt((int) (times[event] / (1_000 * MILLIS)), event % EVENT_OFFSETS.length);
+                event++;
+            }
+            if (content >= 0) {
+                governor.offerContent(content);
+            }
+            int targets = governor.onFrame(vsync);
+            if (targets != 0) {
+                redraws += Integer.bitCount(targets);
+                if (frameTimes != null) {
+                    frameTimes[frames] = vsync;
+                }
+                frames++;
+            }
+        }
+        return redraws;
+    }
+
+    private static long[] eventTimes() {
+        long[] times = new long[SECONDS * EVENT_OFFSETS.length];
+        for (int second = 0; second < SECONDS; second++) {
+            for (int e = 0; e < EVENT_OFFSETS.length; e++) {
+                times[second * EVENT_OFFSETS.length + e] = second * 1_000 * MILLIS + EVENT_OFFSETS[e];
+            }
+        }
+        return times;
+    }
+
+    @Test
+    public void cutsRedrawsAndHonoursTheFpsCap() {
+        int before = framesBefore();
+        FrameGovernor governor = new FrameGovernor(BOTH);
+        int after = framesAfter(governor, null);
+        FrameGovernor capped = new FrameGovernor(BOTH);
+        capped.setMaxFps(10);
+        int afterCapped = framesAfter(capped, null);
+        assertEquals(SECONDS * EVENT_OFFSETS.length * 2, before);
+        // Parado, só o primeiro retrato repetido é desenhado
+        assertEquals(before / 2 + 2, after);
+        assertEquals(39, governor.getUnchangedContent());
+        // Com o limite, os três status de cada segundo viram dois quadros (o de 40 ms e o
+        // de 80 ms são desenhados juntos, 100 ms depois do primeiro)
+        assertEquals((10 * 3 + 1) * 2, afterCapped);
+    }
+
+    @Test
+    public void capSpacesFramesEvenWhenContentChangesEveryVsync() {
+        FrameGovernor governor = new FrameGovernor(BOTH);
+        governor.setMaxFps(10);
+        int frames = 0;
+        long last = -1;
+        for (int v = 0; v < 600; v++) {
+            long now = v * VSYNC_NANOS;
+            governor.offerContent(v);
+            if (governor.onFrame(now) != 0) {
+                if (last >= 0) {
+                    assertTrue(now - last >= 98 * MILLIS);
+                }
+                last = now;
+                frames++;
+            }
+        }
+        // 10 s a 10 fps (cada quadro cai no sexto vsync)
+        assertEquals(100, frames);
+        assertTrue(governor.getDeferredFrames() > 0);
+    }
+
+    @Test
+    public void invalidationRedrawsOnlyTheRequestedViewEvenWithSameContent() {
+        FrameGovernor governor = new FrameGovernor(BOTH);
+        governor.offerContent(42);
+        assertEquals(BOTH, governor.onFrame(0));
+        assertFalse(governor.offerContent(42));
+        assertEquals(0, governor.onFrame(VSYNC_NANOS));
+        governor.invalidate(BARS);
+        assertEquals(BARS, governor.onFrame(2 * VSYNC_NANOS));
+    }
+}
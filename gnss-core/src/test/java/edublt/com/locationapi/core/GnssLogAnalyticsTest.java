@@ -0,0 +1,122 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class GnssLogAnalyticsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // Sessão de 'epochs' status a 1 Hz: GPS sempre visível, Galileo só nas épocas pares;
+    // a primeira localização chega em 'ttffSeconds'
+    private static void writeSession(File dir, String name, int epochs, int ttffSeconds) throws IOException {
+        SatelliteSnapshot status = new SatelliteSnapshot(4);
+        try (GnssLogWriter writer = new GnssLogWriter(dir, name, 4096)) {
+            for (int epoch = 0; epoch < epochs; epoch++) {
+                long t = 1_000_000L + epoch * 1000L;
+                status.clear();
+                status.setTimestampMillis(t);
+                status.add(1, Constellation.GPS, 15f, 45f, 40.5f, true);
+                status.add(2, Constellation.GPS, 195f, 5f, 20.2f, false);
+                status.add(11, Constellation.GALILEO, 90f, 60f, epoch % 2 == 0 ? 30f : 0f, false);
+                writer.writeStatus(status);
+                if (epoch >= ttffSeconds) {
+                    writer.writeLocation(t, -15.8, -47.9, 1100.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void summarizesAvailabilityHistogramsCoverageAndTtff() throws IOException {
+        File dir = folder.getRoot();
+        writeSession(dir, "a", 100, 30);
+        writeSession(dir, "b", 100, 10);
+        writeSession(dir, "c", 100, 200); // Sem fix
+        List<List<File>> sessions = GnssLogAnalytics.listSessions(Collections.singletonList(dir));
+        assertEquals(3, sessions.size());
+
+        GnssLogStats stats = GnssLogAnalytics.analyze(sessions, new ForkJoinPool(3));
+        assertEquals(3, stats.getSessionCount());
+        assertEquals(300, stats.getStatusCount());
+        assertEquals(70 + 90, stats.getLocationCount());
+        assertEquals(3 * 99_000, stats.getDurationMillis());
+
+        assertEquals(1.0, stats.getAvailability(Constellation.GPS), 0.0);
+        assertEquals(0.5, stats.getAvailability(Constellation.GALILEO), 0.0);
+        assertEquals(0.0, stats.getAvailability(Constellation.GLONASS), 0.0);
+        assertEquals(2.0, stats.getMeanSignals(Constellation.GPS), 0.0);
+        assertEquals(0.5, stats.getUsedRatio(Constellation.GPS), 0.0);
+        assertTrue(Double.isNaN(stats.getUsedRatio(Constellation.BEIDOU)));
+
+        assertEquals(300, stats.getCn0Count(Constellation.GPS, 40));
+        assertEquals(300, stats.getCn0Count(Constellation.GPS, 20));
+        assertEquals(150, stats.getCn0Count(Constellation.GALILEO, 0));
+        assertEquals(300, stats.getSkyCount(Constellation.GPS, 4, 1));
+        assertEquals(300, stats.getSkyCount(Constellation.GPS, 0, 19));
+        assertEquals(300, stats.getSkyCount(Constellation.GALILEO, 6, 9));
+
+        assertEquals(2, stats.getTtffCount());
+        assertEquals(10_000, stats.getTtffPercentile(0));
+        assertEquals(30_000, stats.getTtffPercentile(100));
+
+        StringBuilder report = new StringBuilder();
+        stats.appendReport(report);
+        assertTrue(report.toString(), report.toString().contains("Galileo: disponibilidade=50.0%"));
+    }
+
+    @Test
+    public void parallelResultMatchesSequential() throws IOException {
+        File dir = folder.getRoot();
+        for (int s = 0; s < 9; s++) {
+            writeSession(dir, "s" + s, 20 + s * 7, s * 3);
+        }
+        List<List<File>> sessions = GnssLogAnalytics.listSessions(Collections.singletonList(dir));
+        GnssLogStats sequential = GnssLogAnalytics.analyze(sessions, new ForkJoinPool(1));
+        GnssLogStats parallel = GnssLogAnalytics.analyze(sessions, new ForkJoinPool(4));
+        StringBuilder a = new StringBuilder(), b = new StringBuilder();
+        sequential.appendReport(a);
+        parallel.appendReport(b);
+        assertEquals(a.toString(), b.toString());
+        assertEquals(sequential.getTtffPercentile(50), parallel.getTtffPercentile(50));
+    }
+
+    // Uma sessão longa é dividida por segmento; o resultado é o da leitura da sessão inteira
+    @Test
+    public void segmentSplitMatchesWholeSessionRead() throws IOException {
+        File dir = folder.getRoot();
+        writeSession(dir, "longa", 600, 250);
+        List<List<File>> sessions = GnssLogAnalytics.listSessions(Collections.singletonList(dir));
+        assertTrue(sessions.get(0).size() > 4);
+
+        GnssLogStats whole = new GnssLogStats();
+        GnssLogAnalytics.analyzeSession(sessions.get(0), whole);
+        GnssLogStats split = GnssLogAnalytics.analyze(sessions, new ForkJoinPool(4));
+        StringBuilder a = new StringBuilder(), b = new StringBuilder();
+        whole.appendReport(a);
+        split.appendReport(b);
+        assertEquals(a.toString(), b.toString());
+        assertEquals(1, split.getSessionCount());
+        assertEquals(599_000, split.getDurationMillis());
+        assertEquals(250_000, split.getTtffPercentile(50));
+    }
+
+    @Test(expected = IOException.class)
+    public void reportsCorruptLogs() throws IOException {
+        File dir = folder.getRoot();
+        try (FileOutputStream out = new FileOutputStream(new File(dir, GnssLogFormat.segmentName("bad", 0)))) {
+            out.write(new byte[64]);
+        }
+        GnssLogAnalytics.analyze(GnssLogAnalytics.listSessions(Collections.singletonList(dir)), new ForkJoinPool(2));
+    }
+}
@@ -0,0 +1,126 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GnssLogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static SatelliteSnapshot snapshot(int count, long timestamp) {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(count);
+        snapshot.setTimestampMillis(timestamp);
+        for (int i = 0; i < count; i++) {
+            snapshot.add(i + 1, Constellation.fromType(1 + i % 7), i * 3.5f, i % 90, 20f + i % 30, i % 2 == 0,
+                    (byte) (i % GnssBand.COUNT));
+        }
+        return snapshot;
+    }
+
+    @Test
+    public void roundTripsAcrossSegments() throws Exception {
+        File dir = folder.getRoot();
+        // Segmentos pequenos para forçar a rotação
+        try (GnssLogWriter writer = new GnssLogWriter(dir, "s1", 2048)) {
+            for (int epoch = 0; epoch < 100; epoch++) {
+                writer.writeStatus(snapshot(40, 1000L * epoch));
+                writer.writeLocation(1000L * epoch + 500, -15.8 + epoch * 1e-5, -47.9, 1100.0 + epoch);
+            }
+        }
+        List<File> segments = GnssLogReader.segmentsOf(dir, "s1");
+        assertTrue(segments.size() > 10);
+        assertEquals(1, GnssLogReader.listSessions(dir).size());
+
+        int statuses = 0, locations = 0;
+        try (GnssLogReader reader = new GnssLogReader(segments)) {
+            byte type;
+            while ((type = reader.next()) != GnssLogReader.END) {
+                if (type == GnssLogFormat.RECORD_STATUS) {
+                    SatelliteSnapshot status = reader.getStatus();
+                    assertEquals(1000L * statuses, reader.getTimestampMillis());
+                    assertEquals(40, status.getCount());
+                    assertEquals(7, status.getSvid(6));
+                    assertEquals(Constellation.GALILEO, status.getConstellation(5));
+                    assertEquals(21f, status.getAzimuthDegrees(6), 0f);
+                    assertTrue(status.isUsedInFix(6));
+                    assertFalse(status.isUsedInFix(7));
+                    assertEquals(GnssBand.E6, status.getBand(4));
+                    assertEquals(GnssBand.UNKNOWN, status.getBand(5));
+                    statuses++;
+                } else {
+                    assertEquals(1100.0 + locations, reader.getAltitude(), 0.0);
+                    assertEquals(-47.9, reader.getLongitude(), 0.0);
+                    locations++;
+                }
+            }
+        }
+        assertEquals(100, statuses);
+        assertEquals(100, locations);
+    }
+
+    // Segmentos da versão 1 (antes da banda) continuam legíveis, com a banda desconhecida
+    @Test
+    public void readsVersionOneSegmentsWithoutBand() throws Exception {
+        File dir = folder.getRoot();
+        try (GnssLogWriter writer = new GnssLogWriter(dir, "v1", 1 << 20)) {
+            writer.writeStatus(snapshot(10, 1));
+        }
+        File segment = GnssLogReader.segmentsOf(dir, "v1").get(0);
+        setVersion(segment, (short) 1);
+        try (GnssLogReader reader = new GnssLogReader(GnssLogReader.segmentsOf(dir, "v1"))) {
+            assertEquals(GnssLogFormat.RECORD_STATUS, reader.next());
+            SatelliteSnapshot status = reader.getStatus();
+            assertEquals(10, status.getCount());
+            assertTrue(status.isUsedInFix(4));
+            for (int i = 0; i < status.getCount(); i++) {
+                assertEquals(GnssBand.UNKNOWN, status.getBand(i));
+            }
+            assertEquals(GnssLogReader.END, reader.next());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsNewerVersions() throws Exception {
+        File dir = folder.getRoot();
+        try (GnssLogWriter writer = new GnssLogWriter(dir, "v9", 1 << 20)) {
+            writer.writeStatus(snapshot(1, 1));
+        }
+        File segment = GnssLogReader.segmentsOf(dir, "v9").get(0);
+        setVersion(segment, (short) (GnssLogFormat.VERSION + 1));
+        try (GnssLogReader reader = new GnssLogReader(GnssLogReader.segmentsOf(dir, "v9"))) {
+            reader.next();
+        }
+    }
+
+    private static void setVersion(File segment, short version) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(8);
+            file.writeShort(version);
+        }
+    }
+
+    @Test
+    public void truncatedTailEndsSession() throws Exception {
+        File dir = folder.getRoot();
+        try (GnssLogWriter writer = new GnssLogWriter(dir, "s2", 1 << 20)) {
+            writer.writeStatus(snapshot(10, 1));
+            writer.writeStatus(snapshot(10, 2));
+        }
+        File segment = GnssLogReader.segmentsOf(dir, "s2").get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() - 5);
+        }
+        try (GnssLogReader reader = new GnssLogReader(GnssLogReader.segmentsOf(dir, "s2"))) {
+            assertEquals(GnssLogFormat.RECORD_STATUS, reader.next());
+            assertEquals(GnssLogReader.END, reader.next());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LabelGridTest {
+    @Test
+    public void rejectsOverlappingAndOutOfBoundsRectangles() {
+        LabelGrid grid = new LabelGrid(10);
+        grid.reset(100, 100);
+        assertTrue(grid.tryOccupy(0, 0, 35, 15));
+        assertFalse(grid.tryOccupy(30, 10, 60, 20));
+        assertTrue(grid.tryOccupy(45, 10, 60, 20));
+        assertFalse(grid.tryOccupy(90, 90, 110, 95));
+        assertFalse(grid.tryOccupy(-1, 50, 10, 60));
+    }
+
+    @Test
+    public void resetFreesAllCells() {
+        LabelGrid grid = new LabelGrid(10);
+        grid.reset(50, 50);
+        grid.forceOccupy(-20, -20, 80, 80);
+        assertFalse(grid.tryOccupy(20, 20, 25, 25));
+        grid.reset(50, 50);
+        assertTrue(grid.tryOccupy(20, 20, 25, 25));
+    }
+}
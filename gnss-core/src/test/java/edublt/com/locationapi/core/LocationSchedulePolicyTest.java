@@ -0,0 +1,218 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+// A política é exercitada com um trajeto gravado a 1 Hz (traces/commute.csv): 2 min
+// parado, 3 min a pé, 4 min de carro (com 30 s num túnel, precisão de 25-40 m), 2 min
+// parado e 2 min a pé, com a tela oculta a partir de 9min20s. O provedor é simulado:
+// ele só entrega as localizações que o pedido atual deixaria passar (intervalo e
+// distância mínima) e as junta em lotes de até maxUpdateDelay.
+public class LocationSchedulePolicyTest {
+    private static final long HIDDEN_FROM = 560_000; // Desde o início do trajeto
+
+    private static final class Replay {
+        final LocationSchedulePolicy policy;
+        final List<long[]> decisions = new ArrayList<>(); // {tempo desde o início, motivo, intervalo}
+        int fixes, wakeups, hiddenFixes, hiddenWakeups;
+        long start;
+
+        Replay(int profile) {
+            policy = new LocationSchedulePolicy(profile);
+        }
+    }
+
+    private static List<double[]> loadTrace() throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                LocationSchedulePolicyTest.class.getResourceAsStream("/traces/commute.csv"), StandardCharsets.UTF_8))) {
+            reader.readLine(); // Cabeçalho
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                double[] row = new double[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    row[i] = Double.parseDouble(fields[i]);
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static Replay replay(int profile) throws IOException {
+        List<double[]> trace = loadTrace();
+        Replay replay = new Replay(profile);
+        LocationSchedulePolicy policy = replay.policy;
+        replay.start = (long) trace.get(0)[0];
+        long lastDelivered = Long.MIN_VALUE;
+        double[] lastPosition = null;
+        List<double[]> batch = new ArrayList<>();
+        long batchStart = 0;
+        for (double[] row : trace) {
+            long time = (long) row[0];
+            boolean visible = row[5] != 0;
+            if (policy.setVisible(visible, time)) {
+                replay.decisions.add(new long[]{time - replay.start, policy.getLastReason(), policy.getIntervalMillis()});
+            }
+            boolean due = lastDelivered == Long.MIN_VALUE || time - lastDelivered >= policy.getIntervalMillis();
+            if (due && (lastPosition == null || distance(lastPosition, row) >= policy.getMinDistanceMeters())) {
+                if (batch.isEmpty()) {
+                    batchStart = time;
+                }
+                batch.add(row);
+                lastDelivered = time;
+                lastPosition = row;
+            }
+            if (!batch.isEmpty() && time - batchStart >= policy.getMaxUpdateDelayMillis()) {
+                // Um despertar com o lote inteiro
+                policy.onWakeup();
+                replay.wakeups++;
+                if (!visible) {
+                    replay.hiddenWakeups++;
+                    replay.hiddenFixes += batch.size();
+                }
+                for (double[] fix : batch) {
+                    replay.fixes++;
+                    if (policy.onFix((long) fix[0], fix[1], fix[2], (float) fix[3], (float) fix[4])) {
+                        replay.decisions.add(new long[]{time - replay.start, policy.getLastReason(), policy.getIntervalMillis()});
+                    }
+                }
+                batch.clear();
+            }
+        }
+        return replay;
+    }
+
+    private static double distance(double[] a, double[] b) {
+        double dy = (b[1] - a[1]) * 111_320.0;
+        double dx = (b[2] - a[2]) * 111_320.0 * Math.cos(Math.toRadians(a[1]));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static long firstDecision(Replay replay, int reason, long fromMillis) {
+        for (long[] decision : replay.decisions) {
+            if (decision[1] == reason && decision[0] >= fromMillis) {
+                return decision[0];
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void adaptsToMovementAccuracyAndVisibility() throws IOException {
+        Replay replay = replay(LocationSchedulePolicy.PROFILE_BALANCED);
+
+        // Começa a andar aos 2 min e a política acelera em poucas localizações
+        long moving = firstDecision(replay, LocationSchedulePolicy.REASON_MOVING, 0);
+        assertTrue("em movimento aos " + moving, moving >= 120_000 && moving < 135_000);
+        // O túnel (6min40s) é notado pela precisão
+        long tunnel = firstDecision(replay, LocationSchedulePolicy.REASON_ACCURACY_DEGRADING, 0);
+        assertTrue("túnel aos " + tunnel, tunnel >= 400_000 && tunnel < 405_000);
+        assertTrue(firstDecision(replay, LocationSchedulePolicy.REASON_ACCURACY_STABLE, tunnel) > tunnel);
+        // Parado de novo aos 9 min, volta ao intervalo longo. Com a distância mínima quase
+        // nenhuma localização passa depois de parar, então a parada é notada mais devagar.
+        long stationary = firstDecision(replay, LocationSchedulePolicy.REASON_STATIONARY, 540_000);
+        assertTrue("parado aos " + stationary, stationary >= 540_000 && stationary < 600_000);
+        assertTrue(firstDecision(replay, LocationSchedulePolicy.REASON_VISIBILITY, 0) == HIDDEN_FROM);
+
+        // Com a tela oculta, as localizações chegam em lotes
+        assertTrue(replay.hiddenWakeups > 0);
+        assertTrue(replay.hiddenFixes >= 5 * replay.hiddenWakeups);
+        assertEquals(replay.wakeups, replay.policy.getWakeupCount());
+        assertEquals(replay.fixes, replay.policy.getFixCount());
+        assertEquals(replay.decisions.size(), replay.policy.getChangeCount());
+    }
+
+    @Test
+    public void profilesTradeWakeupsForRate() throws IOException {
+        Replay high = replay(LocationSchedulePolicy.PROFILE_HIGH_RATE);
+        Replay balanced = replay(LocationSchedulePolicy.PROFILE_BALANCED);
+        Replay low = replay(LocationSchedulePolicy.PROFILE_LOW_POWER);
+        assertTrue(high.wakeups > 2 * balanced.wakeups);
+        assertTrue(balanced.wakeups > 2 * low.wakeups);
+        assertTrue(high.fixes > balanced.fixes && balanced.fixes > low.fixes);
+        // Alta taxa com a tela visível: uma localização por despertar, a cada segundo em movimento
+        assertEquals(high.fixes - high.hiddenFixes, high.wakeups - high.hiddenWakeups);
+    }
+
+    @Test
+    public void relaxingWaitsButTighteningIsImmediate() {
+        LocationSchedulePolicy policy = new LocationSchedulePolicy(LocationSchedulePolicy.PROFILE_BALANCED);
+        long stationaryInterval = policy.getIntervalMillis();
+        long t = 0;
+        assertTrue(policy.onFix(t, 0, 0, 5f, 5f)); // Acelera na hora
+        assertTrue(policy.isMoving());
+        long movingInterval = policy.getIntervalMillis();
+        assertTrue(movingInterval < stationaryInterval);
+
+        // Para logo em seguida: a média cai, mas o pedido só relaxa depois de MIN_RELAX_MILLIS
+        boolean relaxed = false;
+        while (!relaxed) {
+            t += 1000;
+            relaxed = policy.onFix(t, 0, 0, 0f, 5f);
+            assertTrue(relaxed || policy.getIntervalMillis() == movingInterval);
+        }
+        assertTrue(t >= LocationSchedulePolicy.MIN_RELAX_MILLIS);
+        assertEquals(stationaryInterval, policy.getIntervalMillis());
+        assertEquals(LocationSchedulePolicy.REASON_STATIONARY, policy.getLastReason());
+        assertFalse(policy.setProfile(LocationSchedulePolicy.PROFILE_BALANCED, t));
+        assertTrue(policy.setProfile(LocationSchedulePolicy.PROFILE_LOW_POWER, t));
+        assertEquals(LocationSchedulePolicy.PRIORITY_HIGH_ACCURACY, policy.getPriority());
+        // Sem os callbacks do GNSS, economia dispensa o receptor na hora
+        assertTrue(policy.setGnssRequired(false, t + 1));
+        assertEquals(LocationSchedulePolicy.PRIORITY_BALANCED_POWER_ACCURACY, policy.getPriority());
+        assertEquals(LocationSchedulePolicy.REASON_GNSS, policy.getLastReason());
+    }
+
+    // Com os callbacks do GNSS registrados, nenhum perfil nem estado (parado, em movimento,
+    // precisão piorando, tela oculta) pede menos que alta precisão; sem eles, o perfil decide.
+    // Intervalo, distância e lote não dependem disso.
+    @Test
+    public void gnssCallbacksKeepHighAccuracyInEveryProfile() {
+        for (int profile = 0; profile < LocationSchedulePolicy.PROFILE_COUNT; profile++) {
+            LocationSchedulePolicy required = new LocationSchedulePolicy(profile);
+            LocationSchedulePolicy optional = new LocationSchedulePolicy(profile);
+            assertTrue(required.isGnssRequired());
+            optional.setGnssRequired(false, 0);
+            String name = LocationSchedulePolicy.profileName(profile);
+            long t = 0;
+            for (int step = 0; step < 120; step++, t += 1000) {
+                // Parado, depois em movimento, depois com a precisão piorando, e a tela oculta na metade
+                float speed = step < 30 ? 0f : 5f;
+                float accuracy = step >= 60 && step < 70 ? 40f : 4f;
+                boolean visible = step < 90;
+                for (LocationSchedulePolicy policy : new LocationSchedulePolicy[]{required, optional}) {
+                    policy.setVisible(visible, t);
+                    policy.onFix(t, speed * step / 111_320.0, 0, speed, accuracy);
+                }
+                assertEquals(name + " aos " + step + " s", LocationSchedulePolicy.PRIORITY_HIGH_ACCURACY,
+                        required.getPriority());
+                assertEquals(optional.getIntervalMillis(), required.getIntervalMillis());
+                assertEquals(optional.getMinDistanceMeters(), required.getMinDistanceMeters(), 0f);
+                assertEquals(optional.getMaxUpdateDelayMillis(), required.getMaxUpdateDelayMillis());
+            }
+        }
+        LocationSchedulePolicy lowPower = new LocationSchedulePolicy(LocationSchedulePolicy.PROFILE_LOW_POWER);
+        lowPower.setGnssRequired(false, 0);
+        assertEquals(LocationSchedulePolicy.PRIORITY_BALANCED_POWER_ACCURACY, lowPower.getPriority());
+    }
+
+    @Test
+    public void estimatesSpeedFromDisplacementWhenMissing() {
+        LocationSchedulePolicy policy = new LocationSchedulePolicy(LocationSchedulePolicy.PROFILE_HIGH_RATE);
+        policy.onFix(0, 0, 0, Float.NaN, Float.NaN);
+        assertTrue(Float.isNaN(policy.getSpeedMetersPerSecond()));
+        policy.onFix(1000, 5 / 111_320.0, 0, Float.NaN, Float.NaN); // 5 m em 1 s
+        assertEquals(5f, policy.getSpeedMetersPerSecond(), 0.01f);
+        assertTrue(policy.isMoving());
+    }
+}
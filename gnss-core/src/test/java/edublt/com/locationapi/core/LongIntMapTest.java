@@ -0,0 +1,35 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongIntMapTest {
+    @Test
+    public void matchesHashMapUnderRandomPutsAndRemoves() {
+        LongIntMap map = new LongIntMap(4);
+        Map<Long, Integer> reference = new HashMap<>();
+        Random random = new Random(7);
+        for (int op = 0; op < 200_000; op++) {
+            // Poucas chaves para provocar colisões e remoções no meio das sequências de sondagem
+            long key = random.nextInt(300) * 0x10000000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key) != null, map.remove(key));
+            } else {
+                int value = random.nextInt();
+                map.put(key, value);
+                reference.put(key, value);
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        for (long k = 0; k < 300; k++) {
+            long key = k * 0x10000000L;
+            Integer expected = reference.get(key);
+            assertEquals(expected == null ? -1 : (int) expected, map.get(key, -1));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MeasurementPipelineTest {
+    private static boolean offer(MeasurementPipeline pipeline, long time, int svid, byte band, float cn0) {
+        return pipeline.offer(time, svid, Constellation.GPS, band, 0f, cn0, -120.5, 10.0, 1, (byte) 0);
+    }
+
+    @Test
+    public void ringDropsWhenFullAndCountsBackpressure() {
+        MeasurementRing ring = new MeasurementRing(5);
+        assertEquals(8, ring.getCapacity());
+        for (int i = 0; i < 10; i++) {
+            ring.offer(i, i, Constellation.GPS, GnssBand.L1, 0f, 30f, 0.0, 0.0, 0, (byte) 0);
+        }
+        assertEquals(10, ring.getOfferedCount());
+        assertEquals(2, ring.getDroppedCount());
+        assertEquals(8, ring.getHighWatermark());
+
+        int slot = ring.poll();
+        assertEquals(0, ring.getSvid(slot));
+        ring.release();
+        assertTrue(ring.offer(99, 99, Constellation.GPS, GnssBand.L1, 0f, 30f, 0.0, 0.0, 0, (byte) 0));
+        for (int expected = 1; expected < 8; expected++) {
+            slot = ring.poll();
+            assertEquals(expected, ring.getSvid(slot));
+            ring.release();
+        }
+        assertEquals(99, ring.getSvid(ring.poll()));
+        ring.release();
+        assertEquals(-1, ring.poll());
+    }
+
+    @Test
+    public void ringPreservesOrderAcrossThreads() throws InterruptedException {
+        final MeasurementRing ring = new MeasurementRing(64);
+        final int total = 200_000;
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < total; i++) {
+                    while (!ring.offer(i, i, Constellation.GPS, GnssBand.L1, 0f, 0f, i * 0.5, 0.0, 0, (byte) 0)) {
+                        Thread.yield();
+                    }
+                }
+            }
+        });
+        producer.start();
+        int next = 0;
+        while (next < total) {
+            int slot = ring.poll();
+            if (slot < 0) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(next, ring.getSvid(slot));
+            assertEquals(next * 0.5, ring.getPseudorangeRateMps(slot), 0.0);
+            ring.release();
+            next++;
+        }
+        producer.join();
+        assertEquals(total + ring.getDroppedCount(), ring.getOfferedCount());
+    }
+
+    @Test
+    public void joinSplitsStatusSignalPerMeasuredBand() {
+        MeasurementPipeline pipeline = new MeasurementPipeline(64);
+        offer(pipeline, 1000, 7, GnssBand.L1, 40f);
+        offer(pipeline, 1000, 7, GnssBand.L5, 35f);
+        offer(pipeline, 1000, 8, GnssBand.UNKNOWN, 20f);
+        assertEquals(3, pipeline.drain());
+        assertEquals(1, pipeline.getEpochCount());
+
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(4);
+        assertEquals(2, pipeline.addSignals(snapshot, 7, Constellation.GPS, 10f, 50f, true));
+        assertEquals(0, pipeline.addSignals(snapshot, 8, Constellation.GPS, 10f, 50f, true));
+        assertEquals(2, snapshot.getCount());
+        assertEquals(GnssBand.L1, snapshot.getBand(0));
+        assertEquals(40f, snapshot.getCn0DbHz(0), 0f);
+        assertEquals(GnssBand.L5, snapshot.getBand(1));
+        assertEquals(35f, snapshot.getCn0DbHz(1), 0f);
+        assertTrue(snapshot.isUsedInFix(1));
+    }
+
+    @Test
+    public void signalsExpireAfterMissedEpochs() {
+        MeasurementPipeline pipeline = new MeasurementPipeline(64);
+        offer(pipeline, 0, 7, GnssBand.L5, 35f);
+        offer(pipeline, 0, 9, GnssBand.L1, 35f);
+        pipeline.drain();
+        for (long t = 1; t <= 6; t++) {
+            offer(pipeline, t, 9, GnssBand.L1, 35f);
+            pipeline.drain();
+        }
+        MeasurementTable table = new MeasurementTable(4);
+        pipeline.copyTable(table);
+        assertEquals(1, table.getCount());
+        assertEquals(-1, table.find(Constellation.GPS, 7, GnssBand.L5));
+        int i = table.find(Constellation.GPS, 9, GnssBand.L1);
+        assertEquals(-120.5, table.getPseudorangeRateMps(i), 0.0);
+        assertEquals(10.0, table.getAccumulatedDeltaRangeMeters(i), 0.0);
+    }
+
+    @Test
+    public void workerThreadConsumesInBackground() throws InterruptedException {
+        MeasurementPipeline pipeline = new MeasurementPipeline(256);
+        pipeline.start();
+        try {
+            // Um evento por vez, como os callbacks espaçados de 1 a 10 Hz
+            for (long t = 1; t <= 10; t++) {
+                for (int svid = 1; svid <= 20; svid++) {
+                    offer(pipeline, t, svid, GnssBand.L1, 30f);
+                    offer(pipeline, t, svid, GnssBand.L5, 25f);
+                }
+                pipeline.endEvent();
+                long deadline = System.currentTimeMillis() + 5000;
+                while (pipeline.getProcessedCount() < t * 40 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                }
+            }
+        } finally {
+            pipeline.stop();
+        }
+        assertEquals(0, pipeline.getDroppedCount());
+        assertEquals(400, pipeline.getProcessedCount());
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(4);
+        assertEquals(2, pipeline.addSignals(snapshot, 20, Constellation.GPS, 0f, 0f, false));
+    }
+}
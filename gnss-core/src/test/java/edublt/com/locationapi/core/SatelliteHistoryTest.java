@@ -0,0 +1,85 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SatelliteHistoryTest {
+    private static SatelliteSnapshot status(long timestamp, int firstSvid, int count) {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(count);
+        snapshot.setTimestampMillis(timestamp);
+        for (int i = 0; i < count; i++) {
+            int svid = firstSvid + i;
+            snapshot.add(svid, Constellation.GPS, timestamp / 1000f, 45f, svid, false, GnssBand.L1);
+        }
+        return snapshot;
+    }
+
+    @Test
+    public void keepsOnlyTheWindowInOrder() {
+        // Janela de 10 s, uma amostra por segundo
+        SatelliteHistory history = new SatelliteHistory(4, 10, 10_000);
+        for (long t = 0; t <= 30_000; t += 500) {
+            history.record(status(t, 1, 1));
+        }
+        int track = history.findTrack(Constellation.GPS, 1, GnssBand.L1);
+        assertNotEquals(SatelliteHistory.NO_TRACK, track);
+        // Amostras de 1 s em 1 s; o anel de 10 guarda de 21 s a 30 s (a de 20 s foi sobrescrita)
+        assertEquals(10, history.getSampleCount(track));
+        for (int j = 0; j < 10; j++) {
+            long expected = 21_000 + 1000L * j;
+            assertEquals(expected, history.getTimeMillis(track, j));
+            assertEquals(expected / 1000f, history.getAzimuthDegrees(track, j), 0f);
+        }
+    }
+
+    @Test
+    public void separatesBandsOfTheSameSatellite() {
+        SatelliteHistory history = new SatelliteHistory(4, 10, 10_000);
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(2);
+        snapshot.setTimestampMillis(1000);
+        snapshot.add(7, Constellation.GALILEO, 10f, 20f, 30f, true, GnssBand.L1);
+        snapshot.add(7, Constellation.GALILEO, 10f, 20f, 40f, true, GnssBand.L5);
+        history.record(snapshot);
+        assertEquals(2, history.getTrackCount());
+        assertEquals(30f, history.getCn0DbHz(history.findTrack(snapshot, 0), 0), 0f);
+        assertEquals(40f, history.getCn0DbHz(history.findTrack(snapshot, 1), 0), 0f);
+    }
+
+    @Test
+    public void freesExpiredTracksAndEvictsTheOldestWhenFull() {
+        SatelliteHistory history = new SatelliteHistory(3, 10, 10_000);
+        history.record(status(0, 1, 3));
+        history.record(status(1000, 1, 2));
+        // Sem trilhas livres: a do svid 3 (última amostra mais antiga) é reaproveitada
+        history.record(status(2000, 4, 1));
+        assertEquals(SatelliteHistory.NO_TRACK, history.findTrack(Constellation.GPS, 3, GnssBand.L1));
+        assertNotEquals(SatelliteHistory.NO_TRACK, history.findTrack(Constellation.GPS, 4, GnssBand.L1));
+
+        // Depois da janela, só sobra o que foi visto recentemente
+        history.record(status(20_000, 4, 1));
+        assertEquals(1, history.getTrackCount());
+        assertEquals(1, history.getSampleCount(history.findTrack(Constellation.GPS, 4, GnssBand.L1)));
+    }
+
+    @Test
+    public void restartsWhenTimeGoesBackwards() {
+        SatelliteHistory history = new SatelliteHistory(4, 10, 10_000);
+        history.record(status(5000, 1, 2));
+        long version = history.getVersion();
+        history.record(status(1000, 1, 1));
+        assertTrue(history.getVersion() > version);
+        assertEquals(1, history.getTrackCount());
+    }
+
+    @Test
+    public void classifiesCarrierFrequencies() {
+        assertEquals(GnssBand.L1, GnssBand.fromCarrierFrequencyHz(1575.42e6f));
+        assertEquals(GnssBand.L1, GnssBand.fromCarrierFrequencyHz(1602.5625e6f));
+        assertEquals(GnssBand.L5, GnssBand.fromCarrierFrequencyHz(1176.45e6f));
+        assertEquals(GnssBand.L5, GnssBand.fromCarrierFrequencyHz(1207.14e6f));
+        assertEquals(GnssBand.L2, GnssBand.fromCarrierFrequencyHz(1227.6e6f));
+        assertEquals(GnssBand.E6, GnssBand.fromCarrierFrequencyHz(1278.75e6f));
+        assertEquals(GnssBand.UNKNOWN, GnssBand.fromCarrierFrequencyHz(0f));
+    }
+}
@@ -0,0 +1,85 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SatelliteSnapshotStoreTest {
+    @Test
+    public void acquire_returnsLatestAndCountsCoalesced() {
+        SatelliteSnapshotStore store = new SatelliteSnapshotStore(4);
+        store.edit().add(5, Constellation.GPS, 10f, 20f, 30f, true);
+        store.publish();
+        store.edit().add(6, Constellation.GPS, 10f, 20f, 30f, true);
+        store.publish();
+
+        SatelliteSnapshot acquired = store.acquire();
+        assertEquals(2, acquired.getSequence());
+        assertEquals(6, acquired.getSvid(0));
+        assertEquals(1, store.getCoalescedCount());
+
+        // Sem publicação nova o consumidor continua com o mesmo retrato
+        assertSame(acquired, store.acquire());
+
+        store.edit().add(7, Constellation.GPS, 10f, 20f, 30f, true);
+        store.publish();
+        assertEquals(7, store.acquire().getSvid(0));
+        assertEquals(1, store.getCoalescedCount());
+        assertEquals(3, store.getPublishedCount());
+    }
+
+    @Test
+    public void publish_reusesThreeBuffers() {
+        SatelliteSnapshotStore store = new SatelliteSnapshotStore(4);
+        Set<SatelliteSnapshot> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < 50; i++) {
+            seen.add(store.edit());
+            store.publish();
+            if (i % 3 == 0) {
+                seen.add(store.acquire());
+            }
+        }
+        assertEquals(3, seen.size());
+    }
+
+    @Test
+    public void edit_keepsLastLocation() {
+        SatelliteSnapshotStore store = new SatelliteSnapshotStore(4);
+        store.editCopy().setLocation(-15.8, -47.9, 1100.0);
+        store.publish();
+        SatelliteSnapshot status = store.edit();
+        status.add(3, Constellation.GALILEO, 1f, 2f, 3f, false);
+        store.publish();
+
+        SatelliteSnapshot acquired = store.acquire();
+        assertEquals(1, acquired.getCount());
+        assertTrue(acquired.hasLocation());
+        assertEquals(-15.8, acquired.getLatitude(), 0.0);
+        assertEquals(1, acquired.getLocationSequence());
+    }
+
+    @Test
+    public void usedInFix_bitsetCrossesWordBoundary() {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(1);
+        for (int i = 0; i < 130; i++) {
+            snapshot.add(i, Constellation.GALILEO, 0f, 0f, 0f, i % 3 == 0);
+        }
+        for (int i = 0; i < 130; i++) {
+            assertEquals(i % 3 == 0, snapshot.isUsedInFix(i));
+        }
+        snapshot.clear();
+        snapshot.add(1, Constellation.GPS, 0f, 0f, 0f, false);
+        assertFalse(snapshot.isUsedInFix(0));
+    }
+
+    @Test
+    public void constellationNames_coverAllTypes() {
+        assertEquals("BeiDou", Constellation.name(Constellation.BEIDOU));
+        assertEquals("Other", Constellation.name(42));
+        assertEquals(Constellation.UNKNOWN, Constellation.fromType(-3));
+    }
+}
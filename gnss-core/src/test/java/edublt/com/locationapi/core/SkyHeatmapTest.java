@@ -0,0 +1,100 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SkyHeatmapTest {
+    @Test
+    public void accumulatesCountMeanAndMinPerCell() {
+        SkyHeatmap heatmap = new SkyHeatmap();
+        assertTrue(heatmap.add(12f, 47f, 30f));
+        assertTrue(heatmap.add(19.9f, 41f, 40f));
+        assertTrue(heatmap.add(15f, 49.9f, 20f));
+        assertFalse(heatmap.add(15f, 45f, 0f)); // Sem sinal
+        assertFalse(heatmap.add(15f, -3f, 30f)); // Abaixo do horizonte
+
+        int cell = 4 * SkyHeatmap.AZIMUTH_BINS + 1; // 40-50° de elevação, 10-20° de azimute
+        assertEquals(4, SkyHeatmap.elevationBin(cell));
+        assertEquals(1, SkyHeatmap.azimuthBin(cell));
+        assertEquals(3, heatmap.getCount(cell));
+        assertEquals(30f, heatmap.getMean(cell), 1e-5f);
+        assertEquals(20f, heatmap.getMin(cell), 0f);
+        assertEquals(3, heatmap.getSampleCount());
+        // 90° e 360° caem na última faixa e na primeira, respectivamente
+        heatmap.add(360f, 90f, 25f);
+        assertEquals(1, heatmap.getCount((SkyHeatmap.ELEVATION_BINS - 1) * SkyHeatmap.AZIMUTH_BINS));
+    }
+
+    @Test
+    public void tracksOnlyTheCellsThatChanged() {
+        SkyHeatmap heatmap = new SkyHeatmap();
+        assertEquals(-1, heatmap.nextDirty(0));
+        heatmap.add(5f, 5f, 30f); // Célula 0
+        heatmap.add(355f, 85f, 30f); // Última célula
+        heatmap.add(125f, 35f, 30f);
+        int middle = 3 * SkyHeatmap.AZIMUTH_BINS + 12;
+        assertEquals(0, heatmap.nextDirty(0));
+        assertEquals(middle, heatmap.nextDirty(1));
+        assertEquals(SkyHeatmap.CELLS - 1, heatmap.nextDirty(middle + 1));
+        assertEquals(-1, heatmap.nextDirty(SkyHeatmap.CELLS));
+
+        heatmap.clearDirty();
+        assertEquals(-1, heatmap.nextDirty(0));
+        heatmap.markAllDirty();
+        int dirty = 0;
+        for (int cell = heatmap.nextDirty(0); cell >= 0; cell = heatmap.nextDirty(cell + 1)) {
+            dirty++;
+        }
+        assertEquals(SkyHeatmap.CELLS, dirty);
+    }
+
+    @Test
+    public void mergingMatchesAccumulatingEverything() throws IOException {
+        Random random = new Random(8);
+        SkyHeatmap all = new SkyHeatmap();
+        SkyHeatmap first = new SkyHeatmap();
+        SkyHeatmap second = new SkyHeatmap();
+        for (int i = 0; i < 20_000; i++) {
+            float az = random.nextFloat() * 360f;
+            float el = random.nextFloat() * 90f;
+            float cn0 = 10f + random.nextFloat() * 40f;
+            all.add(az, el, cn0);
+            (i % 3 == 0 ? first : second).add(az, el, cn0);
+        }
+        // A segunda sessão passa por um arquivo, como entre execuções do app
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        second.write(file);
+        first.mergeFrom(new ByteArrayInputStream(file.toByteArray()));
+
+        assertEquals(all.getSampleCount(), first.getSampleCount());
+        for (int cell = 0; cell < SkyHeatmap.CELLS; cell++) {
+            assertEquals(all.getCount(cell), first.getCount(cell));
+            assertEquals(all.getMean(cell), first.getMean(cell), 1e-3f);
+            assertEquals(all.getMin(cell), first.getMin(cell), 0f);
+        }
+    }
+
+    @Test
+    public void rejectsForeignFilesAndExportsCsv() throws IOException {
+        try {
+            new SkyHeatmap().mergeFrom(new ByteArrayInputStream(new byte[16]));
+            fail();
+        } catch (IOException expected) {
+        }
+
+        SkyHeatmap heatmap = new SkyHeatmap();
+        heatmap.add(15f, 45f, 30f);
+        heatmap.add(15f, 45f, 35f);
+        StringWriter csv = new StringWriter();
+        heatmap.exportCsv(csv);
+        assertEquals("elevation_min,elevation_max,azimuth_min,azimuth_max,count,mean_cn0,min_cn0\n"
+                + "40,50,10,20,2,32.5,30.0\n", csv.toString());
+    }
+}
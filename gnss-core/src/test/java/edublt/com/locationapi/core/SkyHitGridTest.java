@@ -0,0 +1,71 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SkyHitGridTest {
+    @Test
+    public void picksNearestWithinDistance() {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(4);
+        snapshot.add(1, Constellation.GPS, 0, 90, 40, true); // Zênite
+        snapshot.add(2, Constellation.GPS, 90, 0, 30, false); // Horizonte a leste
+        snapshot.add(3, Constellation.GPS, 90, 10, 30, false);
+        SkyHitGrid grid = new SkyHitGrid(16);
+        grid.rebuild(snapshot, new int[]{0, 1, 2}, 3);
+
+        assertEquals(0, grid.nearest(0.02f, -0.03f, 0.1f));
+        assertEquals(1, grid.nearest(1.05f, 0, 0.1f));
+        assertEquals(2, grid.nearest(snapshot.getSkyX(2) - 0.01f, 0, 0.1f));
+        assertEquals(SkyHitGrid.NONE, grid.nearest(-0.5f, 0.5f, 0.1f));
+    }
+
+    @Test
+    public void ignoresSatellitesOutsideTheIndices() {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(2);
+        snapshot.add(1, Constellation.GPS, 0, 90, 40, true);
+        snapshot.add(2, Constellation.GLONASS, 0, 88, 40, true);
+        SkyHitGrid grid = new SkyHitGrid(16);
+        grid.rebuild(snapshot, new int[]{1}, 1);
+        assertEquals(1, grid.nearest(0, 0, 0.2f));
+        grid.rebuild(snapshot, new int[0], 0);
+        assertEquals(SkyHitGrid.NONE, grid.nearest(0, 0, 0.2f));
+    }
+
+    @Test
+    public void matchesBruteForce() {
+        Random random = new Random(7);
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(150);
+        int[] indices = new int[150];
+        for (int i = 0; i < 150; i++) {
+            snapshot.add(i + 1, Constellation.GPS, random.nextFloat() * 360, random.nextFloat() * 90, 30, false);
+            indices[i] = i;
+        }
+        SkyHitGrid grid = new SkyHitGrid(16);
+        grid.rebuild(snapshot, indices, indices.length);
+        float maxDistance = 0.15f;
+        for (int q = 0; q < 1000; q++) {
+            float x = random.nextFloat() * 2.2f - 1.1f;
+            float y = random.nextFloat() * 2.2f - 1.1f;
+            int expected = SkyHitGrid.NONE;
+            float best = maxDistance * maxDistance;
+            for (int i = 0; i < 150; i++) {
+                float dx = snapshot.getSkyX(i) - x;
+                float dy = snapshot.getSkyY(i) - y;
+                if (dx * dx + dy * dy <= best) {
+                    best = dx * dx + dy * dy;
+                    expected = i;
+                }
+            }
+            int found = grid.nearest(x, y, maxDistance);
+            if (found != expected) {
+                // Empates exatos podem ser resolvidos por outro satélite à mesma distância
+                float dx = snapshot.getSkyX(found) - x;
+                float dy = snapshot.getSkyY(found) - y;
+                assertEquals(best, dx * dx + dy * dy, 0f);
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+// O mesmo almanaque GPS em YUMA (almanac/gps.alm) e SEM (almanac/gps.al3), com a semana
+// truncada em 242 (= 2290 depois de dois rollovers); o PRN 4 está marcado sem saúde.
+// A referência para as posições é a formulação direta do IS-GPS-200 (anomalia verdadeira
+// por atan2, Kepler iterado até convergir), independente das otimizações do SkyPredictor.
+public class SkyPredictorTest {
+    private static final int REFERENCE_WEEK = 2290;
+    private static final double TOA = REFERENCE_WEEK * AlmanacParser.SECONDS_PER_WEEK + 405_504;
+
+    private static Almanac load(String name, boolean yuma) throws IOException {
+        Almanac almanac = new Almanac(4);
+        try (Reader reader = new InputStreamReader(SkyPredictorTest.class.getResourceAsStream("/almanac/" + name),
+                StandardCharsets.US_ASCII)) {
+            if (yuma) {
+                AlmanacParser.parseYuma(reader, Constellation.GPS, REFERENCE_WEEK, almanac);
+            } else {
+                AlmanacParser.parseSem(reader, Constellation.GPS, REFERENCE_WEEK, almanac);
+            }
+        }
+        return almanac;
+    }
+
+    private static long unixMillis(double gpsSeconds) {
+        return Math.round((gpsSeconds - SkyPredictor.LEAP_SECONDS) * 1000) + SkyPredictor.GPS_EPOCH_UNIX_MILLIS;
+    }
+
+    // IS-GPS-200, tabela 20-IV, sem termos de perturbação (o almanaque não os tem)
+    private static double[] referencePosition(Almanac almanac, int i, double t) {
+        double a = almanac.getSqrtA(i) * almanac.getSqrtA(i);
+        double e = almanac.getEccentricity(i);
+        double tk = t - almanac.getToaGpsSeconds(i);
+        double m = almanac.getMeanAnomaly(i) + Math.sqrt(SkyPredictor.MU / (a * a * a)) * tk;
+        double ecc = m;
+        for (int it = 0; it < 50; it++) {
+            double next = m + e * Math.sin(ecc);
+            if (Math.abs(next - ecc) < 1e-15) {
+                break;
+            }
+            ecc = next;
+        }
+        double v = Math.atan2(Math.sqrt(1 - e * e) * Math.sin(ecc), Math.cos(ecc) - e);
+        double phi = v + almanac.getArgumentOfPerigee(i);
+        double r = a * (1 - e * Math.cos(ecc));
+        double toaOfWeek = almanac.getToaGpsSeconds(i) % AlmanacParser.SECONDS_PER_WEEK;
+        double omega = almanac.getRightAscension(i)
+                + (almanac.getRateOfRightAscension(i) - SkyPredictor.EARTH_ROTATION) * tk
+                - SkyPredictor.EARTH_ROTATION * toaOfWeek;
+        double xp = r * Math.cos(phi), yp = r * Math.sin(phi);
+        double inc = almanac.getInclination(i);
+        return new double[]{
+                xp * Math.cos(omega) - yp * Math.cos(inc) * Math.sin(omega),
+                xp * Math.sin(omega) + yp * Math.cos(inc) * Math.cos(omega),
+                yp * Math.sin(inc)
+        };
+    }
+
+    @Test
+    public void yumaAndSemDescribeTheSameOrbits() throws IOException {
+        Almanac yuma = load("gps.alm", true);
+        Almanac sem = load("gps.al3", false);
+        assertEquals(4, yuma.getCount());
+        assertEquals(4, sem.getCount());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(yuma.getSvid(i), sem.getSvid(i));
+            assertEquals(yuma.getHealth(i), sem.getHealth(i));
+            assertEquals(TOA, yuma.getToaGpsSeconds(i), 0);
+            assertEquals(TOA, sem.getToaGpsSeconds(i), 0);
+            assertEquals(yuma.getEccentricity(i), sem.getEccentricity(i), 1e-12);
+            assertEquals(yuma.getInclination(i), sem.getInclination(i), 1e-10);
+            assertEquals(yuma.getRateOfRightAscension(i), sem.getRateOfRightAscension(i), 1e-18);
+            assertEquals(yuma.getSqrtA(i), sem.getSqrtA(i), 1e-6);
+            assertEquals(yuma.getRightAscension(i), sem.getRightAscension(i), 1e-10);
+            assertEquals(yuma.getArgumentOfPerigee(i), sem.getArgumentOfPerigee(i), 1e-9);
+            assertEquals(yuma.getMeanAnomaly(i), sem.getMeanAnomaly(i), 1e-10);
+        }
+        assertEquals(63, yuma.getHealth(3));
+    }
+
+    @Test
+    public void resolvesTruncatedWeeks() {
+        assertEquals(2290, AlmanacParser.resolveWeek(242, 2290));
+        assertEquals(2290, AlmanacParser.resolveWeek(242, 2295));
+        assertEquals(2047, AlmanacParser.resolveWeek(1023, 2049));
+        assertEquals(2300, AlmanacParser.resolveWeek(2300, 100));
+    }
+
+    @Test
+    public void rejectsMalformedAlmanacs() {
+        try {
+            AlmanacParser.parseYuma(new StringReader("ID: 01\nEccentricity: abc\nweek: 1\n"), Constellation.GPS,
+                    REFERENCE_WEEK, new Almanac(1));
+            fail();
+        } catch (IOException expected) {
+        }
+        try {
+            AlmanacParser.parseSem(new StringReader("2 X\n242 405504\n1 61 0 0.01 0.01\n"), Constellation.GPS,
+                    REFERENCE_WEEK, new Almanac(1));
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void positionsMatchTheReferenceAlgorithm() throws IOException {
+        Almanac almanac = load("gps.alm", true);
+        SkyPredictor predictor = new SkyPredictor(60, 60_000);
+        predictor.setAlmanac(almanac);
+        assertEquals(3, predictor.getSatelliteCount()); // Sem o PRN 4
+        double[] position = new double[3];
+        for (int k = 0; k < 3; k++) {
+            int i = almanac.indexOf(Constellation.GPS, predictor.getSvid(k));
+            // Até dois dias antes e depois do toa
+            for (double dt = -172_800; dt <= 172_800; dt += 3_600) {
+                predictor.satellitePosition(k, TOA + dt, position);
+                double[] expected = referencePosition(almanac, i, TOA + dt);
+                for (int c = 0; c < 3; c++) {
+                    assertEquals(expected[c], position[c], 1e-3);
+                }
+                double r = Math.sqrt(position[0] * position[0] + position[1] * position[1] + position[2] * position[2]);
+                double a = almanac.getSqrtA(i) * almanac.getSqrtA(i);
+                double e = almanac.getEccentricity(i);
+                assertTrue(r >= a * (1 - e) - 1 && r <= a * (1 + e) + 1);
+            }
+        }
+    }
+
+    @Test
+    public void satelliteIsOverheadAtItsSubpoint() throws IOException {
+        Almanac almanac = load("gps.alm", true);
+        SkyPredictor predictor = new SkyPredictor(1, 60_000);
+        predictor.setAlmanac(almanac);
+        long time = unixMillis(TOA);
+        double[] p = new double[3];
+        predictor.satellitePosition(0, SkyPredictor.gpsSeconds(time), p);
+        // Subponto geocêntrico; a diferença para o geodésico (< 0,2°) mal muda a elevação
+        double lat = Math.toDegrees(Math.atan2(p[2], Math.hypot(p[0], p[1])));
+        double lon = Math.toDegrees(Math.atan2(p[1], p[0]));
+        predictor.setObserver(lat, lon, 0);
+        predictor.update(time);
+        assertTrue(predictor.getElevationDegrees(0, 0) > 89);
+
+        predictor.setObserver(-lat, lon + 180, 0); // Antípoda
+        predictor.update(time);
+        assertTrue(predictor.getElevationDegrees(0, 0) < -60);
+    }
+
+    @Test
+    public void windowAdvancesIncrementally() throws IOException {
+        Almanac almanac = load("gps.alm", true);
+        SkyPredictor predictor = new SkyPredictor(60, 60_000);
+        predictor.setAlmanac(almanac);
+        predictor.setObserver(-15.79, -47.88, 1100);
+        long start = unixMillis(TOA);
+        assertEquals(60, predictor.update(start));
+        assertEquals(0, predictor.update(start + 30_000)); // Mesma época
+        long version = predictor.getVersion();
+        assertEquals(5, predictor.update(start + 5 * 60_000));
+        assertEquals(version + 1, predictor.getVersion());
+        // Um pequeno deslocamento do observador não invalida a janela
+        predictor.setObserver(-15.7901, -47.8801, 1100);
+        assertEquals(0, predictor.update(start + 5 * 60_000));
+
+        SkyPredictor fresh = new SkyPredictor(60, 60_000);
+        fresh.setAlmanac(almanac);
+        fresh.setObserver(-15.79, -47.88, 1100);
+        fresh.update(start + 5 * 60_000);
+        for (int k = 0; k < 3; k++) {
+            for (int j = 0; j < 60; j++) {
+                assertEquals(fresh.getElevationDegrees(k, j), predictor.getElevationDegrees(k, j), 0f);
+                assertEquals(fresh.getAzimuthDegrees(k, j), predictor.getAzimuthDegrees(k, j), 0f);
+            }
+        }
+
+        SkyPredictor copy = new SkyPredictor(60, 60_000);
+        copy.copyFrom(predictor);
+        assertEquals(predictor.getFirstEpochMillis(), copy.getFirstEpochMillis());
+        assertEquals(predictor.getElevationDegrees(2, 17), copy.getElevationDegrees(2, 17), 0f);
+        assertEquals(1, copy.update(start + 6 * 60_000));
+    }
+
+    @Test
+    public void findsRisesAndSetsInsideTheWindow() throws IOException {
+        Almanac almanac = load("gps.alm", true);
+        // Doze horas em passos de 5 min: cada satélite GPS nasce e se põe ao menos uma vez
+        SkyPredictor predictor = new SkyPredictor(144, 300_000);
+        predictor.setAlmanac(almanac);
+        predictor.setObserver(-15.79, -47.88, 1100);
+        predictor.update(unixMillis(TOA));
+        int crossings = 0;
+        for (int k = 0; k < predictor.getSatelliteCount(); k++) {
+            long rise = predictor.findCrossingMillis(k, 0, true);
+            long set = predictor.findCrossingMillis(k, 0, false);
+            for (long crossing : new long[]{rise, set}) {
+                if (crossing < 0) {
+                    continue;
+                }
+                crossings++;
+                int j = (int) ((crossing - predictor.getFirstEpochMillis()) / predictor.getStepMillis());
+                float before = predictor.getElevationDegrees(k, j);
+                float after = predictor.getElevationDegrees(k, j + 1);
+                assertTrue(crossing == rise ? before < 0 && after >= 0 : before >= 0 && after < 0);
+            }
+        }
+        assertTrue(crossings >= 3);
+    }
+}
@@ -0,0 +1,42 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SkyProjectionTest {
+    // Meio passo de 0,1° gera no máximo ~0,00088 de erro no seno
+    private static final float TOLERANCE = 1e-3f;
+
+    @Test
+    public void matchesMathProjectionOverWholeSky() {
+        for (float az = -180f; az <= 540f; az += 0.37f) {
+            for (float el = -10f; el <= 90f; el += 0.53f) {
+                double cosEl = Math.cos(Math.toRadians(el));
+                float expectedX = (float) (cosEl * Math.sin(Math.toRadians(az)));
+                float expectedY = (float) (cosEl * Math.cos(Math.toRadians(az)));
+                assertEquals(expectedX, SkyProjection.unitX(az, el), TOLERANCE);
+                assertEquals(expectedY, SkyProjection.unitY(az, el), TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void toSteps_wrapsAndRoundsToTenthOfDegree() {
+        assertEquals(0, SkyProjection.toSteps(360f));
+        assertEquals(3599, SkyProjection.toSteps(-0.1f));
+        assertEquals(1234, SkyProjection.toSteps(123.36f));
+        assertEquals(900, SkyProjection.toSteps(449.96f - 360f));
+    }
+
+    @Test
+    public void snapshotStoresUnitCoordinates() {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(1);
+        snapshot.add(1, Constellation.GPS, 90f, 0f, 40f, false);
+        snapshot.add(2, Constellation.GPS, 0f, 90f, 40f, false);
+        assertEquals(1f, snapshot.getSkyX(0), TOLERANCE);
+        assertEquals(0f, snapshot.getSkyY(0), TOLERANCE);
+        assertEquals(0f, snapshot.getSkyX(1), TOLERANCE);
+        assertEquals(0f, snapshot.getSkyY(1), TOLERANCE);
+    }
+}
@@ -0,0 +1,40 @@
+package edublt.com.locationapi.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class SnapshotCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void restoresFromDiskInANewProcess() throws Exception {
+        SatelliteSnapshot snapshot = new SatelliteSnapshot(2);
+        snapshot.setTimestampMillis(1234);
+        snapshot.add(5, Constellation.GPS, 100f, 30f, 41f, true, GnssBand.L5);
+        snapshot.add(9, Constellation.GLONASS, 200f, 60f, 25f, false);
+        snapshot.setLocation(-15.8, -47.9, 1100.0);
+        new SnapshotCache(folder.getRoot()).save(snapshot);
+
+        // Outra instância (sem a cópia em memória) lê do disco
+        SatelliteSnapshot restored = new SatelliteSnapshot(1);
+        assertTrue(new SnapshotCache(folder.getRoot()).load(restored));
+        assertEquals(2, restored.getCount());
+        assertEquals(1234, restored.getTimestampMillis());
+        assertEquals(GnssBand.L5, restored.getBand(0));
+        assertEquals(25f, restored.getCn0DbHz(1), 0f);
+        assertTrue(restored.isUsedInFix(0));
+        assertTrue(restored.hasLocation());
+        assertEquals(-47.9, restored.getLongitude(), 0.0);
+        // Só o arquivo final fica no diretório (o temporário foi renomeado)
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void reportsMissingCache() throws Exception {
+        assertFalse(new SnapshotCache(folder.getRoot()).load(new SatelliteSnapshot(1)));
+    }
+}
@@ -15,3 +15,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "LocationAPI"
 include(":app")
+include(":gnss-core")
+include(":gnss-bench")